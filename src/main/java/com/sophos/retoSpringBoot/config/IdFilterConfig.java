@@ -0,0 +1,45 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <h1>IdFilterConfig</h1>
+ * Configura los filtros de ids existentes de clientes, cuentas y movimientos. Cada filtro
+ * se dimensiona para la capacidad configurada o para el doble de las filas que ya tiene la
+ * tabla, lo que sea mayor, de modo que aguante el crecimiento sin superar la tasa de falsos
+ * positivos configurada. Los ids se cargan en IdFilterLoader.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Configuration
+public class IdFilterConfig {
+
+ @Bean
+ IdFilter clientIdFilter(ClientRepository clientRepository,
+                         @Value("${filtro.ids.clientes.capacidad:100000}") long capacidad,
+                         @Value("${filtro.ids.tasa:0.01}") double tasa) {
+  return new IdFilter("clientes", Math.max(capacidad, 2 * clientRepository.count()), tasa);
+ }
+
+ @Bean
+ IdFilter accountIdFilter(AccountRepository accountRepository,
+                          @Value("${filtro.ids.cuentas.capacidad:200000}") long capacidad,
+                          @Value("${filtro.ids.tasa:0.01}") double tasa) {
+  return new IdFilter("cuentas", Math.max(capacidad, 2 * accountRepository.count()), tasa);
+ }
+
+ @Bean
+ IdFilter movementIdFilter(MovementRepository movementRepository,
+                           @Value("${filtro.ids.movimientos.capacidad:2000000}") long capacidad,
+                           @Value("${filtro.ids.tasa:0.01}") double tasa) {
+  return new IdFilter("movimientos", Math.max(capacidad, 2 * movementRepository.count()), tasa);
+ }
+}
@@ -0,0 +1,122 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import com.sophos.retoSpringBoot.util.IdFilterListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>IdFilterLoader</h1>
+ * Al iniciar la aplicacion, registra en Hibernate el listener que mantiene los filtros de
+ * ids y despues carga en cada filtro los ids de su tabla, en paginas por llave primaria.
+ * El listener se registra antes de leer para que ningun insert quede fuera del filtro;
+ * solo al terminar la carga el filtro empieza a rechazar ids.
+ *
+ * Los filtros solo ven las escrituras de esta instancia. Si varias instancias comparten la
+ * base de datos, una no veria los ids creados por las otras y los rechazaria, por eso en
+ * ese caso, que es el de la asignacion de ids por bloques entre varias instancias, los
+ * filtros vienen desactivados (filtro.ids.habilitado=false): siguen existiendo, pero nunca se
+ * completan y no rechazan ninguna lectura. Solo se deben activar con una sola instancia.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Component
+public class IdFilterLoader implements InitializingBean {
+
+    /**
+     * cantidad de ids que se leen en cada consulta.
+     */
+    static final int TAMANO_PAGINA = 10000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final IdFilter clientIdFilter;
+
+    private final IdFilter accountIdFilter;
+
+    private final IdFilter movementIdFilter;
+
+    private final boolean habilitado;
+
+    /**
+     * Constructor IdFilterLoader
+     * @param entityManagerFactory fabrica donde se registra el listener.
+     * @param clientIdFilter filtro de ids de clientes.
+     * @param accountIdFilter filtro de ids de cuentas.
+     * @param movementIdFilter filtro de ids de movimientos.
+     * @param habilitado true para que los filtros rechacen lecturas; por defecto false.
+     */
+    public IdFilterLoader(EntityManagerFactory entityManagerFactory,
+                          @Qualifier("clientIdFilter") IdFilter clientIdFilter,
+                          @Qualifier("accountIdFilter") IdFilter accountIdFilter,
+                          @Qualifier("movementIdFilter") IdFilter movementIdFilter,
+                          @Value("${filtro.ids.habilitado:false}") boolean habilitado) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.clientIdFilter = clientIdFilter;
+        this.accountIdFilter = accountIdFilter;
+        this.movementIdFilter = movementIdFilter;
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!habilitado) {
+            return;
+        }
+        IdFilterListener listener = new IdFilterListener(Map.of(
+                Cliente.class, clientIdFilter,
+                Cuenta.class, accountIdFilter,
+                Movimiento.class, movementIdFilter));
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_INSERT, listener);
+        registro.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+
+        load(clientIdFilter, "select c.clienteId from Cliente c where c.clienteId > :ultimo order by c.clienteId");
+        load(accountIdFilter, "select c.cuentaId from Cuenta c where c.cuentaId > :ultimo order by c.cuentaId");
+        load(movementIdFilter, "select m.movimientoId from Movimiento m where m.movimientoId > :ultimo order by m.movimientoId");
+    }
+
+    /**
+     * <h2>Metodo para cargar los ids de una tabla en su filtro</h2>
+     * @param filtro filtro que se completa al terminar.
+     * @param consulta consulta JPQL de los ids mayores a :ultimo, en orden ascendente.
+     */
+    void load(IdFilter filtro, String consulta) {
+
+        long ultimo = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            ids = entityManager.createQuery(consulta, Long.class)
+                    .setParameter("ultimo", ultimo)
+                    .setMaxResults(TAMANO_PAGINA)
+                    .getResultList();
+            for (Long id : ids) {
+                filtro.add(id);
+            }
+            if (!ids.isEmpty()) {
+                ultimo = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == TAMANO_PAGINA);
+        filtro.marcarCompleto();
+    }
+}
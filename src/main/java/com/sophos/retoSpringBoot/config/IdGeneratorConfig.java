@@ -0,0 +1,37 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.util.IdBlockAllocator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <h1>IdGeneratorConfig</h1>
+ * Configura el asignador de ids por bloques y lo entrega a Hibernate para que BlockIdGenerator
+ * lo use. El asignador tiene un pool propio y pequeno, separado del pool de la aplicacion.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean(destroyMethod = "close")
+    IdBlockAllocator idBlockAllocator(DataSourceProperties dataSourceProperties,
+                                      @Value("${ids.bloque.tamano:50}") int tamanoBloque) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("ids");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setMinimumIdle(1);
+        return new IdBlockAllocator(dataSource, tamanoBloque);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer idBlockAllocatorCustomizer(IdBlockAllocator idBlockAllocator) {
+        return propiedades -> propiedades.put(IdBlockAllocator.PROPIEDAD_HIBERNATE, idBlockAllocator);
+    }
+}
@@ -0,0 +1,75 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.util.IdBlockAllocator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * <h1>IdGeneratorSeeder</h1>
+ * Al iniciar la aplicacion, crea la tabla id_generadores si no existe y ajusta cada secuencia
+ * para que los ids que entregue sean mayores a los que ya existen. Las tablas creadas con
+ * IDENTITY ya tienen filas con ids asignados por el autoincremento, y sin este ajuste la
+ * secuencia empezaria desde 1. Puede correr en varios nodos a la vez: solo sube el valor
+ * guardado, nunca lo baja.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Component
+public class IdGeneratorSeeder implements InitializingBean {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor IdGeneratorSeeder
+     * @param jdbcTemplate acceso JDBC a la tabla de secuencias.
+     */
+    public IdGeneratorSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("create table if not exists " + IdBlockAllocator.TABLA
+                + " (entidad varchar(50) not null primary key, siguiente_id bigint not null)");
+        seed("clientes", "select max(c.clienteId) from Cliente c");
+        seed("cuentas", "select max(c.cuentaId) from Cuenta c");
+        seed("movimientos", "select max(m.movimientoId) from Movimiento m");
+        seed("importaciones", "select max(i.importacionId) from Importacion i");
+    }
+
+    /**
+     * <h2>Metodo para ajustar una secuencia</h2>
+     * Deja el siguiente id libre de la secuencia despues del id maximo de la entidad.
+     * @param entidad valor de la columna entidad de la secuencia.
+     * @param consultaMaximo consulta JPQL que obtiene el id maximo de la entidad.
+     */
+    void seed(String entidad, String consultaMaximo) {
+
+        Long maximo = entityManager.createQuery(consultaMaximo, Long.class).getSingleResult();
+        if (maximo == null) {
+            return;
+        }
+        long valor = maximo + 1;
+
+        int actualizadas = jdbcTemplate.update("update " + IdBlockAllocator.TABLA
+                + " set siguiente_id = ? where entidad = ? and siguiente_id < ?", valor, entidad, valor);
+        if (actualizadas == 0) {
+            try {
+                jdbcTemplate.update("insert into " + IdBlockAllocator.TABLA + " (entidad, siguiente_id) values (?, ?)",
+                        entidad, valor);
+            } catch (DuplicateKeyException e) {
+                // la fila ya existe con un valor suficiente, o la creo otro nodo al mismo tiempo.
+            }
+        }
+    }
+}
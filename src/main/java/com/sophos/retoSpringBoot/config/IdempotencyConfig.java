@@ -0,0 +1,31 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.dto.MovimientoIdempotente;
+import com.sophos.retoSpringBoot.util.IdempotencyCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * <h1>IdempotencyConfig</h1>
+ * Configura la tabla en memoria de respuestas por Idempotency-Key de los movimientos y
+ * habilita la tarea que borra de la base de datos las claves vencidas.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Configuration
+@EnableScheduling
+public class IdempotencyConfig {
+
+ @Bean
+ IdempotencyCache<MovimientoIdempotente> movementIdempotencyCache(@Value("${idempotencia.capacidad:10000}") int capacidad,
+                                                       @Value("${idempotencia.ttl:PT24H}") Duration ttl) {
+  return new IdempotencyCache<>(capacidad, ttl, Clock.systemUTC());
+ }
+}
@@ -0,0 +1,36 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.sophos.retoSpringBoot.util.IsoDateSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>JacksonConfig</h1>
+ * Modulos que Spring Boot registra en el ObjectMapper de la aplicacion, el mismo que usan
+ * los convertidores de Spring MVC y la exportacion de movimientos. Blackbird reemplaza los
+ * accesos por reflexion a las propiedades de las respuestas por lambdas generadas, y las
+ * fechas se escriben con {@link IsoDateSerializer}. El JSON que se produce es el mismo;
+ * la ganancia se mide en SerializacionBenchmarkTest.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Configuration
+public class JacksonConfig {
+
+ @Bean
+ Module blackbirdModule() {
+  return new BlackbirdModule();
+ }
+
+ @Bean
+ Module isoDateModule() {
+  return new SimpleModule("isoDate").addSerializer(LocalDate.class, new IsoDateSerializer());
+ }
+}
@@ -0,0 +1,25 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.util.ServiceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <h1>MetricsConfig</h1>
+ * Registra la medicion de los servicios. Las peticiones HTTP (http.server.requests), los
+ * repositorios (spring.data.repository.invocations), el pool de Hikari y las estadisticas
+ * de Hibernate los mide Spring Boot Actuator; todo se publica en /actuator/prometheus.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Configuration
+public class MetricsConfig {
+
+ @Bean
+ ServiceMetrics serviceMetrics(MeterRegistry registry) {
+  return new ServiceMetrics(registry);
+ }
+}
@@ -0,0 +1,61 @@
+package com.sophos.retoSpringBoot.config;
+
+import com.sophos.retoSpringBoot.util.SqlTraceFilter;
+import com.sophos.retoSpringBoot.util.SqlTraceListener;
+import com.sophos.retoSpringBoot.util.SqlTraceProxyFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * <h1>SqlTraceConfig</h1>
+ * Envuelve el DataSource con datasource-proxy para medir el SQL de cada peticion HTTP y
+ * escribir las sentencias lentas en el log sql.lenta. sql.traza.muestreo es la fraccion de
+ * peticiones que llevan encabezados y metricas de SQL; sql.lenta.umbral es la duracion a
+ * partir de la cual una sentencia se escribe en el log, se muestree o no la peticion. Las
+ * filas se cuentan envolviendo solo los ResultSet de las peticiones muestreadas.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Configuration
+public class SqlTraceConfig {
+
+ @Bean
+ SqlTraceListener sqlTraceListener(@Value("${sql.lenta.umbral:PT0.2S}") Duration umbral) {
+  return new SqlTraceListener(umbral);
+ }
+
+ @Bean
+ SqlTraceFilter sqlTraceFilter(@Value("${sql.traza.muestreo:1.0}") double muestreo, MeterRegistry registry) {
+  return new SqlTraceFilter(muestreo, registry);
+ }
+
+ @Bean
+ static BeanPostProcessor sqlTraceDataSourceProxy(ObjectProvider<SqlTraceListener> listener) {
+  return new BeanPostProcessor() {
+   @Override
+   public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+     SqlTraceProxyFactory proxyFactory = new SqlTraceProxyFactory();
+     return ProxyDataSourceBuilder.create(dataSource)
+       .name(beanName)
+       .listener(listener.getObject())
+       .jdbcProxyFactory(proxyFactory)
+       .proxyResultSet(proxyFactory)
+       .build();
+    }
+    return bean;
+   }
+  };
+ }
+}
@@ -1,13 +1,20 @@
 package com.sophos.retoSpringBoot.config;
 
+import java.lang.reflect.Field;
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @Configuration
@@ -19,6 +26,27 @@ public class SwaggerConfig {
   return new Docket(DocumentationType.SWAGGER_2).select().apis(RequestHandlerSelectors.withClassAnnotation(RestController.class)).paths(PathSelectors.any())
     .build();
  }
+
+ /**
+  * Springfox solo entiende los mapeos con AntPathMatcher; los endpoints de Actuator usan
+  * PathPatternParser y lo harian fallar al iniciar, asi que se dejan fuera de la documentacion.
+  */
+ @Bean
+ static BeanPostProcessor actuatorHandlerMappingsFilter() {
+  return new BeanPostProcessor() {
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof WebMvcRequestHandlerProvider) {
+     Field campo = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+     ReflectionUtils.makeAccessible(campo);
+     List<RequestMappingInfoHandlerMapping> mapeos = (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(campo, bean);
+     mapeos.removeIf(mapeo -> mapeo.getPatternParser() != null);
+    }
+    return bean;
+   }
+  };
+ }
 }
 
 // http://localhost:8080/swagger-ui/index.html
\ No newline at end of file
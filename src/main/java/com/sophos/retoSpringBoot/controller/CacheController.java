@@ -0,0 +1,53 @@
+package com.sophos.retoSpringBoot.controller;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasFiltro;
+import com.sophos.retoSpringBoot.dto.EstadisticasRegion;
+import com.sophos.retoSpringBoot.service.CacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <h1>Controlador Cache</h1>
+ *Es el encargado de exponer las estadisticas de la cache de segundo nivel y de los
+ *filtros de ids.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ *
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "http://localhost:3000/")
+
+public class CacheController {
+    /**
+     * inyeccion de la dependencia CacheService
+     */
+    @Autowired
+    CacheService cacheService;
+
+    /**
+     * <h2>Metodo para consultar las estadisticas de la cache de segundo nivel</h2>
+     * @return aciertos, fallos y escrituras de cada region.
+     */
+    @GetMapping("/regiones")
+    @ResponseBody
+    public ResponseEntity<List<EstadisticasRegion>> readRegionStatistics() {
+        return ResponseEntity.status(HttpStatus.OK).body(cacheService.readRegionStatistics());
+    }
+
+    /**
+     * <h2>Metodo para consultar las estadisticas de los filtros de ids</h2>
+     * @return ocupacion, memoria, tasa de falsos positivos estimada y observada de cada filtro.
+     */
+    @GetMapping("/filtros")
+    @ResponseBody
+    public ResponseEntity<List<EstadisticasFiltro>> readIdFilterStatistics() {
+        return ResponseEntity.status(HttpStatus.OK).body(cacheService.readIdFilterStatistics());
+    }
+}
@@ -1,5 +1,8 @@
 package com.sophos.retoSpringBoot.controller;
 
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.ResumenCliente;
 import com.sophos.retoSpringBoot.entity.Cliente;
 import com.sophos.retoSpringBoot.service.ClienteService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,22 +34,25 @@ public class ClienteController {
     @Autowired
     ClienteService clienteService;
 
-
     /**
      * <h2>Metodo para consultar un cliente especifico</h2>
      * @param clienteId el id del cliente que se quiere consultar
-     * @return cliente asociado al id pasado como parametro
+     * @param movimientos true para incluir los movimientos de cada cuenta; por defecto las
+     * cuentas se devuelven sin movimientos, que se consultan por paginas.
+     * @return cliente asociado al id pasado como parametro, con sus cuentas
      */
     @GetMapping("/{clienteId}")
     @ResponseBody
-    public ResponseEntity<Cliente> readClient(@PathVariable("clienteId") Long clienteId) {
-        Cliente response = null;
+    public ResponseEntity<ClienteRespuesta> readClient(@PathVariable("clienteId") Long clienteId,
+                                                       @RequestParam(value = "movimientos", defaultValue = "false") boolean movimientos) {
+        ClienteRespuesta response = null;
         HttpStatus status = null;               
              
-            response = clienteService.readClient(clienteId);  
+            Cliente cliente = movimientos ? clienteService.readClientWithMovements(clienteId) : clienteService.readClient(clienteId);  
             
-            if(response != null) {
+            if(cliente != null) {
             status = HttpStatus.OK;
+            response = movimientos ? ClienteRespuesta.conMovimientos(cliente) : ClienteRespuesta.conCuentas(cliente);
             return ResponseEntity.status(status).body(response);            
     
             }else {
@@ -56,16 +62,48 @@ public class ClienteController {
     }
 
     /**
-     * <h2>Metodo para leer todos los clientes</h2>
-     * @return lista de todos los clientes.
+     * <h2>Metodo para consultar el resumen de un cliente</h2>
+     * @param clienteId el id del cliente que se quiere consultar
+     * @return el cliente con sus cuentas y los totales de movimientos de cada cuenta
+     */
+    @GetMapping("/{clienteId}/resumen")
+    @ResponseBody
+    public ResponseEntity<ResumenCliente> readClientSummary(@PathVariable("clienteId") Long clienteId) {
+        ResumenCliente response = null;
+        HttpStatus status = null;
+
+            response = clienteService.readClientSummary(clienteId);
+
+            if(response != null) {
+            status = HttpStatus.OK;
+            return ResponseEntity.status(status).body(response);
+
+            }else {
+            	status = HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(response);
+            }
+    }
+
+    /**
+     * <h2>Metodo para leer los clientes por paginas</h2>
+     * @param tamano cantidad de clientes por pagina.
+     * @param cursor cursor de la pagina anterior, se omite para la primera pagina.
+     * @param orden "asc" o "desc", orden por id del cliente.
+     * @param estadoCliente filtro opcional por estado del cliente.
+     * @param tipoCliente filtro opcional por tipo de cliente.
+     * @return pagina de clientes con el cursor de la siguiente pagina.
      */
     @GetMapping
     @ResponseBody
-    public ResponseEntity<List<Cliente>> readAllClients() {
-        List<Cliente> response = null;
+    public ResponseEntity<Pagina<ClienteRespuesta>> readClientsPage(@RequestParam(value = "tamano", required = false) Integer tamano,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "orden", defaultValue = "asc") String orden,
+                                                           @RequestParam(value = "estadoCliente", required = false) String estadoCliente,
+                                                           @RequestParam(value = "tipoCliente", required = false) String tipoCliente) {
+        Pagina<ClienteRespuesta> response = null;
         HttpStatus status = null;        
         
-            response = clienteService.readAllClients();   
+            response = clienteService.readClientsPage(tamano, cursor, orden, estadoCliente, tipoCliente);   
             
             if(response != null) {  
 	            status = HttpStatus.OK;            
@@ -83,13 +121,14 @@ public class ClienteController {
      */
     @PostMapping
     @ResponseBody
-    public ResponseEntity<Cliente> createClient(@RequestBody Cliente cliente){
-        Cliente response = null;
+    public ResponseEntity<ClienteRespuesta> createClient(@RequestBody Cliente cliente){
+        ClienteRespuesta response = null;
         HttpStatus status = null;        
         
-            response = clienteService.createClient(cliente);
-            if(response != null) {  
+            Cliente creado = clienteService.createClient(cliente);
+            if(creado != null) {  
 	            status = HttpStatus.CREATED;               
+	            response = ClienteRespuesta.de(creado);
 	            return ResponseEntity.status(status).body(response);     
             }else {
             	status = HttpStatus.BAD_REQUEST;               
@@ -105,13 +144,14 @@ public class ClienteController {
      */
     @PutMapping("/{clienteId}")
     @ResponseBody    
-    public ResponseEntity<Cliente> updateClient(@RequestBody Cliente cliente, @PathVariable("clienteId") Long clienteId){
-        Cliente response = null;
+    public ResponseEntity<ClienteRespuesta> updateClient(@RequestBody Cliente cliente, @PathVariable("clienteId") Long clienteId){
+        ClienteRespuesta response = null;
         HttpStatus status = null;
         
-            response = clienteService.updateClient(cliente, clienteId);            
-            if(response != null) {
+            Cliente actualizado = clienteService.updateClient(cliente, clienteId);            
+            if(actualizado != null) {
 	            status = HttpStatus.OK;            
+	            response = ClienteRespuesta.de(actualizado);
 	            return ResponseEntity.status(status).body(response);       
 
             }else {            	
@@ -1,5 +1,7 @@
 package com.sophos.retoSpringBoot.controller;
 
+import com.sophos.retoSpringBoot.dto.CuentaRespuesta;
+import com.sophos.retoSpringBoot.dto.Extracto;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.service.CuentaService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,17 +34,21 @@ public class CuentaController {
     /**
      * <h2>Metodo para leer una cuenta</h2>
      * @param cuentaId id de la cuenta a consultar
+     * @param movimientos true para incluir los movimientos de la cuenta; por defecto no se
+     * incluyen, y se consultan por paginas.
      * @return cuenta asociada al id pasado como parametro.
      */
     @GetMapping("/{cuentaId}")
     @ResponseBody
-    public ResponseEntity<Cuenta> readAccount(@PathVariable("cuentaId") Long cuentaId) {
-        Cuenta response = null;
+    public ResponseEntity<CuentaRespuesta> readAccount(@PathVariable("cuentaId") Long cuentaId,
+                                                       @RequestParam(value = "movimientos", defaultValue = "false") boolean movimientos) {
+        CuentaRespuesta response = null;
         HttpStatus status = null;
         
-            response = cuentaService.readAccount(cuentaId);
-            if(response != null) {
+            Cuenta cuenta = movimientos ? cuentaService.readAccountWithMovements(cuentaId) : cuentaService.readAccount(cuentaId);
+            if(cuenta != null) {
 	            status = HttpStatus.OK;                
+	            response = movimientos ? CuentaRespuesta.conMovimientos(cuenta) : CuentaRespuesta.de(cuenta);
 	            return ResponseEntity.status(status).body(response);            
 
             }else {
@@ -55,18 +61,19 @@ public class CuentaController {
     /**
      * <h2>Metodo para leer las cuentas asociadas a un cliente</h2>
      * @param clienteId id del cliente al cual se va a consultar las cuentas que tiene.
-     * @return lista de las cuentas asociadas al cliente.
+     * @return lista de las cuentas asociadas al cliente, sin sus movimientos.
      */
     @GetMapping("/cliente/{clienteId}")
     @ResponseBody
-    public ResponseEntity<List<Cuenta>> readAccountsByClient(@PathVariable("clienteId") Long clienteId) {
-        List<Cuenta> response = null;
+    public ResponseEntity<List<CuentaRespuesta>> readAccountsByClient(@PathVariable("clienteId") Long clienteId) {
+        List<CuentaRespuesta> response = null;
         HttpStatus status = null;
         
-            response = cuentaService.readAccountsByClient(clienteId);
+            List<Cuenta> cuentas = cuentaService.readAccountsByClient(clienteId);
             
-            if(response != null) {              
+            if(cuentas != null) {              
             status = HttpStatus.OK;                
+            response = cuentas.stream().map(CuentaRespuesta::de).toList();
             return ResponseEntity.status(status).body(response);  
             
             }else {
@@ -76,6 +83,75 @@ public class CuentaController {
     }
 
 
+    /**
+     * <h2>Metodo para leer el saldo de una cuenta</h2>
+     * @param cuentaId id de la cuenta a consultar
+     * @return saldo de la cuenta.
+     */
+    @GetMapping("/{cuentaId}/saldo")
+    @ResponseBody
+    public ResponseEntity<Long> readAccountBalance(@PathVariable("cuentaId") Long cuentaId) {
+        Long response = null;
+        HttpStatus status = null;
+
+            response = cuentaService.readAccountBalance(cuentaId);
+            if(response != null) {
+                status = HttpStatus.OK;
+                return ResponseEntity.status(status).body(response);
+
+            }else {
+            	status = HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(response);
+            }
+    }
+
+    /**
+     * <h2>Metodo para recalcular el saldo de una cuenta</h2>
+     * recalcula el saldo a partir de los movimientos, para reparar un saldo desfasado.
+     * @param cuentaId id de la cuenta a recalcular
+     * @return saldo recalculado.
+     */
+    @PostMapping("/{cuentaId}/saldo/recalcular")
+    @ResponseBody
+    public ResponseEntity<Long> recalculateBalance(@PathVariable("cuentaId") Long cuentaId) {
+        Long response = null;
+        HttpStatus status = null;
+
+            response = cuentaService.recalculateBalance(cuentaId);
+            if(response != null) {
+                status = HttpStatus.OK;
+                return ResponseEntity.status(status).body(response);
+
+            }else {
+            	status = HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(response);
+            }
+    }
+
+    /**
+     * <h2>Metodo para consultar el extracto de una cuenta en un periodo</h2>
+     * @param cuentaId id de la cuenta a consultar
+     * @param periodo periodo del extracto, en formato yyyy-MM
+     * @return saldo inicial, totales por tipo, cantidad de movimientos y saldo final del periodo.
+     */
+    @GetMapping("/{cuentaId}/extracto")
+    @ResponseBody
+    public ResponseEntity<Extracto> readStatement(@PathVariable("cuentaId") Long cuentaId,
+                                                  @RequestParam("periodo") String periodo) {
+        Extracto response = null;
+        HttpStatus status = null;
+
+            response = cuentaService.readStatement(cuentaId, periodo);
+            if(response != null) {
+                status = HttpStatus.OK;
+                return ResponseEntity.status(status).body(response);
+
+            }else {
+            	status = HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(response);
+            }
+    }
+
     /**
      * <h2>Metodo par acrear una cuenta</h2>
      * @param cuenta la cuenta que se va a crear
@@ -83,13 +159,14 @@ public class CuentaController {
      */
     @PostMapping
     @ResponseBody
-    public ResponseEntity<Cuenta> createAccount(@RequestBody Cuenta cuenta){
-        Cuenta response = null;
+    public ResponseEntity<CuentaRespuesta> createAccount(@RequestBody Cuenta cuenta){
+        CuentaRespuesta response = null;
         HttpStatus status = null;      
 
-		response = cuentaService.createAccount(cuenta);
-		if(response != null) {		
+		Cuenta creada = cuentaService.createAccount(cuenta);
+		if(creada != null) {		
 			status = HttpStatus.CREATED;		                
+			response = CuentaRespuesta.de(creada);
 			return ResponseEntity.status(status).body(response);
 			
 		}else {
@@ -110,13 +187,14 @@ public class CuentaController {
 
     @PutMapping("/{cuentaId}")
     @ResponseBody
-    public ResponseEntity<Cuenta> updateAccount(@RequestBody Cuenta cuenta, @PathVariable("cuentaId") Long cuentaId){
-        Cuenta response = null;
+    public ResponseEntity<CuentaRespuesta> updateAccount(@RequestBody Cuenta cuenta, @PathVariable("cuentaId") Long cuentaId){
+        CuentaRespuesta response = null;
         HttpStatus status = null;
         
-            response = cuentaService.updateAccount(cuenta, cuentaId);
-            if(response != null) {
+            Cuenta actualizada = cuentaService.updateAccount(cuenta, cuentaId);
+            if(actualizada != null) {
                 status = HttpStatus.OK;                
+                response = CuentaRespuesta.de(actualizada);
                 return ResponseEntity.status(status).body(response);            
             }else {
             	status = HttpStatus.NOT_FOUND;            
@@ -0,0 +1,64 @@
+package com.sophos.retoSpringBoot.controller;
+
+import com.sophos.retoSpringBoot.dto.EstadoImportacion;
+import com.sophos.retoSpringBoot.dto.SolicitudImportacion;
+import com.sophos.retoSpringBoot.service.ImportacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * <h1>Controlador Importacion</h1>
+ *Es el encargado de exponer la importacion de archivos de movimientos
+ *y la consulta de su avance.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ *
+ */
+@RestController
+@RequestMapping("/api/importacion")
+@CrossOrigin(origins = "http://localhost:3000/")
+
+public class ImportacionController {
+    /**
+     * inyeccion de la dependencia ImportacionService
+     */
+    @Autowired
+    ImportacionService importacionService;
+
+    /**
+     * <h2>Metodo para iniciar la importacion de un archivo de movimientos</h2>
+     * @param solicitud ruta del archivo dentro del directorio de importaciones y su formato
+     * @return el estado inicial de la importacion, que continua en segundo plano.
+     */
+    @PostMapping
+    @ResponseBody
+    public ResponseEntity<EstadoImportacion> startImport(@RequestBody SolicitudImportacion solicitud) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importacionService.startImport(solicitud));
+    }
+
+    /**
+     * <h2>Metodo para consultar el avance de una importacion</h2>
+     * @param importacionId id de la importacion
+     * @return filas confirmadas, filas leidas, filas por segundo y estado de la importacion.
+     */
+    @GetMapping("/{importacionId}")
+    @ResponseBody
+    public ResponseEntity<EstadoImportacion> readImportStatus(@PathVariable("importacionId") Long importacionId) {
+        return ResponseEntity.status(HttpStatus.OK).body(importacionService.readImportStatus(importacionId));
+    }
+
+    /**
+     * <h2>Metodo para reanudar una importacion desde el ultimo lote confirmado</h2>
+     * @param importacionId id de la importacion
+     * @return el estado de la importacion, que continua en segundo plano.
+     */
+    @PostMapping("/{importacionId}/reanudar")
+    @ResponseBody
+    public ResponseEntity<EstadoImportacion> resumeImport(@PathVariable("importacionId") Long importacionId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importacionService.resumeImport(importacionId));
+    }
+}
@@ -1,13 +1,23 @@
 package com.sophos.retoSpringBoot.controller;
 
+import com.sophos.retoSpringBoot.dto.EstadisticasBloqueo;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.Transferencia;
 import com.sophos.retoSpringBoot.entity.Movimiento;
 import com.sophos.retoSpringBoot.service.MovimientoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 /**
  * <h1>Controlador Movimiento</h1>
  *Es el encargado de exponer la funcionalidad de la clase Movimiento
@@ -24,12 +34,26 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000/")
 
 public class MovimientoController {
+    /**
+     * encabezado con el cursor para seguir leyendo los movimientos de una cuenta por paginas.
+     */
+    static final String SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
     /**
      * inyeccion de la dependencia MovimientoService
      */
     @Autowired
     MovimientoService movimientoService;
 
+    /**
+     * <h2>Metodo para consultar las estadisticas de los bloqueos por cuenta</h2>
+     * @return adquisiciones, esperas y tiempos de espera de los bloqueos.
+     */
+    @GetMapping("/bloqueos")
+    @ResponseBody
+    public ResponseEntity<EstadisticasBloqueo> readLockStatistics() {
+        return ResponseEntity.status(HttpStatus.OK).body(movimientoService.readLockStatistics());
+    }
+
     /**
      * <h2>Metodo para leer un movimiento</h2>
      * @param movimientoId id del movimiento a consultar
@@ -37,13 +61,14 @@ public class MovimientoController {
      */
     @GetMapping("/{movimientoId}")
     @ResponseBody
-    public ResponseEntity<Movimiento> readMovement(@PathVariable("movimientoId") Long movimientoId) {
-        Movimiento response = null;
+    public ResponseEntity<MovimientoRespuesta> readMovement(@PathVariable("movimientoId") Long movimientoId) {
+        MovimientoRespuesta response = null;
         HttpStatus status = null;
         
-            response = movimientoService.readMovement(movimientoId);
-            if(response != null) {
+            Movimiento movimiento = movimientoService.readMovement(movimientoId);
+            if(movimiento != null) {
 	            status = HttpStatus.OK;     
+	            response = MovimientoRespuesta.de(movimiento);
 	            return ResponseEntity.status(status).body(response);
             }else {
             	status = HttpStatus.NOT_FOUND;            
@@ -53,17 +78,58 @@ public class MovimientoController {
 
     /**
      * <h2>Metodo para consultar los movimientos asociados a una cuenta</h2>
+     * Devuelve la primera pagina del historial, del movimiento mas reciente al mas antiguo. Si
+     * hay mas movimientos, el encabezado X-Siguiente-Cursor trae el cursor para seguir en
+     * /api/movimiento/cuenta/{cuentaId}/pagina.
      * @param cuentaId id de la cuenta a la cual se le va consultar los movimientos
+     * @param tamano cantidad maxima de movimientos a devolver.
      * @return lista de movimientos asociados a la cuenta consultada.
      */
 
     @GetMapping("/cuenta/{cuentaId}")
     @ResponseBody
-    public ResponseEntity<List<Movimiento>> readMovementsByAccount(@PathVariable("cuentaId") Long cuentaId) {
-        List<Movimiento> response = null;
+    public ResponseEntity<List<MovimientoRespuesta>> readMovementsByAccount(@PathVariable("cuentaId") Long cuentaId,
+                                                                            @RequestParam(value = "tamano", required = false) Integer tamano) {
+        List<MovimientoRespuesta> response = null;
         HttpStatus status = null;
         
-            response = movimientoService.readMovementsByAccount(cuentaId); 
+            Pagina<MovimientoRespuesta> pagina = movimientoService.readMovementsPage(cuentaId, null, null, tamano, null);
+            
+            if(pagina != null) {
+	            status = HttpStatus.OK;            
+	            response = pagina.contenido();
+	            ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(status);
+	            if(pagina.isTieneSiguiente()) {
+	                respuesta.header(SIGUIENTE_CURSOR, pagina.siguienteCursor());
+	            }
+	            return respuesta.body(response); 
+            }else {
+	        	status = HttpStatus.NOT_FOUND;            
+	            return ResponseEntity.status(status).body(response);
+            }
+
+    }
+
+    /**
+     * <h2>Metodo para consultar el historial de movimientos de una cuenta por paginas</h2>
+     * @param cuentaId id de la cuenta a la cual se le va consultar los movimientos
+     * @param desde fecha minima de los movimientos (yyyy-MM-dd), opcional.
+     * @param hasta fecha maxima de los movimientos (yyyy-MM-dd), opcional.
+     * @param tamano cantidad de movimientos por pagina.
+     * @param cursor cursor de la pagina anterior, se omite para la primera pagina.
+     * @return pagina de movimientos con el cursor de la siguiente pagina.
+     */
+    @GetMapping("/cuenta/{cuentaId}/pagina")
+    @ResponseBody
+    public ResponseEntity<Pagina<MovimientoRespuesta>> readMovementsPage(@PathVariable("cuentaId") Long cuentaId,
+                                                                @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                                @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                                                @RequestParam(value = "tamano", required = false) Integer tamano,
+                                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        Pagina<MovimientoRespuesta> response = null;
+        HttpStatus status = null;
+        
+            response = movimientoService.readMovementsPage(cuentaId, desde, hasta, tamano, cursor); 
             
             if(response != null) {
 	            status = HttpStatus.OK;            
@@ -75,20 +141,54 @@ public class MovimientoController {
 
     }
 
+    /**
+     * <h2>Metodo para exportar el historial completo de una cuenta</h2>
+     * El historial se escribe en NDJSON (un movimiento por linea) a medida que se lee de la
+     * base de datos, sin armar la lista en memoria.
+     * @param cuentaId id de la cuenta a exportar
+     * @param comprimir true para enviar el archivo comprimido con gzip
+     * @return el historial de la cuenta en NDJSON.
+     */
+    @GetMapping("/cuenta/{cuentaId}/exportar")
+    public ResponseEntity<StreamingResponseBody> exportMovements(@PathVariable("cuentaId") Long cuentaId,
+                                                                 @RequestParam(value = "comprimir", defaultValue = "false") boolean comprimir) {
+        movimientoService.validateAccountExists(cuentaId);
+
+        String archivo = "movimientos-cuenta-" + cuentaId + (comprimir ? ".ndjson.gz" : ".ndjson");
+        StreamingResponseBody cuerpo = salida -> {
+            if(comprimir) {
+                GZIPOutputStream gzip = new GZIPOutputStream(salida, 64 * 1024);
+                movimientoService.exportMovements(cuentaId, gzip);
+                gzip.finish();
+            } else {
+                movimientoService.exportMovements(cuentaId, salida);
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(comprimir ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+                .body(cuerpo);
+    }
+
     /**
      * <h2>Metodo para crear un movimiento</h2>
+     * Si se envia el encabezado Idempotency-Key, los reintentos con la misma clave
+     * devuelven el movimiento creado la primera vez.
      * @param movimiento el objeto tipo movimiento que se va a crear
+     * @param idempotencyKey clave de idempotencia opcional.
      * @return objeto de tipo movimiento.
      */
     @PostMapping
     @ResponseBody
-    public ResponseEntity<Movimiento> createMovement(@RequestBody Movimiento movimiento) {
-        Movimiento response = null;
+    public ResponseEntity<MovimientoRespuesta> createMovement(@RequestBody Movimiento movimiento,
+                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        MovimientoRespuesta response = null;
         HttpStatus status = null;        
         
-            response = movimientoService.createMovement(movimiento);            
-            if(response != null) {		
+            Movimiento creado = movimientoService.createMovement(movimiento, idempotencyKey);            
+            if(creado != null) {		
     			status = HttpStatus.CREATED;		                
+    			response = MovimientoRespuesta.de(creado);
     			return ResponseEntity.status(status).body(response);
     			
     		}else {
@@ -97,6 +197,52 @@ public class MovimientoController {
     		}           
     }
 
+    /**
+     * <h2>Metodo para crear un lote de movimientos</h2>
+     * @param movimientos los movimientos que se van a crear
+     * @return los movimientos creados.
+     */
+    @PostMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<List<MovimientoRespuesta>> createMovements(@RequestBody List<Movimiento> movimientos) {
+        List<MovimientoRespuesta> response = null;
+        HttpStatus status = null;
+
+            List<Movimiento> creados = movimientoService.createMovements(movimientos);
+            if(creados != null) {
+    			status = HttpStatus.CREATED;
+    			response = creados.stream().map(MovimientoRespuesta::de).toList();
+    			return ResponseEntity.status(status).body(response);
+
+    		}else {
+    			status = HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(response);
+    		}
+    }
+
+    /**
+     * <h2>Metodo para transferir un valor entre dos cuentas</h2>
+     * @param transferencia cuentas de origen y destino y valor a transferir.
+     * @return el movimiento debito de la cuenta de origen y el credito de la cuenta de destino.
+     */
+    @PostMapping("/transferencia")
+    @ResponseBody
+    public ResponseEntity<List<MovimientoRespuesta>> transfer(@RequestBody Transferencia transferencia) {
+        List<MovimientoRespuesta> response = null;
+        HttpStatus status = null;
+
+            List<Movimiento> creados = movimientoService.transfer(transferencia);
+            if(creados != null) {
+    			status = HttpStatus.CREATED;
+    			response = creados.stream().map(MovimientoRespuesta::de).toList();
+    			return ResponseEntity.status(status).body(response);
+
+    		}else {
+    			status = HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(response);
+    		}
+    }
+
     /**
      * <h2>Metodo para actualizar un movimiento</h2>
      * @param movimiento datos del movimiento que se va a actualizar
@@ -105,13 +251,14 @@ public class MovimientoController {
      */
         @PutMapping("/{movimientoId}")
         @ResponseBody
-        public ResponseEntity<Movimiento> updateMovement(@RequestBody Movimiento movimiento, @PathVariable("movimientoId") Long movimientoId){
-            Movimiento response = null;
+        public ResponseEntity<MovimientoRespuesta> updateMovement(@RequestBody Movimiento movimiento, @PathVariable("movimientoId") Long movimientoId){
+            MovimientoRespuesta response = null;
             HttpStatus status = null;
             
-                response = movimientoService.updateMovement(movimiento, movimientoId);                
-                if(response != null) {
+                Movimiento actualizado = movimientoService.updateMovement(movimiento, movimientoId);                
+                if(actualizado != null) {
                     status = HttpStatus.OK;                
+                    response = MovimientoRespuesta.de(actualizado);
                     return ResponseEntity.status(status).body(response);            
                 }else {
                 	status = HttpStatus.NOT_FOUND;            
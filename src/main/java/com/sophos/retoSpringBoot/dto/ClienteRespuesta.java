@@ -0,0 +1,107 @@
+package com.sophos.retoSpringBoot.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <h1>ClienteRespuesta</h1>
+ * Cliente tal como lo devuelve el API. Solo la consulta de un cliente por id incluye sus
+ * cuentas, sin movimientos salvo que se pidan; en la pagina de clientes y en las escrituras
+ * el campo cuentas no se envia, y la pagina se construye directamente en el select.
+ *
+ * @param clienteId id del cliente.
+ * @param tipoId tipo de identificacion.
+ * @param numeroId numero de identificacion.
+ * @param estadoCliente estado del cliente.
+ * @param tipoCliente tipo de cliente.
+ * @param direccion direccion del cliente.
+ * @param telefono telefono del cliente.
+ * @param correo correo del cliente.
+ * @param primerNombre primer nombre del cliente.
+ * @param segundoNombre segundo nombre del cliente.
+ * @param primerApellido primer apellido del cliente.
+ * @param segundoApellido segundo apellido del cliente.
+ * @param fechaNacimiento fecha de nacimiento del cliente.
+ * @param fechaCreacion fecha de creacion del cliente.
+ * @param usuarioCreacion usuario de creacion del cliente.
+ * @param fechaModificacion fecha de modificacion del cliente.
+ * @param usuarioModificacion usuario de modificacion del cliente.
+ * @param cuentas cuentas del cliente ordenadas por id, o null si no se incluyen.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record ClienteRespuesta(Long clienteId, String tipoId, Long numeroId, String estadoCliente, String tipoCliente,
+                               String direccion, String telefono, String correo, String primerNombre,
+                               String segundoNombre, String primerApellido, String segundoApellido,
+                               LocalDate fechaNacimiento, LocalDate fechaCreacion, String usuarioCreacion,
+                               LocalDate fechaModificacion, String usuarioModificacion,
+                               @JsonInclude(JsonInclude.Include.NON_NULL) List<CuentaRespuesta> cuentas) {
+
+    /**
+     * Constructor sin cuentas, usado por las consultas de ClientRepository.
+     */
+    public ClienteRespuesta(Long clienteId, String tipoId, Long numeroId, String estadoCliente, String tipoCliente,
+                            String direccion, String telefono, String correo, String primerNombre,
+                            String segundoNombre, String primerApellido, String segundoApellido,
+                            LocalDate fechaNacimiento, LocalDate fechaCreacion, String usuarioCreacion,
+                            LocalDate fechaModificacion, String usuarioModificacion) {
+        this(clienteId, tipoId, numeroId, estadoCliente, tipoCliente, direccion, telefono, correo, primerNombre,
+                segundoNombre, primerApellido, segundoApellido, fechaNacimiento, fechaCreacion, usuarioCreacion,
+                fechaModificacion, usuarioModificacion, null);
+    }
+
+    /**
+     * <h2>Metodo para copiar un cliente sin sus cuentas</h2>
+     * No toca la coleccion de cuentas, por lo que no la carga.
+     * @param cliente entidad a copiar.
+     * @return la respuesta con los datos del cliente.
+     */
+    public static ClienteRespuesta de(Cliente cliente) {
+        return copiar(cliente, null);
+    }
+
+    /**
+     * <h2>Metodo para copiar un cliente con sus cuentas, sin sus movimientos</h2>
+     * Las cuentas deben estar cargadas: las respuestas se arman despues de cerrar la transaccion.
+     * @param cliente entidad a copiar.
+     * @return la respuesta con los datos del cliente y de sus cuentas.
+     */
+    public static ClienteRespuesta conCuentas(Cliente cliente) {
+        return copiar(cliente, cuentas(cliente, CuentaRespuesta::de));
+    }
+
+    /**
+     * <h2>Metodo para copiar un cliente con sus cuentas y movimientos</h2>
+     * Las cuentas y sus movimientos deben estar cargados: las respuestas se arman despues de
+     * cerrar la transaccion.
+     * @param cliente entidad a copiar.
+     * @return la respuesta con los datos del cliente, sus cuentas y sus movimientos.
+     */
+    public static ClienteRespuesta conMovimientos(Cliente cliente) {
+        return copiar(cliente, cuentas(cliente, CuentaRespuesta::conMovimientos));
+    }
+
+    private static List<CuentaRespuesta> cuentas(Cliente cliente, Function<Cuenta, CuentaRespuesta> copia) {
+        return cliente.getCuentas().stream()
+                .map(copia)
+                .sorted(Comparator.comparing(CuentaRespuesta::cuentaId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private static ClienteRespuesta copiar(Cliente cliente, List<CuentaRespuesta> cuentas) {
+        return new ClienteRespuesta(cliente.getClienteId(), cliente.getTipoId(), cliente.getNumeroId(),
+                cliente.getEstadoCliente(), cliente.getTipoCliente(), cliente.getDireccion(), cliente.getTelefono(),
+                cliente.getCorreo(), cliente.getPrimerNombre(), cliente.getSegundoNombre(),
+                cliente.getPrimerApellido(), cliente.getSegundoApellido(), cliente.getFechaNacimiento(),
+                cliente.getFechaCreacion(), cliente.getUsuarioCreacion(), cliente.getFechaModificacion(),
+                cliente.getUsuarioModificacion(), cuentas);
+    }
+}
@@ -0,0 +1,65 @@
+package com.sophos.retoSpringBoot.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <h1>CuentaRespuesta</h1>
+ * Cuenta tal como la devuelve el API. Los movimientos solo se incluyen cuando la consulta de
+ * una cuenta o de un cliente los pide; en los demas casos el campo movimientos no se envia.
+ *
+ * @param cuentaId id de la cuenta.
+ * @param producto producto de la cuenta.
+ * @param estadoCuenta estado de la cuenta.
+ * @param valorCredito valor del credito de la cuenta.
+ * @param fechaApertura fecha de apertura de la cuenta.
+ * @param fechaCreacion fecha de creacion de la cuenta.
+ * @param usuarioCreacion usuario de creacion de la cuenta.
+ * @param fechaModificacion fecha de modificacion de la cuenta.
+ * @param usuarioModificacion usuario de modificacion de la cuenta.
+ * @param saldo saldo de la cuenta.
+ * @param movimientos movimientos de la cuenta ordenados por id, o null si no se incluyen.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record CuentaRespuesta(Long cuentaId, String producto, String estadoCuenta, String valorCredito,
+                              LocalDate fechaApertura, LocalDate fechaCreacion, String usuarioCreacion,
+                              LocalDate fechaModificacion, String usuarioModificacion, Long saldo,
+                              @JsonInclude(JsonInclude.Include.NON_NULL) List<MovimientoRespuesta> movimientos) {
+
+    /**
+     * <h2>Metodo para copiar una cuenta sin sus movimientos</h2>
+     * No toca la coleccion de movimientos, por lo que no la carga.
+     * @param cuenta entidad a copiar.
+     * @return la respuesta con los datos de la cuenta.
+     */
+    public static CuentaRespuesta de(Cuenta cuenta) {
+        return copiar(cuenta, null);
+    }
+
+    /**
+     * <h2>Metodo para copiar una cuenta con sus movimientos</h2>
+     * Los movimientos deben estar cargados: las respuestas se arman despues de cerrar la transaccion.
+     * @param cuenta entidad a copiar.
+     * @return la respuesta con los datos de la cuenta y sus movimientos.
+     */
+    public static CuentaRespuesta conMovimientos(Cuenta cuenta) {
+        return copiar(cuenta, cuenta.getMovimientos().stream()
+                .map(MovimientoRespuesta::de)
+                .sorted(Comparator.comparing(MovimientoRespuesta::movimientoId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList());
+    }
+
+    private static CuentaRespuesta copiar(Cuenta cuenta, List<MovimientoRespuesta> movimientos) {
+        return new CuentaRespuesta(cuenta.getCuentaId(), cuenta.getProducto(), cuenta.getEstadoCuenta(),
+                cuenta.getValorCredito(), cuenta.getFechaApertura(), cuenta.getFechaCreacion(),
+                cuenta.getUsuarioCreacion(), cuenta.getFechaModificacion(), cuenta.getUsuarioModificacion(),
+                cuenta.getSaldo(), movimientos);
+    }
+}
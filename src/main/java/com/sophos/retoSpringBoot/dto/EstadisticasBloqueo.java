@@ -0,0 +1,25 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>EstadisticasBloqueo</h1>
+ * Resumen del tiempo de espera en los bloqueos por cuenta desde que inicio la aplicacion.
+ *
+ * @param adquisiciones cantidad de veces que se obtuvo un bloqueo.
+ * @param esperas cantidad de veces que el bloqueo estaba ocupado y hubo que esperar.
+ * @param tiempoEsperaTotalNanos suma del tiempo de espera, en nanosegundos.
+ * @param tiempoEsperaMaximoNanos mayor tiempo de espera observado, en nanosegundos.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record EstadisticasBloqueo(long adquisiciones, long esperas, long tiempoEsperaTotalNanos, long tiempoEsperaMaximoNanos) {
+
+    /**
+     *
+     * @return tiempo de espera promedio por adquisicion, en nanosegundos.
+     */
+    public long getTiempoEsperaPromedioNanos() {
+        return adquisiciones == 0 ? 0 : tiempoEsperaTotalNanos / adquisiciones;
+    }
+}
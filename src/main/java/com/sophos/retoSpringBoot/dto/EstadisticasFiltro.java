@@ -0,0 +1,32 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>EstadisticasFiltro</h1>
+ * Estado de un filtro de ids existentes desde que inicio la aplicacion.
+ *
+ * @param nombre nombre del filtro.
+ * @param completo true si ya se cargaron los ids de la base de datos; mientras no, el filtro no rechaza ninguna lectura.
+ * @param elementos cantidad aproximada de ids en el filtro.
+ * @param capacidad cantidad de ids para la que se dimensiono el filtro.
+ * @param funcionesHash cantidad de contadores que usa cada id.
+ * @param bytes memoria que ocupan los contadores.
+ * @param tasaFalsosPositivosEstimada probabilidad, segun la ocupacion actual, de que un id inexistente no se rechace.
+ * @param rechazos lecturas de ids inexistentes resueltas sin ir a la base de datos.
+ * @param falsosPositivos lecturas de ids inexistentes que el filtro no rechazo.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record EstadisticasFiltro(String nombre, boolean completo, long elementos, long capacidad, int funcionesHash,
+                                 long bytes, double tasaFalsosPositivosEstimada, long rechazos, long falsosPositivos) {
+
+    /**
+     *
+     * @return fraccion de las lecturas de ids inexistentes que llegaron a la base de datos, entre 0 y 1.
+     */
+    public double getTasaFalsosPositivosObservada() {
+        long inexistentes = rechazos + falsosPositivos;
+        return inexistentes == 0 ? 0 : (double) falsosPositivos / inexistentes;
+    }
+}
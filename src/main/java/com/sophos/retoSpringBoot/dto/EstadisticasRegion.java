@@ -0,0 +1,33 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>EstadisticasRegion</h1>
+ * Uso de una region de la cache de segundo nivel de Hibernate desde que inicio la
+ * aplicacion. Cada acierto es una entidad o coleccion que no se leyo de la base de datos.
+ * Los limites y los desalojos son los que configura y cuenta Caffeine en application.conf.
+ *
+ * @param region nombre de la region.
+ * @param aciertos lecturas servidas desde la cache.
+ * @param fallos lecturas que tuvieron que ir a la base de datos.
+ * @param escrituras entradas guardadas en la cache.
+ * @param desalojos entradas descartadas por tamano o por expiracion.
+ * @param entradas cantidad aproximada de entradas en memoria.
+ * @param tamanoMaximo cantidad maxima de entradas de la region, -1 si no tiene limite.
+ * @param expiracionSegundos segundos que vive una entrada desde que se escribe, -1 si no expira.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record EstadisticasRegion(String region, long aciertos, long fallos, long escrituras,
+                                 long desalojos, long entradas, long tamanoMaximo, long expiracionSegundos) {
+
+    /**
+     *
+     * @return fraccion de lecturas servidas desde la cache, entre 0 y 1.
+     */
+    public double getTasaAciertos() {
+        long lecturas = aciertos + fallos;
+        return lecturas == 0 ? 0 : (double) aciertos / lecturas;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>EstadoImportacion</h1>
+ * Avance de una importacion de movimientos.
+ *
+ * @param importacionId id de la importacion.
+ * @param ruta ruta del archivo, relativa al directorio de importaciones.
+ * @param estado en_curso, completada o fallida.
+ * @param lotesConfirmados cantidad de lotes confirmados en la base de datos.
+ * @param filasConfirmadas cantidad de filas confirmadas en la base de datos.
+ * @param filasLeidas filas leidas del archivo en la ejecucion actual, incluidas las saltadas al reanudar.
+ * @param filasPorSegundo filas confirmadas por segundo en la ejecucion actual.
+ * @param error el error que detuvo la importacion, si lo hubo.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record EstadoImportacion(Long importacionId, String ruta, String estado, long lotesConfirmados,
+                                long filasConfirmadas, long filasLeidas, double filasPorSegundo, String error) {
+}
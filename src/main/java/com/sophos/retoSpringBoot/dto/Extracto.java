@@ -0,0 +1,22 @@
+package com.sophos.retoSpringBoot.dto;
+
+import java.util.List;
+
+/**
+ * <h1>Extracto</h1>
+ * Extracto de una cuenta para un periodo, calculado en la base de datos.
+ *
+ * @param cuentaId id de la cuenta.
+ * @param periodo periodo del extracto, en formato yyyy-MM.
+ * @param saldoInicial saldo antes de los movimientos del periodo.
+ * @param totalesPorTipo cantidad y suma de los movimientos activos del periodo por tipo.
+ * @param cantidadMovimientos cantidad de movimientos activos del periodo.
+ * @param saldoFinal saldo despues de los movimientos del periodo.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record Extracto(Long cuentaId, String periodo, long saldoInicial, List<TotalTipo> totalesPorTipo,
+                       long cantidadMovimientos, long saldoFinal) {
+}
@@ -0,0 +1,51 @@
+package com.sophos.retoSpringBoot.dto;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>FilaResumen</h1>
+ * Fila de la consulta del resumen de un cliente: los datos del cliente, repetidos en cada
+ * fila, junto con una de sus cuentas y los totales de los movimientos de esa cuenta. Si el
+ * cliente no tiene cuentas hay una sola fila, con los datos de la cuenta en null.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record FilaResumen(Long clienteId, String tipoId, Long numeroId, String estadoCliente, String tipoCliente,
+                          String direccion, String telefono, String correo, String primerNombre,
+                          String segundoNombre, String primerApellido, String segundoApellido,
+                          LocalDate fechaNacimiento, LocalDate fechaCreacion, String usuarioCreacion,
+                          LocalDate fechaModificacion, String usuarioModificacion,
+                          Long cuentaId, String producto, String estadoCuenta, String valorCredito,
+                          LocalDate fechaApertura, Long saldo, Long cantidadMovimientos,
+                          LocalDate ultimoMovimiento, Long totalCreditos, Long totalDebitos) {
+
+    /**
+     * <h2>Metodo para obtener los datos del cliente de la fila</h2>
+     * @return el cliente, sin la lista de cuentas.
+     */
+    public ClienteRespuesta cliente() {
+        return new ClienteRespuesta(clienteId, tipoId, numeroId, estadoCliente, tipoCliente, direccion, telefono,
+                correo, primerNombre, segundoNombre, primerApellido, segundoApellido, fechaNacimiento,
+                fechaCreacion, usuarioCreacion, fechaModificacion, usuarioModificacion);
+    }
+
+    /**
+     * <h2>Metodo para obtener el resumen de la cuenta de la fila</h2>
+     * Las cuentas creadas antes de existir el saldo lo tienen en null; en ese caso el saldo
+     * es el neto de sus movimientos activos.
+     * @return el resumen de la cuenta, o null si el cliente no tiene cuentas.
+     */
+    public ResumenCuenta cuenta() {
+        if(cuentaId == null) {
+            return null;
+        }
+        long creditos = totalCreditos != null ? totalCreditos : 0L;
+        long debitos = totalDebitos != null ? totalDebitos : 0L;
+        long neto = creditos - debitos;
+        return new ResumenCuenta(cuentaId, producto, estadoCuenta, valorCredito, fechaApertura,
+                saldo != null ? saldo : neto, cantidadMovimientos != null ? cantidadMovimientos : 0L,
+                ultimoMovimiento, creditos, debitos, neto);
+    }
+}
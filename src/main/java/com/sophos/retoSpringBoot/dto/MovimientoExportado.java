@@ -0,0 +1,30 @@
+package com.sophos.retoSpringBoot.dto;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>MovimientoExportado</h1>
+ * Fila del historial de una cuenta tal como se escribe en la exportacion NDJSON. Se construye
+ * directamente en la consulta, sin crear entidades, para que el contexto de persistencia no
+ * crezca mientras se recorre el historial.
+ *
+ * @param movimientoId id del movimiento.
+ * @param cuentaId id de la cuenta.
+ * @param tipo tipo de movimiento.
+ * @param valor valor del movimiento.
+ * @param periodo periodo del movimiento.
+ * @param estado estado del movimiento.
+ * @param fechaMovimiento fecha del movimiento.
+ * @param fechaCreacion fecha de creacion del movimiento.
+ * @param usuarioCreacion usuario de creacion del movimiento.
+ * @param fechaModificacion fecha de modificacion del movimiento.
+ * @param usuarioModificacion usuario de modificacion del movimiento.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record MovimientoExportado(Long movimientoId, Long cuentaId, String tipo, Long valor, String periodo,
+                                  String estado, LocalDate fechaMovimiento, LocalDate fechaCreacion,
+                                  String usuarioCreacion, LocalDate fechaModificacion, String usuarioModificacion) {
+}
@@ -0,0 +1,19 @@
+package com.sophos.retoSpringBoot.dto;
+
+import com.sophos.retoSpringBoot.entity.Movimiento;
+
+/**
+ * <h1>MovimientoIdempotente</h1>
+ * Respuesta guardada en memoria para una Idempotency-Key, con la cuenta y la huella de la
+ * solicitud que la uso por primera vez.
+ *
+ * @param cuentaId id de la cuenta del movimiento.
+ * @param huella huella de la solicitud original.
+ * @param movimiento el movimiento creado con la clave.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record MovimientoIdempotente(Long cuentaId, String huella, Movimiento movimiento) {
+}
@@ -0,0 +1,42 @@
+package com.sophos.retoSpringBoot.dto;
+
+import com.sophos.retoSpringBoot.entity.Movimiento;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>MovimientoRespuesta</h1>
+ * Movimiento tal como lo devuelve el API. Las consultas de listas lo construyen directamente
+ * en el select, sin crear entidades; las demas respuestas lo copian de la entidad.
+ *
+ * @param movimientoId id del movimiento.
+ * @param tipo tipo de movimiento.
+ * @param valor valor del movimiento.
+ * @param periodo periodo del movimiento.
+ * @param estado estado del movimiento.
+ * @param fechaMovimiento fecha del movimiento.
+ * @param fechaCreacion fecha de creacion del movimiento.
+ * @param usuarioCreacion usuario de creacion del movimiento.
+ * @param fechaModificacion fecha de modificacion del movimiento.
+ * @param usuarioModificacion usuario de modificacion del movimiento.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record MovimientoRespuesta(Long movimientoId, String tipo, Long valor, String periodo, String estado,
+                                  LocalDate fechaMovimiento, LocalDate fechaCreacion, String usuarioCreacion,
+                                  LocalDate fechaModificacion, String usuarioModificacion) {
+
+    /**
+     * <h2>Metodo para copiar un movimiento</h2>
+     * @param movimiento entidad a copiar.
+     * @return la respuesta con los datos del movimiento.
+     */
+    public static MovimientoRespuesta de(Movimiento movimiento) {
+        return new MovimientoRespuesta(movimiento.getMovimientoId(), movimiento.getTipo(), movimiento.getValor(),
+                movimiento.getPeriodo(), movimiento.getEstado(), movimiento.getFechaMovimiento(),
+                movimiento.getFechaCreacion(), movimiento.getUsuarioCreacion(), movimiento.getFechaModificacion(),
+                movimiento.getUsuarioModificacion());
+    }
+}
@@ -0,0 +1,48 @@
+package com.sophos.retoSpringBoot.dto;
+
+import java.util.List;
+
+/**
+ * <h1>Pagina</h1>
+ * Representa una pagina de resultados obtenida por cursor (keyset), junto con
+ * el cursor opaco que permite pedir la pagina siguiente.
+ *
+ * @param contenido los elementos de la pagina actual.
+ * @param siguienteCursor cursor para consultar la siguiente pagina, null si no hay mas resultados.
+ * @param <T> tipo de los elementos de la pagina.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record Pagina<T>(List<T> contenido, String siguienteCursor) {
+
+    /**
+     * tamano de pagina usado cuando el cliente no indica uno.
+     */
+    public static final int TAMANO_DEFECTO = 20;
+    /**
+     * tamano maximo de pagina permitido.
+     */
+    public static final int TAMANO_MAXIMO = 100;
+
+    /**
+     * <h2>Metodo para normalizar el tamano de pagina</h2>
+     * @param tamano tamano solicitado por el cliente, puede ser null.
+     * @return el tamano de pagina dentro de los limites permitidos.
+     */
+    public static int tamano(Integer tamano) {
+        if (tamano == null || tamano < 1) {
+            return TAMANO_DEFECTO;
+        }
+        return Math.min(tamano, TAMANO_MAXIMO);
+    }
+
+    /**
+     *
+     * @return true si existe una pagina siguiente.
+     */
+    public boolean isTieneSiguiente() {
+        return siguienteCursor != null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sophos.retoSpringBoot.dto;
+
+import java.util.List;
+
+/**
+ * <h1>ResumenCliente</h1>
+ * Un cliente con todas sus cuentas y los totales de movimientos de cada una, para
+ * mostrar el cliente completo con una sola llamada.
+ *
+ * @param cliente datos del cliente, sin la lista de cuentas.
+ * @param cuentas resumen de cada cuenta del cliente, ordenado por id.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record ResumenCliente(ClienteRespuesta cliente, List<ResumenCuenta> cuentas) {
+}
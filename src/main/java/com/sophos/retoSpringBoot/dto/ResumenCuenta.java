@@ -0,0 +1,30 @@
+package com.sophos.retoSpringBoot.dto;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>ResumenCuenta</h1>
+ * Datos de una cuenta y totales de sus movimientos, dentro del resumen de un cliente.
+ * Los totales solo cuentan los movimientos activos; "debito" y "retiro" son debitos y los
+ * demas tipos son creditos, igual que en el saldo.
+ *
+ * @param cuentaId id de la cuenta.
+ * @param producto producto de la cuenta.
+ * @param estadoCuenta estado de la cuenta.
+ * @param valorCredito valor del credito de la cuenta.
+ * @param fechaApertura fecha de apertura de la cuenta.
+ * @param saldo saldo de la cuenta.
+ * @param cantidadMovimientos cantidad de movimientos de la cuenta, activos o no.
+ * @param ultimoMovimiento fecha del movimiento mas reciente, null si no tiene movimientos.
+ * @param totalCreditos suma de los creditos activos.
+ * @param totalDebitos suma de los debitos activos.
+ * @param neto creditos menos debitos.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record ResumenCuenta(Long cuentaId, String producto, String estadoCuenta, String valorCredito,
+                            LocalDate fechaApertura, Long saldo, long cantidadMovimientos,
+                            LocalDate ultimoMovimiento, long totalCreditos, long totalDebitos, long neto) {
+}
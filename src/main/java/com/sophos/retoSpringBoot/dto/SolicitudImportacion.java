@@ -0,0 +1,15 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>SolicitudImportacion</h1>
+ * Datos para iniciar la importacion de un archivo de movimientos.
+ *
+ * @param ruta ruta del archivo, relativa al directorio de importaciones.
+ * @param formato csv o ndjson; si no se envia, se toma de la extension del archivo.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record SolicitudImportacion(String ruta, String formato) {
+}
@@ -0,0 +1,16 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>TotalTipo</h1>
+ * Cantidad y suma de los movimientos activos de un tipo dentro de un periodo.
+ *
+ * @param tipo tipo de movimiento.
+ * @param cantidad cantidad de movimientos de ese tipo.
+ * @param total suma de los valores de esos movimientos.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record TotalTipo(String tipo, Long cantidad, Long total) {
+}
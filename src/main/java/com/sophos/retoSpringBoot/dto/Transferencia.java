@@ -0,0 +1,16 @@
+package com.sophos.retoSpringBoot.dto;
+
+/**
+ * <h1>Transferencia</h1>
+ * Datos de una transferencia entre dos cuentas.
+ *
+ * @param cuentaOrigenId id de la cuenta a la que se le debita el valor.
+ * @param cuentaDestinoId id de la cuenta a la que se le acredita el valor.
+ * @param valor valor a transferir, debe ser mayor a cero.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public record Transferencia(Long cuentaOrigenId, Long cuentaDestinoId, Long valor) {
+}
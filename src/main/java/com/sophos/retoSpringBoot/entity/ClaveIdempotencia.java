@@ -0,0 +1,144 @@
+package com.sophos.retoSpringBoot.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * <h1>Clase ClaveIdempotencia</h1>
+ * Registra cada clave Idempotency-Key ya procesada junto con el movimiento que creo, la
+ * cuenta y la huella de la solicitud, para rechazar un reintento con la misma clave pero
+ * otros datos. La clave es la llave primaria, de modo que un reintento con la misma clave
+ * no puede registrarse dos veces aunque llegue a otro nodo de la aplicacion. Las claves
+ * vencidas se borran por fechaCreacion.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "claves_idempotencia", indexes = @Index(name = "idx_claves_idempotencia_fecha", columnList = "fechaCreacion"))
+public class ClaveIdempotencia implements Persistable<String> {
+
+    /**
+     * longitud maxima de la clave.
+     */
+    public static final int LONGITUD_MAXIMA = 100;
+
+    @Id
+    @Column(length = LONGITUD_MAXIMA)
+    private String clave;
+    private Long movimientoId;
+    private Long cuentaId;
+    @Column(length = 64)
+    private String huella;
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Constructor vacio de la clase ClaveIdempotencia.
+     */
+    public ClaveIdempotencia() {
+    }
+
+    /**
+     * Constructor ClaveIdempotencia
+     *
+     * @param clave la clave enviada por el cliente.
+     * @param movimientoId id del movimiento creado con la clave.
+     * @param cuentaId id de la cuenta del movimiento.
+     * @param huella huella de la solicitud, calculada con {@link #huella(Movimiento)}.
+     */
+    public ClaveIdempotencia(String clave, Long movimientoId, Long cuentaId, String huella) {
+        this.clave = clave;
+        this.movimientoId = movimientoId;
+        this.cuentaId = cuentaId;
+        this.huella = huella;
+        this.fechaCreacion = LocalDateTime.now();
+    }
+
+    /**
+     * <h2>Metodo para calcular la huella de una solicitud de movimiento</h2>
+     * SHA-256 de la cuenta, el tipo, el valor, el periodo, el estado y la fecha enviados.
+     * Se calcula antes de registrar el movimiento, porque al registrarlo se completan campos.
+     * @param movimiento movimiento recibido.
+     * @return la huella en hexadecimal.
+     */
+    public static String huella(Movimiento movimiento) {
+        String datos = String.join("|",
+                String.valueOf(movimiento.getCuenta() == null ? null : movimiento.getCuenta().getCuentaId()),
+                String.valueOf(movimiento.getTipo()),
+                String.valueOf(movimiento.getValor()),
+                String.valueOf(movimiento.getPeriodo()),
+                String.valueOf(movimiento.getEstado()),
+                String.valueOf(movimiento.getFechaMovimiento()));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     *
+     * @return la clave de idempotencia.
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    /**
+     *
+     * @return el id del movimiento creado con la clave.
+     */
+    public Long getMovimientoId() {
+        return movimientoId;
+    }
+
+    /**
+     *
+     * @return el id de la cuenta del movimiento creado con la clave.
+     */
+    public Long getCuentaId() {
+        return cuentaId;
+    }
+
+    /**
+     *
+     * @return la huella de la solicitud que uso la clave.
+     */
+    public String getHuella() {
+        return huella;
+    }
+
+    /**
+     *
+     * @return la fecha en que se registro la clave.
+     */
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    /**
+     *
+     * @return el id de la entidad, que es la clave.
+     */
+    @Override
+    public String getId() {
+        return clave;
+    }
+
+    /**
+     * Las claves solo se insertan, nunca se actualizan; asi save hace un insert directo
+     * en lugar de consultar primero si la clave existe.
+     * @return true.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,5 +1,11 @@
 package com.sophos.retoSpringBoot.entity;
 
+import com.sophos.retoSpringBoot.util.BlockIdGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -20,9 +26,13 @@ import java.util.Set;
 
 @Entity
 @Table(name = "clientes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clientes")
 public class Cliente {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "clientes_id")
+    @GenericGenerator(name = "clientes_id", strategy = "com.sophos.retoSpringBoot.util.BlockIdGenerator",
+            parameters = @Parameter(name = BlockIdGenerator.SECUENCIA, value = "clientes"))
     @Column(name="clienteId")
     private Long clienteId;
     @Column(name="tipoId")
@@ -62,9 +72,11 @@ public class Cliente {
     private String usuarioModificacion;
 
     /**
-     * Genera la relacion uno a muchos, con la tabla cuentas
+     * Genera la relacion uno a muchos, con la tabla cuentas. Los ids de las cuentas se
+     * guardan en la cache de segundo nivel y se invalidan al crear o eliminar una cuenta.
      */
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "cliente")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clientes-cuentas")
     private Set<Cuenta> cuentas = new HashSet<>();
 
     /**
@@ -1,6 +1,12 @@
 package com.sophos.retoSpringBoot.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sophos.retoSpringBoot.util.BlockIdGenerator;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -17,11 +23,17 @@ import java.util.Set;
  * @since 1.0.0
  */
 @Entity
-@Table(name = "cuentas")
+@Table(name = "cuentas", indexes = {
+        @Index(name = "idx_cuentas_cliente", columnList = "cliente_id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cuentas")
 public class Cuenta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "cuentas_id")
+    @GenericGenerator(name = "cuentas_id", strategy = "com.sophos.retoSpringBoot.util.BlockIdGenerator",
+            parameters = @Parameter(name = BlockIdGenerator.SECUENCIA, value = "cuentas"))
     private Long cuentaId;
     private String producto;
     private String estadoCuenta;
@@ -32,6 +44,15 @@ public class Cuenta {
     private LocalDate fechaModificacion;
     private String usuarioModificacion;
 
+    /**
+     * saldo de la cuenta, mantenido por los movimientos. No se escribe al sincronizar
+     * la entidad: solo cambia con las actualizaciones de AccountRepository, que le suman
+     * el efecto de cada movimiento en la misma transaccion.
+     */
+    @Column(name = "saldo", updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long saldo;
+
     /**
      * genera la relacion muchos a uno con la tabla cliente
      */
@@ -41,9 +62,13 @@ public class Cuenta {
     private Cliente cliente;
 
     /**
-     * genera la relacion uno a muchos con la tabla movimientos.
+     * genera la relacion uno a muchos con la tabla movimientos. Los ids de los movimientos
+     * se guardan en la cache de segundo nivel y se invalidan al escribir un movimiento. Las
+     * colecciones que no estan en la cache se cargan de a 50 cuentas por consulta.
      */
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "cuenta")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cuentas-movimientos")
+    @BatchSize(size = 50)
     private Set<Movimiento> movimientos = new HashSet<>();
 
     /**
@@ -179,6 +204,22 @@ public class Cuenta {
         this.fechaCreacion = fechaCreacion;
     }
 
+    /**
+     *
+     * @return el saldo de la cuenta.
+     */
+    public Long getSaldo() {
+        return saldo;
+    }
+
+    /**
+     *
+     * @param saldo establece el saldo inicial de la cuenta.
+     */
+    public void setSaldo(Long saldo) {
+        this.saldo = saldo;
+    }
+
     /**
      *
      * @return usuario de creacion de la cuenta
@@ -0,0 +1,179 @@
+package com.sophos.retoSpringBoot.entity;
+
+import com.sophos.retoSpringBoot.util.BlockIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * <h1>Clase Importacion</h1>
+ * Registra cada importacion de un archivo de movimientos y el ultimo lote confirmado. El
+ * contador de lotes se actualiza en la misma transaccion que inserta cada lote, por eso una
+ * importacion interrumpida se puede reanudar desde el lote siguiente sin repetir filas.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "importaciones")
+public class Importacion {
+
+    /**
+     * estado de una importacion que se esta ejecutando o que se interrumpio sin terminar.
+     */
+    public static final String EN_CURSO = "en_curso";
+
+    /**
+     * estado de una importacion que inserto todas las filas del archivo.
+     */
+    public static final String COMPLETADA = "completada";
+
+    /**
+     * estado de una importacion que se detuvo por un error; se puede reanudar.
+     */
+    public static final String FALLIDA = "fallida";
+
+    @Id
+    @GeneratedValue(generator = "importaciones_id")
+    @GenericGenerator(name = "importaciones_id", strategy = "com.sophos.retoSpringBoot.util.BlockIdGenerator",
+            parameters = @Parameter(name = BlockIdGenerator.SECUENCIA, value = "importaciones"))
+    private Long importacionId;
+    private String ruta;
+    private String formato;
+    private String estado;
+    private int tamanoLote;
+    private long lotesConfirmados;
+    private long filasConfirmadas;
+    @Column(length = 1000)
+    private String error;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+
+    /**
+     * Constructor vacio de la clase Importacion.
+     */
+    public Importacion() {
+    }
+
+    /**
+     * Constructor Importacion
+     *
+     * @param ruta ruta del archivo, relativa al directorio de importaciones.
+     * @param formato csv o ndjson.
+     * @param tamanoLote filas que se confirman en cada transaccion.
+     */
+    public Importacion(String ruta, String formato, int tamanoLote) {
+        this.ruta = ruta;
+        this.formato = formato;
+        this.tamanoLote = tamanoLote;
+        this.estado = EN_CURSO;
+        this.fechaInicio = LocalDateTime.now();
+    }
+
+    /**
+     *
+     * @return el id de la importacion.
+     */
+    public Long getImportacionId() {
+        return importacionId;
+    }
+
+    /**
+     *
+     * @return la ruta del archivo, relativa al directorio de importaciones.
+     */
+    public String getRuta() {
+        return ruta;
+    }
+
+    /**
+     *
+     * @return el formato del archivo.
+     */
+    public String getFormato() {
+        return formato;
+    }
+
+    /**
+     *
+     * @return el estado de la importacion.
+     */
+    public String getEstado() {
+        return estado;
+    }
+
+    /**
+     *
+     * @param estado establece el estado de la importacion.
+     */
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    /**
+     *
+     * @return las filas que se confirman en cada transaccion.
+     */
+    public int getTamanoLote() {
+        return tamanoLote;
+    }
+
+    /**
+     *
+     * @return la cantidad de lotes ya confirmados.
+     */
+    public long getLotesConfirmados() {
+        return lotesConfirmados;
+    }
+
+    /**
+     *
+     * @return la cantidad de filas ya confirmadas.
+     */
+    public long getFilasConfirmadas() {
+        return filasConfirmadas;
+    }
+
+    /**
+     *
+     * @return el error que detuvo la importacion, si lo hubo.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     *
+     * @param error establece el error que detuvo la importacion.
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     *
+     * @return la fecha en que inicio la importacion.
+     */
+    public LocalDateTime getFechaInicio() {
+        return fechaInicio;
+    }
+
+    /**
+     *
+     * @return la fecha en que termino la importacion.
+     */
+    public LocalDateTime getFechaFin() {
+        return fechaFin;
+    }
+
+    /**
+     *
+     * @param fechaFin establece la fecha en que termino la importacion.
+     */
+    public void setFechaFin(LocalDateTime fechaFin) {
+        this.fechaFin = fechaFin;
+    }
+}
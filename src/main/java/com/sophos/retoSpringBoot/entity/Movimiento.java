@@ -1,6 +1,12 @@
 package com.sophos.retoSpringBoot.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sophos.retoSpringBoot.util.BlockIdGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.time.LocalDate;
 
@@ -15,11 +21,21 @@ import java.time.LocalDate;
  * @since 1.0.0
  */
 @Entity
-@Table(name = "movimientos")
+@Table(name = "movimientos", indexes = {
+        @Index(name = "idx_movimientos_cuenta_fecha", columnList = "cuenta_id, fechaMovimiento, movimientoId, estado, tipo, valor")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movimientos")
 public class Movimiento {
 
+    /**
+     * el id se toma de memoria por bloques reservados en id_generadores; a diferencia de
+     * IDENTITY, se conoce antes del insert y Hibernate puede agrupar los insert en lotes JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "movimientos_id")
+    @GenericGenerator(name = "movimientos_id", strategy = "com.sophos.retoSpringBoot.util.BlockIdGenerator",
+            parameters = @Parameter(name = BlockIdGenerator.SECUENCIA, value = "movimientos"))
     private Long movimientoId;
     private String tipo;
     private Long valor;
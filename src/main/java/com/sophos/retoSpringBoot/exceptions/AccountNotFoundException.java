@@ -10,13 +10,13 @@ package com.sophos.retoSpringBoot.exceptions;
  *@since 1.0.0
  */
 
-public class AccountNotFoundException extends RuntimeException{
+public class AccountNotFoundException extends DomainException{
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */
 	public AccountNotFoundException(String mensaje) {
-		super(mensaje);
+		super(CodigoError.CUENTA_NO_ENCONTRADA, mensaje);
 	}
 	
 }
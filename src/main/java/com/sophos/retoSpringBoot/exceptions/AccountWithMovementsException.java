@@ -8,13 +8,13 @@ package com.sophos.retoSpringBoot.exceptions;
  *@version 1.0.0 2022
  *@since 1.0.0
  */
-public class AccountWithMovementsException extends RuntimeException{
+public class AccountWithMovementsException extends DomainException{
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */
 	public AccountWithMovementsException(String mensaje) {
-		super(mensaje);
+		super(CodigoError.CUENTA_CON_MOVIMIENTOS, mensaje);
 	}
 		
 
@@ -7,12 +7,12 @@ package com.sophos.retoSpringBoot.exceptions;
  *@version 1.0.0 2022
  *@since 1.0.0
  */
-public class ClientNotFound extends RuntimeException{
+public class ClientNotFound extends DomainException{
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */	
 	public ClientNotFound(String mensaje) {
-		super(mensaje);
+		super(CodigoError.CLIENTE_NO_ENCONTRADO, mensaje);
 	}
 }
@@ -8,13 +8,13 @@ package com.sophos.retoSpringBoot.exceptions;
  *@version 1.0.0 2022
  *@since 1.0.0
  */
-public class ClientWithAccountsException extends RuntimeException{
+public class ClientWithAccountsException extends DomainException{
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */	
 	public ClientWithAccountsException(String mensaje) {
-		super(mensaje);
+		super(CodigoError.CLIENTE_CON_CUENTAS, mensaje);
 	}
 	
 }
@@ -0,0 +1,57 @@
+package com.sophos.retoSpringBoot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ *<h1>CodigoError</h1>
+ *Codigos de error que el API devuelve junto con el mensaje. Cada codigo es el prefijo del
+ *recurso seguido de un numero: CLI clientes, CTA cuentas, MOV movimientos, TRF
+ *transferencias, IMP importaciones y GEN parametros generales de las peticiones. Los
+ *codigos ya publicados no se renumeran; los nuevos se agregan al final de su prefijo.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public enum CodigoError {
+
+	CLIENTE_NO_ENCONTRADO("CLI-001", HttpStatus.NOT_FOUND),
+	CLIENTE_MENOR_DE_EDAD("CLI-002", HttpStatus.BAD_REQUEST),
+	CLIENTE_CON_CUENTAS("CLI-003", HttpStatus.BAD_REQUEST),
+	CUENTA_NO_ENCONTRADA("CTA-001", HttpStatus.NOT_FOUND),
+	CUENTA_CON_MOVIMIENTOS("CTA-002", HttpStatus.BAD_REQUEST),
+	MOVIMIENTO_NO_ENCONTRADO("MOV-001", HttpStatus.NOT_FOUND),
+	MOVIMIENTO_ACTIVO("MOV-002", HttpStatus.BAD_REQUEST),
+	TRANSFERENCIA_INVALIDA("TRF-001", HttpStatus.BAD_REQUEST),
+	IMPORTACION_NO_ENCONTRADA("IMP-001", HttpStatus.NOT_FOUND),
+	IMPORTACION_INVALIDA("IMP-002", HttpStatus.BAD_REQUEST),
+	CURSOR_INVALIDO("GEN-001", HttpStatus.BAD_REQUEST),
+	CLAVE_IDEMPOTENCIA_INVALIDA("GEN-002", HttpStatus.BAD_REQUEST),
+	PERIODO_INVALIDO("GEN-003", HttpStatus.BAD_REQUEST),
+	CLAVE_IDEMPOTENCIA_REUTILIZADA("GEN-004", HttpStatus.UNPROCESSABLE_ENTITY);
+
+	private final String codigo;
+
+	private final HttpStatus estado;
+
+	CodigoError(String codigo, HttpStatus estado) {
+		this.codigo = codigo;
+		this.estado = estado;
+	}
+
+	/**
+	 *
+	 * @return el codigo que se envia en el campo codigo de la respuesta.
+	 */
+	public String getCodigo() {
+		return codigo;
+	}
+
+	/**
+	 *
+	 * @return el estado HTTP de la respuesta.
+	 */
+	public HttpStatus getEstado() {
+		return estado;
+	}
+}
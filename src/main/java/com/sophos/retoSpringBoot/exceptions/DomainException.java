@@ -0,0 +1,35 @@
+package com.sophos.retoSpringBoot.exceptions;
+
+/**
+ *<h1>DomainException</h1>
+ *Base de las excepciones de negocio del API. Estas excepciones solo llevan un mensaje para
+ *el usuario y se convierten en una respuesta de error en ExceptionConfig, por lo que no
+ *capturan la traza de la pila: llenarla recorre todos los marcos de la peticion y era lo
+ *mas costoso de responder un 404.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public abstract class DomainException extends RuntimeException {
+
+	private final CodigoError codigo;
+
+	/**
+	 *
+	 * @param codigo codigo y estado HTTP de la respuesta de error.
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	protected DomainException(CodigoError codigo, String mensaje) {
+		super(mensaje, null, false, false);
+		this.codigo = codigo;
+	}
+
+	/**
+	 *
+	 * @return el codigo de error de la excepcion.
+	 */
+	public CodigoError getCodigo() {
+		return codigo;
+	}
+}
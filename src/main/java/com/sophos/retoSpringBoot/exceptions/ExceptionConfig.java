@@ -1,19 +1,28 @@
 package com.sophos.retoSpringBoot.exceptions;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
 import java.util.Map;
 
-import org.springframework.http.HttpStatus;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
+
+import javax.servlet.http.HttpServletRequest;
 
 /**
  *<h1>ExceptionConfig</h1>
  *Esta clase permite manejar todas las excepciones, asignandoles a cada una su
  *respectivo codigo de error y la forma en que se mostraran al ser llamadas.
- * 
+ *
+ *Todas las respuestas de error tienen la forma {"codigo":"CLI-001","errorMessage":"..."}.
+ *La parte fija de cada codigo se serializa una sola vez al iniciar; por cada error solo
+ *se escapa el mensaje y se copia entre las dos partes, sin pasar por un mapa ni por Jackson.
+ *
  *@author Wilson David Pachon.
  *@version 1.0.0 2022
  *@since 1.0.0
@@ -21,86 +30,57 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ControllerAdvice
 public class ExceptionConfig {
-	
-	@ResponseBody
-	@ExceptionHandler(UnderAgeClientException.class)
-	@ResponseStatus(HttpStatus.BAD_REQUEST)
-	public Map<String, String> exceptionHandler(UnderAgeClientException exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
+
+	private static final byte[] CIERRE = "\"}".getBytes(StandardCharsets.UTF_8);
+
+	private static final HttpHeaders ENCABEZADOS = HttpHeaders.readOnlyHttpHeaders(json());
+
+	private final Map<CodigoError, byte[]> aperturas = new EnumMap<>(CodigoError.class);
+
+	public ExceptionConfig() {
+		for(CodigoError codigo : CodigoError.values()) {
+			aperturas.put(codigo, ("{\"codigo\":\"" + codigo.getCodigo() + "\",\"errorMessage\":\"").getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * <h2>Metodo para responder una excepcion de negocio</h2>
+	 * La excepcion se deja en la peticion para que la metrica http.server.requests la
+	 * etiquete, ya que las excepciones manejadas aqui no llegan al filtro de metricas.
+	 * @param exception excepcion lanzada por un servicio.
+	 * @param request peticion que genero la excepcion.
+	 * @return el cuerpo JSON con el codigo y el mensaje, con el estado HTTP del codigo.
+	 */
+	@ExceptionHandler(DomainException.class)
+	public ResponseEntity<byte[]> exceptionHandler(DomainException exception, HttpServletRequest request){
+
+		request.setAttribute(ErrorAttributes.ERROR_ATTRIBUTE, exception);
+
+		CodigoError codigo = exception.getCodigo();
+		return new ResponseEntity<>(cuerpo(codigo, exception.getMessage()), ENCABEZADOS, codigo.getEstado());
 	}
-	
-	
-	@ResponseBody
-	@ExceptionHandler(ClientWithAccountsException.class)
-	@ResponseStatus(HttpStatus.BAD_REQUEST)
-	public Map<String, String> exceptionHandler(ClientWithAccountsException exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
-	}	
-	
-	
-	@ResponseBody
-	@ExceptionHandler(AccountWithMovementsException.class)
-	@ResponseStatus(HttpStatus.BAD_REQUEST)
-	public Map<String, String> exceptionHandler(AccountWithMovementsException exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
-	}		
-	
-	@ResponseBody
-	@ExceptionHandler(MovementActiveStateException.class)
-	@ResponseStatus(HttpStatus.BAD_REQUEST)
-	public Map<String, String> exceptionHandler(MovementActiveStateException exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
-	}	
-	
-	
-	
-	@ResponseBody
-	@ExceptionHandler(ClientNotFound.class)
-	@ResponseStatus(HttpStatus.NOT_FOUND)
-	public Map<String, String> exceptionHandler(ClientNotFound exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
-	}	
-	
-	@ResponseBody
-	@ExceptionHandler(AccountNotFoundException.class)
-	@ResponseStatus(HttpStatus.NOT_FOUND)
-	public Map<String, String> exceptionHandler(AccountNotFoundException exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
+
+	/**
+	 * <h2>Metodo para armar el cuerpo de una respuesta de error</h2>
+	 * @param codigo codigo de error de la respuesta.
+	 * @param mensaje mensaje para el usuario, que se escapa como cadena JSON.
+	 * @return el cuerpo JSON en UTF-8.
+	 */
+	public byte[] cuerpo(CodigoError codigo, String mensaje) {
+
+		byte[] apertura = aperturas.get(codigo);
+		byte[] texto = JsonStringEncoder.getInstance().quoteAsUTF8(mensaje == null ? "" : mensaje);
+		byte[] cuerpo = new byte[apertura.length + texto.length + CIERRE.length];
+		System.arraycopy(apertura, 0, cuerpo, 0, apertura.length);
+		System.arraycopy(texto, 0, cuerpo, apertura.length, texto.length);
+		System.arraycopy(CIERRE, 0, cuerpo, apertura.length + texto.length, CIERRE.length);
+		return cuerpo;
 	}
-	
-	@ResponseBody
-	@ExceptionHandler(MovementNotFoundException.class)
-	@ResponseStatus(HttpStatus.NOT_FOUND)
-	public Map<String, String> exceptionHandler(MovementNotFoundException exception){
-		
-		Map<String, String> errorMap=new HashMap<>();
-		errorMap.put("errorMessage", exception.getMessage());
-		
-		return errorMap;
+
+	private static HttpHeaders json() {
+		HttpHeaders encabezados = new HttpHeaders();
+		encabezados.setContentType(MediaType.APPLICATION_JSON);
+		return encabezados;
 	}
 
 }
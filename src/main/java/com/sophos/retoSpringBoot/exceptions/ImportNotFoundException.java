@@ -0,0 +1,19 @@
+package com.sophos.retoSpringBoot.exceptions;
+/**
+ *<h1>ImportNotFoundException</h1>
+ *Esta excepcion es lanzada cuando se consulta o se reanuda una importacion que no existe.
+ * 
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class ImportNotFoundException extends DomainException{
+	/**
+	 * 
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public ImportNotFoundException(String mensaje) {
+		super(CodigoError.IMPORTACION_NO_ENCONTRADA, mensaje);
+	}
+	
+}
@@ -0,0 +1,20 @@
+package com.sophos.retoSpringBoot.exceptions;
+/**
+ *<h1>InvalidCursorException</h1>
+ *Esta excepcion es lanzada cuando el cursor de paginacion enviado por el cliente
+ *no se puede interpretar.
+ * 
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class InvalidCursorException extends DomainException{
+	/**
+	 * 
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public InvalidCursorException(String mensaje) {
+		super(CodigoError.CURSOR_INVALIDO, mensaje);
+	}
+	
+}
@@ -0,0 +1,30 @@
+package com.sophos.retoSpringBoot.exceptions;
+/**
+ *<h1>InvalidIdempotencyKeyException</h1>
+ *Esta excepcion es lanzada cuando el encabezado Idempotency-Key no es valido,
+ *por ejemplo si supera la longitud maxima, o cuando la clave ya se uso con otra cuenta
+ *u otros datos.
+ * 
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class InvalidIdempotencyKeyException extends DomainException{
+	/**
+	 * 
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public InvalidIdempotencyKeyException(String mensaje) {
+		super(CodigoError.CLAVE_IDEMPOTENCIA_INVALIDA, mensaje);
+	}
+
+	/**
+	 * 
+	 * @param codigo codigo y estado HTTP de la respuesta de error.
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public InvalidIdempotencyKeyException(CodigoError codigo, String mensaje) {
+		super(codigo, mensaje);
+	}
+	
+}
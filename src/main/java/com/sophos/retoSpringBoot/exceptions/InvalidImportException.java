@@ -0,0 +1,20 @@
+package com.sophos.retoSpringBoot.exceptions;
+/**
+ *<h1>InvalidImportException</h1>
+ *Esta excepcion es lanzada cuando los datos de una importacion no son validos, por ejemplo si la
+ *ruta sale del directorio de importaciones o una fila del archivo no se puede leer.
+ * 
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class InvalidImportException extends DomainException{
+	/**
+	 * 
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public InvalidImportException(String mensaje) {
+		super(CodigoError.IMPORTACION_INVALIDA, mensaje);
+	}
+	
+}
@@ -0,0 +1,20 @@
+package com.sophos.retoSpringBoot.exceptions;
+/**
+ *<h1>InvalidPeriodException</h1>
+ *Esta excepcion es lanzada cuando el periodo solicitado para un extracto
+ *no tiene el formato yyyy-MM.
+ * 
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class InvalidPeriodException extends DomainException{
+	/**
+	 * 
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public InvalidPeriodException(String mensaje) {
+		super(CodigoError.PERIODO_INVALIDO, mensaje);
+	}
+	
+}
@@ -0,0 +1,20 @@
+package com.sophos.retoSpringBoot.exceptions;
+/**
+ *<h1>InvalidTransferException</h1>
+ *Esta excepcion es lanzada cuando los datos de una transferencia no son validos,
+ *por ejemplo si la cuenta de origen y la de destino son la misma.
+ * 
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class InvalidTransferException extends DomainException{
+	/**
+	 * 
+	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
+	 */
+	public InvalidTransferException(String mensaje) {
+		super(CodigoError.TRANSFERENCIA_INVALIDA, mensaje);
+	}
+	
+}
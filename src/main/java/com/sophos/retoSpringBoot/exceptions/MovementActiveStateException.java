@@ -9,13 +9,13 @@ package com.sophos.retoSpringBoot.exceptions;
  *@version 1.0.0 2022
  *@since 1.0.0
  */
-public class MovementActiveStateException extends RuntimeException{	
+public class MovementActiveStateException extends DomainException{	
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */	
 	public MovementActiveStateException(String mensaje) {
-		super(mensaje);
+		super(CodigoError.MOVIMIENTO_ACTIVO, mensaje);
 	}
 	
 }
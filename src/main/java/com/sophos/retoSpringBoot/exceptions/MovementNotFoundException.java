@@ -7,13 +7,13 @@ package com.sophos.retoSpringBoot.exceptions;
  *@version 1.0.0 2022
  *@since 1.0.0
  */
-public class MovementNotFoundException extends RuntimeException{
+public class MovementNotFoundException extends DomainException{
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */
 	public MovementNotFoundException(String mensaje) {
-		super(mensaje);
+		super(CodigoError.MOVIMIENTO_NO_ENCONTRADO, mensaje);
 	}
 	
 }
@@ -7,13 +7,13 @@ package com.sophos.retoSpringBoot.exceptions;
  *@version 1.0.0 2022
  *@since 1.0.0
  */
-public class UnderAgeClientException extends RuntimeException{
+public class UnderAgeClientException extends DomainException{
 	/**
 	 * 
 	 * @param mensaje El mensaje de excepcion que se mostrara al usuario.
 	 */
 	public UnderAgeClientException (String mensaje) {
-		super(mensaje);
+		super(CodigoError.CLIENTE_MENOR_DE_EDAD, mensaje);
 	}
 	
 }
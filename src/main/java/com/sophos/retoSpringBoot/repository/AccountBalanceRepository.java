@@ -0,0 +1,33 @@
+package com.sophos.retoSpringBoot.repository;
+
+/**
+ *<h1>Interfaz Repositorio Saldo Cuenta</h1>
+ *Actualizaciones del saldo de las cuentas. Se implementan aparte de AccountRepository
+ *para que cada actualizacion invalide en la cache de segundo nivel solo la cuenta que
+ *modifica, y no todas las cuentas como lo haria un update JPQL.
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public interface AccountBalanceRepository {
+
+    /**
+     * Sumar un valor al saldo de una cuenta con una sola sentencia update. La sentencia
+     * bloquea la fila de la cuenta hasta el fin de la transaccion, por lo que tambien
+     * impide que la cuenta se elimine mientras se registra el movimiento. Si el saldo
+     * aun no se ha calculado (null) se deja asi, para que se recalcule al consultarlo.
+     * @param cuentaId el id de la cuenta.
+     * @param delta valor a sumar al saldo, negativo para restar.
+     * @return cantidad de cuentas actualizadas, 0 si la cuenta no existe.
+     */
+    int adjustBalance(Long cuentaId, Long delta);
+
+    /**
+     * Reemplazar el saldo de una cuenta. Al terminar se vacia el contexto de persistencia,
+     * para que las lecturas siguientes de la transaccion vean el saldo nuevo.
+     * @param cuentaId el id de la cuenta.
+     * @param saldo nuevo saldo de la cuenta.
+     * @return cantidad de cuentas actualizadas.
+     */
+    int setBalance(Long cuentaId, Long saldo);
+}
@@ -0,0 +1,75 @@
+package com.sophos.retoSpringBoot.repository;
+
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ *<h1>Implementacion Repositorio Saldo Cuenta</h1>
+ *Las actualizaciones son SQL nativo con un espacio de consulta propio, asi Hibernate no
+ *descarta la region completa de cuentas de la cache de segundo nivel. En su lugar, la
+ *cuenta actualizada se bloquea en la cache antes del update y se libera al terminar la
+ *transaccion, igual que hace Hibernate al actualizar una entidad: mientras esta
+ *bloqueada se lee de la base de datos, y ninguna lectura que empezo antes de liberarla
+ *puede volver a guardar el saldo anterior.
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+
+    /**
+     * espacio de consulta de los updates de saldo. Ninguna entidad lo usa, por lo que
+     * los updates no invalidan ninguna region de la cache.
+     */
+    private static final String ESPACIO_SALDOS = "cuentas_saldo";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int adjustBalance(Long cuentaId, Long delta) {
+
+        lockCachedAccount(cuentaId);
+        return entityManager.createNativeQuery("update cuentas set saldo = saldo + :delta where cuenta_id = :cuentaId")
+                .setParameter("delta", delta)
+                .setParameter("cuentaId", cuentaId)
+                .setHint(QueryHints.NATIVE_SPACES, ESPACIO_SALDOS)
+                .executeUpdate();
+    }
+
+    @Override
+    public int setBalance(Long cuentaId, Long saldo) {
+
+        lockCachedAccount(cuentaId);
+        int actualizadas = entityManager.createNativeQuery("update cuentas set saldo = :saldo where cuenta_id = :cuentaId")
+                .setParameter("saldo", saldo)
+                .setParameter("cuentaId", cuentaId)
+                .setHint(QueryHints.NATIVE_SPACES, ESPACIO_SALDOS)
+                .executeUpdate();
+        entityManager.clear();
+        return actualizadas;
+    }
+
+    /**
+     * Bloquea la cuenta en la cache de segundo nivel hasta el fin de la transaccion.
+     */
+    private void lockCachedAccount(Long cuentaId) {
+
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Cuenta.class);
+        if(!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Object clave = cache.generateCacheKey(cuentaId, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock bloqueo = cache.lockItem(session, clave, null);
+        session.getActionQueue().registerProcess((exito, sesion) -> cache.unlockItem(sesion, clave, bloqueo));
+    }
+}
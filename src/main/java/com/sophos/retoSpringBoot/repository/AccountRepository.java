@@ -1,12 +1,17 @@
 package com.sophos.retoSpringBoot.repository;
 
-import com.sophos.retoSpringBoot.entity.Cliente;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
+
 
 /**
  *<h1>Interfaz Repositorio Cuenta</h1>
@@ -16,21 +21,49 @@ import java.util.Set;
  *@since 1.0.0
  */
 @Repository
-public interface AccountRepository extends JpaRepository<Cuenta, Long> {
+public interface AccountRepository extends JpaRepository<Cuenta, Long>, AccountBalanceRepository {
     /**
-     *Buscar cuentas por cliente
-     * @param cliente el cliente que se quiere consultar.
-     * @return lista de cuentas.
+     *Buscar cuentas por el id del cliente, sin consultar antes el cliente ni cargar sus movimientos.
+     * @param clienteId el id del cliente que se quiere consultar.
+     * @return lista de cuentas, sin sus movimientos cargados.
      */
-	List<Cuenta> findByCliente(Cliente cliente);
+    @Query("select c from Cuenta c where c.cliente.clienteId = :clienteId")
+	List<Cuenta> findByClienteClienteId(@Param("clienteId") Long clienteId);
 
     /**
-     *Buscar cuenta por id.
-     * @param cuentaId id de la cuenta que se quiere buscar.
-     * @return la cuenta asociada al id pasado como parametro.
+     * Validar si un cliente tiene al menos una cuenta. La consulta se detiene en la
+     * primera fila del indice idx_cuentas_cliente, sin cargar las cuentas.
+     * @param clienteId el id del cliente que se quiere validar.
+     * @return true si el cliente tiene cuentas asociadas.
      */
-    Cuenta findByCuentaId(Long cuentaId);
+    boolean existsByClienteClienteId(Long clienteId);
 
+    /**
+     * Buscar cuales de los ids recibidos corresponden a cuentas existentes, con una sola consulta IN.
+     * @param cuentaIds ids de las cuentas a validar.
+     * @return los ids que existen.
+     */
+    @Query("select c.cuentaId from Cuenta c where c.cuentaId in :cuentaIds")
+    List<Long> findExistingIds(@Param("cuentaIds") Collection<Long> cuentaIds);
 
-}
+    /**
+     * Buscar una cuenta por id bloqueando la fila para escritura hasta el fin de la transaccion.
+     * Se usa antes de eliminar la cuenta, para que no se registren movimientos mientras tanto.
+     * @param cuentaId el id de la cuenta.
+     * @return la cuenta bloqueada, o vacio si no existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cuenta c where c.cuentaId = :cuentaId")
+    Optional<Cuenta> findByIdForUpdate(@Param("cuentaId") Long cuentaId);
 
+    /**
+     * Buscar una cuenta por id con bloqueo compartido hasta el fin de la transaccion.
+     * Se usa al registrar un movimiento, para que la cuenta no se elimine mientras tanto.
+     * @param cuentaId el id de la cuenta.
+     * @return la cuenta bloqueada, o vacio si no existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Cuenta c where c.cuentaId = :cuentaId")
+    Optional<Cuenta> findByIdForShare(@Param("cuentaId") Long cuentaId);
+
+}
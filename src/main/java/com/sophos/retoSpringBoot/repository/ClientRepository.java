@@ -1,9 +1,19 @@
 package com.sophos.retoSpringBoot.repository;
 
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.FilaResumen;
 import com.sophos.retoSpringBoot.entity.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
 
 /**
  *<h1>Interfaz Repositorio Cliente</h1>
@@ -15,10 +25,93 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ClientRepository extends JpaRepository<Cliente, Long> {
     /**
-     * Buscar cliente por id.
-     * @param clienteId el id del cliente que se quiere buscar,
-     * @return el cliente asociado al id pasado como parametro.
+     * Buscar la pagina de clientes con id mayor al cursor, en orden ascendente.
+     * La consulta recorre la llave primaria a partir del cursor, por lo que su costo
+     * no depende de la posicion de la pagina. Las filas se leen directamente como
+     * ClienteRespuesta, sin crear entidades ni tocar las cuentas.
+     * @param despuesDe id del ultimo cliente de la pagina anterior.
+     * @param estadoCliente filtro opcional por estado del cliente.
+     * @param tipoCliente filtro opcional por tipo de cliente.
+     * @param limite cantidad maxima de filas a leer.
+     * @return lista de clientes, sin sus cuentas, ordenada por id ascendente.
+     */
+    @Query("select new com.sophos.retoSpringBoot.dto.ClienteRespuesta(c.clienteId, c.tipoId, c.numeroId,"
+            + " c.estadoCliente, c.tipoCliente, c.direccion, c.telefono, c.correo, c.primerNombre, c.segundoNombre,"
+            + " c.primerApellido, c.segundoApellido, c.fechaNacimiento, c.fechaCreacion, c.usuarioCreacion,"
+            + " c.fechaModificacion, c.usuarioModificacion)"
+            + " from Cliente c where c.clienteId > :despuesDe"
+            + " and (:estadoCliente is null or c.estadoCliente = :estadoCliente)"
+            + " and (:tipoCliente is null or c.tipoCliente = :tipoCliente)"
+            + " order by c.clienteId asc")
+    List<ClienteRespuesta> findPageAscending(@Param("despuesDe") Long despuesDe,
+                                            @Param("estadoCliente") String estadoCliente,
+                                            @Param("tipoCliente") String tipoCliente,
+                                            Pageable limite);
+
+    /**
+     * Buscar la pagina de clientes con id menor al cursor, en orden descendente.
+     * @param antesDe id del ultimo cliente de la pagina anterior.
+     * @param estadoCliente filtro opcional por estado del cliente.
+     * @param tipoCliente filtro opcional por tipo de cliente.
+     * @param limite cantidad maxima de filas a leer.
+     * @return lista de clientes, sin sus cuentas, ordenada por id descendente.
+     */
+    @Query("select new com.sophos.retoSpringBoot.dto.ClienteRespuesta(c.clienteId, c.tipoId, c.numeroId,"
+            + " c.estadoCliente, c.tipoCliente, c.direccion, c.telefono, c.correo, c.primerNombre, c.segundoNombre,"
+            + " c.primerApellido, c.segundoApellido, c.fechaNacimiento, c.fechaCreacion, c.usuarioCreacion,"
+            + " c.fechaModificacion, c.usuarioModificacion)"
+            + " from Cliente c where c.clienteId < :antesDe"
+            + " and (:estadoCliente is null or c.estadoCliente = :estadoCliente)"
+            + " and (:tipoCliente is null or c.tipoCliente = :tipoCliente)"
+            + " order by c.clienteId desc")
+    List<ClienteRespuesta> findPageDescending(@Param("antesDe") Long antesDe,
+                                             @Param("estadoCliente") String estadoCliente,
+                                             @Param("tipoCliente") String tipoCliente,
+                                             Pageable limite);
+
+    /**
+     * Leer el resumen de un cliente en una sola consulta: el cliente, cada una de sus cuentas
+     * y, por cuenta, la cantidad de movimientos, la fecha del ultimo y las sumas de creditos y
+     * debitos activos. Los joins externos dejan una fila con la cuenta en null si el cliente
+     * no tiene cuentas, y los totales en null si la cuenta no tiene movimientos.
+     * @param clienteId el id del cliente.
+     * @return una fila por cuenta ordenada por id de la cuenta, o vacio si el cliente no existe.
+     */
+    @Query("select new com.sophos.retoSpringBoot.dto.FilaResumen(c.clienteId, c.tipoId, c.numeroId,"
+            + " c.estadoCliente, c.tipoCliente, c.direccion, c.telefono, c.correo, c.primerNombre, c.segundoNombre,"
+            + " c.primerApellido, c.segundoApellido, c.fechaNacimiento, c.fechaCreacion, c.usuarioCreacion,"
+            + " c.fechaModificacion, c.usuarioModificacion,"
+            + " a.cuentaId, a.producto, a.estadoCuenta, a.valorCredito, a.fechaApertura, a.saldo,"
+            + " count(m.movimientoId), max(m.fechaMovimiento),"
+            + " sum(case when m.estado = 'activo' and lower(m.tipo) not in ('debito', 'retiro') then m.valor else 0 end),"
+            + " sum(case when m.estado = 'activo' and lower(m.tipo) in ('debito', 'retiro') then m.valor else 0 end))"
+            + " from Cliente c left join c.cuentas a left join a.movimientos m"
+            + " where c.clienteId = :clienteId"
+            + " group by c.clienteId, c.tipoId, c.numeroId, c.estadoCliente, c.tipoCliente, c.direccion, c.telefono,"
+            + " c.correo, c.primerNombre, c.segundoNombre, c.primerApellido, c.segundoApellido, c.fechaNacimiento,"
+            + " c.fechaCreacion, c.usuarioCreacion, c.fechaModificacion, c.usuarioModificacion,"
+            + " a.cuentaId, a.producto, a.estadoCuenta, a.valorCredito, a.fechaApertura, a.saldo"
+            + " order by a.cuentaId")
+    List<FilaResumen> findResumen(@Param("clienteId") Long clienteId);
+
+    /**
+     * Buscar un cliente por id bloqueando la fila para escritura hasta el fin de la transaccion.
+     * Se usa antes de eliminar el cliente, para que no se le creen cuentas mientras tanto.
+     * @param clienteId el id del cliente.
+     * @return el cliente bloqueado, o vacio si no existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cliente c where c.clienteId = :clienteId")
+    Optional<Cliente> findByIdForUpdate(@Param("clienteId") Long clienteId);
+
+    /**
+     * Buscar un cliente por id con bloqueo compartido hasta el fin de la transaccion.
+     * Se usa al crear una cuenta, para que el cliente no se elimine mientras tanto.
+     * @param clienteId el id del cliente.
+     * @return el cliente bloqueado, o vacio si no existe.
      */
-    Cliente findByClienteId(Long clienteId);
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Cliente c where c.clienteId = :clienteId")
+    Optional<Cliente> findByIdForShare(@Param("clienteId") Long clienteId);
 
 }
@@ -0,0 +1,30 @@
+package com.sophos.retoSpringBoot.repository;
+
+import com.sophos.retoSpringBoot.entity.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ *<h1>Interfaz Repositorio ClaveIdempotencia</h1>
+ *Es la encargada de resolver el acceso a los datos de la tabla claves_idempotencia.
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    /**
+     * borra las claves registradas antes de la fecha indicada, con una sola sentencia.
+     * @param limite fecha de creacion desde la cual se conservan las claves.
+     * @return cantidad de claves borradas.
+     */
+    @Modifying
+    @Query("delete from ClaveIdempotencia c where c.fechaCreacion < :limite")
+    int deleteCreatedBefore(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,32 @@
+package com.sophos.retoSpringBoot.repository;
+
+import com.sophos.retoSpringBoot.entity.Importacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ *<h1>Interfaz Repositorio Importacion</h1>
+ *Es la encargada de resolver el acceso a los datos de la tabla importaciones.
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Repository
+public interface ImportRepository extends JpaRepository<Importacion, Long> {
+
+    /**
+     * Registrar un lote como confirmado, solo si es el lote que sigue. Si otra ejecucion de la
+     * misma importacion ya lo confirmo, no actualiza nada y la transaccion debe deshacerse.
+     * @param importacionId id de la importacion.
+     * @param lote numero del lote, empezando en 0.
+     * @param filas cantidad de filas del lote.
+     * @return 1 si se confirmo el lote, 0 si no era el siguiente.
+     */
+    @Modifying
+    @Query("update Importacion i set i.lotesConfirmados = i.lotesConfirmados + 1, i.filasConfirmadas = i.filasConfirmadas + :filas"
+            + " where i.importacionId = :importacionId and i.lotesConfirmados = :lote")
+    int confirmChunk(@Param("importacionId") Long importacionId, @Param("lote") long lote, @Param("filas") long filas);
+}
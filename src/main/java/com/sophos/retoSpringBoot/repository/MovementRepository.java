@@ -1,11 +1,23 @@
 package com.sophos.retoSpringBoot.repository;
 
-import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.dto.MovimientoExportado;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.TotalTipo;
 import com.sophos.retoSpringBoot.entity.Movimiento;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 /**
  *<h1>Interfaz Repositorio Movimiento</h1>
  *Es la encargada de resolver el acceso a los datos de la tabla Movimiento.
@@ -16,18 +28,99 @@ import java.util.List;
 @Repository
 public interface MovementRepository extends JpaRepository<Movimiento, Long> {
     /**
-     * Buscar movimientos por cuenta
-     * @param cuenta la cuenta que se quiere consultar.
+     * Buscar movimientos por el id de la cuenta, sin consultar antes la cuenta.
+     * @param cuentaId el id de la cuenta que se quiere consultar.
      * @return lista de movimientos
      */
-    List<Movimiento> findByCuenta(Cuenta cuenta);
+    List<Movimiento> findByCuentaCuentaId(Long cuentaId);
+
+    /**
+     * Validar si una cuenta tiene al menos un movimiento. La consulta se detiene en la
+     * primera fila del indice idx_movimientos_cuenta_fecha, sin cargar el historial.
+     * @param cuentaId el id de la cuenta que se quiere validar.
+     * @return true si la cuenta tiene movimientos asociados.
+     */
+    boolean existsByCuentaCuentaId(Long cuentaId);
+
+    /**
+     * Calcular el saldo de una cuenta a partir de sus movimientos activos. Los tipos
+     * "debito" y "retiro" restan y los demas suman, igual que MovimientoServiceImp.balanceDelta.
+     * @param cuentaId el id de la cuenta.
+     * @return el saldo calculado, 0 si la cuenta no tiene movimientos activos.
+     */
+    @Query("select coalesce(sum(case when m.estado = 'activo' and lower(m.tipo) in ('debito', 'retiro') then -m.valor"
+            + " when m.estado = 'activo' then m.valor else 0 end), 0)"
+            + " from Movimiento m where m.cuenta.cuentaId = :cuentaId")
+    Long sumBalanceByCuenta(@Param("cuentaId") Long cuentaId);
+
+    /**
+     * Calcular el saldo de una cuenta antes de una fecha: el efecto de los movimientos activos
+     * con fecha anterior, o sin fecha. Se resuelve sobre el indice idx_movimientos_cuenta_fecha,
+     * que incluye todas las columnas usadas, sin leer la tabla ni los movimientos posteriores.
+     * @param cuentaId el id de la cuenta.
+     * @param desde fecha hasta la cual se suma (exclusive).
+     * @return el saldo antes de la fecha, 0 si no hay movimientos activos anteriores.
+     */
+    @Query("select coalesce(sum(case when m.estado = 'activo' and lower(m.tipo) in ('debito', 'retiro') then -m.valor"
+            + " when m.estado = 'activo' then m.valor else 0 end), 0)"
+            + " from Movimiento m where m.cuenta.cuentaId = :cuentaId"
+            + " and (m.fechaMovimiento < :desde or m.fechaMovimiento is null)")
+    Long sumBalanceBefore(@Param("cuentaId") Long cuentaId, @Param("desde") LocalDate desde);
+
+    /**
+     * Agrupar por tipo los movimientos activos con fecha en el rango [desde, hasta), sobre el
+     * indice idx_movimientos_cuenta_fecha.
+     * @param cuentaId el id de la cuenta.
+     * @param desde fecha inicial (inclusive).
+     * @param hasta fecha final (exclusiva).
+     * @return cantidad y suma por tipo, ordenado por tipo.
+     */
+    @Query("select new com.sophos.retoSpringBoot.dto.TotalTipo(m.tipo, count(m), coalesce(sum(m.valor), 0))"
+            + " from Movimiento m where m.cuenta.cuentaId = :cuentaId and m.fechaMovimiento >= :desde"
+            + " and m.fechaMovimiento < :hasta and m.estado = 'activo'"
+            + " group by m.tipo order by m.tipo")
+    List<TotalTipo> sumByTipoBetween(@Param("cuentaId") Long cuentaId, @Param("desde") LocalDate desde,
+                                     @Param("hasta") LocalDate hasta);
+
+    /**
+     * Buscar una pagina del historial de movimientos de una cuenta, del mas reciente al mas antiguo.
+     * La pagina continua despues de la posicion (fecha, id) del cursor y se resuelve con un
+     * recorrido del indice idx_movimientos_cuenta_fecha, por lo que la pagina N cuesta lo mismo que la primera.
+     * Las filas se leen directamente como MovimientoRespuesta, sin crear entidades.
+     * @param cuentaId id de la cuenta a consultar.
+     * @param desde fecha minima del movimiento (inclusive).
+     * @param fecha fecha del ultimo movimiento de la pagina anterior.
+     * @param movimientoId id del ultimo movimiento de la pagina anterior.
+     * @param limite cantidad maxima de filas a leer.
+     * @return lista de movimientos ordenada por fecha e id descendente.
+     */
+    @Query("select new com.sophos.retoSpringBoot.dto.MovimientoRespuesta(m.movimientoId, m.tipo, m.valor, m.periodo,"
+            + " m.estado, m.fechaMovimiento, m.fechaCreacion, m.usuarioCreacion, m.fechaModificacion,"
+            + " m.usuarioModificacion)"
+            + " from Movimiento m where m.cuenta.cuentaId = :cuentaId"
+            + " and m.fechaMovimiento >= :desde"
+            + " and (m.fechaMovimiento < :fecha or (m.fechaMovimiento = :fecha and m.movimientoId < :movimientoId))"
+            + " order by m.fechaMovimiento desc, m.movimientoId desc")
+    List<MovimientoRespuesta> findPageByCuenta(@Param("cuentaId") Long cuentaId,
+                                               @Param("desde") LocalDate desde,
+                                               @Param("fecha") LocalDate fecha,
+                                               @Param("movimientoId") Long movimientoId,
+                                               Pageable limite);
 
     /**
-     * Buscar movimientos por id
-     * @param movimientoId el id del movimiento
-     * @return el movimiento asociado al id pasado como parametro.
+     * Recorrer el historial completo de una cuenta en orden cronologico, sobre el indice
+     * idx_movimientos_cuenta_fecha. Las filas se leen del cursor de a 500 y se convierten en
+     * MovimientoExportado sin crear entidades. El Stream debe consumirse dentro de una
+     * transaccion y cerrarse al terminar.
+     * @param cuentaId id de la cuenta a exportar.
+     * @return los movimientos de la cuenta, ordenados por fecha e id.
      */
-    Movimiento findByMovimientoId(Long movimientoId);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new com.sophos.retoSpringBoot.dto.MovimientoExportado(m.movimientoId, m.cuenta.cuentaId, m.tipo,"
+            + " m.valor, m.periodo, m.estado, m.fechaMovimiento, m.fechaCreacion, m.usuarioCreacion,"
+            + " m.fechaModificacion, m.usuarioModificacion)"
+            + " from Movimiento m where m.cuenta.cuentaId = :cuentaId order by m.fechaMovimiento, m.movimientoId")
+    Stream<MovimientoExportado> streamByCuenta(@Param("cuentaId") Long cuentaId);
 
 }
 
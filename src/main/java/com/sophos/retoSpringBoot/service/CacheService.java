@@ -0,0 +1,28 @@
+package com.sophos.retoSpringBoot.service;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasFiltro;
+import com.sophos.retoSpringBoot.dto.EstadisticasRegion;
+
+import java.util.List;
+/**
+ * <h1>Interface Cache Service</h1>
+ *Esta interface define los metodos para consultar la cache de segundo nivel y
+ *los filtros de ids.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public interface CacheService {
+    /**
+     * metodo para consultar las estadisticas de las regiones de la cache de segundo nivel.
+     * @return aciertos, fallos y escrituras de cada region.
+     */
+    List<EstadisticasRegion> readRegionStatistics();
+
+    /**
+     * metodo para consultar las estadisticas de los filtros de ids de clientes, cuentas y movimientos.
+     * @return ocupacion, memoria y falsos positivos de cada filtro.
+     */
+    List<EstadisticasFiltro> readIdFilterStatistics();
+}
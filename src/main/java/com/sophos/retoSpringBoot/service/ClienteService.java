@@ -1,7 +1,11 @@
 package com.sophos.retoSpringBoot.service;
 
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.ResumenCliente;
 import com.sophos.retoSpringBoot.entity.Cliente;
 import org.springframework.stereotype.Service;
+
 import java.util.List;
 
 /**
@@ -23,17 +27,36 @@ public interface ClienteService {
     Cliente createClient(Cliente cliente);
 
     /**
-     * metodo para leer un cliente
+     * metodo para leer un cliente con sus cuentas, sin los movimientos de las cuentas.
      * @param clienteId id del cliente a consultar.
      * @return el Cliente con el id pasado como parametro.
      */
     Cliente readClient(Long clienteId);
 
     /**
-     * metodo para leer todos los clientes
-     * @return lista de todos los clientes.
+     * metodo para leer un cliente con sus cuentas y los movimientos de cada cuenta.
+     * @param clienteId id del cliente a consultar.
+     * @return el Cliente con el id pasado como parametro.
+     */
+    Cliente readClientWithMovements(Long clienteId);
+
+    /**
+     * metodo para leer el resumen de un cliente con una sola consulta.
+     * @param clienteId id del cliente a consultar.
+     * @return el cliente con sus cuentas y los totales de movimientos de cada una.
+     */
+    ResumenCliente readClientSummary(Long clienteId);
+
+    /**
+     * metodo para leer los clientes por paginas, usando un cursor sobre el id del cliente.
+     * @param tamano cantidad de clientes por pagina.
+     * @param cursor cursor opaco de la pagina anterior, null para la primera pagina.
+     * @param orden "asc" o "desc", orden por id del cliente.
+     * @param estadoCliente filtro opcional por estado del cliente.
+     * @param tipoCliente filtro opcional por tipo de cliente.
+     * @return la pagina de clientes y el cursor de la siguiente pagina.
      */
-    List<Cliente> readAllClients();
+    Pagina<ClienteRespuesta> readClientsPage(Integer tamano, String cursor, String orden, String estadoCliente, String tipoCliente);
 
     /**
      * metodo para actualizar un cliente
@@ -1,5 +1,6 @@
 package com.sophos.retoSpringBoot.service;
 
+import com.sophos.retoSpringBoot.dto.Extracto;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import java.util.List;
 
@@ -21,20 +22,49 @@ public interface CuentaService {
     Cuenta createAccount(Cuenta cuenta);
 
     /**
-     * metodo para leer una cuenta especifica
+     * metodo para leer una cuenta especifica, sin sus movimientos.
      * @param cuentaId id de la cuenta a consultar
      * @return la cuenta con id pasado como parametro.
      */
     Cuenta readAccount(Long cuentaId);
 
+    /**
+     * metodo para leer una cuenta especifica con sus movimientos.
+     * @param cuentaId id de la cuenta a consultar
+     * @return la cuenta con id pasado como parametro, con sus movimientos cargados.
+     */
+    Cuenta readAccountWithMovements(Long cuentaId);
+
     /**
      * metodo para leer las cuentas asociadas a un cliente.
      * @param clienteId id del cliente a consultar.
-     * @return lista de cuentas asociada a un cliente.
+     * @return lista de cuentas asociada a un cliente, sin sus movimientos cargados.
      */
 
     List<Cuenta> readAccountsByClient(Long clienteId);
 
+    /**
+     * metodo para leer el saldo de una cuenta.
+     * @param cuentaId id de la cuenta a consultar.
+     * @return saldo de la cuenta.
+     */
+    Long readAccountBalance(Long cuentaId);
+
+    /**
+     * metodo para recalcular el saldo de una cuenta a partir de sus movimientos.
+     * @param cuentaId id de la cuenta a recalcular.
+     * @return saldo recalculado.
+     */
+    Long recalculateBalance(Long cuentaId);
+
+    /**
+     * metodo para consultar el extracto de una cuenta en un periodo.
+     * @param cuentaId id de la cuenta a consultar.
+     * @param periodo periodo del extracto, en formato yyyy-MM.
+     * @return saldo inicial, totales por tipo, cantidad de movimientos y saldo final.
+     */
+    Extracto readStatement(Long cuentaId, String periodo);
+
     /**
      * metodo para actualizar una cuenta.
      * @param cuenta datos de la cuenta que se va a actualizar.
@@ -0,0 +1,35 @@
+package com.sophos.retoSpringBoot.service;
+
+import com.sophos.retoSpringBoot.dto.EstadoImportacion;
+import com.sophos.retoSpringBoot.dto.SolicitudImportacion;
+/**
+ * <h1>Interface Importacion Service</h1>
+ *Esta interface define los metodos que se implementaran en la logica de negocio
+ *para la importacion de archivos de movimientos.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public interface ImportacionService {
+    /**
+     * metodo para iniciar la importacion de un archivo.
+     * @param solicitud ruta y formato del archivo.
+     * @return el estado inicial de la importacion.
+     */
+    EstadoImportacion startImport(SolicitudImportacion solicitud);
+
+    /**
+     * metodo para reanudar una importacion desde el ultimo lote confirmado.
+     * @param importacionId id de la importacion.
+     * @return el estado de la importacion.
+     */
+    EstadoImportacion resumeImport(Long importacionId);
+
+    /**
+     * metodo para consultar el avance de una importacion.
+     * @param importacionId id de la importacion.
+     * @return el estado de la importacion.
+     */
+    EstadoImportacion readImportStatus(Long importacionId);
+}
@@ -1,7 +1,14 @@
 package com.sophos.retoSpringBoot.service;
 
+import com.sophos.retoSpringBoot.dto.EstadisticasBloqueo;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.Transferencia;
 import com.sophos.retoSpringBoot.entity.Movimiento;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 /**
  * <h1>Interface Movimiento Service</h1>
@@ -20,6 +27,40 @@ public interface MovimientoService {
      */
     Movimiento createMovement(Movimiento movimiento);
 
+    /**
+     * metodo para crear un movimiento de forma idempotente.
+     * @param movimiento movimiento a crear.
+     * @param claveIdempotencia clave enviada en el encabezado Idempotency-Key, puede ser null.
+     * @return el movimiento creado, o el creado antes con la misma clave.
+     */
+    Movimiento createMovement(Movimiento movimiento, String claveIdempotencia);
+
+    /**
+     * metodo para borrar las claves de idempotencia vencidas.
+     * @return cantidad de claves borradas.
+     */
+    int purgeExpiredIdempotencyKeys();
+
+    /**
+     * metodo para crear un lote de movimientos.
+     * @param movimientos movimientos a crear.
+     * @return los movimientos creados.
+     */
+    List<Movimiento> createMovements(List<Movimiento> movimientos);
+
+    /**
+     * metodo para transferir un valor entre dos cuentas.
+     * @param transferencia cuentas de origen y destino y valor a transferir.
+     * @return el movimiento debito de la cuenta de origen y el credito de la cuenta de destino.
+     */
+    List<Movimiento> transfer(Transferencia transferencia);
+
+    /**
+     * metodo para consultar las estadisticas de espera de los bloqueos por cuenta.
+     * @return estadisticas de los bloqueos.
+     */
+    EstadisticasBloqueo readLockStatistics();
+
     /**
      * metodo para leer un movimiento en especifico
      * @param movimientoId id del movimiento a consultar
@@ -28,11 +69,16 @@ public interface MovimientoService {
     Movimiento readMovement(Long movimientoId);
 
     /**
-     * metodo para leer los movimientos asociados a una cuenta.
-     * @param cuentaId id de la cuenta a la cual se le va aconsultar los movimientos
-     * @return lista de movimientos asociados a la cuenta.
+     * metodo para leer el historial de movimientos de una cuenta por paginas,
+     * del movimiento mas reciente al mas antiguo.
+     * @param cuentaId id de la cuenta a la cual se le va a consultar los movimientos
+     * @param desde fecha minima de los movimientos, null para no limitar.
+     * @param hasta fecha maxima de los movimientos, null para no limitar.
+     * @param tamano cantidad de movimientos por pagina.
+     * @param cursor cursor opaco de la pagina anterior, null para la primera pagina.
+     * @return la pagina de movimientos y el cursor de la siguiente pagina.
      */
-    List<Movimiento> readMovementsByAccount(Long cuentaId);
+    Pagina<MovimientoRespuesta> readMovementsPage(Long cuentaId, LocalDate desde, LocalDate hasta, Integer tamano, String cursor);
 
     /**
      * metodo para actualizar un movimiento.
@@ -49,4 +95,18 @@ public interface MovimientoService {
      */
     boolean deleteMovement(Long movimientoId);
 
+    /**
+     * metodo para validar que una cuenta exista.
+     * @param cuentaId id de la cuenta.
+     */
+    void validateAccountExists(Long cuentaId);
+
+    /**
+     * metodo para exportar el historial completo de una cuenta en formato NDJSON.
+     * @param cuentaId id de la cuenta a exportar.
+     * @param salida flujo donde se escribe un movimiento por linea.
+     * @return la cantidad de movimientos exportados.
+     * @throws IOException si no se puede escribir en la salida.
+     */
+    long exportMovements(Long cuentaId, OutputStream salida) throws IOException;
 }
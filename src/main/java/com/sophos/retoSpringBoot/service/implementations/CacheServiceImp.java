@@ -0,0 +1,93 @@
+package com.sophos.retoSpringBoot.service.implementations;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasFiltro;
+import com.sophos.retoSpringBoot.dto.EstadisticasRegion;
+import com.sophos.retoSpringBoot.service.CacheService;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *<h1>Implementacion Servicio Cache</h1>
+ *Lee las estadisticas de la cache de segundo nivel que lleva Hibernate y las de
+ *los filtros de ids.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Service
+public class CacheServiceImp implements CacheService {
+    /**
+     * inyeccion de la dependencia entityManagerFactory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    /**
+     * filtro de los ids de clientes que existen.
+     */
+    @Autowired
+    private IdFilter clientIdFilter;
+    /**
+     * filtro de los ids de cuentas que existen.
+     */
+    @Autowired
+    private IdFilter accountIdFilter;
+    /**
+     * filtro de los ids de movimientos que existen.
+     */
+    @Autowired
+    private IdFilter movementIdFilter;
+
+    /**
+     * <h2>Metodo para consultar las estadisticas de las regiones</h2>
+     * Aciertos, fallos y escrituras los cuenta Hibernate y solo se acumulan con
+     * hibernate.generate_statistics activo; desalojos, entradas, tamano maximo y expiracion
+     * se leen de la cache de Caffeine que respalda cada region.
+     * @return uso y limites de cada region, ordenadas por nombre.
+     */
+    @Override
+    public List<EstadisticasRegion> readRegionStatistics() {
+
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics estadisticas = sessionFactory.getStatistics();
+        CacheManager cacheManager = ((JCacheRegionFactory) sessionFactory.getCache().getRegionFactory()).getCacheManager();
+        String[] regiones = estadisticas.getSecondLevelCacheRegionNames();
+        Arrays.sort(regiones);
+
+        List<EstadisticasRegion> resultado = new ArrayList<>(regiones.length);
+        for(String region : regiones) {
+            CacheRegionStatistics uso = estadisticas.getDomainDataRegionStatistics(region);
+            javax.cache.Cache<?, ?> cache = cacheManager.getCache(region);
+            Cache<?, ?> caffeine = cache.unwrap(Cache.class);
+            CaffeineConfiguration<?, ?> configuracion = cache.getConfiguration(CaffeineConfiguration.class);
+            resultado.add(new EstadisticasRegion(region, uso.getHitCount(), uso.getMissCount(), uso.getPutCount(),
+                    caffeine.stats().evictionCount(), caffeine.estimatedSize(),
+                    configuracion.getMaximumSize().orElse(-1),
+                    configuracion.getExpireAfterWrite().stream().map(TimeUnit.NANOSECONDS::toSeconds).findFirst().orElse(-1)));
+        }
+        return resultado;
+    }
+
+    /**
+     * <h2>Metodo para consultar las estadisticas de los filtros de ids</h2>
+     * @return ocupacion, memoria y falsos positivos de los filtros de clientes, cuentas y movimientos.
+     */
+    @Override
+    public List<EstadisticasFiltro> readIdFilterStatistics() {
+        return List.of(clientIdFilter.estadisticas(), accountIdFilter.estadisticas(), movementIdFilter.estadisticas());
+    }
+}
@@ -1,16 +1,31 @@
 package com.sophos.retoSpringBoot.service.implementations;
 
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.FilaResumen;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.ResumenCliente;
+import com.sophos.retoSpringBoot.dto.ResumenCuenta;
 import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
 import com.sophos.retoSpringBoot.exceptions.ClientWithAccountsException;
+import com.sophos.retoSpringBoot.exceptions.InvalidCursorException;
 import com.sophos.retoSpringBoot.exceptions.UnderAgeClientException;
 import com.sophos.retoSpringBoot.repository.AccountRepository;
 import com.sophos.retoSpringBoot.repository.ClientRepository;
 import com.sophos.retoSpringBoot.service.ClienteService;
+import com.sophos.retoSpringBoot.util.CursorCodec;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -34,6 +49,11 @@ public class ClienteServiceImp implements ClienteService {
      */
     @Autowired
     private AccountRepository accountRepository;
+    /**
+     * filtro de los ids de clientes que existen.
+     */
+    @Autowired
+    private IdFilter clientIdFilter;
 
     /**
      * <h2>Metodo para validar si es mayor de edad</h2> 
@@ -85,32 +105,154 @@ public class ClienteServiceImp implements ClienteService {
          
     }
 
-    
-
-    
+    /**
+     * <h2>Metodo para leer un cliente</h2>
+     * El cliente y su coleccion de cuentas se leen a traves de la cache de segundo nivel, asi
+     * un cliente ya leido no vuelve a consultar la base de datos hasta que se modifica. Los
+     * movimientos de las cuentas no se leen; se consultan por paginas en /api/movimiento/cuenta/{id}/pagina.
+     * Se devuelve una copia con las cuentas, de modo que se puede serializar fuera de la
+     * transaccion. Los ids que el filtro de clientes descarta se rechazan sin consultar la base de datos.
+     * @param clienteId id del cliente a consultar.
+     * @return el cliente con el id pasado como parametro, con sus cuentas cargadas.
+     */
     @Override
+    @Transactional(readOnly = true)
     public Cliente readClient(Long clienteId) {
-    	
-    	if(!clientRepository.existsById(clienteId)) {
-    		throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
-    	}    	
 
-        return clientRepository.findByClienteId(clienteId);
+        if(!clientIdFilter.mightContain(clienteId)) {
+            throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
+        }
+        Cliente leido = clientRepository.findById(clienteId).orElseThrow(() -> {
+            clientIdFilter.registrarFalsoPositivo();
+            return new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
+        });
+        Cliente cliente = copiar(leido);
+        cliente.getCuentas().addAll(leido.getCuentas());
+        return cliente;
+    }
+
+    /**
+     * <h2>Metodo para leer un cliente con los movimientos de sus cuentas</h2>
+     * Igual que readClient, pero tambien carga la coleccion de movimientos de cada cuenta a
+     * traves de la cache de segundo nivel.
+     * @param clienteId id del cliente a consultar.
+     * @return el cliente con el id pasado como parametro, con sus cuentas y movimientos cargados.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Cliente readClientWithMovements(Long clienteId) {
+
+        Cliente cliente = readClient(clienteId);
+        for(Cuenta cuenta : cliente.getCuentas()) {
+            Hibernate.initialize(cuenta.getMovimientos());
+        }
+        return cliente;
+    }
+
+    /**
+     * <h2>Metodo para leer el resumen de un cliente</h2>
+     * El cliente, sus cuentas y los totales de movimientos por cuenta se leen en una sola
+     * consulta agregada, sin pasar por la cache de segundo nivel, asi el costo es un viaje a la base de datos
+     * sin importar cuantas cuentas tenga el cliente.
+     * @param clienteId id del cliente a consultar.
+     * @return el cliente con el resumen de cada una de sus cuentas.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResumenCliente readClientSummary(Long clienteId) {
+
+        if(!clientIdFilter.mightContain(clienteId)) {
+            throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
+        }
+        List<FilaResumen> filas = clientRepository.findResumen(clienteId);
+        if(filas.isEmpty()) {
+            clientIdFilter.registrarFalsoPositivo();
+            throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
+        }
+        List<ResumenCuenta> cuentas = new ArrayList<>(filas.size());
+        for(FilaResumen fila : filas) {
+            ResumenCuenta cuenta = fila.cuenta();
+            if(cuenta != null) {
+                cuentas.add(cuenta);
+            }
+        }
+        return new ResumenCliente(filas.get(0).cliente(), cuentas);
+    }
+
+    /**
+     * <h2>Metodo para copiar los datos de un cliente, sin sus cuentas</h2>
+     * @param cliente cliente a copiar.
+     * @return copia del cliente con la lista de cuentas vacia.
+     */
+    private static Cliente copiar(Cliente cliente) {
+
+        Cliente copia = new Cliente(cliente.getTipoId(), cliente.getNumeroId(), cliente.getEstadoCliente(),
+                cliente.getTipoCliente(), cliente.getDireccion(), cliente.getTelefono(), cliente.getCorreo(),
+                cliente.getPrimerNombre(), cliente.getSegundoNombre(), cliente.getPrimerApellido(),
+                cliente.getSegundoApellido(), cliente.getFechaNacimiento(), cliente.getFechaCreacion(),
+                cliente.getUsuarioCreacion(), cliente.getFechaModificacion(), cliente.getUsuarioModificacion(),
+                new HashSet<>());
+        copia.setClienteId(cliente.getClienteId());
+        return copia;
     }
     
     /**
-     * <h2>Metodo para obtener la lista de todos clientes.</h2>
+     * <h2>Metodo para obtener los clientes por paginas.</h2>
+     * La paginacion es por keyset sobre el id del cliente: cada pagina continua
+     * desde el ultimo id de la anterior, asi que el costo de la consulta es el
+     * mismo para la primera pagina que para la ultima. Se lee una fila de mas para
+     * saber si existe una pagina siguiente. El cursor guarda el orden y los filtros
+     * con los que se genero, y se rechaza si se usa con otros.
      *
-     * @return lista de todos los clientes.
+     * @param tamano cantidad de clientes por pagina.
+     * @param cursor cursor opaco de la pagina anterior, null para la primera pagina.
+     * @param orden "asc" o "desc", orden por id del cliente.
+     * @param estadoCliente filtro opcional por estado del cliente.
+     * @param tipoCliente filtro opcional por tipo de cliente.
+     * @return la pagina de clientes y el cursor de la siguiente pagina.
      */
     @Override
-    public List<Cliente> readAllClients() { 
-    	
-    	if(clientRepository.findAll().isEmpty()) {
-    		throw new ClientNotFound("no se encontro ningun cliente");
-    	}
-    	
-        return clientRepository.findAll(); 
+    @Transactional(readOnly = true)
+    public Pagina<ClienteRespuesta> readClientsPage(Integer tamano, String cursor, String orden, String estadoCliente, String tipoCliente) {
+
+        int limite = Pagina.tamano(tamano);
+        boolean descendente = "desc".equalsIgnoreCase(orden);
+        String direccion = descendente ? "desc" : "asc";
+        String filtroEstado = estadoCliente == null ? "" : estadoCliente;
+        String filtroTipo = tipoCliente == null ? "" : tipoCliente;
+
+        Long ultimoId = descendente ? Long.MAX_VALUE : 0L;
+        if(cursor != null && !cursor.isBlank()) {
+            String[] partes = CursorCodec.decode(cursor, 4);
+            if(!partes[0].equals(direccion)) {
+                throw new InvalidCursorException("el cursor " + cursor + " no corresponde al orden " + direccion);
+            }
+            if(!partes[1].equals(filtroEstado) || !partes[2].equals(filtroTipo)) {
+                throw new InvalidCursorException("el cursor " + cursor + " no corresponde a los filtros de la consulta");
+            }
+            ultimoId = parseId(partes[3], cursor);
+        }
+
+        Pageable filas = PageRequest.of(0, limite + 1);
+        List<ClienteRespuesta> clientes = descendente
+                ? clientRepository.findPageDescending(ultimoId, estadoCliente, tipoCliente, filas)
+                : clientRepository.findPageAscending(ultimoId, estadoCliente, tipoCliente, filas);
+
+        if(clientes.size() <= limite) {
+            return new Pagina<>(clientes, null);
+        }
+
+        List<ClienteRespuesta> contenido = clientes.subList(0, limite);
+        Long siguienteId = contenido.get(limite - 1).clienteId();
+        return new Pagina<>(contenido, CursorCodec.encode(direccion, filtroEstado, filtroTipo, siguienteId));
+    }
+
+    private Long parseId(String valor, String cursor) {
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("el cursor " + cursor + " no es valido");
+        }
     }
     
     /**
@@ -120,13 +262,17 @@ public class ClienteServiceImp implements ClienteService {
      * @return Cliente con los datos actualizados.
      */
     @Override
+    @Transactional
     public Cliente updateClient(Cliente cliente, Long clienteId) {
-    	
-    	if(!clientRepository.existsById(clienteId)) {
-    		throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
-    	}
 
-        Cliente clientToUpdate = clientRepository.findByClienteId(clienteId);
+        if(!isOfLegalAge(cliente.getFechaNacimiento())){
+
+        	throw new UnderAgeClientException("cliente menor de edad");
+        		  
+        }
+
+        Cliente clientToUpdate = clientRepository.findById(clienteId)
+                .orElseThrow(() -> new ClientNotFound("el cliente con el id: "+clienteId+" no existe"));
 
         LocalDate today = LocalDate.now(); 
 
@@ -144,12 +290,6 @@ public class ClienteServiceImp implements ClienteService {
         clientToUpdate.setFechaNacimiento(cliente.getFechaNacimiento());   
         clientToUpdate.setFechaModificacion(today);
         clientToUpdate.setUsuarioModificacion("wilsonp");        
-        
-        if(!isOfLegalAge(cliente.getFechaNacimiento())){
-
-        	throw new UnderAgeClientException("cliente menor de edad");
-        		  
-        }
 
         return clientRepository.save(clientToUpdate);
 
@@ -158,40 +298,37 @@ public class ClienteServiceImp implements ClienteService {
         
     /**
      * <h2>Metodo que valida si un cliente tiene cuentas asociadas</h2>
+     * Solo se consulta si existe al menos una cuenta, sin cargar las cuentas.
      * @param clienteId id del cliente que se va a validar
      * @return true si tiene cuentas, false si no tiene cuentas asociadas.
      */
     
     public boolean validateClientAccounts(Long clienteId) {
     	
-    	Integer amountAccounts = accountRepository.findByCliente(clientRepository.findByClienteId(clienteId)).size();
-    	
-    	if(amountAccounts > 0) {
-    		return true;
-    	}else {
-    		return false;	
-    	}
+    	return accountRepository.existsByClienteClienteId(clienteId);
     	
     }
         
 
     /**
      *<h2>Metodo para eliminar un cliente</h2>
+     * El cliente se bloquea para escritura antes de validar sus cuentas, asi la
+     * validacion y la eliminacion son atomicas frente a una cuenta creada en paralelo.
      * @param clienteId id del cliente que se va a eliminar.
      * @return true si se elimino el cliente con exito, false sino se pudo eliminar el cliente.
      */
     @Override
+    @Transactional
     public boolean deleteClient(Long clienteId) {
 
-    	if(!clientRepository.existsById(clienteId)) {
-    		throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
-    	}
+        Cliente cliente = clientRepository.findByIdForUpdate(clienteId)
+                .orElseThrow(() -> new ClientNotFound("el cliente con el id: "+clienteId+" no existe"));
     	
         if(validateClientAccounts(clienteId)){
         	throw new ClientWithAccountsException("el cliente con el id "+clienteId+" no se puede eliminar porque tiene cuentas asociadas");        	
         }
         
-         clientRepository.deleteById(clienteId);
+         clientRepository.delete(cliente);
          return true;
         }
 
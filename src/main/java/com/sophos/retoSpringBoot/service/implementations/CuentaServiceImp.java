@@ -1,17 +1,25 @@
 package com.sophos.retoSpringBoot.service.implementations;
 
+import com.sophos.retoSpringBoot.dto.Extracto;
+import com.sophos.retoSpringBoot.dto.TotalTipo;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
 import com.sophos.retoSpringBoot.exceptions.AccountWithMovementsException;
 import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.exceptions.InvalidPeriodException;
 import com.sophos.retoSpringBoot.repository.AccountRepository;
 import com.sophos.retoSpringBoot.repository.ClientRepository;
 import com.sophos.retoSpringBoot.repository.MovementRepository;
 import com.sophos.retoSpringBoot.service.CuentaService;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -39,22 +47,30 @@ public class CuentaServiceImp implements CuentaService {
      */
     @Autowired
     private MovementRepository movementRepository;
+    /**
+     * filtro de los ids de cuentas que existen.
+     */
+    @Autowired
+    private IdFilter accountIdFilter;
 
     /**
      * <h2>Metodo para crear una cuenta</h2>
      * Para crear la cuenta se obtiene un cliente por id, al
-     * cual se va asociar dicha cuenta.
+     * cual se va asociar dicha cuenta. El cliente queda con bloqueo compartido hasta
+     * el commit, de modo que no se puede eliminar mientras se crea la cuenta.
      * @param cuenta cuenta a crear.
      * @return objeto de tipo cuenta.
      */
     @Override
+    @Transactional
     public Cuenta createAccount(Cuenta cuenta){	
     	
     	
-        return clientRepository.findById(cuenta.getCliente().getClienteId())
+        return clientRepository.findByIdForShare(cuenta.getCliente().getClienteId())
                 .map(cliente -> { 
                     LocalDate today = LocalDate.now();
                     cuenta.setCliente(cliente);
+                    cuenta.setSaldo(0L);
                     cuenta.setFechaCreacion(today);
                     cuenta.setUsuarioCreacion("wilsonp");
             return accountRepository.save(cuenta);
@@ -63,33 +79,144 @@ public class CuentaServiceImp implements CuentaService {
 
     /**
      * <h2>Metodo para leer una cuenta</h2>
+     * La cuenta se lee a traves de la cache de segundo nivel, asi una cuenta ya leida no vuelve
+     * a consultar la base de datos hasta que se modifica. Los movimientos no se leen; se
+     * consultan por paginas en /api/movimiento/cuenta/{id}/pagina. Los ids que el filtro de
+     * cuentas descarta se rechazan sin consultar la base de datos.
      * @param cuentaId id de la cuenta a consultar
      * @return la cuenta asociada al id pasado como parametro.
      */
     @Override
+    @Transactional(readOnly = true)
     public Cuenta readAccount(Long cuentaId) {
-    	
-    	if(!accountRepository.existsById(cuentaId)) {
-    		throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
-    	}
 
-        return accountRepository.findByCuentaId(cuentaId);
+        if(!accountIdFilter.mightContain(cuentaId)) {
+            throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
+        }
+        return accountRepository.findById(cuentaId).orElseThrow(() -> {
+            accountIdFilter.registrarFalsoPositivo();
+            return new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
+        });
+    }
+
+    /**
+     * <h2>Metodo para leer una cuenta con sus movimientos</h2>
+     * La cuenta y su coleccion de movimientos se leen a traves de la cache de segundo nivel,
+     * asi una cuenta ya leida no vuelve a consultar la base de datos hasta que se modifica
+     * ella o alguno de sus movimientos. Los movimientos se cargan dentro de la transaccion,
+     * de modo que la respuesta se puede armar despues sin una sesion abierta.
+     * @param cuentaId id de la cuenta a consultar
+     * @return la cuenta asociada al id pasado como parametro, con sus movimientos cargados.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Cuenta readAccountWithMovements(Long cuentaId) {
 
+        Cuenta cuenta = readAccount(cuentaId);
+        Hibernate.initialize(cuenta.getMovimientos());
+        return cuenta;
     }
 
     /**
      * <h2>Metodo para leer las cuentas por cliente</h2>
+     * Las cuentas se consultan directamente por el id del cliente, sin sus movimientos;
+     * solo si no hay ninguna se consulta si el cliente existe.
      * @param clienteId id del cliente a consultar.
      * @return lista de cuentas asociadas al cliente.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Cuenta> readAccountsByClient(Long clienteId) {
 
-    	if(!clientRepository.existsById(clienteId)) {
+        List<Cuenta> cuentas = accountRepository.findByClienteClienteId(clienteId);
+
+    	if(cuentas.isEmpty() && !clientRepository.existsById(clienteId)) {
     		throw new ClientNotFound("el cliente con el id: "+clienteId+" no existe");
     	}
-        return accountRepository.findByCliente(clientRepository.findByClienteId(clienteId));
-    } 
+        return cuentas;
+    }
+
+    /**
+     * <h2>Metodo para leer el saldo de una cuenta</h2>
+     * El saldo se mantiene al registrar, actualizar y eliminar movimientos, por lo que
+     * solo se lee la fila de la cuenta. Las cuentas creadas antes de existir el saldo
+     * lo tienen en null, y en ese caso se recalcula una unica vez.
+     * @param cuentaId id de la cuenta a consultar.
+     * @return saldo de la cuenta.
+     */
+    @Override
+    @Transactional
+    public Long readAccountBalance(Long cuentaId) {
+
+        Cuenta cuenta = accountRepository.findById(cuentaId)
+                .orElseThrow(() -> new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe"));
+
+        if(cuenta.getSaldo() == null) {
+            return recalculateBalance(cuentaId);
+        }
+        return cuenta.getSaldo();
+    }
+
+    /**
+     * <h2>Metodo para recalcular el saldo de una cuenta</h2>
+     * Reparacion del saldo: se bloquea la cuenta, se suman sus movimientos activos y se
+     * reemplaza el saldo guardado. Los movimientos que se registren en paralelo esperan
+     * el bloqueo y suman su valor sobre el saldo ya recalculado.
+     * @param cuentaId id de la cuenta a recalcular.
+     * @return saldo recalculado.
+     */
+    @Override
+    @Transactional
+    public Long recalculateBalance(Long cuentaId) {
+
+        accountRepository.findByIdForUpdate(cuentaId)
+                .orElseThrow(() -> new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe"));
+
+        Long saldo = movementRepository.sumBalanceByCuenta(cuentaId);
+        accountRepository.setBalance(cuentaId, saldo);
+        return saldo;
+    }
+
+    /**
+     * <h2>Metodo para consultar el extracto de una cuenta en un periodo</h2>
+     * Todo se calcula en la base de datos con dos agregaciones sobre el indice
+     * (cuenta_id, fechaMovimiento): los totales por tipo de los movimientos con fecha en el
+     * mes del periodo, [periodo-01, mes siguiente-01), y el saldo inicial, que es el efecto de
+     * los movimientos anteriores al primer dia del periodo. Ninguna de las dos lee movimientos
+     * posteriores al periodo, asi el extracto de un mes no cambia ni se vuelve mas costoso a
+     * medida que la cuenta sigue registrando movimientos. El campo periodo del movimiento es
+     * texto libre y no se usa: los movimientos se ubican por su fecha. Los movimientos sin
+     * fecha quedan en el saldo inicial.
+     * @param cuentaId id de la cuenta a consultar.
+     * @param periodo periodo del extracto, en formato yyyy-MM.
+     * @return saldo inicial, totales por tipo, cantidad de movimientos y saldo final.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Extracto readStatement(Long cuentaId, String periodo) {
+
+        YearMonth mes;
+        try {
+            mes = YearMonth.parse(periodo);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new InvalidPeriodException("el periodo " + periodo + " no tiene el formato yyyy-MM");
+        }
+        LocalDate desde = mes.atDay(1);
+
+        accountRepository.findById(cuentaId)
+                .orElseThrow(() -> new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe"));
+
+        List<TotalTipo> totales = movementRepository.sumByTipoBetween(cuentaId, desde, mes.plusMonths(1).atDay(1));
+        long saldoInicial = movementRepository.sumBalanceBefore(cuentaId, desde);
+
+        long cantidad = 0;
+        long efecto = 0;
+        for(TotalTipo total : totales) {
+            cantidad += total.cantidad();
+            efecto += MovimientoServiceImp.subtractsFromBalance(total.tipo()) ? -total.total() : total.total();
+        }
+        return new Extracto(cuentaId, periodo, saldoInicial, totales, cantidad, saldoInicial + efecto);
+    }
 
     /**
      * <h2>Metodo para actualizar una cuenta</h2>
@@ -99,13 +226,11 @@ public class CuentaServiceImp implements CuentaService {
      */
 
     @Override
+    @Transactional
     public Cuenta updateAccount(Cuenta cuenta, Long cuentaId) {
-    	
-    	if(!accountRepository.existsById(cuentaId)) {
-    		throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
-    	}
 
-        Cuenta accountToUpdate = accountRepository.findByCuentaId(cuentaId);
+        Cuenta accountToUpdate = accountRepository.findById(cuentaId)
+                .orElseThrow(() -> new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe"));
         LocalDate today = LocalDate.now();
 
         accountToUpdate.setProducto(cuenta.getProducto());
@@ -120,39 +245,36 @@ public class CuentaServiceImp implements CuentaService {
     
     /**
      * <h2>Metodo para validar si una cuenta tiene movimientos</h2>
+     * Solo se consulta si existe al menos un movimiento, sin cargar el historial.
      * @param cuentaId id de la cuenta a validar.
      * @return true si tiene movimientos asociados, false si no tiene movimientos.
      */
     
     public boolean validateAccountMovements(Long cuentaId) {
     	
-    	Integer amountMovements = movementRepository.findByCuenta(accountRepository.findByCuentaId(cuentaId)).size();
-    	
-    	if(amountMovements > 0) {
-    		return true;
-    	}else {
-    		return false;
-    	}
+    	return movementRepository.existsByCuentaCuentaId(cuentaId);
     	
     }
 
     /**
      * <h2>Metodo para eliminar una cuenta</h2>
+     * La cuenta se bloquea para escritura antes de validar sus movimientos, asi la
+     * validacion y la eliminacion son atomicas frente a un movimiento registrado en paralelo.
      *
      * @param cuentaId id de la cuenta a eliminar.
      * @return true si la cuenta se elimino con exito, false si no se pudo eliminar la cuenta.
      */
     @Override
+    @Transactional
     public boolean deleteAccount(Long cuentaId) { 
-    	
-    	if(!accountRepository.existsById(cuentaId)) {
-    		throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
-    	}
+
+        Cuenta cuenta = accountRepository.findByIdForUpdate(cuentaId)
+                .orElseThrow(() -> new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe"));
         
     	if(validateAccountMovements(cuentaId)){
     		throw new AccountWithMovementsException("la cuenta con el id "+cuentaId+" no se puede eliminar porque tiene movimientos asociados");                        
         }
-            accountRepository.deleteById(cuentaId);
+            accountRepository.delete(cuenta);
             return true;        
     }  
 
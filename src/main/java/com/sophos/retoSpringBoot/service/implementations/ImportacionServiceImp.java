@@ -0,0 +1,361 @@
+package com.sophos.retoSpringBoot.service.implementations;
+
+import com.sophos.retoSpringBoot.dto.EstadoImportacion;
+import com.sophos.retoSpringBoot.dto.SolicitudImportacion;
+import com.sophos.retoSpringBoot.entity.Importacion;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.ImportNotFoundException;
+import com.sophos.retoSpringBoot.exceptions.InvalidImportException;
+import com.sophos.retoSpringBoot.repository.ImportRepository;
+import com.sophos.retoSpringBoot.service.ImportacionService;
+import com.sophos.retoSpringBoot.service.MovimientoService;
+import com.sophos.retoSpringBoot.util.MovementRowParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>ImportacionServiceImp</h1>
+ * Importa archivos de movimientos de cualquier tamano con memoria constante. Cada importacion
+ * usa tres etapas:
+ * <ul>
+ *     <li>un hilo lector recorre el archivo linea a linea y lo parte en lotes de importacion.lote.tamano filas;</li>
+ *     <li>un pool de importacion.hilos hilos valida y convierte los lotes en paralelo;</li>
+ *     <li>un hilo escritor confirma los lotes, en el orden del archivo, cada uno en su propia transaccion.</li>
+ * </ul>
+ * Entre el lector y el escritor hay una cola acotada de importacion.cola.capacidad lotes: si la base
+ * de datos va mas lento que la lectura, el lector se detiene hasta que haya espacio, asi nunca hay
+ * en memoria mas que unos pocos lotes. Cada lote se registra con MovimientoService.createMovements,
+ * que actualiza los saldos, y en la misma transaccion se avanza el contador de lotes confirmados de
+ * la importacion; al reanudar se saltan las filas de esos lotes.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Service
+public class ImportacionServiceImp implements ImportacionService {
+    /**
+     * marca el fin del archivo en la cola de lotes.
+     */
+    private static final Future<List<Movimiento>> FIN = CompletableFuture.completedFuture(List.of());
+    /**
+     * inyeccion de la dependencia ImportRepository
+     */
+    @Autowired
+    private ImportRepository importRepository;
+    /**
+     * inyeccion de la dependencia MovimientoService
+     */
+    @Autowired
+    private MovimientoService movimientoService;
+    /**
+     * inyeccion de la dependencia TransactionOperations, para confirmar cada lote en su propia transaccion.
+     */
+    @Autowired
+    private TransactionOperations transactionOperations;
+    /**
+     * directorio del que se pueden leer los archivos.
+     */
+    @Value("${importacion.directorio:importaciones}")
+    private String directorio;
+    /**
+     * filas que se confirman en cada transaccion.
+     */
+    @Value("${importacion.lote.tamano:1000}")
+    private int tamanoLote;
+    /**
+     * hilos que validan lotes en paralelo.
+     */
+    @Value("${importacion.hilos:4}")
+    private int hilos;
+    /**
+     * lotes que pueden esperar entre el lector y el escritor.
+     */
+    @Value("${importacion.cola.capacidad:4}")
+    private int capacidadCola;
+    /**
+     * avance de las importaciones que se estan ejecutando en este nodo.
+     */
+    private final ConcurrentMap<Long, Progreso> enCurso = new ConcurrentHashMap<>();
+
+    private ExecutorService trabajos;
+
+    private ExecutorService validadores;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        trabajos = Executors.newCachedThreadPool(tarea -> new Thread(tarea, "importacion-" + contador.incrementAndGet()));
+        validadores = Executors.newFixedThreadPool(hilos, tarea -> new Thread(tarea, "importacion-validacion-" + contador.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void detener() {
+        trabajos.shutdownNow();
+        validadores.shutdownNow();
+    }
+
+    /**
+     * <h2>Metodo para iniciar la importacion de un archivo</h2>
+     * Valida la ruta y el formato, registra la importacion y la ejecuta en segundo plano.
+     * @param solicitud ruta y formato del archivo.
+     * @return el estado inicial de la importacion.
+     */
+    @Override
+    public EstadoImportacion startImport(SolicitudImportacion solicitud) {
+
+        if(solicitud == null || solicitud.ruta() == null || solicitud.ruta().isBlank()) {
+            throw new InvalidImportException("la ruta del archivo es obligatoria");
+        }
+        String formato = MovementRowParser.formato(solicitud.formato(), solicitud.ruta());
+        resolver(solicitud.ruta());
+
+        Importacion importacion = importRepository.save(new Importacion(solicitud.ruta(), formato, tamanoLote));
+        return lanzar(importacion);
+    }
+
+    /**
+     * <h2>Metodo para reanudar una importacion</h2>
+     * Se puede reanudar una importacion fallida, o una que quedo en curso porque el nodo que
+     * la ejecutaba se detuvo. Si dos nodos la reanudan a la vez, solo uno logra confirmar cada lote.
+     * @param importacionId id de la importacion.
+     * @return el estado de la importacion.
+     */
+    @Override
+    public EstadoImportacion resumeImport(Long importacionId) {
+
+        Importacion importacion = buscar(importacionId);
+        if(Importacion.COMPLETADA.equals(importacion.getEstado())) {
+            throw new InvalidImportException("la importacion con el id: "+importacionId+" ya esta completada");
+        }
+        if(enCurso.containsKey(importacionId)) {
+            throw new InvalidImportException("la importacion con el id: "+importacionId+" ya se esta ejecutando");
+        }
+        importacion.setEstado(Importacion.EN_CURSO);
+        importacion.setError(null);
+        importacion.setFechaFin(null);
+        return lanzar(importRepository.save(importacion));
+    }
+
+    /**
+     * <h2>Metodo para consultar el avance de una importacion</h2>
+     * @param importacionId id de la importacion.
+     * @return el estado de la importacion.
+     */
+    @Override
+    public EstadoImportacion readImportStatus(Long importacionId) {
+        return estado(buscar(importacionId));
+    }
+
+    private Importacion buscar(Long importacionId) {
+        return importRepository.findById(importacionId)
+                .orElseThrow(() -> new ImportNotFoundException("la importacion con el id: "+importacionId+" no existe"));
+    }
+
+    private EstadoImportacion estado(Importacion importacion) {
+        Progreso progreso = enCurso.get(importacion.getImportacionId());
+        long filasLeidas = progreso == null ? 0 : progreso.filasLeidas.get();
+        double filasPorSegundo = progreso == null ? 0 : progreso.filasPorSegundo();
+        return new EstadoImportacion(importacion.getImportacionId(), importacion.getRuta(), importacion.getEstado(),
+                importacion.getLotesConfirmados(), importacion.getFilasConfirmadas(), filasLeidas, filasPorSegundo,
+                importacion.getError());
+    }
+
+    /**
+     * <h2>Metodo para obtener la ruta de un archivo de importacion</h2>
+     * La ruta se resuelve dentro del directorio de importaciones; no se aceptan rutas que salgan de el.
+     * @param ruta ruta relativa al directorio de importaciones.
+     * @return la ruta absoluta del archivo.
+     */
+    Path resolver(String ruta) {
+        Path base = Paths.get(directorio).toAbsolutePath().normalize();
+        Path archivo = base.resolve(ruta).normalize();
+        if(!archivo.startsWith(base)) {
+            throw new InvalidImportException("la ruta " + ruta + " esta fuera del directorio de importaciones");
+        }
+        if(!Files.isRegularFile(archivo) || !Files.isReadable(archivo)) {
+            throw new InvalidImportException("el archivo " + ruta + " no existe o no se puede leer");
+        }
+        return archivo;
+    }
+
+    private EstadoImportacion lanzar(Importacion importacion) {
+        Long importacionId = importacion.getImportacionId();
+        Progreso progreso = new Progreso();
+        if(enCurso.putIfAbsent(importacionId, progreso) != null) {
+            throw new InvalidImportException("la importacion con el id: "+importacionId+" ya se esta ejecutando");
+        }
+        EstadoImportacion estado = estado(importacion);
+        trabajos.execute(() -> ejecutar(importacion, progreso));
+        return estado;
+    }
+
+    /**
+     * <h2>Metodo para ejecutar una importacion</h2>
+     * Este hilo es el escritor: confirma los lotes en el orden en que el lector los encola.
+     * @param importacion la importacion a ejecutar.
+     * @param progreso avance de la ejecucion.
+     */
+    private void ejecutar(Importacion importacion, Progreso progreso) {
+        Long importacionId = importacion.getImportacionId();
+        BlockingQueue<Future<List<Movimiento>>> cola = new ArrayBlockingQueue<>(capacidadCola);
+        Future<?> lector = null;
+        try {
+            Path archivo = resolver(importacion.getRuta());
+            long filasASaltar = importacion.getLotesConfirmados() * importacion.getTamanoLote();
+            lector = trabajos.submit(() -> leer(archivo, importacion, filasASaltar, cola, progreso));
+
+            long lote = importacion.getLotesConfirmados();
+            while(true) {
+                Future<List<Movimiento>> siguiente = cola.take();
+                if(siguiente == FIN) {
+                    break;
+                }
+                List<Movimiento> movimientos = resultado(siguiente);
+                long numeroLote = lote;
+                transactionOperations.executeWithoutResult(transaccion -> {
+                    movimientoService.createMovements(movimientos);
+                    if(importRepository.confirmChunk(importacionId, numeroLote, movimientos.size()) == 0) {
+                        throw new InvalidImportException("el lote " + numeroLote + " ya fue confirmado por otra ejecucion de la importacion");
+                    }
+                });
+                lote++;
+                progreso.filasConfirmadas.addAndGet(movimientos.size());
+            }
+            terminar(importacionId, Importacion.COMPLETADA, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            terminar(importacionId, Importacion.FALLIDA, "la importacion se interrumpio");
+        } catch (RuntimeException e) {
+            terminar(importacionId, Importacion.FALLIDA, e.getMessage());
+        } finally {
+            if(lector != null) {
+                lector.cancel(true);
+            }
+            enCurso.remove(importacionId);
+        }
+    }
+
+    /**
+     * <h2>Metodo para leer el archivo de una importacion</h2>
+     * Lee el archivo con un lector en flujo (sin cargarlo completo), salta las filas ya
+     * confirmadas y envia cada lote a validar. Si la cola esta llena, espera.
+     */
+    private Void leer(Path archivo, Importacion importacion, long filasASaltar,
+                      BlockingQueue<Future<List<Movimiento>>> cola, Progreso progreso) throws InterruptedException {
+        try (BufferedReader lectura = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            MovementRowParser parser = MovementRowParser.CSV.equals(importacion.getFormato()) ? null : MovementRowParser.ndjson();
+            List<Linea> lineas = new ArrayList<>(importacion.getTamanoLote());
+            long numeroLinea = 0;
+            long filas = 0;
+            String linea;
+            while((linea = lectura.readLine()) != null) {
+                numeroLinea++;
+                if(parser == null) {
+                    parser = MovementRowParser.csv(linea);
+                    continue;
+                }
+                if(linea.isBlank()) {
+                    continue;
+                }
+                filas++;
+                progreso.filasLeidas.incrementAndGet();
+                if(filas <= filasASaltar) {
+                    continue;
+                }
+                lineas.add(new Linea(numeroLinea, linea));
+                if(lineas.size() == importacion.getTamanoLote()) {
+                    cola.put(validar(parser, lineas));
+                    lineas = new ArrayList<>(importacion.getTamanoLote());
+                }
+            }
+            if(!lineas.isEmpty()) {
+                cola.put(validar(parser, lineas));
+            }
+            cola.put(FIN);
+        } catch (IOException e) {
+            cola.put(CompletableFuture.failedFuture(new InvalidImportException("no se pudo leer el archivo: " + e.getMessage())));
+        } catch (RuntimeException e) {
+            cola.put(CompletableFuture.failedFuture(e));
+        }
+        return null;
+    }
+
+    private Future<List<Movimiento>> validar(MovementRowParser parser, List<Linea> lineas) {
+        return validadores.submit(() -> {
+            List<Movimiento> movimientos = new ArrayList<>(lineas.size());
+            for(Linea linea : lineas) {
+                movimientos.add(parser.parse(linea.numero(), linea.contenido()));
+            }
+            return movimientos;
+        });
+    }
+
+    private static List<Movimiento> resultado(Future<List<Movimiento>> lote) throws InterruptedException {
+        try {
+            return lote.get();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InvalidImportException("no se pudo validar el lote: " + e.getCause());
+        }
+    }
+
+    private void terminar(Long importacionId, String estado, String error) {
+        importRepository.findById(importacionId).ifPresent(importacion -> {
+            importacion.setEstado(estado);
+            importacion.setError(error == null ? null : error.length() > 1000 ? error.substring(0, 1000) : error);
+            importacion.setFechaFin(LocalDateTime.now());
+            importRepository.save(importacion);
+        });
+    }
+
+    /**
+     * linea del archivo junto con su numero, para los mensajes de error.
+     */
+    private record Linea(long numero, String contenido) {
+    }
+
+    /**
+     * avance en memoria de una importacion en ejecucion.
+     */
+    private static final class Progreso {
+
+        private final long inicio = System.nanoTime();
+
+        private final AtomicLong filasLeidas = new AtomicLong();
+
+        private final AtomicLong filasConfirmadas = new AtomicLong();
+
+        private double filasPorSegundo() {
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            return segundos == 0 ? 0 : filasConfirmadas.get() / segundos;
+        }
+    }
+}
@@ -1,17 +1,57 @@
 package com.sophos.retoSpringBoot.service.implementations;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.dto.EstadisticasBloqueo;
+import com.sophos.retoSpringBoot.dto.MovimientoIdempotente;
+import com.sophos.retoSpringBoot.dto.MovimientoExportado;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.Transferencia;
+import com.sophos.retoSpringBoot.entity.ClaveIdempotencia;
+import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.entity.Movimiento;
 import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.exceptions.CodigoError;
+import com.sophos.retoSpringBoot.exceptions.InvalidCursorException;
+import com.sophos.retoSpringBoot.exceptions.InvalidIdempotencyKeyException;
+import com.sophos.retoSpringBoot.exceptions.InvalidTransferException;
 import com.sophos.retoSpringBoot.exceptions.MovementActiveStateException;
 import com.sophos.retoSpringBoot.exceptions.MovementNotFoundException;
 import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.IdempotencyKeyRepository;
 import com.sophos.retoSpringBoot.repository.MovementRepository;
 import com.sophos.retoSpringBoot.service.MovimientoService;
+import com.sophos.retoSpringBoot.util.AccountLocks;
+import com.sophos.retoSpringBoot.util.CursorCodec;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import com.sophos.retoSpringBoot.util.IdempotencyCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  *<h1>Implementacion Servicio Movimiento</h1>
@@ -25,6 +65,18 @@ import java.util.List;
 
 @Service 
 public class MovimientoServiceImp implements MovimientoService {
+    /**
+     * fecha minima usada cuando no se limita el inicio del historial.
+     */
+    static final LocalDate FECHA_MINIMA = LocalDate.of(1000, 1, 1);
+    /**
+     * fecha maxima usada cuando no se limita el fin del historial.
+     */
+    static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+    /**
+     * cada cuantas filas se envia al cliente lo escrito en la exportacion.
+     */
+    static final int FILAS_POR_ENVIO = 1000;
     /**
      * inyeccion de la dependencia MovementRepository
      */
@@ -35,75 +87,457 @@ public class MovimientoServiceImp implements MovimientoService {
      */
     @Autowired
     private AccountRepository accountRepository;
+    /**
+     * inyeccion de la dependencia AccountLocks
+     */
+    @Autowired
+    private AccountLocks accountLocks;
+    /**
+     * inyeccion de la dependencia TransactionOperations, para abrir la transaccion
+     * despues de obtener el bloqueo de la cuenta.
+     */
+    @Autowired
+    private TransactionOperations transactionOperations;
+    /**
+     * inyeccion de la dependencia IdempotencyKeyRepository
+     */
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    /**
+     * respuestas recientes por Idempotency-Key, para responder los reintentos sin ir a la base de datos.
+     */
+    @Autowired
+    private IdempotencyCache<MovimientoIdempotente> idempotencyCache;
+    /**
+     * tiempo que se recuerda cada Idempotency-Key, en memoria y en la tabla claves_idempotencia.
+     */
+    @Value("${idempotencia.ttl:PT24H}")
+    private Duration idempotencyTtl = Duration.ofHours(24);
+    /**
+     * filtro de los ids de movimientos que existen.
+     */
+    @Autowired
+    private IdFilter movementIdFilter;
+    /**
+     * contexto de persistencia, para vaciarlo cada lote en las inserciones masivas.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+    /**
+     * cantidad de movimientos por lote JDBC; debe coincidir con hibernate.jdbc.batch_size.
+     */
+    @Value("${movimientos.lote.tamano:50}")
+    private int tamanoLote = 50;
+    /**
+     * inyeccion de la dependencia ObjectMapper, para escribir la exportacion con la misma
+     * configuracion de Jackson que las respuestas del API.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
      * <h2>Metodo para crear un movimiento</h2>
-     * Para crear el movimiento se obtiene una cuenta por id, a la
-     * cual se va asociar dicho movimiento.
+     * Los movimientos de una misma cuenta se registran uno a la vez: primero se toma el
+     * bloqueo en memoria de la cuenta y solo entonces se abre la transaccion, de modo que
+     * las peticiones en espera no ocupan conexiones. Dentro de la transaccion se suma el
+     * valor al saldo de la cuenta; esa actualizacion confirma que la cuenta existe y la
+     * deja bloqueada hasta el commit, de modo que no se puede eliminar mientras tanto.
      * @param movimiento movimiento a crear.
      * @return objeto de tipo Movimiento
      */
     @Override
     public Movimiento createMovement(Movimiento movimiento) {
+        return createMovement(movimiento, null);
+    }
+
+    /**
+     * <h2>Metodo para crear un movimiento con clave de idempotencia</h2>
+     * Un reintento con la misma clave devuelve el movimiento creado la primera vez, sin
+     * volver a registrarlo. La clave se busca primero en memoria; si no esta, se inserta en
+     * la misma transaccion que el movimiento, sin consultarla antes. Si la insercion choca
+     * con la llave primaria, la clave ya fue usada (en otro nodo, antes de reiniciar o por
+     * un reintento simultaneo): la transaccion se revierte y se devuelve el movimiento original.
+     * Si la clave ya se uso con otra cuenta u otros datos, se rechaza la solicitud.
+     * @param movimiento movimiento a crear.
+     * @param claveIdempotencia valor del encabezado Idempotency-Key, null si no se envio.
+     * @return el movimiento creado con esa clave.
+     */
+    @Override
+    public Movimiento createMovement(Movimiento movimiento, String claveIdempotencia) {
+
+        Long cuentaId = movimiento.getCuenta().getCuentaId();
+
+        if(claveIdempotencia == null || claveIdempotencia.isBlank()) {
+            return accountLocks.withLock(cuentaId,
+                    () -> transactionOperations.execute(status -> insertMovement(movimiento, cuentaId, null, null)));
+        }
+        if(claveIdempotencia.length() > ClaveIdempotencia.LONGITUD_MAXIMA) {
+            throw new InvalidIdempotencyKeyException("la clave de idempotencia no puede tener mas de "
+                    + ClaveIdempotencia.LONGITUD_MAXIMA + " caracteres");
+        }
+
+        String huella = ClaveIdempotencia.huella(movimiento);
+        MovimientoIdempotente respuesta = idempotencyCache.get(claveIdempotencia);
+        if(respuesta != null) {
+            return repeatedMovement(respuesta, cuentaId, huella);
+        }
+
+        try {
+            return accountLocks.withLock(cuentaId, () -> {
+                MovimientoIdempotente anterior = idempotencyCache.get(claveIdempotencia);
+                if(anterior != null) {
+                    return repeatedMovement(anterior, cuentaId, huella);
+                }
+                Movimiento creado = transactionOperations.execute(status -> insertMovement(movimiento, cuentaId, claveIdempotencia, huella));
+                idempotencyCache.put(claveIdempotencia, new MovimientoIdempotente(cuentaId, huella, creado));
+                return creado;
+            });
+        } catch (DataIntegrityViolationException e) {
+            ClaveIdempotencia registrada = idempotencyKeyRepository.findById(claveIdempotencia).orElseThrow(() -> e);
+            Movimiento original = movementRepository.findById(registrada.getMovimientoId()).orElseThrow(() -> e);
+            respuesta = new MovimientoIdempotente(registrada.getCuentaId(), registrada.getHuella(), original);
+            idempotencyCache.put(claveIdempotencia, respuesta);
+            return repeatedMovement(respuesta, cuentaId, huella);
+        }
+    }
+
+    /**
+     * Devuelve el movimiento de un reintento, si la clave se uso con la misma cuenta y los mismos datos.
+     */
+    private static Movimiento repeatedMovement(MovimientoIdempotente anterior, Long cuentaId, String huella) {
+        if(!Objects.equals(anterior.cuentaId(), cuentaId) || !Objects.equals(anterior.huella(), huella)) {
+            throw new InvalidIdempotencyKeyException(CodigoError.CLAVE_IDEMPOTENCIA_REUTILIZADA,
+                    "la clave de idempotencia ya se uso con otra cuenta u otros datos del movimiento");
+        }
+        return anterior.movimiento();
+    }
+
+    /**
+     * <h2>Metodo para borrar las claves de idempotencia vencidas</h2>
+     * Borra de claves_idempotencia las claves registradas hace mas de idempotencia.ttl, el
+     * mismo tiempo que se recuerdan en memoria. Se ejecuta cada idempotencia.purga.
+     * @return cantidad de claves borradas.
+     */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${idempotencia.purga:PT1H}", initialDelayString = "${idempotencia.purga:PT1H}")
+    public int purgeExpiredIdempotencyKeys() {
+        return idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(idempotencyTtl));
+    }
+
+    /**
+     * Registra el movimiento, y su clave de idempotencia si la tiene, dentro de la
+     * transaccion abierta por createMovement.
+     */
+    private Movimiento insertMovement(Movimiento movimiento, Long cuentaId, String claveIdempotencia, String huella) {
+
+        if(accountRepository.adjustBalance(cuentaId, balanceDelta(movimiento)) == 0) {
+            throw new AccountNotFoundException("la cuenta a la cual se le va asignar el movimiento, no existe");
+        }
 
         LocalDate today = LocalDate.now();
 
-        return accountRepository.findById(movimiento.getCuenta().getCuentaId())
-                .map(cuenta -> {
-                    movimiento.setCuenta(cuenta);
-                    movimiento.setFechaCreacion(today);
-                    movimiento.setUsuarioCreacion("wilsonp");
+        movimiento.setCuenta(accountRepository.getReferenceById(cuentaId));
+        if(movimiento.getFechaMovimiento() == null) {
+            movimiento.setFechaMovimiento(today);
+        }
+        movimiento.setFechaCreacion(today);
+        movimiento.setUsuarioCreacion("wilsonp");
 
-                    return movementRepository.save(movimiento);
-                }).orElseThrow(()->new AccountNotFoundException("la cuenta a la cual se le va asignar el movimiento, no existe"));
+        Movimiento creado = movementRepository.save(movimiento);
+        if(claveIdempotencia != null) {
+            idempotencyKeyRepository.saveAndFlush(new ClaveIdempotencia(claveIdempotencia, creado.getMovimientoId(), cuentaId, huella));
+        }
+        return creado;
 
     }
 
+    /**
+     * <h2>Metodo para crear un lote de movimientos</h2>
+     * Pensado para cargar archivos de liquidacion. Todas las cuentas referenciadas se validan
+     * con una sola consulta IN. Luego se toman las franjas de AccountLocks de todas las cuentas,
+     * como en createMovement y transfer, y dentro de la transaccion se bloquea la fila de cada
+     * cuenta en orden ascendente de cuentaId: a las que cambian de saldo se les suma el efecto
+     * total de sus movimientos, y las de efecto cero se bloquean en modo compartido. Si una
+     * cuenta se elimino despues de la validacion, el lote falla con AccountNotFoundException.
+     * Los movimientos se insertan en lotes JDBC de movimientos.lote.tamano filas, vaciando el
+     * contexto de persistencia despues de cada lote. El lote completo se registra en una sola
+     * transaccion; si se llama dentro de otra transaccion, se une a ella.
+     * @param movimientos movimientos a crear.
+     * @return los movimientos creados.
+     */
+    @Override
+    public List<Movimiento> createMovements(List<Movimiento> movimientos) {
+
+        Map<Long, Long> efectoPorCuenta = new TreeMap<>();
+        for(Movimiento movimiento : movimientos) {
+            Long cuentaId = movimiento.getCuenta() != null ? movimiento.getCuenta().getCuentaId() : null;
+            if(cuentaId == null) {
+                throw new AccountNotFoundException("todos los movimientos del lote deben tener una cuenta");
+            }
+            efectoPorCuenta.merge(cuentaId, balanceDelta(movimiento), Long::sum);
+        }
+        if(efectoPorCuenta.isEmpty()) {
+            return movimientos;
+        }
+
+        Set<Long> faltantes = new HashSet<>(efectoPorCuenta.keySet());
+        accountRepository.findExistingIds(efectoPorCuenta.keySet()).forEach(faltantes::remove);
+        if(!faltantes.isEmpty()) {
+            throw new AccountNotFoundException("las cuentas con los ids: "+faltantes+" no existen");
+        }
+
+        return accountLocks.withLocks(efectoPorCuenta.keySet(),
+                () -> transactionOperations.execute(status -> insertMovements(movimientos, efectoPorCuenta)));
+    }
+
+    /**
+     * Bloquea las cuentas y registra los movimientos del lote dentro de la transaccion abierta por createMovements.
+     */
+    private List<Movimiento> insertMovements(List<Movimiento> movimientos, Map<Long, Long> efectoPorCuenta) {
+
+        efectoPorCuenta.forEach((cuentaId, efecto) -> {
+            boolean existe = efecto != 0
+                    ? accountRepository.adjustBalance(cuentaId, efecto) != 0
+                    : accountRepository.findByIdForShare(cuentaId).isPresent();
+            if(!existe) {
+                throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
+            }
+        });
+
+        LocalDate today = LocalDate.now();
+        List<Movimiento> creados = new ArrayList<>(movimientos.size());
+        for(Movimiento movimiento : movimientos) {
+            movimiento.setCuenta(accountRepository.getReferenceById(movimiento.getCuenta().getCuentaId()));
+            if(movimiento.getFechaMovimiento() == null) {
+                movimiento.setFechaMovimiento(today);
+            }
+            movimiento.setFechaCreacion(today);
+            movimiento.setUsuarioCreacion("wilsonp");
+            entityManager.persist(movimiento);
+            creados.add(movimiento);
+            if(creados.size() % tamanoLote == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return creados;
+    }
+
+    /**
+     * <h2>Metodo para transferir un valor entre dos cuentas</h2>
+     * El debito de la cuenta de origen y el credito de la cuenta de destino se registran
+     * en una sola transaccion. Las dos cuentas se bloquean siempre en orden ascendente de
+     * cuentaId (tanto en memoria como en la base de datos), de modo que dos transferencias
+     * en sentido contrario entre las mismas cuentas no pueden bloquearse mutuamente.
+     * @param transferencia cuentas de origen y destino y valor a transferir.
+     * @return el movimiento debito de la cuenta de origen y el credito de la cuenta de destino.
+     */
+    @Override
+    public List<Movimiento> transfer(Transferencia transferencia) {
+
+        Long origenId = transferencia.cuentaOrigenId();
+        Long destinoId = transferencia.cuentaDestinoId();
+
+        if(origenId == null || destinoId == null || origenId.equals(destinoId)) {
+            throw new InvalidTransferException("la transferencia debe tener una cuenta de origen y una de destino distintas");
+        }
+        if(transferencia.valor() == null || transferencia.valor() <= 0) {
+            throw new InvalidTransferException("el valor de la transferencia debe ser mayor a cero");
+        }
+
+        return accountLocks.withLocks(origenId, destinoId,
+                () -> transactionOperations.execute(status -> insertTransfer(transferencia)));
+    }
+
+    /**
+     * Registra los dos movimientos de la transferencia dentro de la transaccion abierta por transfer.
+     */
+    private List<Movimiento> insertTransfer(Transferencia transferencia) {
+
+        Movimiento debito = transferMovement("debito", transferencia.valor(), transferencia.cuentaOrigenId());
+        Movimiento credito = transferMovement("credito", transferencia.valor(), transferencia.cuentaDestinoId());
+
+        boolean origenPrimero = transferencia.cuentaOrigenId() < transferencia.cuentaDestinoId();
+        Movimiento primero = origenPrimero ? debito : credito;
+        Movimiento segundo = origenPrimero ? credito : debito;
+
+        for(Movimiento movimiento : List.of(primero, segundo)) {
+            Long cuentaId = movimiento.getCuenta().getCuentaId();
+            if(accountRepository.adjustBalance(cuentaId, balanceDelta(movimiento)) == 0) {
+                throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        for(Movimiento movimiento : List.of(debito, credito)) {
+            movimiento.setCuenta(accountRepository.getReferenceById(movimiento.getCuenta().getCuentaId()));
+            movimiento.setFechaMovimiento(today);
+            movimiento.setFechaCreacion(today);
+            movimiento.setUsuarioCreacion("wilsonp");
+        }
+
+        return movementRepository.saveAll(List.of(debito, credito));
+    }
+
+    private static Movimiento transferMovement(String tipo, Long valor, Long cuentaId) {
+
+        Cuenta cuenta = new Cuenta();
+        cuenta.setCuentaId(cuentaId);
+
+        Movimiento movimiento = new Movimiento();
+        movimiento.setCuenta(cuenta);
+        movimiento.setTipo(tipo);
+        movimiento.setValor(valor);
+        movimiento.setEstado("activo");
+        return movimiento;
+    }
+
+    /**
+     * <h2>Metodo para consultar las estadisticas de los bloqueos por cuenta</h2>
+     * @return las estadisticas de espera de los bloqueos.
+     */
+    @Override
+    public EstadisticasBloqueo readLockStatistics() {
+        return accountLocks.estadisticas();
+    }
+
     /**
      * <h2>Metodo para leer un movimiento</h2>
+     * Los ids que el filtro de movimientos descarta se rechazan sin consultar la base de datos.
      * @param movimientoId id del movimiento a consultar
      * @return el movimiento asociado al id pasado como parametro
      */
     @Override
+    @Transactional(readOnly = true)
     public Movimiento readMovement(Long movimientoId) {
 
-    	if(!movementRepository.existsById(movimientoId)) {
-    		throw new MovementNotFoundException("el movimiento con el id: "+movimientoId+" no existe");
-    	}
-        return movementRepository.findByMovimientoId(movimientoId);
+        if(!movementIdFilter.mightContain(movimientoId)) {
+            throw new MovementNotFoundException("el movimiento con el id: "+movimientoId+" no existe");
+        }
+        return movementRepository.findById(movimientoId).orElseThrow(() -> {
+            movementIdFilter.registrarFalsoPositivo();
+            return new MovementNotFoundException("el movimiento con el id: "+movimientoId+" no existe");
+        });
 
     }
 
     /**
-     * <h2>Metodo para leer los movimientos que tiene una cuenta</h2>
+     * <h2>Metodo para leer el historial de movimientos por paginas</h2>
+     * La paginacion es por keyset sobre (fechaMovimiento, movimientoId): el cursor guarda
+     * la posicion del ultimo movimiento devuelto y la siguiente pagina continua desde alli
+     * sobre el indice compuesto de la cuenta. Solo cuando la primera pagina llega vacia se
+     * consulta si la cuenta existe, para distinguir una cuenta sin movimientos de una inexistente.
+     *
      * @param cuentaId id de la cuenta a la cual se le va a consultar los movimientos
-     * @return lista de movimientos asociados a la cuenta consultada
+     * @param desde fecha minima de los movimientos, null para no limitar.
+     * @param hasta fecha maxima de los movimientos, null para no limitar.
+     * @param tamano cantidad de movimientos por pagina.
+     * @param cursor cursor opaco de la pagina anterior, null para la primera pagina.
+     * @return la pagina de movimientos y el cursor de la siguiente pagina.
      */
     @Override
-    public List<Movimiento> readMovementsByAccount(Long cuentaId) {
+    @Transactional(readOnly = true)
+    public Pagina<MovimientoRespuesta> readMovementsPage(Long cuentaId, LocalDate desde, LocalDate hasta, Integer tamano, String cursor) {
 
-    	if(!accountRepository.existsById(cuentaId)) {
-    		throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
-    	}
-    	
-        return movementRepository.findByCuenta(accountRepository.findByCuentaId(cuentaId));
+        int limite = Pagina.tamano(tamano);
+        LocalDate fechaDesde = desde != null ? desde : FECHA_MINIMA;
+        LocalDate fecha = hasta != null ? hasta : FECHA_MAXIMA;
+        Long movimientoId = Long.MAX_VALUE;
+        boolean primeraPagina = cursor == null || cursor.isBlank();
+
+        if(!primeraPagina) {
+            String[] partes = CursorCodec.decode(cursor, 2);
+            try {
+                fecha = LocalDate.parse(partes[0]);
+                movimientoId = Long.valueOf(partes[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new InvalidCursorException("el cursor " + cursor + " no es valido");
+            }
+        }
+
+        List<MovimientoRespuesta> movimientos = movementRepository.findPageByCuenta(cuentaId, fechaDesde, fecha, movimientoId, PageRequest.of(0, limite + 1));
+
+        if(movimientos.isEmpty() && primeraPagina && !accountRepository.existsById(cuentaId)) {
+            throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
+        }
+
+        if(movimientos.size() <= limite) {
+            return new Pagina<>(movimientos, null);
+        }
+
+        List<MovimientoRespuesta> contenido = movimientos.subList(0, limite);
+        MovimientoRespuesta ultimo = contenido.get(limite - 1);
+        return new Pagina<>(contenido, CursorCodec.encode(ultimo.fechaMovimiento(), ultimo.movimientoId()));
+    }
+
+    /**
+     * <h2>Metodo para validar que una cuenta exista</h2>
+     * Se usa antes de empezar una exportacion, porque una vez se envian las primeras filas
+     * ya no se puede responder con un error.
+     * @param cuentaId id de la cuenta.
+     */
+    @Override
+    public void validateAccountExists(Long cuentaId) {
+        if(!accountRepository.existsById(cuentaId)) {
+            throw new AccountNotFoundException("la cuenta con el id: "+cuentaId+" no existe");
+        }
+    }
+
+    /**
+     * <h2>Metodo para exportar el historial completo de una cuenta</h2>
+     * Las filas se leen con un cursor de solo avance y cada una se escribe en la salida apenas
+     * llega, como una linea JSON; en memoria solo esta la fila actual y el buffer del cursor,
+     * sin importar el tamano del historial. Cada FILAS_POR_ENVIO filas se envia lo escrito.
+     * @param cuentaId id de la cuenta a exportar.
+     * @param salida flujo donde se escribe un movimiento por linea.
+     * @return la cantidad de movimientos exportados.
+     * @throws IOException si no se puede escribir en la salida.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportMovements(Long cuentaId, OutputStream salida) throws IOException {
+
+        long filas = 0;
+        try (Stream<MovimientoExportado> movimientos = movementRepository.streamByCuenta(cuentaId);
+             JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.setRootValueSeparator(null);
+            Iterator<MovimientoExportado> iterador = movimientos.iterator();
+            while(iterador.hasNext()) {
+                generador.writeObject(iterador.next());
+                generador.writeRaw('\n');
+                if(++filas % FILAS_POR_ENVIO == 0) {
+                    generador.flush();
+                }
+            }
+        }
+        return filas;
     }
 
     /**
      * <h2>Metodo para actualizar un movimiento</h2>
+     * Si cambia el tipo, el valor o el estado, al saldo de la cuenta se le suma la
+     * diferencia entre el efecto nuevo y el anterior del movimiento. El movimiento no
+     * cambia de cuenta, asi que se consulta primero para saber que cuenta bloquear y
+     * luego se vuelve a leer dentro del bloqueo, igual que al crear un movimiento.
      * @param movimiento datos del movimiento que se va a actualizar
      * @param movimientoId id del movimiento que se va a actualizar
      * @return movimiento actualizado.
      */
     @Override
     public Movimiento updateMovement(Movimiento movimiento, Long movimientoId) {
-    	
-    	if(!movementRepository.existsById(movimientoId)) {
-    		throw new MovementNotFoundException("el movimiento con el id: "+movimientoId+" no existe");
-    	}
 
-        Movimiento movementToUpdate = movementRepository.findByMovimientoId(movimientoId);
+        Long cuentaId = findMovement(movimientoId).getCuenta().getCuentaId();
+        return accountLocks.withLock(cuentaId,
+                () -> transactionOperations.execute(status -> applyUpdate(movimiento, movimientoId)));
+    }
+
+    private Movimiento applyUpdate(Movimiento movimiento, Long movimientoId) {
 
+        Movimiento movementToUpdate = findMovement(movimientoId);
+
+        long efectoAnterior = balanceDelta(movementToUpdate);
         LocalDate today = LocalDate.now();
 
         movementToUpdate.setTipo(movimiento.getTipo());
@@ -114,20 +548,50 @@ public class MovimientoServiceImp implements MovimientoService {
         movementToUpdate.setFechaModificacion(today);
         movementToUpdate.setUsuarioModificacion("wilsonp");
 
+        long diferencia = balanceDelta(movementToUpdate) - efectoAnterior;
+        if(diferencia != 0) {
+            accountRepository.adjustBalance(movementToUpdate.getCuenta().getCuentaId(), diferencia);
+        }
+
         return movementRepository.save(movementToUpdate);
     }
     
+    /**
+     * <h2>Metodo para calcular el efecto de un movimiento en el saldo</h2>
+     * Solo los movimientos activos afectan el saldo; los de tipo debito o retiro restan
+     * y los demas suman. Debe coincidir con MovementRepository.sumBalanceByCuenta.
+     * @param movement el movimiento a evaluar.
+     * @return el valor que el movimiento suma al saldo de su cuenta.
+     */
+    public static long balanceDelta(Movimiento movement) {
+
+        if(!"activo".equals(movement.getEstado()) || movement.getValor() == null) {
+            return 0L;
+        }
+        if(subtractsFromBalance(movement.getTipo())) {
+            return -movement.getValor();
+        }
+        return movement.getValor();
+    }
+
+    /**
+     * <h2>Metodo para saber si un tipo de movimiento resta del saldo</h2>
+     * @param tipo el tipo de movimiento.
+     * @return true si el tipo es debito o retiro, sin importar mayusculas.
+     */
+    public static boolean subtractsFromBalance(String tipo) {
+        return "debito".equalsIgnoreCase(tipo) || "retiro".equalsIgnoreCase(tipo);
+    }
+
     /**
      * <h2>Metodo para validar el estado de un movimiento</h2>
-     * @param movimientoId id del movimiento a validar.
+     * @param movement el movimiento a validar, ya consultado.
      * @return true si el estado es activo, false si el estado no es activo.
      */
     
-    public boolean validateMovementStatus(Long movimientoId) {
+    public boolean validateMovementStatus(Movimiento movement) {
     	
-    	Movimiento movement = movementRepository.findByMovimientoId(movimientoId);
-    	
-    	if (movement.getEstado().equals("activo")) {
+    	if ("activo".equals(movement.getEstado())) {
     		return true;
     	}else {
     		return false;
@@ -138,24 +602,41 @@ public class MovimientoServiceImp implements MovimientoService {
 
     /**
      * <h2>Metodo para eliminar un movimiento</h2>
+     * Solo se eliminan movimientos inactivos, que no afectan el saldo; aun asi se
+     * descuenta su efecto para que el saldo no dependa de esa regla. Se hace bajo el
+     * bloqueo de la cuenta del movimiento, como al actualizarlo.
      *
      * @param movimientoId id del movimiento que se va a eliminar
      * @return true si el movimiento se elimino con exito, false si no se pudo eliminar.
      */
     @Override
     public boolean deleteMovement(Long movimientoId) {
-    	
-    	if(!movementRepository.existsById(movimientoId)) {
-    		throw new MovementNotFoundException("el movimiento con el id: "+movimientoId+" no existe");
-    	}
-        
-    	if (validateMovementStatus(movimientoId)) {
+
+        Long cuentaId = findMovement(movimientoId).getCuenta().getCuentaId();
+        return accountLocks.withLock(cuentaId,
+                () -> transactionOperations.execute(status -> removeMovement(movimientoId)));
+    }
+
+    private boolean removeMovement(Long movimientoId) {
+
+        Movimiento movimiento = findMovement(movimientoId);
+
+    	if (validateMovementStatus(movimiento)) {
             throw new MovementActiveStateException("el movimiento con el id "+movimientoId+" no se puede eliminar porque su estado es activo");
             
         } 
-            movementRepository.deleteById(movimientoId);
+        long efecto = balanceDelta(movimiento);
+        if(efecto != 0) {
+            accountRepository.adjustBalance(movimiento.getCuenta().getCuentaId(), -efecto);
+        }
+            movementRepository.delete(movimiento);
             return true;
         }    
 
+    private Movimiento findMovement(Long movimientoId) {
+        return movementRepository.findById(movimientoId)
+                .orElseThrow(() -> new MovementNotFoundException("el movimiento con el id: "+movimientoId+" no existe"));
+    }
+
 }
 
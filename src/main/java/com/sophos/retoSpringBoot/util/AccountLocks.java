@@ -0,0 +1,169 @@
+package com.sophos.retoSpringBoot.util;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasBloqueo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * <h1>AccountLocks</h1>
+ * Bloqueos en memoria por cuenta, repartidos en un numero fijo de franjas. Dos operaciones
+ * sobre la misma cuenta usan la misma franja y se ejecutan una detras de otra; operaciones
+ * sobre cuentas distintas casi siempre caen en franjas distintas y corren en paralelo.
+ * El bloqueo se toma antes de abrir la transaccion, asi los hilos en espera no retienen
+ * una conexion JDBC. Los bloqueos de fila de la base de datos siguen siendo la garantia
+ * cuando hay varias instancias de la aplicacion.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] franjas;
+
+    private final LongAdder adquisiciones = new LongAdder();
+
+    private final LongAdder esperas = new LongAdder();
+
+    private final LongAdder tiempoEsperaTotal = new LongAdder();
+
+    private final AtomicLong tiempoEsperaMaximo = new AtomicLong();
+
+    /**
+     * Constructor AccountLocks
+     * @param cantidadFranjas cantidad de franjas, se redondea a la siguiente potencia de 2.
+     */
+    public AccountLocks(@Value("${cuentas.bloqueos.franjas:256}") int cantidadFranjas) {
+        int tamano = 1;
+        while (tamano < cantidadFranjas) {
+            tamano <<= 1;
+        }
+        franjas = new ReentrantLock[tamano];
+        for (int i = 0; i < franjas.length; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * <h2>Metodo para ejecutar una accion con la cuenta bloqueada</h2>
+     * @param cuentaId id de la cuenta a bloquear.
+     * @param accion accion a ejecutar mientras se tiene el bloqueo.
+     * @param <T> tipo del resultado de la accion.
+     * @return el resultado de la accion.
+     */
+    public <T> T withLock(Long cuentaId, Supplier<T> accion) {
+        ReentrantLock franja = franjas[franja(cuentaId)];
+        adquirir(franja);
+        try {
+            return accion.get();
+        } finally {
+            franja.unlock();
+        }
+    }
+
+    /**
+     * <h2>Metodo para ejecutar una accion con dos cuentas bloqueadas</h2>
+     * Las franjas se toman siempre en orden ascendente de posicion, asi dos operaciones
+     * que bloquean las mismas cuentas en sentido contrario no pueden esperarse mutuamente.
+     * @param primeraCuentaId id de una de las cuentas.
+     * @param segundaCuentaId id de la otra cuenta.
+     * @param accion accion a ejecutar mientras se tienen los bloqueos.
+     * @param <T> tipo del resultado de la accion.
+     * @return el resultado de la accion.
+     */
+    public <T> T withLocks(Long primeraCuentaId, Long segundaCuentaId, Supplier<T> accion) {
+        int primera = franja(primeraCuentaId);
+        int segunda = franja(segundaCuentaId);
+        if (primera == segunda) {
+            return withLock(primeraCuentaId, accion);
+        }
+        ReentrantLock menor = franjas[Math.min(primera, segunda)];
+        ReentrantLock mayor = franjas[Math.max(primera, segunda)];
+        adquirir(menor);
+        try {
+            adquirir(mayor);
+            try {
+                return accion.get();
+            } finally {
+                mayor.unlock();
+            }
+        } finally {
+            menor.unlock();
+        }
+    }
+
+    /**
+     * <h2>Metodo para ejecutar una accion con varias cuentas bloqueadas</h2>
+     * Las franjas de todas las cuentas se toman una sola vez cada una y en orden ascendente
+     * de posicion, el mismo orden de {@link #withLocks(Long, Long, Supplier)}, asi un lote no
+     * puede esperarse mutuamente con una transferencia ni con otro lote.
+     * @param cuentaIds ids de las cuentas a bloquear.
+     * @param accion accion a ejecutar mientras se tienen los bloqueos.
+     * @param <T> tipo del resultado de la accion.
+     * @return el resultado de la accion.
+     */
+    public <T> T withLocks(Collection<Long> cuentaIds, Supplier<T> accion) {
+        SortedSet<Integer> posiciones = new TreeSet<>();
+        for (Long cuentaId : cuentaIds) {
+            posiciones.add(franja(cuentaId));
+        }
+        Deque<ReentrantLock> tomadas = new ArrayDeque<>(posiciones.size());
+        try {
+            for (int posicion : posiciones) {
+                ReentrantLock franja = franjas[posicion];
+                adquirir(franja);
+                tomadas.push(franja);
+            }
+            return accion.get();
+        } finally {
+            while (!tomadas.isEmpty()) {
+                tomadas.pop().unlock();
+            }
+        }
+    }
+
+    /**
+     * <h2>Metodo para consultar las estadisticas de espera</h2>
+     * @return las estadisticas acumuladas de los bloqueos.
+     */
+    public EstadisticasBloqueo estadisticas() {
+        return new EstadisticasBloqueo(adquisiciones.sum(), esperas.sum(), tiempoEsperaTotal.sum(), tiempoEsperaMaximo.get());
+    }
+
+    /**
+     *
+     * @return cantidad de franjas.
+     */
+    public int getCantidadFranjas() {
+        return franjas.length;
+    }
+
+    int franja(Long cuentaId) {
+        int h = Long.hashCode(cuentaId);
+        return (h ^ (h >>> 16)) & (franjas.length - 1);
+    }
+
+    private void adquirir(ReentrantLock franja) {
+        adquisiciones.increment();
+        if (franja.tryLock()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        franja.lock();
+        long espera = System.nanoTime() - inicio;
+        esperas.increment();
+        tiempoEsperaTotal.add(espera);
+        tiempoEsperaMaximo.accumulateAndGet(espera, Math::max);
+    }
+}
@@ -0,0 +1,50 @@
+package com.sophos.retoSpringBoot.util;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * <h1>BlockIdGenerator</h1>
+ * Generador de Hibernate que toma los ids del IdBlockAllocator de la aplicacion. A diferencia
+ * de IDENTITY, el id se conoce antes del insert, por lo que Hibernate puede agrupar los insert
+ * en lotes JDBC. Se configura con el parametro "secuencia".
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class BlockIdGenerator implements IdentifierGenerator {
+
+    /**
+     * parametro con el nombre de la secuencia en id_generadores.
+     */
+    public static final String SECUENCIA = "secuencia";
+
+    private IdBlockAllocator asignador;
+
+    private String secuencia;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        secuencia = params.getProperty(SECUENCIA);
+        Object configurado = serviceRegistry.getService(ConfigurationService.class).getSettings()
+                .get(IdBlockAllocator.PROPIEDAD_HIBERNATE);
+        if (secuencia == null || !(configurado instanceof IdBlockAllocator)) {
+            throw new MappingException("BlockIdGenerator necesita el parametro " + SECUENCIA
+                    + " y la propiedad " + IdBlockAllocator.PROPIEDAD_HIBERNATE);
+        }
+        asignador = (IdBlockAllocator) configurado;
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return asignador.next(secuencia);
+    }
+}
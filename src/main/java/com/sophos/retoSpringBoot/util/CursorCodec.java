@@ -0,0 +1,60 @@
+package com.sophos.retoSpringBoot.util;
+
+import com.sophos.retoSpringBoot.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * <h1>CursorCodec</h1>
+ * Codifica y decodifica los cursores opacos usados en la paginacion por keyset.
+ * El cursor es la lista de valores de la ultima fila devuelta, separados por ':'
+ * y codificados en Base64 URL, de modo que el cliente no dependa de su formato.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public final class CursorCodec {
+
+    private static final String SEPARADOR = ":";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * <h2>Metodo para codificar un cursor</h2>
+     * @param partes valores de la ultima fila de la pagina.
+     * @return el cursor opaco.
+     */
+    public static String encode(Object... partes) {
+        StringBuilder valor = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) {
+                valor.append(SEPARADOR);
+            }
+            valor.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * <h2>Metodo para decodificar un cursor</h2>
+     * @param cursor el cursor opaco recibido del cliente.
+     * @param cantidadPartes cantidad de valores que debe contener el cursor.
+     * @return los valores contenidos en el cursor.
+     */
+    public static String[] decode(String cursor, int cantidadPartes) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split(SEPARADOR, -1);
+            if (partes.length != cantidadPartes) {
+                throw new InvalidCursorException("el cursor " + cursor + " no es valido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("el cursor " + cursor + " no es valido");
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.sophos.retoSpringBoot.util;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>IdBlockAllocator</h1>
+ * Entrega ids desde memoria, reservando bloques en la tabla id_generadores. Cada bloque se
+ * reserva con un update atomico sobre la fila de la secuencia, asi varias instancias de la
+ * aplicacion nunca reciben el mismo rango; al reiniciar se reserva un bloque nuevo y los ids
+ * no usados del anterior simplemente se pierden. Dentro de un bloque los ids se entregan con
+ * un incremento atomico, sin bloqueos; solo el hilo que agota el bloque reserva el siguiente.
+ * Las reservas usan su propio DataSource: si compartieran el pool de la aplicacion, los hilos
+ * con una transaccion abierta podrian ocupar todas las conexiones mientras esperan un id, y
+ * la reserva que los desbloquea nunca obtendria conexion.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class IdBlockAllocator implements AutoCloseable {
+
+    /**
+     * tabla donde se guarda el siguiente id libre de cada secuencia.
+     */
+    public static final String TABLA = "id_generadores";
+
+    /**
+     * propiedad de Hibernate con la que BlockIdGenerator encuentra este asignador.
+     */
+    public static final String PROPIEDAD_HIBERNATE = "banco.ids.asignador";
+
+    private final DataSource dataSource;
+
+    private final int tamanoBloque;
+
+    private final ConcurrentMap<String, Secuencia> secuencias = new ConcurrentHashMap<>();
+
+    private final LongAdder reservas = new LongAdder();
+
+    /**
+     * Constructor IdBlockAllocator
+     * @param dataSource conexiones exclusivas para reservar bloques.
+     * @param tamanoBloque cantidad de ids que se reservan en cada viaje a la base de datos.
+     */
+    public IdBlockAllocator(DataSource dataSource, int tamanoBloque) {
+        this.dataSource = dataSource;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * <h2>Metodo para obtener el siguiente id de una secuencia</h2>
+     * @param secuencia nombre de la secuencia (columna entidad de id_generadores).
+     * @return un id que ninguna otra llamada, en este u otro nodo, ha recibido.
+     */
+    public long next(String secuencia) {
+        return secuencias.computeIfAbsent(secuencia, Secuencia::new).siguiente();
+    }
+
+    /**
+     * <h2>Metodo para consultar los bloques reservados</h2>
+     * @return la cantidad de bloques que este asignador ha reservado en la base de datos.
+     */
+    public long getBloquesReservados() {
+        return reservas.sum();
+    }
+
+    /**
+     * <h2>Metodo para reservar un bloque de ids</h2>
+     * Suma el tamano del bloque al valor guardado y devuelve el valor anterior; si la
+     * secuencia aun no tiene fila, la crea empezando en 1.
+     * @param secuencia nombre de la secuencia.
+     * @return el primer id del bloque reservado.
+     */
+    long reservar(String secuencia) {
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            try {
+                Long inicio = incrementar(conexion, secuencia);
+                if (inicio == null) {
+                    inicio = insertar(conexion, secuencia);
+                }
+                conexion.commit();
+                reservas.increment();
+                return inicio;
+            } catch (SQLException e) {
+                conexion.rollback();
+                throw e;
+            }
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // otro nodo creo la fila de la secuencia al mismo tiempo; ahora el update la encuentra.
+            return reservar(secuencia);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("no se pudo reservar un bloque de ids para " + secuencia, e);
+        }
+    }
+
+    private Long incrementar(Connection conexion, String secuencia) throws SQLException {
+        try (PreparedStatement update = conexion.prepareStatement(
+                "update " + TABLA + " set siguiente_id = siguiente_id + ? where entidad = ?")) {
+            update.setLong(1, tamanoBloque);
+            update.setString(2, secuencia);
+            if (update.executeUpdate() == 0) {
+                return null;
+            }
+        }
+        try (PreparedStatement select = conexion.prepareStatement(
+                "select siguiente_id from " + TABLA + " where entidad = ?")) {
+            select.setString(1, secuencia);
+            try (ResultSet resultado = select.executeQuery()) {
+                resultado.next();
+                return resultado.getLong(1) - tamanoBloque;
+            }
+        }
+    }
+
+    private long insertar(Connection conexion, String secuencia) throws SQLException {
+        try (PreparedStatement insert = conexion.prepareStatement(
+                "insert into " + TABLA + " (entidad, siguiente_id) values (?, ?)")) {
+            insert.setString(1, secuencia);
+            insert.setLong(2, 1L + tamanoBloque);
+            insert.executeUpdate();
+            return 1L;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    /**
+     * bloque de ids reservado en memoria; siguiente puede pasar del limite cuando se agota.
+     */
+    private static final class Bloque {
+
+        private final AtomicLong siguiente;
+
+        private final long limite;
+
+        private Bloque(long inicio, long limite) {
+            this.siguiente = new AtomicLong(inicio);
+            this.limite = limite;
+        }
+    }
+
+    /**
+     * bloque vigente de una secuencia.
+     */
+    private final class Secuencia {
+
+        private final String nombre;
+
+        private volatile Bloque actual = new Bloque(0, 0);
+
+        private Secuencia(String nombre) {
+            this.nombre = nombre;
+        }
+
+        private long siguiente() {
+            while (true) {
+                Bloque bloque = actual;
+                long id = bloque.siguiente.getAndIncrement();
+                if (id < bloque.limite) {
+                    return id;
+                }
+                synchronized (this) {
+                    if (actual == bloque) {
+                        long inicio = reservar(nombre);
+                        actual = new Bloque(inicio, inicio + tamanoBloque);
+                    }
+                }
+            }
+        }
+    }
+}
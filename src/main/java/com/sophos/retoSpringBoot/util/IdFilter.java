@@ -0,0 +1,193 @@
+package com.sophos.retoSpringBoot.util;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasFiltro;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>IdFilter</h1>
+ * Filtro de Bloom con contadores de los ids que existen en una tabla, para responder sin
+ * ir a la base de datos las lecturas de ids que no existen. Un id que no esta en el filtro
+ * seguro no existe; uno que esta puede no existir con la probabilidad configurada.
+ *
+ * Cada id incrementa k contadores de 4 bits, 16 por cada long; al eliminarlo se
+ * decrementan, asi los ids borrados dejan de contar. Un contador que llega a 15 ya no se
+ * decrementa, porque no se sabe cuantos ids lo comparten: a lo sumo deja un falso positivo.
+ * Por la misma razon solo se deben eliminar ids que se agregaron; mientras el filtro no
+ * esta completo las eliminaciones se ignoran y todas las consultas responden que el id
+ * puede existir.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class IdFilter {
+
+    private static final int BITS_CONTADOR = 4;
+
+    private static final long CONTADOR_MAXIMO = (1L << BITS_CONTADOR) - 1;
+
+    private static final int CONTADORES_POR_PALABRA = Long.SIZE / BITS_CONTADOR;
+
+    private final String nombre;
+
+    private final long capacidad;
+
+    private final long contadores;
+
+    private final int funcionesHash;
+
+    private final AtomicLongArray palabras;
+
+    private final LongAdder elementos = new LongAdder();
+
+    private final LongAdder rechazos = new LongAdder();
+
+    private final LongAdder falsosPositivos = new LongAdder();
+
+    private volatile boolean completo;
+
+    /**
+     * Constructor IdFilter
+     * @param nombre nombre del filtro, usado en las estadisticas.
+     * @param capacidad cantidad de ids esperada.
+     * @param tasaFalsosPositivos probabilidad de falso positivo con la capacidad llena, entre 0 y 1.
+     */
+    public IdFilter(String nombre, long capacidad, double tasaFalsosPositivos) {
+        this.nombre = nombre;
+        this.capacidad = Math.max(1, capacidad);
+        double optimo = -this.capacidad * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2));
+        long cantidadPalabras = Math.min(Integer.MAX_VALUE - 8, Math.max(1, (long) Math.ceil(optimo / CONTADORES_POR_PALABRA)));
+        this.contadores = cantidadPalabras * CONTADORES_POR_PALABRA;
+        this.funcionesHash = (int) Math.max(1, Math.round((double) contadores / this.capacidad * Math.log(2)));
+        this.palabras = new AtomicLongArray((int) cantidadPalabras);
+    }
+
+    /**
+     * <h2>Metodo para agregar un id</h2>
+     * @param id id que existe o va a existir en la tabla.
+     */
+    public void add(long id) {
+        long h1 = mezclar(id);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funcionesHash; i++) {
+            ajustar(Math.floorMod(h1 + i * h2, contadores), 1);
+        }
+        elementos.increment();
+    }
+
+    /**
+     * <h2>Metodo para eliminar un id</h2>
+     * Se ignora mientras el filtro no este completo.
+     * @param id id agregado antes que ya no existe en la tabla.
+     */
+    public void remove(long id) {
+        if (!completo) {
+            return;
+        }
+        long h1 = mezclar(id);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funcionesHash; i++) {
+            ajustar(Math.floorMod(h1 + i * h2, contadores), -1);
+        }
+        elementos.decrement();
+    }
+
+    /**
+     * <h2>Metodo para consultar si un id puede existir</h2>
+     * Si responde false cuenta un rechazo.
+     * @param id id a consultar.
+     * @return false si el id seguro no existe; true si puede existir, si es null o si el filtro no esta completo.
+     */
+    public boolean mightContain(Long id) {
+        if (id == null || !completo) {
+            return true;
+        }
+        long h1 = mezclar(id);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funcionesHash; i++) {
+            if (contador(Math.floorMod(h1 + i * h2, contadores)) == 0) {
+                rechazos.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <h2>Metodo para marcar el filtro como completo</h2>
+     * Se llama despues de agregar todos los ids de la tabla; desde entonces el filtro
+     * rechaza los ids que no tiene.
+     */
+    public void marcarCompleto() {
+        completo = true;
+    }
+
+    /**
+     * <h2>Metodo para registrar un falso positivo</h2>
+     * Se llama cuando un id que el filtro no rechazo no existe en la base de datos.
+     */
+    public void registrarFalsoPositivo() {
+        if (completo) {
+            falsosPositivos.increment();
+        }
+    }
+
+    /**
+     * <h2>Metodo para consultar las estadisticas</h2>
+     * La tasa de falsos positivos se estima con la fraccion de contadores ocupados, que es
+     * la probabilidad de que cada uno de los k contadores de un id ausente este ocupado.
+     * @return ocupacion, memoria, rechazos y falsos positivos del filtro.
+     */
+    public EstadisticasFiltro estadisticas() {
+        long ocupados = 0;
+        for (int i = 0; i < palabras.length(); i++) {
+            long palabra = palabras.get(i);
+            for (int j = 0; j < CONTADORES_POR_PALABRA; j++) {
+                if (((palabra >>> (j * BITS_CONTADOR)) & CONTADOR_MAXIMO) != 0) {
+                    ocupados++;
+                }
+            }
+        }
+        double estimada = Math.pow((double) ocupados / contadores, funcionesHash);
+        return new EstadisticasFiltro(nombre, completo, elementos.sum(), capacidad, funcionesHash,
+                (long) palabras.length() * Long.BYTES, estimada, rechazos.sum(), falsosPositivos.sum());
+    }
+
+    private long contador(long indice) {
+        long palabra = palabras.get((int) (indice / CONTADORES_POR_PALABRA));
+        return (palabra >>> desplazamiento(indice)) & CONTADOR_MAXIMO;
+    }
+
+    /**
+     * Suma 1 o -1 al contador, sin pasar de 0 ni de 15 y sin cambiar un contador saturado.
+     */
+    private void ajustar(long indice, int delta) {
+        int posicion = (int) (indice / CONTADORES_POR_PALABRA);
+        int desplazamiento = desplazamiento(indice);
+        long palabra;
+        long valor;
+        do {
+            palabra = palabras.get(posicion);
+            valor = (palabra >>> desplazamiento) & CONTADOR_MAXIMO;
+            if (valor == CONTADOR_MAXIMO || valor + delta < 0) {
+                return;
+            }
+        } while (!palabras.compareAndSet(posicion, palabra, palabra + ((long) delta << desplazamiento)));
+    }
+
+    private static int desplazamiento(long indice) {
+        return (int) (indice % CONTADORES_POR_PALABRA) * BITS_CONTADOR;
+    }
+
+    /**
+     * Finalizador de SplitMix64: reparte ids consecutivos en todo el rango de 64 bits.
+     */
+    private static long mezclar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
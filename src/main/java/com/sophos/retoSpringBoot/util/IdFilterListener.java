@@ -0,0 +1,69 @@
+package com.sophos.retoSpringBoot.util;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Map;
+
+/**
+ * <h1>IdFilterListener</h1>
+ * Mantiene los filtros de ids al dia con las escrituras de Hibernate, vengan de los
+ * servicios o de los repositorios. Los ids se agregan al ejecutar el insert, antes del
+ * commit, asi nadie puede leer la fila antes de que este en el filtro; si la transaccion
+ * se revierte el id queda como un falso positivo. Se eliminan solo despues del commit del
+ * delete, porque si se revierte la fila sigue existiendo.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class IdFilterListener implements PostInsertEventListener, PostCommitDeleteEventListener {
+
+    private final Map<Class<?>, IdFilter> filtros;
+
+    /**
+     * Constructor IdFilterListener
+     * @param filtros filtro de cada entidad; las demas entidades se ignoran.
+     */
+    public IdFilterListener(Map<Class<?>, IdFilter> filtros) {
+        this.filtros = Map.copyOf(filtros);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        IdFilter filtro = filtros.get(event.getPersister().getMappedClass());
+        if (filtro != null) {
+            filtro.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        IdFilter filtro = filtros.get(event.getPersister().getMappedClass());
+        if (filtro != null) {
+            filtro.remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // la fila no se elimino: su id sigue en el filtro.
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return filtros.containsKey(persister.getMappedClass());
+    }
+
+    /**
+     * Version anterior de {@link #requiresPostCommitHandling}, que Hibernate 5 todavia exige implementar.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sophos.retoSpringBoot.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h1>IdempotencyCache</h1>
+ * Tabla en memoria de respuestas por clave de idempotencia, con capacidad maxima y
+ * tiempo de expiracion. Consultar y guardar cuestan O(1): es un LinkedHashMap en orden
+ * de acceso que descarta la entrada menos usada al superar la capacidad, y cada entrada
+ * guarda el instante en que vence.
+ *
+ * @param <V> tipo de la respuesta guardada.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class IdempotencyCache<V> {
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final LinkedHashMap<String, Entrada<V>> entradas;
+
+    /**
+     * Constructor IdempotencyCache
+     * @param capacidad cantidad maxima de claves en memoria.
+     * @param ttl tiempo que se recuerda cada clave.
+     * @param clock reloj usado para calcular la expiracion.
+     */
+    public IdempotencyCache(int capacidad, Duration ttl, Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada<V>> mayor) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * <h2>Metodo para consultar una respuesta</h2>
+     * @param clave la clave de idempotencia.
+     * @return la respuesta guardada, o null si no existe o ya vencio.
+     */
+    public synchronized V get(String clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceEn() <= clock.millis()) {
+            entradas.remove(clave);
+            return null;
+        }
+        return entrada.valor();
+    }
+
+    /**
+     * <h2>Metodo para guardar una respuesta</h2>
+     * @param clave la clave de idempotencia.
+     * @param valor la respuesta a recordar.
+     */
+    public synchronized void put(String clave, V valor) {
+        entradas.put(clave, new Entrada<>(valor, clock.millis() + ttlMillis));
+    }
+
+    /**
+     *
+     * @return cantidad de claves en memoria, incluidas las vencidas que aun no se han descartado.
+     */
+    public synchronized int size() {
+        return entradas.size();
+    }
+
+    private record Entrada<V>(V valor, long venceEn) {
+    }
+}
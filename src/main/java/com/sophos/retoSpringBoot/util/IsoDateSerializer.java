@@ -0,0 +1,51 @@
+package com.sophos.retoSpringBoot.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * <h1>IsoDateSerializer</h1>
+ * Escribe las fechas como texto yyyy-MM-dd, el mismo formato que el serializador de
+ * jackson-datatype-jsr310 con WRITE_DATES_AS_TIMESTAMPS deshabilitado, pero armando los
+ * caracteres directamente en lugar de pasar por un DateTimeFormatter. Los anios fuera de
+ * 0-9999 usan LocalDate.toString, que tambien es ISO-8601.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class IsoDateSerializer extends StdSerializer<LocalDate> {
+
+    /**
+     * Constructor IsoDateSerializer
+     */
+    public IsoDateSerializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public void serialize(LocalDate fecha, JsonGenerator generador, SerializerProvider proveedor) throws IOException {
+        int anio = fecha.getYear();
+        if (anio < 0 || anio > 9999) {
+            generador.writeString(fecha.toString());
+            return;
+        }
+        char[] texto = new char[10];
+        digitos(texto, 0, anio / 100);
+        digitos(texto, 2, anio % 100);
+        texto[4] = '-';
+        digitos(texto, 5, fecha.getMonthValue());
+        texto[7] = '-';
+        digitos(texto, 8, fecha.getDayOfMonth());
+        generador.writeString(texto, 0, texto.length);
+    }
+
+    private static void digitos(char[] texto, int posicion, int valor) {
+        texto[posicion] = (char) ('0' + valor / 10);
+        texto[posicion + 1] = (char) ('0' + valor % 10);
+    }
+}
@@ -0,0 +1,175 @@
+package com.sophos.retoSpringBoot.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.InvalidImportException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <h1>MovementRowParser</h1>
+ * Convierte una linea de un archivo de importacion en un Movimiento y valida sus datos.
+ * Acepta CSV separado por comas y sin comillas, cuya primera linea nombra las columnas, o
+ * NDJSON con un objeto por linea. Las columnas cuentaId, tipo y valor son obligatorias;
+ * estado, periodo y fechaMovimiento son opcionales y el estado por defecto es activo.
+ * No guarda estado entre lineas, por eso un mismo parser se puede usar desde varios hilos.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class MovementRowParser {
+
+    /**
+     * formato de valores separados por comas.
+     */
+    public static final String CSV = "csv";
+
+    /**
+     * formato de un objeto JSON por linea.
+     */
+    public static final String NDJSON = "ndjson";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String formato;
+
+    private final Map<String, Integer> columnas;
+
+    private MovementRowParser(String formato, Map<String, Integer> columnas) {
+        this.formato = formato;
+        this.columnas = columnas;
+    }
+
+    /**
+     * <h2>Metodo para crear el parser de un archivo NDJSON</h2>
+     * @return el parser.
+     */
+    public static MovementRowParser ndjson() {
+        return new MovementRowParser(NDJSON, Map.of());
+    }
+
+    /**
+     * <h2>Metodo para crear el parser de un archivo CSV</h2>
+     * @param cabecera primera linea del archivo, con los nombres de las columnas.
+     * @return el parser.
+     */
+    public static MovementRowParser csv(String cabecera) {
+        Map<String, Integer> columnas = new HashMap<>();
+        String[] nombres = cabecera.split(",", -1);
+        for (int i = 0; i < nombres.length; i++) {
+            columnas.put(nombres[i].trim(), i);
+        }
+        for (String obligatoria : new String[]{"cuentaId", "tipo", "valor"}) {
+            if (!columnas.containsKey(obligatoria)) {
+                throw new InvalidImportException("la cabecera del archivo no tiene la columna " + obligatoria);
+            }
+        }
+        return new MovementRowParser(CSV, columnas);
+    }
+
+    /**
+     * <h2>Metodo para convertir una linea en un movimiento</h2>
+     * @param numeroLinea numero de la linea en el archivo, para los mensajes de error.
+     * @param linea contenido de la linea.
+     * @return el movimiento, con la cuenta referenciada solo por su id.
+     */
+    public Movimiento parse(long numeroLinea, String linea) {
+        Map<String, String> campos = CSV.equals(formato) ? camposCsv(numeroLinea, linea) : camposJson(numeroLinea, linea);
+
+        Movimiento movimiento = new Movimiento();
+        Cuenta cuenta = new Cuenta();
+        cuenta.setCuentaId(numero(numeroLinea, "cuentaId", campos.get("cuentaId")));
+        movimiento.setCuenta(cuenta);
+        movimiento.setTipo(obligatorio(numeroLinea, "tipo", campos.get("tipo")));
+        Long valor = numero(numeroLinea, "valor", campos.get("valor"));
+        if (valor <= 0) {
+            throw new InvalidImportException("linea " + numeroLinea + ": el valor debe ser mayor a cero");
+        }
+        movimiento.setValor(valor);
+        String estado = campos.get("estado");
+        movimiento.setEstado(estado == null || estado.isBlank() ? "activo" : estado.trim());
+        String periodo = campos.get("periodo");
+        movimiento.setPeriodo(periodo == null || periodo.isBlank() ? null : periodo.trim());
+        String fecha = campos.get("fechaMovimiento");
+        if (fecha != null && !fecha.isBlank()) {
+            try {
+                movimiento.setFechaMovimiento(LocalDate.parse(fecha.trim()));
+            } catch (DateTimeParseException e) {
+                throw new InvalidImportException("linea " + numeroLinea + ": la fechaMovimiento " + fecha + " no es valida");
+            }
+        }
+        return movimiento;
+    }
+
+    /**
+     * <h2>Metodo para obtener el formato de un archivo</h2>
+     * @param formato formato solicitado; si es nulo se usa la extension.
+     * @param ruta ruta del archivo.
+     * @return csv o ndjson.
+     */
+    public static String formato(String formato, String ruta) {
+        String resultado = formato;
+        if (resultado == null || resultado.isBlank()) {
+            String nombre = ruta.toLowerCase(Locale.ROOT);
+            resultado = nombre.endsWith(".ndjson") || nombre.endsWith(".jsonl") ? NDJSON : nombre.endsWith(".csv") ? CSV : "";
+        }
+        resultado = resultado.trim().toLowerCase(Locale.ROOT);
+        if (!CSV.equals(resultado) && !NDJSON.equals(resultado)) {
+            throw new InvalidImportException("el formato del archivo debe ser csv o ndjson");
+        }
+        return resultado;
+    }
+
+    private Map<String, String> camposCsv(long numeroLinea, String linea) {
+        String[] valores = linea.split(",", -1);
+        if (valores.length != columnas.size()) {
+            throw new InvalidImportException("linea " + numeroLinea + ": se esperaban " + columnas.size()
+                    + " columnas y hay " + valores.length);
+        }
+        Map<String, String> campos = new HashMap<>();
+        columnas.forEach((nombre, posicion) -> campos.put(nombre, valores[posicion].trim()));
+        return campos;
+    }
+
+    private static Map<String, String> camposJson(long numeroLinea, String linea) {
+        JsonNode objeto;
+        try {
+            objeto = MAPPER.readTree(linea);
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportException("linea " + numeroLinea + ": no es un objeto JSON valido");
+        }
+        if (!objeto.isObject()) {
+            throw new InvalidImportException("linea " + numeroLinea + ": no es un objeto JSON valido");
+        }
+        Map<String, String> campos = new HashMap<>();
+        objeto.fields().forEachRemaining(campo -> {
+            if (!campo.getValue().isNull()) {
+                campos.put(campo.getKey(), campo.getValue().asText());
+            }
+        });
+        return campos;
+    }
+
+    private static String obligatorio(long numeroLinea, String nombre, String valor) {
+        if (valor == null || valor.isBlank()) {
+            throw new InvalidImportException("linea " + numeroLinea + ": falta el campo " + nombre);
+        }
+        return valor.trim();
+    }
+
+    private static Long numero(long numeroLinea, String nombre, String valor) {
+        try {
+            return Long.valueOf(obligatorio(numeroLinea, nombre, valor));
+        } catch (NumberFormatException e) {
+            throw new InvalidImportException("linea " + numeroLinea + ": el campo " + nombre + " debe ser un numero entero");
+        }
+    }
+}
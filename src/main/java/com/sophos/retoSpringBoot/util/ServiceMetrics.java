@@ -0,0 +1,85 @@
+package com.sophos.retoSpringBoot.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>ServiceMetrics</h1>
+ * Mide cada llamada a un metodo publico de los servicios con el timer service.calls,
+ * etiquetado con la clase, el metodo, el resultado (SUCCESS o ERROR) y el nombre simple
+ * de la excepcion (none si no hubo). El timer trae la cantidad de llamadas, asi que sirve
+ * tambien de contador por resultado.
+ *
+ * El timer de las llamadas exitosas se guarda por metodo, de modo que en el camino normal
+ * solo se lee un mapa y se registra una duracion. Las llamadas internas de un servicio a
+ * si mismo no pasan por el proxy y no se miden. La medicion envuelve a la transaccion, asi
+ * un fallo al confirmarla cuenta como error.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+@Aspect
+public class ServiceMetrics implements Ordered {
+
+    public static final String METRICA = "service.calls";
+
+    private final MeterRegistry registry;
+
+    private final Map<Method, Timer> exitos = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor ServiceMetrics
+     * @param registry registro donde se publican los timers.
+     */
+    public ServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * <h2>Metodo para medir una llamada a un servicio</h2>
+     * @param llamada llamada interceptada.
+     * @return el resultado del servicio.
+     * @throws Throwable la excepcion del servicio, sin cambios.
+     */
+    @Around("execution(public * com.sophos.retoSpringBoot.service.implementations.*.*(..))")
+    public Object medir(ProceedingJoinPoint llamada) throws Throwable {
+        Method metodo = ((MethodSignature) llamada.getSignature()).getMethod();
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = llamada.proceed();
+            exitos.computeIfAbsent(metodo, clave -> timer(llamada, "SUCCESS", "none"))
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        } catch (Throwable error) {
+            timer(llamada, "ERROR", error.getClass().getSimpleName())
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw error;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Timer timer(ProceedingJoinPoint llamada, String resultado, String excepcion) {
+        return Timer.builder(METRICA)
+                .description("llamadas a los metodos de los servicios")
+                .tag("class", llamada.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", llamada.getSignature().getName())
+                .tag("outcome", resultado)
+                .tag("exception", excepcion)
+                .register(registry);
+    }
+}
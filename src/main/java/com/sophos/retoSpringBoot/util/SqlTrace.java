@@ -0,0 +1,96 @@
+package com.sophos.retoSpringBoot.util;
+
+/**
+ * <h1>SqlTrace</h1>
+ * Contadores de SQL de la peticion HTTP que atiende el hilo actual: sentencias ejecutadas,
+ * filas leidas y tiempo en la base de datos. Los abre y cierra {@link SqlTraceFilter} y los
+ * actualizan {@link SqlTraceListener} y {@link SqlTraceProxyFactory}. Las filas solo se cuentan
+ * en las peticiones muestreadas.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public final class SqlTrace {
+
+    private static final ThreadLocal<SqlTrace> ACTUAL = new ThreadLocal<>();
+
+    private final String metodo;
+
+    private final String uri;
+
+    private final boolean muestreada;
+
+    private int sentencias;
+
+    private long filas;
+
+    private long nanos;
+
+    private SqlTrace(String metodo, String uri, boolean muestreada) {
+        this.metodo = metodo;
+        this.uri = uri;
+        this.muestreada = muestreada;
+    }
+
+    /**
+     * <h2>Metodo para abrir la traza de una peticion en el hilo actual</h2>
+     * @param metodo metodo HTTP de la peticion.
+     * @param uri uri de la peticion.
+     * @param muestreada true si la peticion se mide completa y se publica.
+     * @return la traza abierta.
+     */
+    public static SqlTrace iniciar(String metodo, String uri, boolean muestreada) {
+        SqlTrace traza = new SqlTrace(metodo, uri, muestreada);
+        ACTUAL.set(traza);
+        return traza;
+    }
+
+    /**
+     *
+     * @return la traza del hilo actual, o null si el hilo no atiende una peticion.
+     */
+    public static SqlTrace actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * <h2>Metodo para cerrar la traza del hilo actual</h2>
+     */
+    public static void terminar() {
+        ACTUAL.remove();
+    }
+
+    void registrarSentencia(long duracionNanos) {
+        sentencias++;
+        nanos += duracionNanos;
+    }
+
+    void registrarFila() {
+        filas++;
+    }
+
+    public String getMetodo() {
+        return metodo;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public boolean isMuestreada() {
+        return muestreada;
+    }
+
+    public int getSentencias() {
+        return sentencias;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
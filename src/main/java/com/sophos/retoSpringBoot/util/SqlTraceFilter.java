@@ -0,0 +1,136 @@
+package com.sophos.retoSpringBoot.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>SqlTraceFilter</h1>
+ * Abre una {@link SqlTrace} por peticion HTTP. En las peticiones muestreadas agrega a la
+ * respuesta los encabezados X-Sql-Statements, X-Sql-Rows y X-Sql-Time-Ms, y registra las
+ * metricas http.server.sql.statements, http.server.sql.rows y http.server.sql.time por
+ * metodo y uri. Los encabezados se escriben justo antes del primer byte del cuerpo, cuando
+ * el servicio ya termino; si la respuesta no tiene cuerpo se escriben al final.
+ *
+ * Las sentencias que se ejecutan en otro hilo, como las exportaciones asincronas, no
+ * quedan en la traza de la peticion.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class SqlTraceFilter extends OncePerRequestFilter {
+
+    public static final String SENTENCIAS = "X-Sql-Statements";
+
+    public static final String FILAS = "X-Sql-Rows";
+
+    public static final String TIEMPO = "X-Sql-Time-Ms";
+
+    private final double muestreo;
+
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor SqlTraceFilter
+     * @param muestreo fraccion de las peticiones que se miden y publican, entre 0 y 1.
+     * @param registry registro donde se publican las metricas.
+     */
+    public SqlTraceFilter(double muestreo, MeterRegistry registry) {
+        this.muestreo = muestreo;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean muestreada = muestreo >= 1 || (muestreo > 0 && ThreadLocalRandom.current().nextDouble() < muestreo);
+        SqlTrace traza = SqlTrace.iniciar(request.getMethod(), request.getRequestURI(), muestreada);
+        try {
+            if (!muestreada) {
+                chain.doFilter(request, response);
+                return;
+            }
+            RespuestaConTraza respuesta = new RespuestaConTraza(response, traza);
+            chain.doFilter(request, respuesta);
+            respuesta.encabezados();
+            registrar(request, traza);
+        } finally {
+            SqlTrace.terminar();
+        }
+    }
+
+    private void registrar(HttpServletRequest request, SqlTrace traza) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron == null ? "UNKNOWN" : patron.toString();
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("sentencias SQL por peticion HTTP")
+                .tag("method", traza.getMetodo()).tag("uri", uri)
+                .register(registry).record(traza.getSentencias());
+        DistributionSummary.builder("http.server.sql.rows")
+                .description("filas leidas por peticion HTTP")
+                .tag("method", traza.getMetodo()).tag("uri", uri)
+                .register(registry).record(traza.getFilas());
+        Timer.builder("http.server.sql.time")
+                .description("tiempo en la base de datos por peticion HTTP")
+                .tag("method", traza.getMetodo()).tag("uri", uri)
+                .register(registry).record(traza.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Respuesta que escribe los encabezados de la traza antes de enviar el cuerpo.
+     */
+    private static final class RespuestaConTraza extends HttpServletResponseWrapper {
+
+        private final SqlTrace traza;
+
+        private boolean escritos;
+
+        RespuestaConTraza(HttpServletResponse response, SqlTrace traza) {
+            super(response);
+            this.traza = traza;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            encabezados();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            encabezados();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            encabezados();
+            super.flushBuffer();
+        }
+
+        void encabezados() {
+            if (escritos || isCommitted()) {
+                return;
+            }
+            escritos = true;
+            setHeader(SENTENCIAS, Integer.toString(traza.getSentencias()));
+            setHeader(FILAS, Long.toString(traza.getFilas()));
+            setHeader(TIEMPO, String.format(Locale.ROOT, "%.3f", traza.getNanos() / 1_000_000.0));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.sophos.retoSpringBoot.util;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <h1>SqlTraceListener</h1>
+ * Escucha las sentencias que pasan por el DataSource: suma cada una y su duracion a la
+ * {@link SqlTrace} del hilo y escribe en el log sql.lenta, como una linea JSON, las sentencias
+ * que tardan al menos el umbral configurado, con sus parametros y el metodo de servicio que
+ * las ejecuto. El metodo se busca en la pila solo para las sentencias lentas.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class SqlTraceListener implements QueryExecutionListener, MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger("sql.lenta");
+
+    private static final String INICIO = "inicio";
+
+    private static final String PAQUETE_SERVICIOS = "com.sophos.retoSpringBoot.service.implementations.";
+
+    private static final int MAXIMO_LOTES = 10;
+
+    private static final StackWalker PILA = StackWalker.getInstance();
+
+    private final long umbralNanos;
+
+    private volatile Counter lentas;
+
+    /**
+     * Constructor SqlTraceListener
+     * @param umbral duracion a partir de la cual una sentencia se escribe en el log.
+     */
+    public SqlTraceListener(Duration umbral) {
+        this.umbralNanos = umbral.toNanos();
+    }
+
+    /**
+     * Registra el contador de sentencias lentas. El listener se crea junto con el DataSource,
+     * antes que el registro de metricas, por eso el contador se agrega despues.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lentas = Counter.builder("db.slow.statements")
+                .description("sentencias SQL que superaron el umbral de sql.lenta.umbral")
+                .register(registry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(INICIO, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long duracion = System.nanoTime() - execInfo.getCustomValue(INICIO, Long.class);
+        SqlTrace traza = SqlTrace.actual();
+        if (traza != null) {
+            traza.registrarSentencia(duracion);
+        }
+        if (duracion >= umbralNanos) {
+            Counter contador = lentas;
+            if (contador != null) {
+                contador.increment();
+            }
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(json(duracion, execInfo, queryInfoList, traza));
+            }
+        }
+    }
+
+    private static String json(long duracion, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, SqlTrace traza) {
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"duracionMs\":").append(duracion / 1_000_000.0)
+                .append(",\"servicio\":");
+        texto(json, servicio());
+        json.append(",\"metodo\":");
+        texto(json, traza == null ? null : traza.getMetodo());
+        json.append(",\"uri\":");
+        texto(json, traza == null ? null : traza.getUri());
+        json.append(",\"lote\":").append(execInfo.isBatch())
+                .append(",\"exito\":").append(execInfo.isSuccess())
+                .append(",\"sentencias\":[");
+        for (int i = 0; i < queryInfoList.size(); i++) {
+            QueryInfo consulta = queryInfoList.get(i);
+            json.append(i == 0 ? "" : ",").append("{\"sql\":");
+            texto(json, consulta.getQuery());
+            json.append(",\"parametros\":[");
+            List<List<ParameterSetOperation>> lotes = consulta.getParametersList();
+            for (int j = 0; j < Math.min(lotes.size(), MAXIMO_LOTES); j++) {
+                json.append(j == 0 ? "[" : ",[");
+                List<ParameterSetOperation> parametros = lotes.get(j).stream()
+                        .sorted(Comparator.comparingInt(parametro -> parametro.getArgs()[0] instanceof Integer indice ? indice : Integer.MAX_VALUE))
+                        .toList();
+                for (int k = 0; k < parametros.size(); k++) {
+                    json.append(k == 0 ? "" : ",");
+                    Object[] argumentos = parametros.get(k).getArgs();
+                    texto(json, ParameterSetOperation.isSetNullParameterOperation(parametros.get(k)) || argumentos.length < 2
+                            ? null : String.valueOf(argumentos[1]));
+                }
+                json.append(']');
+            }
+            json.append("],\"lotes\":").append(lotes.size()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void texto(StringBuilder json, String valor) {
+        if (valor == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(JsonStringEncoder.getInstance().quoteAsString(valor)).append('"');
+        }
+    }
+
+    /**
+     * El metodo de servicio mas interno de la pila, sin los proxies de Spring.
+     */
+    private static String servicio() {
+        return PILA.walk(marcos -> marcos
+                .filter(marco -> marco.getClassName().startsWith(PAQUETE_SERVICIOS) && !marco.getClassName().contains("$$"))
+                .findFirst()
+                .map(marco -> marco.getClassName().substring(PAQUETE_SERVICIOS.length()) + "." + marco.getMethodName())
+                .orElse(null));
+    }
+}
@@ -0,0 +1,48 @@
+package com.sophos.retoSpringBoot.util;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+
+import java.sql.ResultSet;
+
+/**
+ * <h1>SqlTraceProxyFactory</h1>
+ * Cuenta las filas leidas en las peticiones muestreadas. Solo envuelve los ResultSet que se
+ * abren mientras el hilo atiende una peticion muestreada, y el envoltorio solo revisa el
+ * resultado de next; en las demas peticiones y fuera de ellas el ResultSet se devuelve sin
+ * envolver, asi leer filas no pasa por un proxy.
+ *
+ * @author Wilson David Pachon.
+ * @version 1.0.0 2022
+ * @since 1.0.0
+ */
+public class SqlTraceProxyFactory extends JdkJdbcProxyFactory implements ResultSetProxyLogicFactory {
+
+    private final ResultSetProxyLogicFactory simple = new SimpleResultSetProxyLogicFactory();
+
+    @Override
+    public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        SqlTrace traza = SqlTrace.actual();
+        if (traza == null || !traza.isMuestreada()) {
+            return resultSet;
+        }
+        return super.createResultSet(resultSet, connectionInfo, proxyConfig);
+    }
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        ResultSetProxyLogic logica = simple.create(resultSet, connectionInfo, proxyConfig);
+        SqlTrace traza = SqlTrace.actual();
+        return (metodo, argumentos) -> {
+            Object resultado = logica.invoke(metodo, argumentos);
+            if (traza != null && Boolean.TRUE.equals(resultado) && metodo.getName().equals("next")) {
+                traza.registrarFila();
+            }
+            return resultado;
+        };
+    }
+}
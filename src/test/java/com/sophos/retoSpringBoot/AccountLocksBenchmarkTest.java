@@ -0,0 +1,47 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.util.AccountLocks;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1>Benchmark de AccountLocks</h1>
+ * Mide las operaciones por segundo de 64 hilos repartidos entre 1, 8 y 64 cuentas distintas,
+ * con operaciones de 200 microsegundos, y verifica que repartir la carga entre mas cuentas
+ * aumente el rendimiento. Se ejecuta con mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+public class AccountLocksBenchmarkTest {
+
+	/**
+	 * <h2>benchmark de escalamiento por cantidad de cuentas</h2>
+	 */
+	@Test
+	void benchmarkThroughputShouldScaleWithDistinctAccounts() throws Exception {
+
+		double unaCuenta = rendimiento(1);
+		double ochoCuentas = rendimiento(8);
+		double sesentaYCuatroCuentas = rendimiento(64);
+
+		System.out.printf("AccountLocks %d hilos: 1 cuenta %.0f ops/s, 8 cuentas %.0f ops/s, 64 cuentas %.0f ops/s%n",
+				AccountLocksTest.HILOS, unaCuenta, ochoCuentas, sesentaYCuatroCuentas);
+
+		Assertions.assertTrue(ochoCuentas > unaCuenta * 3);
+		Assertions.assertTrue(sesentaYCuatroCuentas > ochoCuentas);
+	}
+
+	private double rendimiento(int cuentas) throws Exception {
+		AccountLocks accountLocks = new AccountLocks(256);
+		long inicio = System.nanoTime();
+		AccountLocksTest.ejecutar(accountLocks, cuentas, cuenta -> LockSupport.parkNanos(AccountLocksTest.DURACION_OPERACION_NANOS));
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		return AccountLocksTest.HILOS * AccountLocksTest.OPERACIONES_POR_HILO / segundos;
+	}
+}
@@ -0,0 +1,129 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasBloqueo;
+import com.sophos.retoSpringBoot.util.AccountLocks;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1>Test de la clase AccountLocks</h1>
+ * En esta clase se somete AccountLocks a 64 hilos para verificar que las operaciones
+ * sobre una misma cuenta nunca se solapan. Cada operacion simula una transaccion de 200
+ * microsegundos. El rendimiento por cantidad de cuentas se mide en AccountLocksBenchmarkTest.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class AccountLocksTest {
+
+	static final int HILOS = 64;
+
+	static final int OPERACIONES_POR_HILO = 40;
+
+	static final long DURACION_OPERACION_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+	/**
+	 * <h2>test de exclusion por cuenta</h2>
+	 * este test verifica que dos operaciones sobre la misma cuenta nunca se ejecuten a la vez.
+	 */
+	@Test
+	void testSameAccountShouldNeverRunConcurrently() throws Exception {
+
+		AccountLocks accountLocks = new AccountLocks(256);
+		int[] enCurso = new int[8];
+		int[] maximo = new int[8];
+
+		ejecutar(accountLocks, enCurso.length, cuenta -> {
+			int actual = ++enCurso[cuenta];
+			maximo[cuenta] = Math.max(maximo[cuenta], actual);
+			LockSupport.parkNanos(DURACION_OPERACION_NANOS);
+			enCurso[cuenta]--;
+		});
+
+		for(int valor : maximo) {
+			Assertions.assertEquals(1, valor);
+		}
+		EstadisticasBloqueo estadisticas = accountLocks.estadisticas();
+		Assertions.assertEquals(HILOS * OPERACIONES_POR_HILO, estadisticas.adquisiciones());
+		Assertions.assertTrue(estadisticas.esperas() > 0);
+		Assertions.assertTrue(estadisticas.tiempoEsperaMaximoNanos() > 0);
+	}
+
+	/**
+	 * <h2>test de bloqueo de varias cuentas</h2>
+	 * este test verifica que un lote tome una sola vez la franja de cada cuenta, aunque la
+	 * cuenta se repita, y que excluya a las operaciones sobre cualquiera de esas cuentas.
+	 */
+	@Test
+	void testManyAccountsShouldTakeEachStripeOnce() throws Exception {
+
+		AccountLocks accountLocks = new AccountLocks(256);
+		CountDownLatch dentro = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> lote = executor.submit(() -> accountLocks.withLocks(List.of(5L, 1L, 5L, 3L), () -> {
+				dentro.countDown();
+				try {
+					liberar.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "lote";
+			}));
+			Assertions.assertTrue(dentro.await(10, TimeUnit.SECONDS));
+			Assertions.assertEquals(3, accountLocks.estadisticas().adquisiciones());
+
+			Future<String> operacion = executor.submit(() -> accountLocks.withLock(3L, () -> "operacion"));
+			Thread.sleep(50);
+			Assertions.assertFalse(operacion.isDone());
+
+			liberar.countDown();
+			Assertions.assertEquals("lote", lote.get(10, TimeUnit.SECONDS));
+			Assertions.assertEquals("operacion", operacion.get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	static void ejecutar(AccountLocks accountLocks, int cuentas, Operacion operacion) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		try {
+			CountDownLatch inicio = new CountDownLatch(1);
+			List<Future<?>> tareas = new ArrayList<>();
+			for(int hilo = 0; hilo < HILOS; hilo++) {
+				int cuenta = hilo % cuentas;
+				tareas.add(executor.submit(() -> {
+					inicio.await();
+					for(int i = 0; i < OPERACIONES_POR_HILO; i++) {
+						accountLocks.withLock((long) cuenta, () -> {
+							operacion.ejecutar(cuenta);
+							return null;
+						});
+					}
+					return null;
+				}));
+			}
+			inicio.countDown();
+			for(Future<?> tarea : tareas) {
+				tarea.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	interface Operacion {
+		void ejecutar(int cuenta);
+	}
+}
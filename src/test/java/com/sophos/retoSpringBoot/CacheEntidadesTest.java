@@ -0,0 +1,205 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.ClienteServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * <h1>Test de la cache de clientes y cuentas</h1>
+ * En esta clase se verifica, contra la base de datos, que las lecturas repetidas de
+ * clientes y cuentas no consulten la base de datos, que lo leido de la cache se pueda
+ * serializar sin una sesion abierta, y que cada escritura de clientes, cuentas y
+ * movimientos se vea en la siguiente lectura.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class CacheEntidadesTest {
+
+	@Autowired
+	ClienteServiceImp clienteServiceImp;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de lecturas desde la cache</h2>
+	 * despues de leer el cliente y sus cuentas una vez, leer de nuevo el cliente o la cuenta no
+	 * ejecuta sentencias, y el cliente se serializa con sus cuentas y movimientos.
+	 */
+	@Test
+	void testRepeatedReadsShouldNotQueryTheDatabase() throws Exception {
+
+		Long clienteId = crearCliente();
+		Long cuentaId = crearCuenta(clienteId);
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "credito", 500L, "activo"));
+
+		clienteServiceImp.readClientWithMovements(clienteId);
+		clienteServiceImp.readClientWithMovements(clienteId);
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		estadisticas.clear();
+		Cliente cliente;
+		Cuenta cuenta;
+		try {
+			cliente = clienteServiceImp.readClientWithMovements(clienteId);
+			Assertions.assertEquals(0, estadisticas.getPrepareStatementCount(),
+					"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+
+			cuenta = cuentaServiceImp.readAccount(cuentaId);
+			Assertions.assertEquals(0, estadisticas.getPrepareStatementCount(),
+					"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+
+		Assertions.assertEquals(500L, cuenta.getSaldo());
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(cliente));
+		Assertions.assertEquals("Wilson", json.get("primerNombre").asText());
+		Assertions.assertEquals(1, json.get("cuentas").size());
+		Assertions.assertEquals(500L, json.get("cuentas").get(0).get("saldo").asLong());
+		Assertions.assertEquals(1, json.get("cuentas").get(0).get("movimientos").size());
+		Assertions.assertTrue(estadisticas.getSecondLevelCacheHitCount() > 0);
+	}
+
+	/**
+	 * <h2>test de invalidacion por escrituras</h2>
+	 * cada escritura sobre el cliente, sus cuentas o sus movimientos se ve en la siguiente lectura.
+	 */
+	@Test
+	void testWritesShouldInvalidateCachedReads() {
+
+		Long clienteId = crearCliente();
+		Long cuentaId = crearCuenta(clienteId);
+		clienteServiceImp.readClient(clienteId);
+		cuentaServiceImp.readAccountsByClient(clienteId);
+
+		Movimiento retiro = movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "retiro", 200L, "activo"));
+		movimientoServiceImp.createMovements(List.of(nuevoMovimiento(cuentaId, "credito", 1000L, "activo")));
+		Cuenta cuenta = cuentaServiceImp.readAccountWithMovements(cuentaId);
+		Assertions.assertEquals(800L, cuenta.getSaldo());
+		Assertions.assertEquals(2, cuenta.getMovimientos().size());
+
+		movimientoServiceImp.updateMovement(nuevoMovimiento(cuentaId, "retiro", 200L, "inactivo"), retiro.getMovimientoId());
+		Assertions.assertEquals(1000L, cuentaServiceImp.readAccount(cuentaId).getSaldo());
+		movimientoServiceImp.deleteMovement(retiro.getMovimientoId());
+		Assertions.assertEquals(1, cuentaServiceImp.readAccountWithMovements(cuentaId).getMovimientos().size());
+
+		Cuenta cambiosCuenta = new Cuenta();
+		cambiosCuenta.setProducto("corriente");
+		cambiosCuenta.setEstadoCuenta("activa");
+		cuentaServiceImp.updateAccount(cambiosCuenta, cuentaId);
+		Assertions.assertEquals("corriente", cuentaServiceImp.readAccount(cuentaId).getProducto());
+
+		Cliente cambiosCliente = new Cliente();
+		cambiosCliente.setPrimerNombre("David");
+		cambiosCliente.setCorreo("cliente@banco.com");
+		cambiosCliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		clienteServiceImp.updateClient(cambiosCliente, clienteId);
+		Assertions.assertEquals("David", clienteServiceImp.readClient(clienteId).getPrimerNombre());
+
+		Long segundaCuentaId = crearCuenta(clienteId);
+		Assertions.assertEquals(2, cuentaServiceImp.readAccountsByClient(clienteId).size());
+		Assertions.assertEquals(2, clienteServiceImp.readClient(clienteId).getCuentas().size());
+
+		cuentaServiceImp.readAccount(segundaCuentaId);
+		cuentaServiceImp.deleteAccount(segundaCuentaId);
+		Assertions.assertThrows(AccountNotFoundException.class, () -> cuentaServiceImp.readAccount(segundaCuentaId));
+		Assertions.assertEquals(1, clienteServiceImp.readClient(clienteId).getCuentas().size());
+	}
+
+	/**
+	 * <h2>test de invalidacion al eliminar un cliente</h2>
+	 * un cliente eliminado deja de leerse, aunque estuviera en la cache con su lista de cuentas vacia.
+	 */
+	@Test
+	void testDeleteClientShouldInvalidateCachedReads() {
+
+		Long clienteId = crearCliente();
+		clienteServiceImp.readClient(clienteId);
+		Assertions.assertTrue(clienteServiceImp.readClient(clienteId).getCuentas().isEmpty());
+
+		clienteServiceImp.deleteClient(clienteId);
+
+		Assertions.assertThrows(ClientNotFound.class, () -> clienteServiceImp.readClient(clienteId));
+		Assertions.assertThrows(ClientNotFound.class, () -> cuentaServiceImp.readAccountsByClient(clienteId));
+	}
+
+	private Long crearCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return clientRepository.save(cliente).getClienteId();
+	}
+
+	private Long crearCuenta(Long clienteId) {
+		Cliente cliente = new Cliente();
+		cliente.setClienteId(clienteId);
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor, String estado) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado(estado);
+		return movimiento;
+	}
+}
@@ -0,0 +1,210 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasRegion;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CacheServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+/**
+ * <h1>Test de la cache de segundo nivel</h1>
+ * En esta clase se verifica, contra la base de datos, que el grafo cliente, cuentas y
+ * movimientos se cargue desde la cache de segundo nivel en las transacciones siguientes,
+ * y que los movimientos y las cuentas nuevas se vean sin descartar las demas cuentas.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class CacheSegundoNivelTest {
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	CacheServiceImp cacheServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	Statistics estadisticas;
+
+	@BeforeEach
+	void setUp() {
+		estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		estadisticas.setStatisticsEnabled(false);
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de carga del grafo desde la cache</h2>
+	 * la segunda carga del cliente con sus cuentas y movimientos no ejecuta sentencias.
+	 */
+	@Test
+	void testSecondLoadOfClientGraphShouldNotQueryTheDatabase() {
+
+		Long clienteId = crearCliente();
+		Long cuentaId = crearCuenta(clienteId);
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "credito", 500L));
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "retiro", 200L));
+
+		recorrerCliente(clienteId);
+		estadisticas.clear();
+		long saldo = recorrerCliente(clienteId);
+
+		Assertions.assertEquals(300L, saldo);
+		Assertions.assertEquals(0, estadisticas.getPrepareStatementCount(),
+				"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+		Assertions.assertEquals(1, estadisticas.getEntityStatistics(Cliente.class.getName()).getCacheHitCount());
+		Assertions.assertEquals(2, estadisticas.getCollectionStatistics(Cliente.class.getName() + ".cuentas").getCacheHitCount()
+				+ estadisticas.getCollectionStatistics(Cuenta.class.getName() + ".movimientos").getCacheHitCount());
+		Assertions.assertTrue(cacheServiceImp.readRegionStatistics().stream()
+				.filter(region -> region.region().equals("movimientos"))
+				.mapToLong(EstadisticasRegion::aciertos).sum() >= 2);
+	}
+
+	/**
+	 * <h2>test de escrituras sobre el grafo cacheado</h2>
+	 * un movimiento nuevo se ve en el saldo y los movimientos de su cuenta sin sacar de la
+	 * cache las demas cuentas, y una cuenta nueva se ve en las cuentas del cliente.
+	 */
+	@Test
+	void testWritesShouldOnlyEvictTheAffectedAccount() {
+
+		Long clienteId = crearCliente();
+		Long cuentaA = crearCuenta(clienteId);
+		Long cuentaB = crearCuenta(clienteId);
+		recorrerCliente(clienteId);
+		org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+		Assertions.assertTrue(cache.containsEntity(Cuenta.class, cuentaA));
+		Assertions.assertTrue(cache.containsEntity(Cuenta.class, cuentaB));
+
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaA, "credito", 700L));
+
+		Assertions.assertTrue(cache.containsEntity(Cuenta.class, cuentaB));
+		transactionTemplate.executeWithoutResult(estado -> {
+			Cuenta cuenta = accountRepository.findById(cuentaA).orElseThrow();
+			Assertions.assertEquals(700L, cuenta.getSaldo());
+			Assertions.assertEquals(1, cuenta.getMovimientos().size());
+		});
+
+		crearCuenta(clienteId);
+		transactionTemplate.executeWithoutResult(estado ->
+				Assertions.assertEquals(3, clientRepository.findById(clienteId).orElseThrow().getCuentas().size()));
+	}
+
+	/**
+	 * <h2>test de limites de las regiones</h2>
+	 * las estadisticas de cada region muestran el tamano maximo y la expiracion configurados
+	 * en application.conf, y las entradas y desalojos que cuenta Caffeine.
+	 */
+	@Test
+	void testRegionStatisticsShouldShowBoundsAndEvictions() {
+
+		Long clienteId = crearCliente();
+		crearCuenta(clienteId);
+		recorrerCliente(clienteId);
+
+		EstadisticasRegion clientes = cacheServiceImp.readRegionStatistics().stream()
+				.filter(region -> region.region().equals("clientes")).findFirst().orElseThrow();
+		EstadisticasRegion movimientos = cacheServiceImp.readRegionStatistics().stream()
+				.filter(region -> region.region().equals("movimientos")).findFirst().orElseThrow();
+
+		Assertions.assertEquals(10000, clientes.tamanoMaximo());
+		Assertions.assertEquals(200000, movimientos.tamanoMaximo());
+		Assertions.assertEquals(600, clientes.expiracionSegundos());
+		Assertions.assertTrue(clientes.entradas() >= 1);
+		Assertions.assertEquals(0, clientes.desalojos());
+		javax.cache.Cache<?, ?> cache = ((JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getCache().getRegionFactory()).getCacheManager().getCache("clientes");
+		Assertions.assertTrue(cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).policy().isRecordingStats(),
+				"los desalojos solo se cuentan con las estadisticas nativas activas");
+	}
+
+	/**
+	 * Carga el cliente en una transaccion nueva y recorre sus cuentas y movimientos.
+	 * @return la suma de los saldos de las cuentas.
+	 */
+	private long recorrerCliente(Long clienteId) {
+		return transactionTemplate.execute(estado -> {
+			Cliente cliente = clientRepository.findById(clienteId).orElseThrow();
+			long saldo = 0;
+			for(Cuenta cuenta : cliente.getCuentas()) {
+				saldo += cuenta.getSaldo() == null ? 0 : cuenta.getSaldo();
+				cuenta.getMovimientos().forEach(Movimiento::getValor);
+			}
+			return saldo;
+		});
+	}
+
+	private Long crearCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return clientRepository.save(cliente).getClienteId();
+	}
+
+	private Long crearCuenta(Long clienteId) {
+		Cliente cliente = new Cliente();
+		cliente.setClienteId(clienteId);
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
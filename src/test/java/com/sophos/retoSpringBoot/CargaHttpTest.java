@@ -0,0 +1,319 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * <h1>Prueba de carga HTTP</h1>
+ * Levanta la aplicacion con su servidor web sobre la base de datos en memoria de las pruebas,
+ * siembra clientes, cuentas y movimientos, y le envia una mezcla de peticiones a /api/cliente,
+ * /api/cuenta y /api/movimiento a una tasa fija.
+ *
+ * La carga es de lazo abierto: cada peticion tiene una hora de envio programada, que no
+ * depende de que las anteriores hayan respondido, y su latencia se mide desde esa hora. Asi,
+ * si el servidor se detiene, las peticiones que debieron salir mientras tanto registran la
+ * espera y los percentiles no la esconden (omision coordinada). Tambien se registra el
+ * tiempo de servicio, medido desde el envio real, para comparar.
+ *
+ * Imprime p50, p99, p99.9, maximo y throughput por operacion y en total, y deja en
+ * target/carga la distribucion de percentiles (latencias.hgrm) y el log de histogramas por
+ * operacion (latencias.hlog). Se ejecuta con mvn test -Ploadtest y se ajusta con:
+ * -Dcarga.clientes, -Dcarga.cuentasPorCliente, -Dcarga.movimientosPorCuenta, -Dcarga.tasa
+ * (peticiones por segundo), -Dcarga.calentamiento y -Dcarga.duracion (ISO-8601, PT30S) y
+ * -Dcarga.mezcla (operacion:peso separados por comas).
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"spring.jpa.properties.hibernate.generate_statistics=false", "logging.level.root=WARN"})
+public class CargaHttpTest {
+
+	private static final int CLIENTES = Integer.getInteger("carga.clientes", 1_000);
+
+	private static final int CUENTAS_POR_CLIENTE = Integer.getInteger("carga.cuentasPorCliente", 2);
+
+	private static final int MOVIMIENTOS_POR_CUENTA = Integer.getInteger("carga.movimientosPorCuenta", 25);
+
+	private static final int TASA = Integer.getInteger("carga.tasa", 200);
+
+	private static final Duration CALENTAMIENTO = Duration.parse(System.getProperty("carga.calentamiento", "PT10S"));
+
+	private static final Duration DURACION = Duration.parse(System.getProperty("carga.duracion", "PT30S"));
+
+	private static final String MEZCLA = System.getProperty("carga.mezcla",
+			"cliente:25,pagina:5,cuenta:20,movimientos:30,crearMovimiento:20");
+
+	private static final Duration ESPERA_PENDIENTES = Duration.ofSeconds(30);
+
+	@LocalServerPort
+	int puerto;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	private long[] clienteIds;
+
+	private long[] cuentaIds;
+
+	/**
+	 * Latencias de una operacion: desde la hora programada (respuesta) y desde el envio real (servicio), en microsegundos.
+	 */
+	private record Latencias(Histogram respuesta, Histogram servicio) {
+		Latencias() {
+			this(new ConcurrentHistogram(3), new ConcurrentHistogram(3));
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>prueba de carga con la mezcla configurada</h2>
+	 * calienta la aplicacion, mide durante la duracion configurada y verifica que todas las respuestas sean 2xx.
+	 */
+	@Test
+	void loadTestMixedEndpoints() throws Exception {
+
+		sembrar();
+		Map<String, Function<String, HttpRequest>> operaciones = operaciones();
+		List<String> mezcla = mezcla(operaciones);
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+		HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+		try {
+			ejecutar(cliente, operaciones, mezcla, CALENTAMIENTO, new LinkedHashMap<>(), new AtomicLong());
+
+			Map<String, Latencias> latencias = new LinkedHashMap<>();
+			operaciones.keySet().forEach(operacion -> latencias.put(operacion, new Latencias()));
+			AtomicLong errores = new AtomicLong();
+			long inicio = System.currentTimeMillis();
+			long enviadas = ejecutar(cliente, operaciones, mezcla, DURACION, latencias, errores);
+			reportar(latencias, enviadas, errores.get(), inicio);
+
+			Assertions.assertEquals(0, errores.get(), "peticiones con error");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Envia peticiones a la tasa configurada durante la duracion dada y espera a que respondan.
+	 * @return la cantidad de peticiones enviadas.
+	 */
+	private long ejecutar(HttpClient cliente, Map<String, Function<String, HttpRequest>> operaciones, List<String> mezcla,
+						  Duration duracion, Map<String, Latencias> latencias, AtomicLong errores) throws InterruptedException {
+		String base = "http://localhost:" + puerto;
+		long intervalo = TimeUnit.SECONDS.toNanos(1) / TASA;
+		long inicio = System.nanoTime();
+		long cantidad = duracion.toNanos() / intervalo;
+		AtomicLong pendientes = new AtomicLong();
+
+		for(long i = 0; i < cantidad; i++) {
+			long programado = inicio + i * intervalo;
+			long espera = programado - System.nanoTime();
+			if(espera > 0) {
+				LockSupport.parkNanos(espera);
+			}
+			String operacion = mezcla.get(ThreadLocalRandom.current().nextInt(mezcla.size()));
+			long enviado = System.nanoTime();
+			pendientes.incrementAndGet();
+			cliente.sendAsync(operaciones.get(operacion).apply(base), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((respuesta, error) -> {
+						long fin = System.nanoTime();
+						Latencias latenciasOperacion = latencias.get(operacion);
+						if(latenciasOperacion != null) {
+							latenciasOperacion.respuesta().recordValue(TimeUnit.NANOSECONDS.toMicros(fin - programado));
+							latenciasOperacion.servicio().recordValue(TimeUnit.NANOSECONDS.toMicros(fin - enviado));
+						}
+						if(error != null || respuesta.statusCode() >= 300) {
+							errores.incrementAndGet();
+						}
+						pendientes.decrementAndGet();
+					});
+		}
+
+		long limite = System.nanoTime() + ESPERA_PENDIENTES.toNanos();
+		while(pendientes.get() > 0 && System.nanoTime() < limite) {
+			Thread.sleep(10);
+		}
+		errores.addAndGet(pendientes.get());
+		return cantidad;
+	}
+
+	/**
+	 * Peticiones de cada operacion de la mezcla, sobre ids sembrados elegidos al azar.
+	 */
+	private Map<String, Function<String, HttpRequest>> operaciones() {
+		Map<String, Function<String, HttpRequest>> operaciones = new LinkedHashMap<>();
+		operaciones.put("cliente", base -> get(base + "/api/cliente/" + aleatorio(clienteIds)));
+		operaciones.put("pagina", base -> get(base + "/api/cliente?tamano=20"));
+		operaciones.put("cuenta", base -> get(base + "/api/cuenta/" + aleatorio(cuentaIds)));
+		operaciones.put("movimientos", base -> get(base + "/api/movimiento/cuenta/" + aleatorio(cuentaIds)));
+		operaciones.put("crearMovimiento", base -> HttpRequest.newBuilder(URI.create(base + "/api/movimiento"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"tipo\":\"credito\",\"valor\":10,\"estado\":\"activo\",\"cuenta\":{\"cuentaId\":"
+						+ aleatorio(cuentaIds) + "}}"))
+				.build());
+		return operaciones;
+	}
+
+	/**
+	 * Lista de operaciones en la que cada una aparece tantas veces como su peso.
+	 */
+	private static List<String> mezcla(Map<String, ?> operaciones) {
+		List<String> mezcla = new ArrayList<>();
+		for(String parte : MEZCLA.split(",")) {
+			String[] operacionPeso = parte.trim().split(":");
+			if(!operaciones.containsKey(operacionPeso[0])) {
+				throw new IllegalArgumentException("operacion desconocida: " + operacionPeso[0] + ", validas: " + operaciones.keySet());
+			}
+			for(int i = 0; i < Integer.parseInt(operacionPeso[1]); i++) {
+				mezcla.add(operacionPeso[0]);
+			}
+		}
+		return mezcla;
+	}
+
+	private void reportar(Map<String, Latencias> latencias, long enviadas, long errores, long inicio) throws Exception {
+		Histogram total = new Histogram(3);
+		Histogram totalServicio = new Histogram(3);
+		latencias.values().forEach(latenciasOperacion -> {
+			total.add(latenciasOperacion.respuesta());
+			totalServicio.add(latenciasOperacion.servicio());
+		});
+
+		System.out.printf("carga: %d peticiones/s durante %s, %d enviadas, %d errores, %.1f respuestas/s%n",
+				TASA, DURACION, enviadas, errores, total.getTotalCount() / (DURACION.toMillis() / 1000.0));
+		latencias.forEach((operacion, latenciasOperacion) -> imprimir(operacion, latenciasOperacion.respuesta(), latenciasOperacion.servicio()));
+		imprimir("total", total, totalServicio);
+
+		new File("target/carga").mkdirs();
+		try(PrintStream salida = new PrintStream("target/carga/latencias.hgrm")) {
+			total.outputPercentileDistribution(salida, 1000.0);
+		}
+		try(PrintStream salida = new PrintStream("target/carga/latencias.hlog")) {
+			HistogramLogWriter escritor = new HistogramLogWriter(salida);
+			escritor.outputLogFormatVersion();
+			escritor.outputStartTime(inicio);
+			escritor.outputLegend();
+			long fin = System.currentTimeMillis();
+			for(Map.Entry<String, Latencias> entrada : latencias.entrySet()) {
+				Histogram histograma = entrada.getValue().respuesta().copy();
+				histograma.setTag(entrada.getKey());
+				histograma.setStartTimeStamp(inicio);
+				histograma.setEndTimeStamp(fin);
+				escritor.outputIntervalHistogram(histograma);
+			}
+		}
+	}
+
+	private static void imprimir(String operacion, Histogram respuesta, Histogram servicio) {
+		System.out.printf("  %-16s n=%-7d p50 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms  (servicio p99 %8.2f ms)%n",
+				operacion, respuesta.getTotalCount(), ms(respuesta, 50), ms(respuesta, 99), ms(respuesta, 99.9),
+				respuesta.getMaxValue() / 1000.0, ms(servicio, 99));
+	}
+
+	private static double ms(Histogram histograma, double percentil) {
+		return histograma.getValueAtPercentile(percentil) / 1000.0;
+	}
+
+	private static HttpRequest get(String url) {
+		return HttpRequest.newBuilder(URI.create(url)).GET().build();
+	}
+
+	private static long aleatorio(long[] ids) {
+		return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+	}
+
+	private void sembrar() {
+		List<Cliente> clientes = new ArrayList<>(CLIENTES);
+		for(int i = 0; i < CLIENTES; i++) {
+			Cliente cliente = new Cliente();
+			cliente.setPrimerNombre("Cliente " + i);
+			cliente.setCorreo("cliente" + i + "@banco.com");
+			cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+			clientes.add(cliente);
+		}
+		clientes = clientRepository.saveAll(clientes);
+		clienteIds = clientes.stream().mapToLong(Cliente::getClienteId).toArray();
+
+		List<Cuenta> cuentas = new ArrayList<>(CLIENTES * CUENTAS_POR_CLIENTE);
+		for(Cliente cliente : clientes) {
+			for(int i = 0; i < CUENTAS_POR_CLIENTE; i++) {
+				Cuenta cuenta = new Cuenta();
+				cuenta.setProducto("ahorros");
+				cuenta.setEstadoCuenta("activa");
+				cuenta.setSaldo(0L);
+				cuenta.setCliente(cliente);
+				cuentas.add(cuenta);
+			}
+		}
+		cuentaIds = accountRepository.saveAll(cuentas).stream().mapToLong(Cuenta::getCuentaId).toArray();
+
+		List<Movimiento> movimientos = new ArrayList<>(cuentaIds.length * MOVIMIENTOS_POR_CUENTA);
+		for(long cuentaId : cuentaIds) {
+			for(int i = 0; i < MOVIMIENTOS_POR_CUENTA; i++) {
+				Cuenta cuenta = new Cuenta();
+				cuenta.setCuentaId(cuentaId);
+				Movimiento movimiento = new Movimiento();
+				movimiento.setCuenta(cuenta);
+				movimiento.setTipo("credito");
+				movimiento.setValor(10L);
+				movimiento.setEstado("activo");
+				movimientos.add(movimiento);
+			}
+		}
+		movimientoServiceImp.createMovements(movimientos);
+	}
+}
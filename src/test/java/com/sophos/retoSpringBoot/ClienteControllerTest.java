@@ -2,6 +2,10 @@ package com.sophos.retoSpringBoot;
 
 
 import com.sophos.retoSpringBoot.controller.ClienteController;
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.ResumenCliente;
+import com.sophos.retoSpringBoot.dto.ResumenCuenta;
 import com.sophos.retoSpringBoot.entity.Cliente;
 import com.sophos.retoSpringBoot.service.ClienteService;
 import org.junit.jupiter.api.Test;
@@ -42,8 +46,8 @@ public class ClienteControllerTest {
 	@Mock
 	private ClienteService clienteService;
 	
-	private ResponseEntity<Cliente> responseEntityClient;
-	private ResponseEntity<List<Cliente>> responseEntityListClient;
+	private ResponseEntity<ClienteRespuesta> responseEntityClient;
+	private ResponseEntity<Pagina<ClienteRespuesta>> responseEntityPageClient;
 	
 	/**
 	 * <h2>test del metodo readClient</h2>
@@ -63,9 +67,10 @@ public class ClienteControllerTest {
 		
 		when(clienteService.readClient(cliente.getClienteId())).thenReturn(cliente);
 		
-		responseEntityClient = clienteController.readClient(cliente.getClienteId());	
+		responseEntityClient = clienteController.readClient(cliente.getClienteId(), false);	
 		assertEquals(responseEntityClient.getStatusCodeValue(), 200);
-		assertEquals(responseEntityClient.getBody().getPrimerNombre(),"Wilson");
+		assertEquals(responseEntityClient.getBody().primerNombre(),"Wilson");
+		assertEquals(responseEntityClient.getBody().cuentas().size(), 0);
 		
 	}
 	
@@ -84,7 +89,7 @@ public class ClienteControllerTest {
 		
 		when(clienteService.readClient(cliente.getClienteId())).thenReturn(null);
 		
-		responseEntityClient = clienteController.readClient(cliente.getClienteId());
+		responseEntityClient = clienteController.readClient(cliente.getClienteId(), false);
 		
 		assertEquals(responseEntityClient.getStatusCodeValue(), 404);
 		assertNull(responseEntityClient.getBody());		
@@ -92,47 +97,72 @@ public class ClienteControllerTest {
 	}	
 	
 	/**
-	 * <h2>test del metodo readAllClients</h2>
+	 * <h2>test del metodo readClientSummary</h2>
+	 * test generado para verificar que al momento de consultar el resumen de un cliente,
+	 * retorne el estado http OK con el resumen.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testReadClientSummaryShouldReturnStatusOK() throws Exception {
+		
+		Cliente cliente = new Cliente();
+		cliente.setClienteId(1L);
+		ResumenCliente resumen = new ResumenCliente(ClienteRespuesta.de(cliente),
+				List.of(new ResumenCuenta(2L, "ahorros", "activa", null, null, 100L, 1L, null, 100L, 0L, 100L)));
+		
+		when(clienteService.readClientSummary(1L)).thenReturn(resumen);
+		
+		ResponseEntity<ResumenCliente> responseEntitySummary = clienteController.readClientSummary(1L);
+		assertEquals(responseEntitySummary.getStatusCodeValue(), 200);
+		assertEquals(responseEntitySummary.getBody(), resumen);
+		
+	}
+	
+	/**
+	 * <h2>test del metodo readClientsPage</h2>
 	 * este test verifica que al momento de llamar a este metodo y exista almenos un cliente
-	 * en la lista, retorne un estado OK.
+	 * en la pagina, retorne un estado OK.
 	 *  
 	 * @throws Exception
 	 */
 	@Test
-	void testReadAllClientsShouldReturnStatusOk() throws Exception {
+	void testReadClientsPageShouldReturnStatusOk() throws Exception {
 		
 		Cliente cliente = new Cliente();
 		
-		List<Cliente> ListaClientes = new ArrayList<>();
+		List<ClienteRespuesta> ListaClientes = new ArrayList<>();
+		
+		ListaClientes.add(ClienteRespuesta.de(cliente));
 		
-		ListaClientes.add(cliente);
+		Pagina<ClienteRespuesta> pagina = new Pagina<>(ListaClientes, null);
 				
-		when(clienteService.readAllClients()).thenReturn(ListaClientes);
+		when(clienteService.readClientsPage(20, null, "asc", null, null)).thenReturn(pagina);
 		
-		responseEntityListClient = clienteController.readAllClients();
+		responseEntityPageClient = clienteController.readClientsPage(20, null, "asc", null, null);
 		
-		assertEquals(responseEntityListClient.getStatusCodeValue(), 200);
-		assertEquals(responseEntityListClient.getBody(), ListaClientes);
-		assertEquals(responseEntityListClient.getBody().size(), 1);
+		assertEquals(responseEntityPageClient.getStatusCodeValue(), 200);
+		assertEquals(responseEntityPageClient.getBody(), pagina);
+		assertEquals(responseEntityPageClient.getBody().contenido().size(), 1);
 		
 	} 
 	
 	/**
-	 * <h2>test del metodo readAllClients con lista vacia</h2>
-	 * este test verifica que al momento de llamar a este metodo y devuelva una lista vacia,
+	 * <h2>test del metodo readClientsPage sin respuesta</h2>
+	 * este test verifica que al momento de llamar a este metodo y el servicio no devuelva una pagina,
 	 * retorne un estado 404 NOT_FOUND.
 	 * 
 	 * @throws Exception
 	 */
 	@Test
-	void testReadAllClientsShouldReturnStatusNotFound() throws Exception {
+	void testReadClientsPageShouldReturnStatusNotFound() throws Exception {
 						
-		when(clienteService.readAllClients()).thenReturn(null);
+		when(clienteService.readClientsPage(20, null, "asc", null, null)).thenReturn(null);
 		
-		responseEntityListClient = clienteController.readAllClients();
+		responseEntityPageClient = clienteController.readClientsPage(20, null, "asc", null, null);
 		
-		assertEquals(responseEntityListClient.getStatusCodeValue(), 404);		
-		assertNull(responseEntityListClient.getBody());
+		assertEquals(responseEntityPageClient.getStatusCodeValue(), 404);		
+		assertNull(responseEntityPageClient.getBody());
 	}
 	
 	
@@ -154,7 +184,8 @@ public class ClienteControllerTest {
 		responseEntityClient = clienteController.createClient(cliente);
 		
 		assertEquals(responseEntityClient.getStatusCodeValue(), 201);
-		assertEquals(responseEntityClient.getBody().getPrimerNombre(), cliente.getPrimerNombre());
+		assertEquals(responseEntityClient.getBody().primerNombre(), cliente.getPrimerNombre());
+		assertNull(responseEntityClient.getBody().cuentas());
 			
 	}
 	
@@ -203,7 +234,8 @@ public class ClienteControllerTest {
 		responseEntityClient = clienteController.updateClient(cliente, cliente.getClienteId());
 		
 		assertEquals(responseEntityClient.getStatusCodeValue(), 200);
-		assertEquals(updateCliente, cliente);		
+		assertEquals(updateCliente, cliente);
+		assertEquals(responseEntityClient.getBody().primerNombre(), "David");		
 		
 	}
 	
@@ -1,15 +1,24 @@
 package com.sophos.retoSpringBoot;
 
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.FilaResumen;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.ResumenCliente;
+import com.sophos.retoSpringBoot.dto.ResumenCuenta;
 import com.sophos.retoSpringBoot.entity.Cliente;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
 import com.sophos.retoSpringBoot.exceptions.ClientWithAccountsException;
+import com.sophos.retoSpringBoot.exceptions.InvalidCursorException;
 import com.sophos.retoSpringBoot.exceptions.UnderAgeClientException;
 import com.sophos.retoSpringBoot.repository.AccountRepository;
 import com.sophos.retoSpringBoot.repository.ClientRepository;
 import com.sophos.retoSpringBoot.service.implementations.ClienteServiceImp;
+import com.sophos.retoSpringBoot.util.CursorCodec;
+import com.sophos.retoSpringBoot.util.IdFilter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,10 +28,14 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.lenient;
@@ -60,6 +73,14 @@ public class ClienteServiceImpTest {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
     } 
+	
+	/**
+	 * Asigna un filtro de ids vacio antes de cada test, para que ninguna lectura dependa de un test anterior.
+	 */
+	@BeforeEach
+	public void setUpFilters() {
+		ReflectionTestUtils.setField(clienteServiceImp, "clientIdFilter", new IdFilter("clientes", 100, 0.01));
+	}
 
 	/**
 	 * <h2>test del metodo isOfLegalAge</h2>
@@ -133,7 +154,7 @@ public class ClienteServiceImpTest {
 	/**
 	 * <h2>test del metodo readClient</h2>
 	 * el test verifica que cuando se quiera consultar un cliente por un id existente, 
-	 * retorne el cliente correspondiente a ese id.
+	 * retorne el cliente correspondiente a ese id con sus cuentas ya cargadas.
 	 */
 	@Test
 	void testReadClientShouldReturnClient() {
@@ -141,16 +162,87 @@ public class ClienteServiceImpTest {
 		Cliente mockCliente = new Cliente();			
 		
 		mockCliente.setClienteId(1L);	
+		mockCliente.setPrimerNombre("Wilson");
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(10L);
+		
+		mockCliente.getCuentas().add(mockCuenta);
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(true);
-		Mockito.when(clientRepository.findByClienteId(mockCliente.getClienteId())).thenReturn(mockCliente);		
+		Mockito.when(clientRepository.findById(mockCliente.getClienteId())).thenReturn(Optional.of(mockCliente));		
 		
 		Cliente cliente = clienteServiceImp.readClient(mockCliente.getClienteId());		
 		
-		Assertions.assertEquals(mockCliente, cliente);		
+		Assertions.assertEquals(mockCliente.getClienteId(), cliente.getClienteId());		
+		Assertions.assertEquals("Wilson", cliente.getPrimerNombre());
+		Assertions.assertEquals(Set.of(mockCuenta), cliente.getCuentas());
+		Mockito.verify(clientRepository, Mockito.times(1)).findById(mockCliente.getClienteId());
+		Mockito.verifyNoMoreInteractions(clientRepository, accountRepository);
 		
 	}	
 	
+	/**
+	 * <h2>test readClient con un id descartado por el filtro</h2>
+	 * este test valida que un id que el filtro de clientes no tiene se rechaza con
+	 * ClientNotFound sin consultar el repositorio.
+	 */
+	@Test
+	void testReadClientNotInIdFilterShouldNotQueryRepository() {
+		
+		IdFilter filtro = new IdFilter("clientes", 100, 0.01);
+		filtro.add(1L);
+		filtro.marcarCompleto();
+		ReflectionTestUtils.setField(clienteServiceImp, "clientIdFilter", filtro);
+		
+		assertThrows(ClientNotFound.class, ()->{clienteServiceImp.readClient(999L);});
+		Mockito.verifyNoInteractions(clientRepository);
+		Assertions.assertEquals(1, filtro.estadisticas().rechazos());
+	}
+	
+	/**
+	 * <h2>test del metodo readClientSummary</h2>
+	 * este test valida que el resumen se arme con las filas de la consulta agregada:
+	 * el cliente de la primera fila y una cuenta por fila, con el neto de creditos y debitos.
+	 */
+	@Test
+	void testReadClientSummaryShouldBuildSummaryFromRows() {
+		
+		LocalDate fecha = LocalDate.of(2022, 10, 2);
+		Mockito.when(clientRepository.findResumen(1L)).thenReturn(List.of(
+				fila(1L, 10L, 500L, 3L, fecha, 800L, 300L),
+				fila(1L, 11L, null, 0L, null, null, null)));
+		
+		ResumenCliente resumen = clienteServiceImp.readClientSummary(1L);
+		
+		Assertions.assertEquals("Wilson", resumen.cliente().primerNombre());
+		Assertions.assertNull(resumen.cliente().cuentas());
+		Assertions.assertEquals(2, resumen.cuentas().size());
+		Assertions.assertEquals(new ResumenCuenta(10L, "ahorros", "activa", null, null, 500L, 3L, fecha, 800L, 300L, 500L), resumen.cuentas().get(0));
+		Assertions.assertEquals(new ResumenCuenta(11L, "ahorros", "activa", null, null, 0L, 0L, null, 0L, 0L, 0L), resumen.cuentas().get(1));
+		Mockito.verify(clientRepository, Mockito.times(1)).findResumen(1L);
+		Mockito.verifyNoMoreInteractions(clientRepository, accountRepository);
+	}
+	
+	/**
+	 * <h2>test readClientSummary de un cliente sin cuentas y de un cliente que no existe</h2>
+	 * este test valida que un cliente sin cuentas tenga un resumen con la lista vacia, y
+	 * que un cliente que no existe genere una excepcion del tipo ClientNotFound.
+	 */
+	@Test
+	void testReadClientSummaryWithoutAccountsAndNotFound() {
+		
+		Mockito.when(clientRepository.findResumen(1L)).thenReturn(List.of(fila(1L, null, null, 0L, null, null, null)));
+		Mockito.when(clientRepository.findResumen(2L)).thenReturn(new ArrayList<>());
+		
+		Assertions.assertTrue(clienteServiceImp.readClientSummary(1L).cuentas().isEmpty());
+		assertThrows(ClientNotFound.class, ()->{clienteServiceImp.readClientSummary(2L);});
+	}
+	
+	private static FilaResumen fila(Long clienteId, Long cuentaId, Long saldo, Long cantidad, LocalDate ultimo, Long creditos, Long debitos) {
+		return new FilaResumen(clienteId, null, null, null, null, null, null, null, "Wilson", null, null, null,
+				null, null, null, null, null, cuentaId, cuentaId != null ? "ahorros" : null, cuentaId != null ? "activa" : null,
+				null, null, saldo, cantidad, ultimo, creditos, debitos);
+	}
+	
 	/**
 	 * <h2>test readClient NotFound</h2>
 	 * este test valida que cuando se quiere consultar un cliente por un id que no existe, 
@@ -164,48 +256,72 @@ public class ClienteServiceImpTest {
 		
 		mockCliente.setClienteId(1L);		
 		
-		lenient().when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(false);
+		lenient().when(clientRepository.findById(mockCliente.getClienteId())).thenReturn(Optional.empty());
 			
 		assertThrows(ClientNotFound.class, ()->{clienteServiceImp.readClient(mockCliente.getClienteId());});
+		Mockito.verify(clientRepository, Mockito.times(1)).findById(mockCliente.getClienteId());
+		Mockito.verifyNoMoreInteractions(clientRepository);
 		
 	}	
 	
 	/**
-	 * <h2>test del metodo readAllClients</h2>
-	 * el test valida que cuando se llame a este metodo retorne una lista de clientes.
+	 * <h2>test del metodo readClientsPage</h2>
+	 * el test valida que cuando hay mas clientes que el tamano de pagina,
+	 * retorne solo la pagina pedida y un cursor para la siguiente.
 	 */
 	@Test
-	void testReadAllClientsShouldReturnClientsList() {
-		
-		Cliente mockCliente = new Cliente();
-		
-		ArrayList<Cliente> mockListaClientes = new ArrayList<>();
-			
-		mockListaClientes.add(mockCliente);
+	void testReadClientsPageShouldReturnPageAndCursor() {
+		
+		List<ClienteRespuesta> mockListaClientes = new ArrayList<>();
+		for(long id = 1; id <= 3; id++) {
+			Cliente mockCliente = new Cliente();
+			mockCliente.setClienteId(id);
+			mockListaClientes.add(ClienteRespuesta.de(mockCliente));
+		}
 				
-		Mockito.when(clientRepository.findAll()).thenReturn(mockListaClientes);
+		Mockito.when(clientRepository.findPageAscending(Mockito.eq(0L), Mockito.isNull(), Mockito.isNull(), Mockito.any(Pageable.class))).thenReturn(mockListaClientes);
 		
-		List<Cliente> clientes = clienteServiceImp.readAllClients();
+		Pagina<ClienteRespuesta> pagina = clienteServiceImp.readClientsPage(2, null, "asc", null, null);
 		
-		Assertions.assertEquals(mockListaClientes, clientes);
+		Assertions.assertEquals(2, pagina.contenido().size());
+		Assertions.assertEquals(CursorCodec.encode("asc", "", "", 2L), pagina.siguienteCursor());
 		
 	} 
 	
 	/**
-	 * <h2>test readAllClients Empty</h2>
-	 * test que valida cuando se llama a este metodo pero no hay ningun cliente en la lista,
-	 * retorna una excepcion de tipo ClientNotFound.
-	 * 
+	 * <h2>test readClientsPage con cursor</h2>
+	 * test que valida que la pagina siguiente se consulte a partir del id contenido en el cursor
+	 * y que la ultima pagina no tenga cursor.
 	 */
 	@Test
-	void testReadEmptyClientListShouldReturnException() {			
+	void testReadClientsPageWithCursorShouldContinueAfterCursor() {
 		
-		ArrayList<Cliente> mockListaClientes = new ArrayList<>();		
-				
-		Mockito.when(clientRepository.findAll()).thenReturn(mockListaClientes);		
+		Cliente mockCliente = new Cliente();
+		mockCliente.setClienteId(5L);
+		
+		List<ClienteRespuesta> mockListaClientes = new ArrayList<>();
+		mockListaClientes.add(ClienteRespuesta.de(mockCliente));
 		
-		assertThrows(ClientNotFound.class, ()->{clienteServiceImp.readAllClients();});
+		Mockito.when(clientRepository.findPageDescending(Mockito.eq(6L), Mockito.eq("activo"), Mockito.isNull(), Mockito.any(Pageable.class))).thenReturn(mockListaClientes);
+		
+		Pagina<ClienteRespuesta> pagina = clienteServiceImp.readClientsPage(10, CursorCodec.encode("desc", "activo", "", 6L), "desc", "activo", null);
+		
+		Assertions.assertEquals(mockListaClientes, pagina.contenido());
+		Assertions.assertNull(pagina.siguienteCursor());
+	}
+	
+	/**
+	 * <h2>test readClientsPage con cursor invalido</h2>
+	 * test que valida que un cursor que no se puede interpretar, o que fue generado para otro orden
+	 * o con otros filtros, genere una excepcion de tipo InvalidCursorException.
+	 */
+	@Test
+	void testReadClientsPageInvalidCursorShouldReturnException() {
 		
+		assertThrows(InvalidCursorException.class, ()->{clienteServiceImp.readClientsPage(10, "no-es-un-cursor", "asc", null, null);});
+		assertThrows(InvalidCursorException.class, ()->{clienteServiceImp.readClientsPage(10, CursorCodec.encode("desc", "", "", 6L), "asc", null, null);});
+		assertThrows(InvalidCursorException.class, ()->{clienteServiceImp.readClientsPage(10, CursorCodec.encode("asc", "activo", "", 6L), "asc", "inactivo", null);});
+		assertThrows(InvalidCursorException.class, ()->{clienteServiceImp.readClientsPage(10, CursorCodec.encode("asc", "", "", 6L), "asc", null, "empresa");});
 	}
 	
 	/**
@@ -221,8 +337,7 @@ public class ClienteServiceImpTest {
 		mockCliente.setClienteId(1L);	
 		mockCliente.setFechaNacimiento(LocalDate.of(1980, 05, 24));
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(true);
-		Mockito.when(clientRepository.findByClienteId(mockCliente.getClienteId())).thenReturn(mockCliente);	
+		Mockito.when(clientRepository.findById(mockCliente.getClienteId())).thenReturn(Optional.of(mockCliente));	
 		
 		mockCliente.setFechaNacimiento(LocalDate.of(1995, 05, 24));
 		
@@ -231,6 +346,9 @@ public class ClienteServiceImpTest {
 		Cliente cliente = clienteServiceImp.updateClient(mockCliente, mockCliente.getClienteId());		
 		
 		Assertions.assertEquals(mockCliente, cliente);
+		Mockito.verify(clientRepository, Mockito.times(1)).findById(mockCliente.getClienteId());
+		Mockito.verify(clientRepository, Mockito.times(1)).save(mockCliente);
+		Mockito.verifyNoMoreInteractions(clientRepository);
 	}
 	
 	/**
@@ -244,8 +362,9 @@ public class ClienteServiceImpTest {
 		Cliente mockCliente = new Cliente();			
 		
 		mockCliente.setClienteId(1L);			
+		mockCliente.setFechaNacimiento(LocalDate.of(1980, 05, 24));
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(false);
+		Mockito.when(clientRepository.findById(mockCliente.getClienteId())).thenReturn(Optional.empty());
 		
 		assertThrows(ClientNotFound.class, ()->{clienteServiceImp.updateClient(mockCliente, mockCliente.getClienteId());});
 	}
@@ -263,14 +382,10 @@ public class ClienteServiceImpTest {
 		mockCliente.setClienteId(1L);	
 		mockCliente.setFechaNacimiento(LocalDate.of(1980, 05, 24));
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(true);
-		Mockito.when(clientRepository.findByClienteId(mockCliente.getClienteId())).thenReturn(mockCliente);	
-		
 		mockCliente.setFechaNacimiento(LocalDate.of(2011, 05, 24));
 		
-		lenient().when(clientRepository.save(Mockito.any(Cliente.class))).thenReturn(mockCliente);				
-		
 		assertThrows(UnderAgeClientException.class, ()->{clienteServiceImp.updateClient(mockCliente, mockCliente.getClienteId());});
+		Mockito.verifyNoInteractions(clientRepository);
 	}	
 	
 	/**
@@ -283,15 +398,9 @@ public class ClienteServiceImpTest {
 		
 		Cliente mockCliente = new Cliente();
 		
-		Cuenta mockCuenta = new Cuenta();
-		
-		List<Cuenta> mockListaCuentas = new ArrayList<>();
-		
-		mockListaCuentas.add(mockCuenta);
-		
 		mockCliente.setClienteId(1L);	
 		
-		Mockito.when(accountRepository.findByCliente(clientRepository.findByClienteId(mockCliente.getClienteId()))).thenReturn(mockListaCuentas);
+		Mockito.when(accountRepository.existsByClienteClienteId(mockCliente.getClienteId())).thenReturn(true);
 		
 		boolean resultado = clienteServiceImp.validateClientAccounts(mockCliente.getClienteId());
 		
@@ -309,15 +418,15 @@ public class ClienteServiceImpTest {
 		
 		Cliente mockCliente = new Cliente();	
 		
-		List<Cuenta> mockListaCuentas = new ArrayList<>();		
-		
 		mockCliente.setClienteId(1L);	
 		
-		Mockito.when(accountRepository.findByCliente(clientRepository.findByClienteId(mockCliente.getClienteId()))).thenReturn(mockListaCuentas);
+		Mockito.when(accountRepository.existsByClienteClienteId(mockCliente.getClienteId())).thenReturn(false);
 		
 		boolean resultado = clienteServiceImp.validateClientAccounts(mockCliente.getClienteId());
 		
 		Assertions.assertFalse(resultado);
+		Mockito.verify(accountRepository, Mockito.times(1)).existsByClienteClienteId(mockCliente.getClienteId());
+		Mockito.verifyNoMoreInteractions(accountRepository);
 	}
 	
 	/**
@@ -332,11 +441,15 @@ public class ClienteServiceImpTest {
 		
 		mockCliente.setClienteId(1L);
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(true);
+		Mockito.when(clientRepository.findByIdForUpdate(mockCliente.getClienteId())).thenReturn(Optional.of(mockCliente));
 		
 		boolean resultado = clienteServiceImp.deleteClient(mockCliente.getClienteId());
 		
 		Assertions.assertTrue(resultado);
+		Mockito.verify(clientRepository, Mockito.times(1)).findByIdForUpdate(mockCliente.getClienteId());
+		Mockito.verify(accountRepository, Mockito.times(1)).existsByClienteClienteId(mockCliente.getClienteId());
+		Mockito.verify(clientRepository, Mockito.times(1)).delete(mockCliente);
+		Mockito.verifyNoMoreInteractions(clientRepository);
 		
 	}
 	
@@ -352,9 +465,10 @@ public class ClienteServiceImpTest {
 		
 		mockCliente.setClienteId(1L);
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(false);		
+		Mockito.when(clientRepository.findByIdForUpdate(mockCliente.getClienteId())).thenReturn(Optional.empty());		
 		
 		assertThrows(ClientNotFound.class, ()->{clienteServiceImp.deleteClient(mockCliente.getClienteId());});
+		Mockito.verifyNoInteractions(accountRepository);
 		
 	}
 	
@@ -368,19 +482,14 @@ public class ClienteServiceImpTest {
 		
 		Cliente mockCliente = new Cliente();
 		
-		Cuenta mockCuenta = new Cuenta();
-		
-		List<Cuenta> mockListaCuentas = new ArrayList<>();
-		
-		mockListaCuentas.add(mockCuenta);
-		
 		mockCliente.setClienteId(1L);
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(true);
+		Mockito.when(clientRepository.findByIdForUpdate(mockCliente.getClienteId())).thenReturn(Optional.of(mockCliente));
 		
-		Mockito.when(accountRepository.findByCliente(clientRepository.findByClienteId(mockCliente.getClienteId()))).thenReturn(mockListaCuentas);		
+		Mockito.when(accountRepository.existsByClienteClienteId(mockCliente.getClienteId())).thenReturn(true);		
 		
 		assertThrows(ClientWithAccountsException.class, ()->{clienteServiceImp.deleteClient(mockCliente.getClienteId());});
+		Mockito.verify(clientRepository, Mockito.never()).delete(Mockito.any(Cliente.class));
 		
 	} 
 	
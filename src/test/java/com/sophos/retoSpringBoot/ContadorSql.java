@@ -0,0 +1,178 @@
+package com.sophos.retoSpringBoot;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * <h1>Contador de SQL</h1>
+ * Envuelve el DataSource de las pruebas para contar, en el hilo que hace la medicion, las
+ * sentencias que llegan a la base de datos y las filas que se leen de sus resultados. Se
+ * cuenta en JDBC y no en Hibernate, asi tambien se cuentan las sentencias nativas y las
+ * filas de las proyecciones. Un lote JDBC cuenta como una sola sentencia. Las operaciones
+ * que terminan en otros hilos, como una exportacion en flujo o una importacion en segundo
+ * plano, se miden en todos los hilos a la vez.
+ *
+ * Se registra como BeanPostProcessor desde la configuracion de la prueba que lo usa.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class ContadorSql implements BeanPostProcessor {
+
+	private static final ThreadLocal<Contadores> CONTADORES = new ThreadLocal<>();
+
+	private static volatile Contadores enTodosLosHilos;
+
+	/**
+	 * Resultado de una medicion.
+	 * @param sentencias cantidad de sentencias ejecutadas.
+	 * @param filas cantidad de filas leidas de los resultados.
+	 * @param sql texto de cada sentencia, en orden de ejecucion.
+	 */
+	public record Medicion(int sentencias, long filas, List<String> sql) {
+
+		/**
+		 * <h2>Metodo para validar la medicion contra un presupuesto</h2>
+		 * @param operacion nombre de la operacion medida, para el mensaje de error.
+		 * @param maxSentencias cantidad maxima de sentencias permitida.
+		 * @param maxFilas cantidad maxima de filas permitida.
+		 * @throws AssertionError si se supera alguno de los dos limites, con las sentencias ejecutadas.
+		 */
+		public void verificar(String operacion, int maxSentencias, long maxFilas) {
+			if(sentencias > maxSentencias || filas > maxFilas) {
+				throw new AssertionError(operacion + " supero su presupuesto: " + sentencias + " sentencias (max "
+						+ maxSentencias + ") y " + filas + " filas (max " + maxFilas + ")\n  " + String.join("\n  ", sql));
+			}
+		}
+	}
+
+	/**
+	 * <h2>Metodo para medir una operacion</h2>
+	 * Solo se cuenta lo que ejecuta el hilo actual mientras corre la operacion.
+	 * @param operacion operacion a medir.
+	 * @return las sentencias y filas de la operacion.
+	 * @throws Exception la excepcion de la operacion, si falla.
+	 */
+	public static Medicion medir(Callable<?> operacion) throws Exception {
+		Contadores contadores = new Contadores();
+		CONTADORES.set(contadores);
+		try {
+			operacion.call();
+		} finally {
+			CONTADORES.remove();
+		}
+		return new Medicion(contadores.sentencias, contadores.filas, List.copyOf(contadores.sql));
+	}
+
+	/**
+	 * <h2>Metodo para medir una operacion en todos los hilos</h2>
+	 * Se cuenta lo que ejecuta cualquier hilo mientras corre la operacion, que debe esperar a
+	 * que terminen los hilos que lanza; no se debe medir mas de una operacion a la vez.
+	 * @param operacion operacion a medir.
+	 * @return las sentencias y filas de la operacion.
+	 * @throws Exception la excepcion de la operacion, si falla.
+	 */
+	public static Medicion medirEnTodosLosHilos(Callable<?> operacion) throws Exception {
+		Contadores contadores = new Contadores();
+		enTodosLosHilos = contadores;
+		try {
+			operacion.call();
+		} finally {
+			enTodosLosHilos = null;
+		}
+		synchronized (contadores) {
+			return new Medicion(contadores.sentencias, contadores.filas, List.copyOf(contadores.sql));
+		}
+	}
+
+	private static final class Contadores {
+		int sentencias;
+		long filas;
+		final List<String> sql = new ArrayList<>();
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if(bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+			return new DelegatingDataSource(dataSource) {
+				@Override
+				public Connection getConnection() throws SQLException {
+					return envolver(Connection.class, super.getConnection(), null);
+				}
+
+				@Override
+				public Connection getConnection(String usuario, String clave) throws SQLException {
+					return envolver(Connection.class, super.getConnection(usuario, clave), null);
+				}
+			};
+		}
+		return bean;
+	}
+
+	/**
+	 * Envuelve una conexion, sentencia o resultado. El sql es el de la sentencia preparada, o
+	 * null si la sentencia recibe el sql en cada ejecucion.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T envolver(Class<T> tipo, T objeto, String sql) {
+		InvocationHandler manejador = (proxy, metodo, argumentos) -> {
+			Object resultado;
+			try {
+				resultado = metodo.invoke(objeto, argumentos);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			contar(proxy, metodo, argumentos, resultado, sql);
+			return envolverResultado(metodo, argumentos, resultado, sql);
+		};
+		return (T) Proxy.newProxyInstance(ContadorSql.class.getClassLoader(), new Class<?>[] {tipo}, manejador);
+	}
+
+	private static void contar(Object proxy, Method metodo, Object[] argumentos, Object resultado, String sql) {
+		Contadores contadores = CONTADORES.get();
+		if(contadores == null) {
+			contadores = enTodosLosHilos;
+		}
+		if(contadores == null) {
+			return;
+		}
+		String nombre = metodo.getName();
+		synchronized (contadores) {
+			if(proxy instanceof ResultSet) {
+				if(nombre.equals("next") && Boolean.TRUE.equals(resultado)) {
+					contadores.filas++;
+				}
+			} else if(proxy instanceof Statement && nombre.startsWith("execute")) {
+				contadores.sentencias++;
+				contadores.sql.add(argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String texto ? texto : sql);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object envolverResultado(Method metodo, Object[] argumentos, Object resultado, String sql) {
+		if(resultado instanceof ResultSet resultSet) {
+			return envolver(ResultSet.class, resultSet, sql);
+		}
+		if(resultado instanceof Statement statement) {
+			String texto = argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String s ? s : null;
+			Class<? extends Statement> tipo = metodo.getReturnType().asSubclass(Statement.class);
+			return envolver((Class<Statement>) tipo, statement, texto);
+		}
+		return resultado;
+	}
+}
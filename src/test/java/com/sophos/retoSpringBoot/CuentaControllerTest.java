@@ -5,6 +5,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -19,8 +21,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
 import com.sophos.retoSpringBoot.controller.CuentaController;
+import com.sophos.retoSpringBoot.dto.CuentaRespuesta;
+import com.sophos.retoSpringBoot.dto.Extracto;
+import com.sophos.retoSpringBoot.dto.TotalTipo;
 import com.sophos.retoSpringBoot.entity.Cliente;
 import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
 import com.sophos.retoSpringBoot.service.CuentaService;
 /**
  * <h1>Test de la clase CuentaController</h1>
@@ -43,8 +49,8 @@ public class CuentaControllerTest {
 	@Mock
 	private CuentaService cuentaService;
 	
-	private ResponseEntity<Cuenta> responseEntityAccount;
-	private ResponseEntity<List<Cuenta>> responseEntityListAccount;
+	private ResponseEntity<CuentaRespuesta> responseEntityAccount;
+	private ResponseEntity<List<CuentaRespuesta>> responseEntityListAccount;
 	
 	/**
 	 * <h2>test del metodo readAccount</h2>
@@ -62,10 +68,35 @@ public class CuentaControllerTest {
 		
 		when(cuentaService.readAccount(cuenta.getCuentaId())).thenReturn(cuenta);
 		
-		responseEntityAccount = cuentaController.readAccount(cuenta.getCuentaId());
+		responseEntityAccount = cuentaController.readAccount(cuenta.getCuentaId(), false);
 		
 		assertEquals(responseEntityAccount.getStatusCodeValue(), 200);
-		assertEquals(responseEntityAccount.getBody().getEstadoCuenta(), "activo");
+		assertEquals(responseEntityAccount.getBody().estadoCuenta(), "activo");
+		assertNull(responseEntityAccount.getBody().movimientos());
+		
+	}
+	
+	/**
+	 * <h2>test del metodo readAccount con movimientos</h2>
+	 * este test verifica que al pedir los movimientos de una cuenta, la consulte con sus
+	 * movimientos y los incluya en la respuesta.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testReadAccountWithMovementsShouldIncludeMovements() throws Exception{
+		
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(1L);
+		cuenta.getMovimientos().add(new Movimiento());
+		
+		when(cuentaService.readAccountWithMovements(cuenta.getCuentaId())).thenReturn(cuenta);
+		
+		responseEntityAccount = cuentaController.readAccount(cuenta.getCuentaId(), true);
+		
+		assertEquals(responseEntityAccount.getStatusCodeValue(), 200);
+		assertEquals(responseEntityAccount.getBody().movimientos().size(), 1);
+		verify(cuentaService, never()).readAccount(cuenta.getCuentaId());
 		
 	}
 	
@@ -84,13 +115,48 @@ public class CuentaControllerTest {
 		
 		when(cuentaService.readAccount(cuenta.getCuentaId())).thenReturn(null);
 		
-		responseEntityAccount = cuentaController.readAccount(cuenta.getCuentaId());
+		responseEntityAccount = cuentaController.readAccount(cuenta.getCuentaId(), false);
 		
 		assertEquals(responseEntityAccount.getStatusCodeValue(), 404);
 		assertNull(responseEntityAccount.getBody());		
 		
 	}	
 	
+	/**
+	 * <h2>test del metodo readAccountBalance</h2>
+	 * este test verifica que al consultar el saldo de una cuenta, retorne el estado 200 OK y el saldo.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testReadAccountBalanceShouldReturnStatusOk() throws Exception {
+		
+		when(cuentaService.readAccountBalance(1L)).thenReturn(2500L);
+		
+		ResponseEntity<Long> responseEntityBalance = cuentaController.readAccountBalance(1L);
+		
+		assertEquals(responseEntityBalance.getStatusCodeValue(), 200);
+		assertEquals(responseEntityBalance.getBody(), Long.valueOf(2500L));
+	}
+	
+	/**
+	 * <h2>test del metodo readStatement</h2>
+	 * este test verifica que al consultar el extracto de un periodo, retorne el estado 200 OK y el extracto.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testReadStatementShouldReturnStatusOk() throws Exception {
+		
+		Extracto extracto = new Extracto(1L, "2022-09", 1000L, List.of(new TotalTipo("credito", 1L, 500L)), 1L, 1500L);
+		when(cuentaService.readStatement(1L, "2022-09")).thenReturn(extracto);
+		
+		ResponseEntity<Extracto> responseEntityStatement = cuentaController.readStatement(1L, "2022-09");
+		
+		assertEquals(responseEntityStatement.getStatusCodeValue(), 200);
+		assertEquals(responseEntityStatement.getBody().saldoFinal(), 1500L);
+	}
+	
 	/**
 	 * <h2>test del metodo readAccountsByClient</h2>
 	 * este test verifica que al momento de consultar las cuentas que tiene un cliente,
@@ -115,8 +181,9 @@ public class CuentaControllerTest {
 		responseEntityListAccount = cuentaController.readAccountsByClient(cliente.getClienteId());
 		
 		assertEquals(responseEntityListAccount.getStatusCodeValue(), 200);
-		assertEquals(responseEntityListAccount.getBody(), ListaCuentas);
+		assertEquals(responseEntityListAccount.getBody(), List.of(CuentaRespuesta.de(cuenta)));
 		assertEquals(responseEntityListAccount.getBody().size(), 1);
+		assertNull(responseEntityListAccount.getBody().get(0).movimientos());
 		
 	} 
 	
@@ -159,7 +226,7 @@ public class CuentaControllerTest {
 		responseEntityAccount = cuentaController.createAccount(cuenta);
 		
 		assertEquals(responseEntityAccount.getStatusCodeValue(), 201);
-		assertEquals(responseEntityAccount.getBody().getEstadoCuenta(), "activo");
+		assertEquals(responseEntityAccount.getBody().estadoCuenta(), "activo");
 			
 	}
 	
@@ -208,7 +275,8 @@ public class CuentaControllerTest {
 		responseEntityAccount = cuentaController.updateAccount(cuenta, cuenta.getCuentaId());
 		
 		assertEquals(responseEntityAccount.getStatusCodeValue(), 200);
-		assertEquals(updateCuenta, cuenta);		
+		assertEquals(updateCuenta, cuenta);
+		assertEquals(responseEntityAccount.getBody(), CuentaRespuesta.de(updateCuenta));		
 		
 	}
 	
@@ -10,6 +10,7 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,17 +20,21 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.sophos.retoSpringBoot.dto.Extracto;
+import com.sophos.retoSpringBoot.dto.TotalTipo;
 import com.sophos.retoSpringBoot.entity.Cliente;
 import com.sophos.retoSpringBoot.entity.Cuenta;
-import com.sophos.retoSpringBoot.entity.Movimiento;
 import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
 import com.sophos.retoSpringBoot.exceptions.AccountWithMovementsException;
 import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.exceptions.InvalidPeriodException;
 import com.sophos.retoSpringBoot.repository.AccountRepository;
 import com.sophos.retoSpringBoot.repository.ClientRepository;
 import com.sophos.retoSpringBoot.repository.MovementRepository;
 import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.util.IdFilter;
 
 /**
  * <h1>Test de la clase CuentaServiceImp</h1>
@@ -69,6 +74,14 @@ public class CuentaServiceImpTest {
         
     }
 	
+	/**
+	 * Asigna un filtro de ids vacio antes de cada test, para que ninguna lectura dependa de un test anterior.
+	 */
+	@BeforeEach
+	public void setUpFilters() {
+		ReflectionTestUtils.setField(cuentaServiceImp, "accountIdFilter", new IdFilter("cuentas", 100, 0.01));
+	}
+	
 	/**
 	 * <h2>test del metodo createAccount</h2>
 	 * con este test se valida que al momento de crear una cuenta asociada a un cliente existente,
@@ -86,7 +99,7 @@ public class CuentaServiceImpTest {
 		mockCuenta.setFechaCreacion(LocalDate.now());
 		mockCuenta.setUsuarioCreacion("wilsonp");
 		
-		Mockito.when(clientRepository.findById(mockCuenta.getCliente().getClienteId())).thenReturn(Optional.of(mockCliente));
+		Mockito.when(clientRepository.findByIdForShare(mockCuenta.getCliente().getClienteId())).thenReturn(Optional.of(mockCliente));
 		Mockito.when(accountRepository.save(Mockito.any(Cuenta.class))).thenReturn(mockCuenta);
 		
 		Cuenta cuenta = cuentaServiceImp.createAccount(mockCuenta);		
@@ -127,12 +140,13 @@ public class CuentaServiceImpTest {
 		
 		mockCuenta.setCuentaId(1L);
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(true);
-		Mockito.when(accountRepository.findByCuentaId(mockCuenta.getCuentaId())).thenReturn(mockCuenta);		
+		Mockito.when(accountRepository.findById(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));		
 		
 		Cuenta cuenta = cuentaServiceImp.readAccount(mockCuenta.getCuentaId());	
 		
 		Assertions.assertEquals(mockCuenta, cuenta);		
+		Mockito.verify(accountRepository, Mockito.times(1)).findById(mockCuenta.getCuentaId());
+		Mockito.verifyNoMoreInteractions(accountRepository);
 		
 	}
 	
@@ -150,7 +164,7 @@ public class CuentaServiceImpTest {
 				
 		mockCuenta.setCuentaId(1L);
 				
-		lenient().when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(false);		
+		lenient().when(accountRepository.findById(mockCuenta.getCuentaId())).thenReturn(Optional.empty());		
 			
 		assertThrows(AccountNotFoundException.class, ()->{cuentaServiceImp.readAccount(mockCuenta.getCuentaId());});
 		
@@ -174,12 +188,14 @@ public class CuentaServiceImpTest {
 		
 		mockCliente.setClienteId(1L);
 		
-		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(true);
-		Mockito.when(accountRepository.findByCliente(clientRepository.findByClienteId(mockCliente.getClienteId()))).thenReturn(mockListaCuentas);
+		Mockito.when(accountRepository.findByClienteClienteId(mockCliente.getClienteId())).thenReturn(mockListaCuentas);
 		
 		List<Cuenta> cuentas = cuentaServiceImp.readAccountsByClient(mockCliente.getClienteId());
 		
 		Assertions.assertEquals(mockListaCuentas, cuentas);
+		Mockito.verify(accountRepository, Mockito.times(1)).findByClienteClienteId(mockCliente.getClienteId());
+		Mockito.verifyNoMoreInteractions(accountRepository);
+		Mockito.verifyNoInteractions(clientRepository);
 	}
 	
 	/**
@@ -193,11 +209,105 @@ public class CuentaServiceImpTest {
 		Cliente mockCliente = new Cliente();
 		mockCliente.setClienteId(1L);
 		
+		Mockito.when(accountRepository.findByClienteClienteId(mockCliente.getClienteId())).thenReturn(new ArrayList<>());
 		Mockito.when(clientRepository.existsById(mockCliente.getClienteId())).thenReturn(false);
 		
 		assertThrows(ClientNotFound.class, ()->{cuentaServiceImp.readAccountsByClient(mockCliente.getClienteId());});
 	}
 	
+	/**
+	 * <h2>test del metodo readAccountBalance</h2>
+	 * este test verifica que el saldo se lea de la cuenta, sin consultar sus movimientos.
+	 */
+	@Test
+	void testReadAccountBalanceShouldReturnStoredBalance() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		mockCuenta.setSaldo(2500L);
+		
+		Mockito.when(accountRepository.findById(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));
+		
+		Long saldo = cuentaServiceImp.readAccountBalance(mockCuenta.getCuentaId());
+		
+		Assertions.assertEquals(2500L, saldo);
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
+	/**
+	 * <h2>test readAccountBalance sin saldo calculado</h2>
+	 * este test verifica que si la cuenta aun no tiene saldo, se recalcule a partir de sus movimientos.
+	 */
+	@Test
+	void testReadAccountBalanceWithoutBalanceShouldRecalculate() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		
+		Mockito.when(accountRepository.findById(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));
+		Mockito.when(accountRepository.findByIdForUpdate(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));
+		Mockito.when(movementRepository.sumBalanceByCuenta(mockCuenta.getCuentaId())).thenReturn(700L);
+		
+		Long saldo = cuentaServiceImp.readAccountBalance(mockCuenta.getCuentaId());
+		
+		Assertions.assertEquals(700L, saldo);
+		Mockito.verify(accountRepository, Mockito.times(1)).setBalance(mockCuenta.getCuentaId(), 700L);
+	}
+	
+	/**
+	 * <h2>test recalculateBalance Not Found</h2>
+	 * este test verifica que al recalcular el saldo de una cuenta que no existe,
+	 * genere una excepcion de tipo AccountNotFoundException.
+	 */
+	@Test
+	void testRecalculateBalanceNotFoundShouldReturnException() {
+		
+		Mockito.when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+		
+		assertThrows(AccountNotFoundException.class, ()->{cuentaServiceImp.recalculateBalance(1L);});
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
+	/**
+	 * <h2>test del metodo readStatement</h2>
+	 * este test verifica que el extracto se arme con las agregaciones de la base de datos:
+	 * saldo inicial = efecto de los movimientos anteriores al periodo, saldo final = inicial + efecto del mes.
+	 * El saldo actual de la cuenta no se usa.
+	 */
+	@Test
+	void testReadStatementShouldCombineAggregates() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		mockCuenta.setSaldo(5000L);
+		
+		Mockito.when(accountRepository.findById(1L)).thenReturn(Optional.of(mockCuenta));
+		Mockito.when(movementRepository.sumByTipoBetween(1L, LocalDate.of(2022, 9, 1), LocalDate.of(2022, 10, 1)))
+				.thenReturn(List.of(new TotalTipo("credito", 3L, 1500L), new TotalTipo("retiro", 2L, 400L)));
+		Mockito.when(movementRepository.sumBalanceBefore(1L, LocalDate.of(2022, 9, 1))).thenReturn(3400L);
+		
+		Extracto extracto = cuentaServiceImp.readStatement(1L, "2022-09");
+		
+		Assertions.assertEquals(3400L, extracto.saldoInicial());
+		Assertions.assertEquals(5L, extracto.cantidadMovimientos());
+		Assertions.assertEquals(4500L, extracto.saldoFinal());
+		Assertions.assertEquals(2, extracto.totalesPorTipo().size());
+		Mockito.verify(movementRepository, Mockito.never()).findByCuentaCuentaId(Mockito.anyLong());
+		Mockito.verify(movementRepository, Mockito.never()).sumBalanceByCuenta(Mockito.anyLong());
+	}
+	
+	/**
+	 * <h2>test readStatement con periodo invalido</h2>
+	 * este test verifica que un periodo que no tiene el formato yyyy-MM genere una excepcion
+	 * de tipo InvalidPeriodException sin consultar la base de datos.
+	 */
+	@Test
+	void testReadStatementInvalidPeriodShouldReturnException() {
+		
+		assertThrows(InvalidPeriodException.class, ()->{cuentaServiceImp.readStatement(1L, "septiembre");});
+		Mockito.verifyNoInteractions(accountRepository, movementRepository);
+	}
+	
 	/**
 	 * <h2>test metodo updateAccount</h2>
 	 * este test valida que al momento de actualizar una cuenta,
@@ -209,8 +319,7 @@ public class CuentaServiceImpTest {
 		Cuenta mockCuenta = new Cuenta();
 		mockCuenta.setCuentaId(1L);
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(true);
-		Mockito.when(accountRepository.findByCuentaId(mockCuenta.getCuentaId())).thenReturn(mockCuenta);
+		Mockito.when(accountRepository.findById(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));
 		
 		mockCuenta.setEstadoCuenta("activo");
 		
@@ -219,6 +328,9 @@ public class CuentaServiceImpTest {
 		Cuenta cuenta = cuentaServiceImp.updateAccount(mockCuenta, mockCuenta.getCuentaId());
 		
 		Assertions.assertEquals(mockCuenta, cuenta);
+		Mockito.verify(accountRepository, Mockito.times(1)).findById(mockCuenta.getCuentaId());
+		Mockito.verify(accountRepository, Mockito.times(1)).save(mockCuenta);
+		Mockito.verifyNoMoreInteractions(accountRepository);
 		
 	}
 	
@@ -233,7 +345,7 @@ public class CuentaServiceImpTest {
 		Cuenta mockCuenta = new Cuenta();
 		mockCuenta.setCuentaId(1L);
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(false);
+		Mockito.when(accountRepository.findById(mockCuenta.getCuentaId())).thenReturn(Optional.empty());
 		
 		assertThrows(AccountNotFoundException.class, ()->{cuentaServiceImp.updateAccount(mockCuenta, mockCuenta.getCuentaId());});
 	}
@@ -249,13 +361,7 @@ public class CuentaServiceImpTest {
 		Cuenta mockCuenta = new Cuenta();
 		mockCuenta.setCuentaId(1L);
 		
-		Movimiento mockMovimiento = new Movimiento();
-		
-		List<Movimiento> mockListaMovimientos = new ArrayList<>();
-		
-		mockListaMovimientos.add(mockMovimiento);
-		
-		Mockito.when(movementRepository.findByCuenta(accountRepository.findByCuentaId(mockCuenta.getCuentaId()))).thenReturn(mockListaMovimientos);
+		Mockito.when(movementRepository.existsByCuentaCuentaId(mockCuenta.getCuentaId())).thenReturn(true);
 		
 		boolean resultado = cuentaServiceImp.validateAccountMovements(mockCuenta.getCuentaId());
 		
@@ -274,13 +380,13 @@ public class CuentaServiceImpTest {
 		Cuenta mockCuenta = new Cuenta();
 		mockCuenta.setCuentaId(1L);		
 		
-		List<Movimiento> mockListaMovimientos = new ArrayList<>();	
-		
-		Mockito.when(movementRepository.findByCuenta(accountRepository.findByCuentaId(mockCuenta.getCuentaId()))).thenReturn(mockListaMovimientos);
+		Mockito.when(movementRepository.existsByCuentaCuentaId(mockCuenta.getCuentaId())).thenReturn(false);
 		
 		boolean resultado = cuentaServiceImp.validateAccountMovements(mockCuenta.getCuentaId());
 		
-		Assertions.assertFalse(resultado);		
+		Assertions.assertFalse(resultado);
+		Mockito.verify(movementRepository, Mockito.times(1)).existsByCuentaCuentaId(mockCuenta.getCuentaId());
+		Mockito.verifyNoMoreInteractions(movementRepository);		
 		
 	}
 	
@@ -296,11 +402,14 @@ public class CuentaServiceImpTest {
 		
 		mockCuenta.setCuentaId(1L);
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(true);
+		Mockito.when(accountRepository.findByIdForUpdate(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));
 		
 		boolean resultado = cuentaServiceImp.deleteAccount(mockCuenta.getCuentaId());
 		
 		Assertions.assertTrue(resultado);
+		Mockito.verify(accountRepository, Mockito.times(1)).findByIdForUpdate(mockCuenta.getCuentaId());
+		Mockito.verify(accountRepository, Mockito.times(1)).delete(mockCuenta);
+		Mockito.verifyNoMoreInteractions(accountRepository);
 	
 	}	 
 		
@@ -316,7 +425,7 @@ public class CuentaServiceImpTest {
 		
 		mockCuenta.setCuentaId(1L);
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(false);
+		Mockito.when(accountRepository.findByIdForUpdate(mockCuenta.getCuentaId())).thenReturn(Optional.empty());
 		
 		assertThrows(AccountNotFoundException.class, ()->{cuentaServiceImp.deleteAccount(mockCuenta.getCuentaId());});
 	} 
@@ -333,17 +442,12 @@ public class CuentaServiceImpTest {
 		Cuenta mockCuenta = new Cuenta();
 		mockCuenta.setCuentaId(1L);
 		
-		Movimiento mockMovimiento = new Movimiento();
-		
-		List<Movimiento> mockListaMovimientos = new ArrayList<>();
-		
-		mockListaMovimientos.add(mockMovimiento);
-		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(true);
+		Mockito.when(accountRepository.findByIdForUpdate(mockCuenta.getCuentaId())).thenReturn(Optional.of(mockCuenta));
 		
-		Mockito.when(movementRepository.findByCuenta(accountRepository.findByCuentaId(mockCuenta.getCuentaId()))).thenReturn(mockListaMovimientos);
+		Mockito.when(movementRepository.existsByCuentaCuentaId(mockCuenta.getCuentaId())).thenReturn(true);
 		
 		assertThrows(AccountWithMovementsException.class, ()->{cuentaServiceImp.deleteAccount(mockCuenta.getCuentaId());});
+		Mockito.verify(accountRepository, Mockito.never()).delete(Mockito.any(Cuenta.class));
 	} 
 	
 
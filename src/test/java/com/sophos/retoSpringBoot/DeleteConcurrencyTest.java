@@ -0,0 +1,220 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.exceptions.AccountWithMovementsException;
+import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.exceptions.ClientWithAccountsException;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.ClienteServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Test de concurrencia de las eliminaciones</h1>
+ * En esta clase se verifica, contra la base de datos, que eliminar una cuenta mientras
+ * se registran movimientos (o un cliente mientras se crean cuentas) nunca deja registros
+ * huerfanos ni falla tarde por la llave foranea: o gana la eliminacion y las creaciones
+ * fallan porque el padre no existe, o gana alguna creacion y la eliminacion se rechaza.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class DeleteConcurrencyTest {
+
+	private static final int RONDAS = 20;
+
+	private static final int HILOS = 4;
+
+	@Autowired
+	ClienteServiceImp clienteServiceImp;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test deleteAccount concurrente con createMovement</h2>
+	 * en cada ronda se elimina una cuenta vacia mientras varios hilos le registran movimientos.
+	 */
+	@Test
+	void testDeleteAccountWhilePostingMovementsShouldNotOrphanMovements() throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS + 1);
+		try {
+			for(int ronda = 0; ronda < RONDAS; ronda++) {
+				Cliente cliente = clientRepository.save(nuevoCliente());
+				Long cuentaId = accountRepository.save(nuevaCuenta(cliente)).getCuentaId();
+
+				CountDownLatch inicio = new CountDownLatch(1);
+				List<Future<Boolean>> creaciones = new ArrayList<>();
+				for(int i = 0; i < HILOS; i++) {
+					creaciones.add(executor.submit(esperar(inicio, () -> {
+						try {
+							movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId));
+							return true;
+						} catch (AccountNotFoundException e) {
+							return false;
+						}
+					})));
+				}
+				Future<Boolean> eliminacion = executor.submit(esperar(inicio, () -> {
+					try {
+						return cuentaServiceImp.deleteAccount(cuentaId);
+					} catch (AccountWithMovementsException e) {
+						return false;
+					}
+				}));
+				inicio.countDown();
+
+				int creados = 0;
+				for(Future<Boolean> creacion : creaciones) {
+					if(creacion.get(30, TimeUnit.SECONDS)) {
+						creados++;
+					}
+				}
+				boolean eliminada = eliminacion.get(30, TimeUnit.SECONDS);
+
+				Assertions.assertEquals(creados, movementRepository.findByCuentaCuentaId(cuentaId).size());
+				if(eliminada) {
+					Assertions.assertEquals(0, creados);
+					Assertions.assertFalse(accountRepository.existsById(cuentaId));
+				} else {
+					Assertions.assertTrue(creados > 0);
+					Assertions.assertTrue(accountRepository.existsById(cuentaId));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * <h2>test deleteClient concurrente con createAccount</h2>
+	 * en cada ronda se elimina un cliente sin cuentas mientras varios hilos le crean cuentas.
+	 */
+	@Test
+	void testDeleteClientWhileCreatingAccountsShouldNotOrphanAccounts() throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS + 1);
+		try {
+			for(int ronda = 0; ronda < RONDAS; ronda++) {
+				Long clienteId = clientRepository.save(nuevoCliente()).getClienteId();
+
+				CountDownLatch inicio = new CountDownLatch(1);
+				List<Future<Boolean>> creaciones = new ArrayList<>();
+				for(int i = 0; i < HILOS; i++) {
+					creaciones.add(executor.submit(esperar(inicio, () -> {
+						try {
+							Cliente referencia = new Cliente();
+							referencia.setClienteId(clienteId);
+							cuentaServiceImp.createAccount(nuevaCuenta(referencia));
+							return true;
+						} catch (ClientNotFound e) {
+							return false;
+						}
+					})));
+				}
+				Future<Boolean> eliminacion = executor.submit(esperar(inicio, () -> {
+					try {
+						return clienteServiceImp.deleteClient(clienteId);
+					} catch (ClientWithAccountsException e) {
+						return false;
+					}
+				}));
+				inicio.countDown();
+
+				int creadas = 0;
+				for(Future<Boolean> creacion : creaciones) {
+					if(creacion.get(30, TimeUnit.SECONDS)) {
+						creadas++;
+					}
+				}
+				boolean eliminado = eliminacion.get(30, TimeUnit.SECONDS);
+
+				Assertions.assertEquals(creadas, accountRepository.findByClienteClienteId(clienteId).size());
+				if(eliminado) {
+					Assertions.assertEquals(0, creadas);
+					Assertions.assertFalse(clientRepository.existsById(clienteId));
+				} else {
+					Assertions.assertTrue(creadas > 0);
+					Assertions.assertTrue(clientRepository.existsById(clienteId));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static <T> Callable<T> esperar(CountDownLatch inicio, Callable<T> tarea) {
+		return () -> {
+			inicio.await();
+			return tarea.call();
+		};
+	}
+
+	private static Cliente nuevoCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return cliente;
+	}
+
+	private static Cuenta nuevaCuenta(Cliente cliente) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(cliente);
+		return cuenta;
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo("credito");
+		movimiento.setValor(1000L);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
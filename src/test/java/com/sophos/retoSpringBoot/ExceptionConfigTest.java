@@ -0,0 +1,95 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.controller.ClienteController;
+import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.exceptions.CodigoError;
+import com.sophos.retoSpringBoot.exceptions.ExceptionConfig;
+import com.sophos.retoSpringBoot.exceptions.InvalidPeriodException;
+import com.sophos.retoSpringBoot.service.ClienteService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <h1>Test de la clase ExceptionConfig</h1>
+ * En esta clase se verifica que las excepciones de negocio no capturen la traza, y que
+ * las respuestas de error lleven el estado, el codigo y el mensaje escapado como JSON.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExceptionConfigTest {
+
+	@InjectMocks
+	ClienteController clienteController;
+
+	@Mock
+	private ClienteService clienteService;
+
+	/**
+	 * <h2>test de la respuesta de un cliente no encontrado</h2>
+	 * la respuesta es un 404 JSON con el codigo CLI-001 y el mensaje de la excepcion.
+	 */
+	@Test
+	void testClientNotFoundShouldReturnNotFoundWithCode() throws Exception {
+
+		Mockito.when(clienteService.readClient(99L)).thenThrow(new ClientNotFound("el cliente con el id: 99 no existe"));
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(clienteController)
+				.setControllerAdvice(new ExceptionConfig())
+				.build();
+
+		mockMvc.perform(get("/api/cliente/99"))
+				.andExpect(status().isNotFound())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.codigo").value("CLI-001"))
+				.andExpect(jsonPath("$.errorMessage").value("el cliente con el id: 99 no existe"));
+	}
+
+	/**
+	 * <h2>test del escape del mensaje</h2>
+	 * un mensaje con comillas, barras, saltos de linea y tildes produce un JSON valido.
+	 */
+	@Test
+	void testBodyShouldEscapeMessage() throws Exception {
+
+		String mensaje = "el periodo \"2022-13\\x\"\nno es valido: año";
+		byte[] cuerpo = new ExceptionConfig().cuerpo(CodigoError.PERIODO_INVALIDO, mensaje);
+
+		JsonNode json = new ObjectMapper().readTree(new String(cuerpo, StandardCharsets.UTF_8));
+		Assertions.assertEquals("GEN-003", json.get("codigo").asText());
+		Assertions.assertEquals(mensaje, json.get("errorMessage").asText());
+		Assertions.assertEquals(2, json.size());
+	}
+
+	/**
+	 * <h2>test de las excepciones sin traza</h2>
+	 * las excepciones de negocio no llenan la traza de la pila.
+	 */
+	@Test
+	void testDomainExceptionsShouldNotCaptureStackTrace() {
+
+		InvalidPeriodException excepcion = new InvalidPeriodException("periodo invalido");
+
+		Assertions.assertEquals(0, excepcion.getStackTrace().length);
+		Assertions.assertEquals(CodigoError.PERIODO_INVALIDO, excepcion.getCodigo());
+		Assertions.assertEquals("periodo invalido", excepcion.getMessage());
+	}
+}
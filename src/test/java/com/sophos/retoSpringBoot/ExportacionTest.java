@@ -0,0 +1,181 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.controller.MovimientoController;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <h1>Test de la exportacion del historial de una cuenta</h1>
+ * En esta clase se verifica, contra la base de datos, que la exportacion escriba un
+ * movimiento por linea en orden cronologico, sin cargar entidades, y que la version
+ * comprimida contenga lo mismo.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class ExportacionTest {
+
+	private static final int CANTIDAD = 2_500;
+
+	@Autowired
+	MovimientoController movimientoController;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de la exportacion NDJSON</h2>
+	 * exporta 2500 movimientos y verifica el orden, los campos y que no se cargo ninguna entidad.
+	 */
+	@Test
+	void testExportShouldWriteOneOrderedLinePerMovementWithoutLoadingEntities() throws Exception {
+
+		Long cuentaId = crearCuentaConMovimientos();
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		estadisticas.clear();
+		long exportados;
+		try {
+			exportados = movimientoServiceImp.exportMovements(cuentaId, salida);
+			Assertions.assertEquals(0, estadisticas.getEntityLoadCount());
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+
+		List<String> lineas = lineas(salida.toByteArray());
+		Assertions.assertEquals(CANTIDAD, exportados);
+		Assertions.assertEquals(CANTIDAD, lineas.size());
+		LocalDate anterior = LocalDate.MIN;
+		for(String linea : lineas) {
+			JsonNode movimiento = objectMapper.readTree(linea);
+			Assertions.assertEquals(cuentaId, movimiento.get("cuentaId").asLong());
+			LocalDate fecha = LocalDate.parse(movimiento.get("fechaMovimiento").asText());
+			Assertions.assertFalse(fecha.isBefore(anterior));
+			anterior = fecha;
+		}
+	}
+
+	/**
+	 * <h2>test de la exportacion comprimida</h2>
+	 * el endpoint con comprimir=true entrega el mismo contenido en gzip.
+	 */
+	@Test
+	void testCompressedExportShouldContainAllLines() throws Exception {
+
+		Long cuentaId = crearCuentaConMovimientos();
+
+		ResponseEntity<StreamingResponseBody> respuesta = movimientoController.exportMovements(cuentaId, true);
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		respuesta.getBody().writeTo(salida);
+
+		Assertions.assertEquals("application/gzip", respuesta.getHeaders().getContentType().toString());
+		GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(salida.toByteArray()));
+		Assertions.assertEquals(CANTIDAD, lineas(gzip.readAllBytes()).size());
+	}
+
+	/**
+	 * <h2>test de la exportacion de una cuenta inexistente</h2>
+	 * el error se genera antes de empezar a escribir la respuesta.
+	 */
+	@Test
+	void testExportMissingAccountShouldReturnException() {
+
+		Assertions.assertThrows(AccountNotFoundException.class, () -> movimientoController.exportMovements(-1L, false));
+	}
+
+	private static List<String> lineas(byte[] contenido) throws Exception {
+		List<String> lineas = new ArrayList<>();
+		try (BufferedReader lectura = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contenido), StandardCharsets.UTF_8))) {
+			String linea;
+			while((linea = lectura.readLine()) != null) {
+				lineas.add(linea);
+			}
+		}
+		return lineas;
+	}
+
+	private Long crearCuentaConMovimientos() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setCliente(cliente);
+		Long cuentaId = cuentaServiceImp.createAccount(cuenta).getCuentaId();
+
+		List<Movimiento> movimientos = new ArrayList<>();
+		for(int i = 0; i < CANTIDAD; i++) {
+			Cuenta referencia = new Cuenta();
+			referencia.setCuentaId(cuentaId);
+			Movimiento movimiento = new Movimiento();
+			movimiento.setCuenta(referencia);
+			movimiento.setTipo("credito");
+			movimiento.setValor(10L);
+			movimiento.setEstado("activo");
+			movimiento.setFechaMovimiento(LocalDate.of(2020, 1, 1).plusDays((i * 37L) % 900));
+			movimientos.add(movimiento);
+		}
+		movimientoServiceImp.createMovements(movimientos);
+		return cuentaId;
+	}
+}
@@ -0,0 +1,195 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.Extracto;
+import com.sophos.retoSpringBoot.dto.TotalTipo;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Test del extracto por periodo</h1>
+ * En esta clase se verifica, contra la base de datos, que los saldos y totales del
+ * extracto de cada periodo coincidan con los movimientos registrados en ese mes.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class ExtractoTest {
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de extractos consecutivos</h2>
+	 * el saldo final de cada periodo es el saldo inicial del siguiente, y el ultimo
+	 * saldo final es el saldo de la cuenta. Los movimientos inactivos no cuentan.
+	 */
+	@Test
+	void testStatementsShouldChainBalancesAcrossPeriods() {
+
+		Long cuentaId = crearCuenta();
+		List<Movimiento> movimientos = new ArrayList<>();
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 10_000L, "activo", "2022-07"));
+		movimientos.add(nuevoMovimiento(cuentaId, "retiro", 2_000L, "activo", "2022-07"));
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 3_000L, "activo", "2022-08"));
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 1_000L, "activo", "2022-08"));
+		movimientos.add(nuevoMovimiento(cuentaId, "debito", 500L, "activo", "2022-08"));
+		movimientos.add(nuevoMovimiento(cuentaId, "retiro", 9_999L, "inactivo", "2022-08"));
+		movimientos.add(nuevoMovimiento(cuentaId, "retiro", 700L, "activo", "2022-09"));
+		movimientoServiceImp.createMovements(movimientos);
+
+		Extracto julio = cuentaServiceImp.readStatement(cuentaId, "2022-07");
+		Extracto agosto = cuentaServiceImp.readStatement(cuentaId, "2022-08");
+		Extracto septiembre = cuentaServiceImp.readStatement(cuentaId, "2022-09");
+
+		Assertions.assertEquals(0L, julio.saldoInicial());
+		Assertions.assertEquals(8_000L, julio.saldoFinal());
+		Assertions.assertEquals(8_000L, agosto.saldoInicial());
+		Assertions.assertEquals(11_500L, agosto.saldoFinal());
+		Assertions.assertEquals(3, agosto.cantidadMovimientos());
+		Assertions.assertEquals(List.of(new TotalTipo("credito", 2L, 4_000L), new TotalTipo("debito", 1L, 500L)), agosto.totalesPorTipo());
+		Assertions.assertEquals(11_500L, septiembre.saldoInicial());
+		Assertions.assertEquals(10_800L, septiembre.saldoFinal());
+		Assertions.assertEquals(cuentaServiceImp.readAccountBalance(cuentaId), septiembre.saldoFinal());
+	}
+
+	/**
+	 * <h2>test de movimientos posteriores al periodo</h2>
+	 * registrar movimientos en los meses siguientes, aunque sean muchos, no cambia el saldo
+	 * inicial, la cantidad de movimientos ni el saldo final de un periodo ya cerrado.
+	 */
+	@Test
+	void testLaterMovementsShouldNotChangeStatement() {
+
+		Long cuentaId = crearCuenta();
+		List<Movimiento> movimientos = new ArrayList<>();
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 5_000L, "activo", "2022-02"));
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 2_000L, "activo", "2022-03"));
+		movimientos.add(nuevoMovimiento(cuentaId, "retiro", 500L, "activo", "2022-03"));
+		movimientoServiceImp.createMovements(movimientos);
+		Extracto antes = cuentaServiceImp.readStatement(cuentaId, "2022-03");
+
+		List<Movimiento> posteriores = new ArrayList<>();
+		for(int i = 0; i < 200; i++) {
+			posteriores.add(nuevoMovimiento(cuentaId, i % 2 == 0 ? "credito" : "retiro", 100L + i, "activo",
+					YearMonth.of(2022, 4).plusMonths(i % 9).toString()));
+		}
+		movimientoServiceImp.createMovements(posteriores);
+		Extracto despues = cuentaServiceImp.readStatement(cuentaId, "2022-03");
+
+		Assertions.assertEquals(5_000L, antes.saldoInicial());
+		Assertions.assertEquals(6_500L, antes.saldoFinal());
+		Assertions.assertEquals(antes, despues);
+		Assertions.assertEquals(2, despues.cantidadMovimientos());
+		Assertions.assertNotEquals(antes.saldoFinal(), cuentaServiceImp.readAccountBalance(cuentaId));
+	}
+
+	/**
+	 * <h2>test de un periodo sin movimientos</h2>
+	 * un periodo posterior a todos los movimientos tiene el saldo actual como inicial y final.
+	 */
+	@Test
+	void testStatementWithoutMovementsShouldKeepBalance() {
+
+		Long cuentaId = crearCuenta();
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "credito", 4_000L, "activo", "2022-01"));
+
+		Extracto extracto = cuentaServiceImp.readStatement(cuentaId, "2022-12");
+
+		Assertions.assertEquals(4_000L, extracto.saldoInicial());
+		Assertions.assertEquals(4_000L, extracto.saldoFinal());
+		Assertions.assertEquals(0, extracto.cantidadMovimientos());
+		Assertions.assertTrue(extracto.totalesPorTipo().isEmpty());
+	}
+
+	/**
+	 * <h2>test de periodos escritos de otra forma</h2>
+	 * el extracto ubica los movimientos por su fecha y no por el texto del periodo, asi que
+	 * "enero", "2022-1" o "202201" no cambian los saldos. El ultimo dia del mes y el primero
+	 * del mes siguiente quedan cada uno en su periodo.
+	 */
+	@Test
+	void testStatementShouldUseMovementDateInsteadOfPeriodText() {
+
+		Long cuentaId = crearCuenta();
+		List<Movimiento> movimientos = new ArrayList<>();
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 1_000L, "activo", "enero", LocalDate.of(2022, 1, 1)));
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 2_000L, "activo", "2022-1", LocalDate.of(2022, 1, 31)));
+		movimientos.add(nuevoMovimiento(cuentaId, "credito", 4_000L, "activo", "202201", LocalDate.of(2022, 2, 1)));
+		movimientoServiceImp.createMovements(movimientos);
+
+		Extracto enero = cuentaServiceImp.readStatement(cuentaId, "2022-01");
+		Extracto febrero = cuentaServiceImp.readStatement(cuentaId, "2022-02");
+
+		Assertions.assertEquals(0L, enero.saldoInicial());
+		Assertions.assertEquals(2, enero.cantidadMovimientos());
+		Assertions.assertEquals(3_000L, enero.saldoFinal());
+		Assertions.assertEquals(3_000L, febrero.saldoInicial());
+		Assertions.assertEquals(7_000L, febrero.saldoFinal());
+	}
+
+	private Long crearCuenta() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor, String estado, String periodo) {
+		return nuevoMovimiento(cuentaId, tipo, valor, estado, periodo, YearMonth.parse(periodo).atDay(15));
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor, String estado, String periodo, LocalDate fecha) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado(estado);
+		movimiento.setPeriodo(periodo);
+		movimiento.setFechaMovimiento(fecha);
+		return movimiento;
+	}
+}
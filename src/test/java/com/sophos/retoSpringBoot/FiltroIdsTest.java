@@ -0,0 +1,163 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.config.IdFilterLoader;
+import com.sophos.retoSpringBoot.dto.EstadisticasFiltro;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.exceptions.MovementNotFoundException;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CacheServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.ClienteServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+/**
+ * <h1>Test de los filtros de ids</h1>
+ * En esta clase se verifica, contra la base de datos, que las lecturas de ids que no
+ * existen se rechacen sin consultar la base de datos, y que los filtros reconozcan los ids
+ * creados despues de iniciar la aplicacion y olviden los eliminados.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class FiltroIdsTest {
+
+	@Autowired
+	ClienteServiceImp clienteServiceImp;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	CacheServiceImp cacheServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de lecturas de ids inexistentes</h2>
+	 * leer un cliente, una cuenta o un movimiento que no existe no ejecuta sentencias.
+	 */
+	@Test
+	void testReadsOfMissingIdsShouldNotQueryTheDatabase() {
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		estadisticas.clear();
+		try {
+			Assertions.assertThrows(ClientNotFound.class, () -> clienteServiceImp.readClient(-1L));
+			Assertions.assertThrows(AccountNotFoundException.class, () -> cuentaServiceImp.readAccount(-1L));
+			Assertions.assertThrows(MovementNotFoundException.class, () -> movimientoServiceImp.readMovement(-1L));
+
+			Assertions.assertEquals(0, estadisticas.getPrepareStatementCount(),
+					"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+
+		for(EstadisticasFiltro filtro : cacheServiceImp.readIdFilterStatistics()) {
+			Assertions.assertTrue(filtro.completo(), filtro.nombre());
+			Assertions.assertTrue(filtro.rechazos() > 0, filtro.nombre());
+			Assertions.assertTrue(filtro.bytes() > 0, filtro.nombre());
+		}
+	}
+
+	/**
+	 * <h2>test de ids creados y eliminados</h2>
+	 * los ids creados despues de iniciar, tambien desde los repositorios, se pueden leer, y
+	 * los eliminados se rechazan.
+	 */
+	@Test
+	void testCreatedIdsShouldBeReadableAndDeletedIdsRejected() {
+
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		Long clienteId = clientRepository.save(cliente).getClienteId();
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(clientRepository.findById(clienteId).orElseThrow());
+		Long cuentaId = cuentaServiceImp.createAccount(cuenta).getCuentaId();
+
+		Cuenta referencia = new Cuenta();
+		referencia.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(referencia);
+		movimiento.setTipo("credito");
+		movimiento.setValor(100L);
+		movimiento.setEstado("inactivo");
+		Long movimientoId = movimientoServiceImp.createMovement(movimiento).getMovimientoId();
+
+		Assertions.assertEquals(clienteId, clienteServiceImp.readClient(clienteId).getClienteId());
+		Assertions.assertEquals(cuentaId, cuentaServiceImp.readAccount(cuentaId).getCuentaId());
+		Assertions.assertEquals(movimientoId, movimientoServiceImp.readMovement(movimientoId).getMovimientoId());
+
+		movimientoServiceImp.deleteMovement(movimientoId);
+		cuentaServiceImp.deleteAccount(cuentaId);
+		clienteServiceImp.deleteClient(clienteId);
+
+		long rechazos = cacheServiceImp.readIdFilterStatistics().stream().mapToLong(EstadisticasFiltro::rechazos).sum();
+		Assertions.assertThrows(MovementNotFoundException.class, () -> movimientoServiceImp.readMovement(movimientoId));
+		Assertions.assertThrows(AccountNotFoundException.class, () -> cuentaServiceImp.readAccount(cuentaId));
+		Assertions.assertThrows(ClientNotFound.class, () -> clienteServiceImp.readClient(clienteId));
+		Assertions.assertEquals(rechazos + 3, cacheServiceImp.readIdFilterStatistics().stream().mapToLong(EstadisticasFiltro::rechazos).sum());
+	}
+	/**
+	 * <h2>test de los filtros desactivados</h2>
+	 * con varias instancias los filtros vienen desactivados: no se cargan ni se completan, y
+	 * ningun id se rechaza sin consultar la base de datos.
+	 */
+	@Test
+	void testDisabledFiltersShouldNeverRejectIds() {
+
+		IdFilter clientes = new IdFilter("clientes", 100, 0.01);
+		IdFilter cuentas = new IdFilter("cuentas", 100, 0.01);
+		IdFilter movimientos = new IdFilter("movimientos", 100, 0.01);
+		new IdFilterLoader(entityManagerFactory, clientes, cuentas, movimientos, false).afterPropertiesSet();
+
+		for(IdFilter filtro : new IdFilter[] {clientes, cuentas, movimientos}) {
+			Assertions.assertFalse(filtro.estadisticas().completo());
+			Assertions.assertTrue(filtro.mightContain(987654321L));
+		}
+	}
+}
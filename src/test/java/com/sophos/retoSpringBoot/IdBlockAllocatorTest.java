@@ -0,0 +1,99 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.util.IdBlockAllocator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Test del asignador de ids por bloques</h1>
+ * En esta clase se verifica, contra la base de datos, que varios asignadores sobre la misma
+ * tabla (como varios nodos de la aplicacion) nunca entreguen el mismo id, y que un asignador
+ * nuevo (como un nodo reiniciado) continue despues de los ids ya entregados.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class IdBlockAllocatorTest {
+
+	private static final int NODOS = 3;
+
+	private static final int HILOS_POR_NODO = 4;
+
+	private static final int IDS_POR_HILO = 2_000;
+
+	@Autowired
+	DataSource dataSource;
+
+	/**
+	 * <h2>test de varios nodos concurrentes</h2>
+	 * tres asignadores con bloques pequenos piden ids desde varios hilos a la vez.
+	 */
+	@Test
+	void testConcurrentNodesShouldNeverShareIds() throws Exception {
+
+		List<IdBlockAllocator> nodos = new ArrayList<>();
+		for(int i = 0; i < NODOS; i++) {
+			nodos.add(new IdBlockAllocator(dataSource, 10));
+		}
+		Set<Long> entregados = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(NODOS * HILOS_POR_NODO);
+		try {
+			CountDownLatch inicio = new CountDownLatch(1);
+			List<Future<Integer>> tareas = new ArrayList<>();
+			for(IdBlockAllocator nodo : nodos) {
+				for(int i = 0; i < HILOS_POR_NODO; i++) {
+					tareas.add(executor.submit(() -> {
+						inicio.await();
+						int repetidos = 0;
+						for(int j = 0; j < IDS_POR_HILO; j++) {
+							if(!entregados.add(nodo.next("prueba-nodos"))) {
+								repetidos++;
+							}
+						}
+						return repetidos;
+					}));
+				}
+			}
+			inicio.countDown();
+			for(Future<Integer> tarea : tareas) {
+				Assertions.assertEquals(0, tarea.get(1, TimeUnit.MINUTES));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		Assertions.assertEquals(NODOS * HILOS_POR_NODO * IDS_POR_HILO, entregados.size());
+	}
+
+	/**
+	 * <h2>test de reinicio</h2>
+	 * un asignador nuevo sobre la misma secuencia entrega ids mayores a los ya entregados.
+	 */
+	@Test
+	void testRestartedNodeShouldContinueAfterIssuedIds() {
+
+		IdBlockAllocator anterior = new IdBlockAllocator(dataSource, 50);
+		long ultimo = 0;
+		for(int i = 0; i < 70; i++) {
+			ultimo = anterior.next("prueba-reinicio");
+		}
+		Assertions.assertEquals(2, anterior.getBloquesReservados());
+
+		IdBlockAllocator reiniciado = new IdBlockAllocator(dataSource, 50);
+		Assertions.assertTrue(reiniciado.next("prueba-reinicio") > ultimo);
+	}
+}
@@ -0,0 +1,88 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.EstadisticasFiltro;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <h1>Test de la clase IdFilter</h1>
+ * En esta clase se verifica que el filtro nunca rechace un id agregado, que deje de
+ * reconocer los ids eliminados, que su tasa de falsos positivos este cerca de la
+ * configurada y que no rechace nada hasta estar completo.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class IdFilterTest {
+
+	/**
+	 * <h2>test de ids agregados y ausentes</h2>
+	 * todos los ids agregados pasan el filtro, y los ausentes se rechazan salvo una
+	 * fraccion cercana a la tasa configurada.
+	 */
+	@Test
+	void testAddedIdsShouldPassAndFalsePositiveRateShouldStayNearConfigured() {
+
+		IdFilter filtro = new IdFilter("prueba", 10000, 0.01);
+		for(long id = 1; id <= 10000; id++) {
+			filtro.add(id);
+		}
+		filtro.marcarCompleto();
+
+		for(long id = 1; id <= 10000; id++) {
+			Assertions.assertTrue(filtro.mightContain(id), "id agregado rechazado: " + id);
+		}
+		int falsosPositivos = 0;
+		for(long id = 100001; id <= 200000; id++) {
+			if(filtro.mightContain(id)) {
+				falsosPositivos++;
+			}
+		}
+		// 4 bits por contador y unos 9,6 contadores por id con una tasa del 1%
+		EstadisticasFiltro estadisticas = filtro.estadisticas();
+		Assertions.assertTrue(falsosPositivos < 2000, "falsos positivos: " + falsosPositivos);
+		Assertions.assertEquals(10000, estadisticas.elementos());
+		Assertions.assertEquals(100000 - falsosPositivos, estadisticas.rechazos());
+		Assertions.assertTrue(estadisticas.tasaFalsosPositivosEstimada() > 0.005 && estadisticas.tasaFalsosPositivosEstimada() < 0.02,
+				"tasa estimada: " + estadisticas.tasaFalsosPositivosEstimada());
+		Assertions.assertTrue(estadisticas.bytes() <= 48000, "bytes: " + estadisticas.bytes());
+	}
+
+	/**
+	 * <h2>test de ids eliminados</h2>
+	 * un id eliminado deja de pasar el filtro sin afectar a los demas.
+	 */
+	@Test
+	void testRemovedIdShouldBeRejected() {
+
+		IdFilter filtro = new IdFilter("prueba", 1000, 0.01);
+		filtro.add(1L);
+		filtro.add(2L);
+		filtro.marcarCompleto();
+
+		filtro.remove(1L);
+
+		Assertions.assertFalse(filtro.mightContain(1L));
+		Assertions.assertTrue(filtro.mightContain(2L));
+		Assertions.assertEquals(1, filtro.estadisticas().elementos());
+	}
+
+	/**
+	 * <h2>test del filtro incompleto</h2>
+	 * mientras se cargan los ids el filtro no rechaza ninguno, y las eliminaciones se ignoran.
+	 */
+	@Test
+	void testIncompleteFilterShouldNotRejectAnyId() {
+
+		IdFilter filtro = new IdFilter("prueba", 1000, 0.01);
+		filtro.add(1L);
+		filtro.remove(1L);
+
+		Assertions.assertTrue(filtro.mightContain(5L));
+		filtro.marcarCompleto();
+		Assertions.assertTrue(filtro.mightContain(1L));
+		Assertions.assertFalse(filtro.mightContain(5L));
+	}
+}
@@ -0,0 +1,185 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.ClaveIdempotencia;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.InvalidIdempotencyKeyException;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.IdempotencyKeyRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Test de las claves de idempotencia</h1>
+ * En esta clase se verifica, contra la base de datos, que los reintentos de un movimiento
+ * con la misma Idempotency-Key no dupliquen el movimiento ni su efecto en el saldo, que la
+ * clave no se pueda reutilizar con otra cuenta y que las claves vencidas se borren.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class IdempotenciaTest {
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@AfterEach
+	void cleanUp() {
+		idempotencyKeyRepository.deleteAll();
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de reintentos simultaneos</h2>
+	 * este test envia el mismo movimiento con la misma clave desde varios hilos a la vez
+	 * y verifica que se registre una sola vez.
+	 */
+	@Test
+	void testConcurrentRetriesShouldCreateOneMovement() throws Exception {
+
+		Long cuentaId = crearCuenta();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch inicio = new CountDownLatch(1);
+			List<Future<Movimiento>> intentos = new ArrayList<>();
+			for(int i = 0; i < 8; i++) {
+				intentos.add(executor.submit(() -> {
+					inicio.await();
+					return movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId), "liquidacion-42");
+				}));
+			}
+			inicio.countDown();
+			Long movimientoId = null;
+			for(Future<Movimiento> intento : intentos) {
+				Long id = intento.get(30, TimeUnit.SECONDS).getMovimientoId();
+				if(movimientoId == null) {
+					movimientoId = id;
+				}
+				Assertions.assertEquals(movimientoId, id);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Assertions.assertEquals(1, movementRepository.findByCuentaCuentaId(cuentaId).size());
+		Assertions.assertEquals(500L, cuentaServiceImp.readAccountBalance(cuentaId));
+	}
+
+	/**
+	 * <h2>test de clave registrada por otro nodo</h2>
+	 * este test registra la clave directamente en la tabla, como si la hubiera procesado otro
+	 * nodo, y verifica que el reintento devuelva ese movimiento sin crear otro.
+	 */
+	@Test
+	void testKeyStoredByAnotherNodeShouldReturnStoredMovement() {
+
+		Long cuentaId = crearCuenta();
+		Movimiento original = movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId));
+		idempotencyKeyRepository.save(new ClaveIdempotencia("otro-nodo-1", original.getMovimientoId(), cuentaId,
+				ClaveIdempotencia.huella(nuevoMovimiento(cuentaId))));
+
+		Movimiento reintento = movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId), "otro-nodo-1");
+
+		Assertions.assertEquals(original.getMovimientoId(), reintento.getMovimientoId());
+		Assertions.assertEquals(1, movementRepository.findByCuentaCuentaId(cuentaId).size());
+		Assertions.assertEquals(500L, cuentaServiceImp.readAccountBalance(cuentaId));
+	}
+
+	/**
+	 * <h2>test de clave usada con otra cuenta</h2>
+	 * este test verifica que un reintento con la misma clave pero sobre otra cuenta se
+	 * rechace sin registrar un movimiento en esa cuenta.
+	 */
+	@Test
+	void testKeyReusedForAnotherAccountShouldBeRejected() {
+
+		Long cuentaId = crearCuenta();
+		Long otraCuentaId = crearCuenta();
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId), "liquidacion-43");
+
+		Assertions.assertThrows(InvalidIdempotencyKeyException.class,
+				() -> movimientoServiceImp.createMovement(nuevoMovimiento(otraCuentaId), "liquidacion-43"));
+		Assertions.assertEquals(0, movementRepository.findByCuentaCuentaId(otraCuentaId).size());
+		Assertions.assertEquals(0L, cuentaServiceImp.readAccountBalance(otraCuentaId));
+	}
+
+	/**
+	 * <h2>test de la purga de claves vencidas</h2>
+	 * este test verifica que la purga borre las claves registradas antes de idempotencia.ttl
+	 * y conserve las recientes.
+	 */
+	@Test
+	void testPurgeShouldDeleteOnlyExpiredKeys() {
+
+		Long cuentaId = crearCuenta();
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId), "reciente-1");
+		ClaveIdempotencia vencida = new ClaveIdempotencia("vencida-1", 1L, cuentaId, "huella");
+		ReflectionTestUtils.setField(vencida, "fechaCreacion", LocalDateTime.now().minusDays(2));
+		idempotencyKeyRepository.save(vencida);
+
+		Assertions.assertEquals(1, movimientoServiceImp.purgeExpiredIdempotencyKeys());
+		Assertions.assertTrue(idempotencyKeyRepository.existsById("reciente-1"));
+		Assertions.assertFalse(idempotencyKeyRepository.existsById("vencida-1"));
+	}
+
+	private Long crearCuenta() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo("credito");
+		movimiento.setValor(500L);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
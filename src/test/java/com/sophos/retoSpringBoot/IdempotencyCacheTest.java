@@ -0,0 +1,86 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.util.IdempotencyCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * <h1>Test de la clase IdempotencyCache</h1>
+ * En esta clase se verifica que la tabla en memoria respete la capacidad maxima
+ * y el tiempo de expiracion de las claves.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class IdempotencyCacheTest {
+
+	/**
+	 * <h2>test de expiracion</h2>
+	 * este test verifica que una clave deje de responderse cuando vence.
+	 */
+	@Test
+	void testExpiredKeyShouldReturnNull() {
+
+		RelojManual reloj = new RelojManual();
+		IdempotencyCache<String> cache = new IdempotencyCache<>(10, Duration.ofMinutes(5), reloj);
+
+		cache.put("clave", "respuesta");
+		reloj.avanzar(Duration.ofMinutes(4));
+		Assertions.assertEquals("respuesta", cache.get("clave"));
+
+		reloj.avanzar(Duration.ofMinutes(1));
+		Assertions.assertNull(cache.get("clave"));
+		Assertions.assertEquals(0, cache.size());
+	}
+
+	/**
+	 * <h2>test de capacidad</h2>
+	 * este test verifica que al superar la capacidad se descarte la clave usada hace mas tiempo.
+	 */
+	@Test
+	void testFullCacheShouldEvictLeastRecentlyUsedKey() {
+
+		IdempotencyCache<String> cache = new IdempotencyCache<>(2, Duration.ofMinutes(5), Clock.systemUTC());
+
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertEquals("1", cache.get("a"));
+		Assertions.assertNull(cache.get("b"));
+		Assertions.assertEquals("3", cache.get("c"));
+	}
+
+	private static class RelojManual extends Clock {
+
+		private Instant ahora = Instant.parse("2022-10-01T00:00:00Z");
+
+		void avanzar(Duration duracion) {
+			ahora = ahora.plus(duracion);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return ahora;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.sophos.retoSpringBoot;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.suite.api.Suite;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import com.sophos.retoSpringBoot.controller.ImportacionController;
+import com.sophos.retoSpringBoot.dto.EstadoImportacion;
+import com.sophos.retoSpringBoot.dto.SolicitudImportacion;
+import com.sophos.retoSpringBoot.entity.Importacion;
+import com.sophos.retoSpringBoot.service.ImportacionService;
+
+/**
+ * <h1>Test de la clase ImportacionController</h1>
+ * En esta clase se realizan los tests correspondientes para verificar el
+ * correcto funcionamiento de cada uno de los metodos definidos en el controlador
+ * de importacion.
+ *  
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ *
+ */
+@ExtendWith(MockitoExtension.class)
+@Suite
+public class ImportacionControllerTest {
+	
+	@InjectMocks
+	ImportacionController importacionController;
+	
+	@Mock
+	private ImportacionService importacionService;
+	
+	ResponseEntity<EstadoImportacion> responseEntityImport;
+	
+	/**
+	 * <h2>test del metodo startImport</h2>
+	 * este test verifica que al iniciar una importacion retorne el estado 202 Accepted.
+	 * @throws Exception
+	 */
+	@Test
+	void testStartImportShouldReturnStatusAccepted() throws Exception {
+		
+		SolicitudImportacion solicitud = new SolicitudImportacion("cierre.csv", "csv");
+		EstadoImportacion estado = new EstadoImportacion(1L, "cierre.csv", Importacion.EN_CURSO, 0, 0, 0, 0, null);
+		when(importacionService.startImport(solicitud)).thenReturn(estado);
+		
+		responseEntityImport = importacionController.startImport(solicitud);
+		
+		assertEquals(responseEntityImport.getStatusCodeValue(), 202);
+		assertEquals(responseEntityImport.getBody(), estado);
+	}
+	
+	/**
+	 * <h2>test del metodo readImportStatus</h2>
+	 * este test verifica que al consultar una importacion retorne el estado 200 OK con su avance.
+	 * @throws Exception
+	 */
+	@Test
+	void testReadImportStatusShouldReturnStatusOk() throws Exception {
+		
+		EstadoImportacion estado = new EstadoImportacion(1L, "cierre.csv", Importacion.COMPLETADA, 3, 3000, 3000, 5000.0, null);
+		when(importacionService.readImportStatus(1L)).thenReturn(estado);
+		
+		responseEntityImport = importacionController.readImportStatus(1L);
+		
+		assertEquals(responseEntityImport.getStatusCodeValue(), 200);
+		assertEquals(responseEntityImport.getBody().filasConfirmadas(), 3000);
+	}
+	
+	/**
+	 * <h2>test del metodo resumeImport</h2>
+	 * este test verifica que al reanudar una importacion retorne el estado 202 Accepted.
+	 * @throws Exception
+	 */
+	@Test
+	void testResumeImportShouldReturnStatusAccepted() throws Exception {
+		
+		EstadoImportacion estado = new EstadoImportacion(1L, "cierre.csv", Importacion.EN_CURSO, 2, 2000, 0, 0, null);
+		when(importacionService.resumeImport(1L)).thenReturn(estado);
+		
+		responseEntityImport = importacionController.resumeImport(1L);
+		
+		assertEquals(responseEntityImport.getStatusCodeValue(), 202);
+		assertEquals(responseEntityImport.getBody().lotesConfirmados(), 2);
+	}
+}
@@ -0,0 +1,175 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.EstadoImportacion;
+import com.sophos.retoSpringBoot.dto.SolicitudImportacion;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Importacion;
+import com.sophos.retoSpringBoot.exceptions.InvalidImportException;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.ImportRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.ImportacionServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * <h1>Test de la importacion de archivos de movimientos</h1>
+ * En esta clase se verifica, contra la base de datos, que un archivo se importe completo
+ * en lotes, que una importacion que falla en medio del archivo conserve los lotes ya
+ * confirmados y que al reanudarla no se repita ninguna fila.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class ImportacionTest {
+
+	@Autowired
+	ImportacionServiceImp importacionServiceImp;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	ImportRepository importRepository;
+
+	@Value("${importacion.directorio}")
+	String directorio;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+		importRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de un archivo CSV completo</h2>
+	 * importa 1050 filas repartidas en tres cuentas, en lotes de 100.
+	 */
+	@Test
+	void testImportCsvShouldInsertAllRowsInChunks() throws Exception {
+
+		List<Long> cuentas = List.of(crearCuenta(), crearCuenta(), crearCuenta());
+		Path archivo = archivo("cierre.csv");
+		try (BufferedWriter escritura = Files.newBufferedWriter(archivo)) {
+			escritura.write("cuentaId,tipo,valor,periodo\n");
+			for(int i = 0; i < 1050; i++) {
+				escritura.write(cuentas.get(i % 3) + "," + (i % 5 == 0 ? "retiro" : "credito") + ",10,2022-09\n");
+			}
+		}
+
+		EstadoImportacion estado = esperar(importacionServiceImp.startImport(new SolicitudImportacion("cierre.csv", null)).importacionId());
+
+		Assertions.assertEquals(Importacion.COMPLETADA, estado.estado(), estado.error());
+		Assertions.assertEquals(11, estado.lotesConfirmados());
+		Assertions.assertEquals(1050, estado.filasConfirmadas());
+		Assertions.assertEquals(1050, movementRepository.count());
+		for(Long cuentaId : cuentas) {
+			Assertions.assertEquals(cuentaServiceImp.recalculateBalance(cuentaId), cuentaServiceImp.readAccountBalance(cuentaId));
+		}
+	}
+
+	/**
+	 * <h2>test de reanudacion</h2>
+	 * la linea 250 del archivo no es valida: se confirman los dos primeros lotes y la
+	 * importacion falla; al corregir la linea y reanudar se importa el resto una sola vez.
+	 */
+	@Test
+	void testResumeShouldContinueAfterLastCommittedChunk() throws Exception {
+
+		Long cuentaId = crearCuenta();
+		Path archivo = archivo("cierre.ndjson");
+		escribirNdjson(archivo, cuentaId, 250);
+
+		Long importacionId = importacionServiceImp.startImport(new SolicitudImportacion("cierre.ndjson", null)).importacionId();
+		EstadoImportacion fallida = esperar(importacionId);
+
+		Assertions.assertEquals(Importacion.FALLIDA, fallida.estado());
+		Assertions.assertTrue(fallida.error().startsWith("linea 250"), fallida.error());
+		Assertions.assertEquals(2, fallida.lotesConfirmados());
+		Assertions.assertEquals(200, movementRepository.count());
+
+		escribirNdjson(archivo, cuentaId, -1);
+		EstadoImportacion completada = esperar(importacionServiceImp.resumeImport(importacionId).importacionId());
+
+		Assertions.assertEquals(Importacion.COMPLETADA, completada.estado(), completada.error());
+		Assertions.assertEquals(420, completada.filasConfirmadas());
+		Assertions.assertEquals(420, movementRepository.count());
+		Assertions.assertEquals(4200L, cuentaServiceImp.readAccountBalance(cuentaId));
+	}
+
+	/**
+	 * <h2>test de una ruta fuera del directorio de importaciones</h2>
+	 */
+	@Test
+	void testPathOutsideImportDirectoryShouldReturnException() {
+
+		Assertions.assertThrows(InvalidImportException.class,
+				() -> importacionServiceImp.startImport(new SolicitudImportacion("../application.properties", "csv")));
+		Assertions.assertEquals(0, importRepository.count());
+	}
+
+	private EstadoImportacion esperar(Long importacionId) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 30_000;
+		EstadoImportacion estado = importacionServiceImp.readImportStatus(importacionId);
+		while(Importacion.EN_CURSO.equals(estado.estado()) && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+			estado = importacionServiceImp.readImportStatus(importacionId);
+		}
+		return estado;
+	}
+
+	private Path archivo(String nombre) throws IOException {
+		Path base = Files.createDirectories(Paths.get(directorio));
+		return base.resolve(nombre);
+	}
+
+	private static void escribirNdjson(Path archivo, Long cuentaId, int lineaInvalida) throws IOException {
+		try (BufferedWriter escritura = Files.newBufferedWriter(archivo)) {
+			for(int linea = 1; linea <= 420; linea++) {
+				escritura.write(linea == lineaInvalida
+						? "{\"cuentaId\":" + cuentaId + ",\"tipo\":\"credito\",\"valor\":\"diez\"}\n"
+						: "{\"cuentaId\":" + cuentaId + ",\"tipo\":\"credito\",\"valor\":10}\n");
+			}
+		}
+	}
+
+	private Long crearCuenta() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+}
@@ -0,0 +1,126 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark de insercion de clientes y cuentas</h1>
+ * Mide las filas por segundo al crear clientes y cuentas, una por transaccion desde varios
+ * hilos y en un solo saveAll, para comparar la asignacion de ids por IDENTITY con la
+ * asignacion por bloques. Se ejecuta con mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class InsercionBenchmarkTest {
+
+	private static final int HILOS = 16;
+
+	private static final int INSERCIONES_POR_HILO = 250;
+
+	private static final int CANTIDAD_LOTE = 4_000;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>benchmark de inserciones concurrentes</h2>
+	 * cada hilo crea clientes con una cuenta, una fila por transaccion.
+	 */
+	@Test
+	void benchmarkConcurrentInserts() throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		try {
+			long inicio = System.nanoTime();
+			List<Future<?>> tareas = new ArrayList<>();
+			for(int i = 0; i < HILOS; i++) {
+				tareas.add(executor.submit(() -> {
+					for(int j = 0; j < INSERCIONES_POR_HILO; j++) {
+						Cliente cliente = clientRepository.save(nuevoCliente());
+						accountRepository.save(nuevaCuenta(cliente));
+					}
+				}));
+			}
+			for(Future<?> tarea : tareas) {
+				tarea.get(5, TimeUnit.MINUTES);
+			}
+			long filas = 2L * HILOS * INSERCIONES_POR_HILO;
+			System.out.printf("insercion concurrente: %d hilos, %.0f filas/s%n", HILOS, filas / ((System.nanoTime() - inicio) / 1e9));
+		} finally {
+			executor.shutdownNow();
+		}
+		Assertions.assertEquals(HILOS * INSERCIONES_POR_HILO, accountRepository.count());
+	}
+
+	/**
+	 * <h2>benchmark de insercion en un solo saveAll</h2>
+	 * crea todos los clientes y luego todas las cuentas, cada grupo en una transaccion.
+	 */
+	@Test
+	void benchmarkSaveAll() {
+
+		List<Cliente> clientes = new ArrayList<>();
+		for(int i = 0; i < CANTIDAD_LOTE; i++) {
+			clientes.add(nuevoCliente());
+		}
+		long inicio = System.nanoTime();
+		clientes = clientRepository.saveAll(clientes);
+		List<Cuenta> cuentas = new ArrayList<>();
+		for(Cliente cliente : clientes) {
+			cuentas.add(nuevaCuenta(cliente));
+		}
+		accountRepository.saveAll(cuentas);
+		System.out.printf("insercion con saveAll: %.0f filas/s%n", 2.0 * CANTIDAD_LOTE / ((System.nanoTime() - inicio) / 1e9));
+		Assertions.assertEquals(CANTIDAD_LOTE, accountRepository.count());
+	}
+
+	private static Cliente nuevoCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return cliente;
+	}
+
+	private static Cuenta nuevaCuenta(Cliente cliente) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setSaldo(0L);
+		cuenta.setCliente(cliente);
+		return cuenta;
+	}
+}
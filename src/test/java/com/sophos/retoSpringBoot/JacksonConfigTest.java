@@ -0,0 +1,58 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * <h1>Test de la configuracion de Jackson</h1>
+ * En esta clase se verifica que el ObjectMapper de Spring MVC tenga los modulos de
+ * JacksonConfig y que produzca exactamente el mismo JSON que la configuracion por defecto.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class JacksonConfigTest {
+
+	@Autowired
+	MappingJackson2HttpMessageConverter converter;
+
+	/**
+	 * <h2>test del ObjectMapper de Spring MVC</h2>
+	 * el convertidor de MVC usa el ObjectMapper con Blackbird registrado.
+	 */
+	@Test
+	void testMvcConverterShouldUseOptimizedMapper() {
+
+		Assertions.assertTrue(converter.getObjectMapper().getRegisteredModuleIds().contains(new BlackbirdModule().getTypeId()));
+	}
+
+	/**
+	 * <h2>test del JSON producido</h2>
+	 * las respuestas y las fechas, incluidas las de anios fuera de 0-9999, se escriben igual que con la configuracion por defecto.
+	 */
+	@Test
+	void testOptimizedMapperShouldWriteSameJson() throws Exception {
+
+		ObjectMapper base = SerializacionBenchmarkTest.mapper().build();
+		ObjectMapper optimizado = converter.getObjectMapper();
+
+		for(String carga : new String[] {"detalle", "pagina", "movimientos"}) {
+			Object respuesta = SerializacionBenchmarkTest.respuesta(carga);
+			Assertions.assertEquals(base.writeValueAsString(respuesta), optimizado.writeValueAsString(respuesta), carga);
+		}
+		Map<String, LocalDate> fechas = Map.of("a", LocalDate.of(7, 2, 3), "b", LocalDate.of(12345, 12, 31),
+				"c", LocalDate.of(-44, 3, 15), "d", LocalDate.of(2022, 10, 9));
+		Assertions.assertEquals(base.writeValueAsString(fechas), optimizado.writeValueAsString(fechas));
+		Assertions.assertEquals("\"0007-02-03\"", optimizado.writeValueAsString(LocalDate.of(7, 2, 3)));
+	}
+}
@@ -0,0 +1,118 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Benchmark de la insercion de movimientos por lotes</h1>
+ * Compara las filas por segundo al registrar los mismos movimientos uno a uno con
+ * createMovement y todos juntos con createMovements. Se ejecuta con mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class LoteMovimientosBenchmarkTest {
+
+	private static final int CANTIDAD_CUENTAS = 20;
+
+	private static final int CANTIDAD = 5_000;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>benchmark uno a uno contra lote</h2>
+	 * registra la misma cantidad de movimientos por ambos caminos e imprime las filas por segundo.
+	 */
+	@Test
+	void benchmarkSingleInsertsVersusBatch() {
+
+		List<Long> cuentas = crearCuentas();
+
+		long inicio = System.nanoTime();
+		for(Movimiento movimiento : nuevosMovimientos(cuentas)) {
+			movimientoServiceImp.createMovement(movimiento);
+		}
+		double unoAUno = CANTIDAD / ((System.nanoTime() - inicio) / 1e9);
+
+		inicio = System.nanoTime();
+		movimientoServiceImp.createMovements(nuevosMovimientos(cuentas));
+		double lote = CANTIDAD / ((System.nanoTime() - inicio) / 1e9);
+
+		System.out.printf("movimientos: %d, uno a uno: %.0f filas/s, lote: %.0f filas/s (x%.1f)%n",
+				CANTIDAD, unoAUno, lote, lote / unoAUno);
+		Assertions.assertEquals(2L * CANTIDAD, movementRepository.count());
+		for(Long cuentaId : cuentas) {
+			Assertions.assertEquals(cuentaServiceImp.recalculateBalance(cuentaId), cuentaServiceImp.readAccountBalance(cuentaId));
+		}
+	}
+
+	private List<Long> crearCuentas() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		List<Long> cuentas = new ArrayList<>();
+		for(int i = 0; i < CANTIDAD_CUENTAS; i++) {
+			Cuenta cuenta = new Cuenta();
+			cuenta.setProducto("ahorros");
+			cuenta.setCliente(cliente);
+			cuentas.add(cuentaServiceImp.createAccount(cuenta).getCuentaId());
+		}
+		return cuentas;
+	}
+
+	private static List<Movimiento> nuevosMovimientos(List<Long> cuentas) {
+		List<Movimiento> movimientos = new ArrayList<>(CANTIDAD);
+		for(int i = 0; i < CANTIDAD; i++) {
+			Cuenta cuenta = new Cuenta();
+			cuenta.setCuentaId(cuentas.get(i % cuentas.size()));
+			Movimiento movimiento = new Movimiento();
+			movimiento.setCuenta(cuenta);
+			movimiento.setTipo("credito");
+			movimiento.setValor(10L);
+			movimiento.setEstado("activo");
+			movimientos.add(movimiento);
+		}
+		return movimientos;
+	}
+}
@@ -0,0 +1,139 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Test de la insercion de movimientos por lotes</h1>
+ * En esta clase se verifica, contra la base de datos, que un lote de movimientos se
+ * inserte con lotes JDBC (pocas sentencias preparadas en lugar de una por fila), que el
+ * saldo de cada cuenta quede al dia y que un lote con una cuenta inexistente no deje
+ * nada registrado.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class LoteMovimientosTest {
+
+	private static final int CANTIDAD = 120;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test del lote con lotes JDBC</h2>
+	 * este test inserta 120 movimientos repartidos en dos cuentas y verifica que se usen
+	 * pocas sentencias, que todos queden registrados y que los saldos cuadren.
+	 */
+	@Test
+	void testCreateMovementsShouldUseJdbcBatches() {
+
+		Long cuentaA = crearCuenta();
+		Long cuentaB = crearCuenta();
+		List<Movimiento> lote = new ArrayList<>();
+		for(int i = 0; i < CANTIDAD; i++) {
+			lote.add(nuevoMovimiento(i % 2 == 0 ? cuentaA : cuentaB, i % 3 == 0 ? "retiro" : "credito", 10L));
+		}
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		estadisticas.clear();
+		try {
+			List<Movimiento> creados = movimientoServiceImp.createMovements(lote);
+
+			Assertions.assertEquals(CANTIDAD, creados.size());
+			Assertions.assertEquals(CANTIDAD, estadisticas.getEntityInsertCount());
+			Assertions.assertTrue(estadisticas.getPrepareStatementCount() < 20,
+					"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+
+		Assertions.assertEquals(CANTIDAD / 2, movementRepository.findByCuentaCuentaId(cuentaA).size());
+		Assertions.assertEquals(CANTIDAD / 2, movementRepository.findByCuentaCuentaId(cuentaB).size());
+		Assertions.assertEquals(cuentaServiceImp.recalculateBalance(cuentaA), cuentaServiceImp.readAccountBalance(cuentaA));
+		Assertions.assertEquals(200L, cuentaServiceImp.readAccountBalance(cuentaA));
+		Assertions.assertEquals(200L, cuentaServiceImp.readAccountBalance(cuentaB));
+	}
+
+	/**
+	 * <h2>test del lote con cuenta inexistente</h2>
+	 * este test verifica que un lote con una cuenta que no existe se rechace completo.
+	 */
+	@Test
+	void testCreateMovementsWithMissingAccountShouldInsertNothing() {
+
+		Long cuentaId = crearCuenta();
+		List<Movimiento> lote = List.of(nuevoMovimiento(cuentaId, "credito", 10L), nuevoMovimiento(cuentaId + 1000, "credito", 10L));
+
+		Assertions.assertThrows(AccountNotFoundException.class, () -> movimientoServiceImp.createMovements(lote));
+		Assertions.assertEquals(0, movementRepository.count());
+		Assertions.assertEquals(0L, cuentaServiceImp.readAccountBalance(cuentaId));
+	}
+
+	private Long crearCuenta() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
@@ -0,0 +1,73 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <h1>Test de las metricas</h1>
+ * En esta clase se verifica que /actuator/prometheus publique las peticiones HTTP y las
+ * llamadas a los servicios etiquetadas por resultado y excepcion, junto con las metricas
+ * de los repositorios, del pool de conexiones y de Hibernate.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricasTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@AfterEach
+	void cleanUp() {
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test del endpoint de Prometheus</h2>
+	 * una lectura exitosa y una de un cliente inexistente quedan en las metricas HTTP y de
+	 * servicios con su resultado; la excepcion de negocio aparece en ambas.
+	 */
+	@Test
+	void testPrometheusShouldExposeOutcomesAndPoolMetrics() throws Exception {
+
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		Long clienteId = clientRepository.save(cliente).getClienteId();
+
+		mockMvc.perform(get("/api/cliente/" + clienteId)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/cliente/" + (clienteId + 1_000))).andExpect(status().isNotFound());
+
+		String metricas = mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		Assertions.assertTrue(metricas.contains("http_server_requests_seconds_count{exception=\"ClientNotFound\",method=\"GET\",outcome=\"CLIENT_ERROR\",status=\"404\",uri=\"/api/cliente/{clienteId}\",}"), metricas);
+		Assertions.assertTrue(metricas.contains("http_server_requests_seconds_count{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/cliente/{clienteId}\",}"));
+		Assertions.assertTrue(metricas.contains("service_calls_seconds_count{class=\"ClienteServiceImp\",exception=\"none\",method=\"readClient\",outcome=\"SUCCESS\",}"));
+		Assertions.assertTrue(metricas.contains("service_calls_seconds_count{class=\"ClienteServiceImp\",exception=\"ClientNotFound\",method=\"readClient\",outcome=\"ERROR\",}"));
+		Assertions.assertTrue(metricas.contains("spring_data_repository_invocations_seconds_count{"));
+		Assertions.assertTrue(metricas.contains("hikaricp_connections_pending{"));
+		Assertions.assertTrue(metricas.contains("hibernate_statements_total{"));
+	}
+}
@@ -0,0 +1,85 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.InvalidImportException;
+import com.sophos.retoSpringBoot.util.MovementRowParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>Test de la clase MovementRowParser</h1>
+ * En esta clase se verifica la conversion y validacion de las lineas de los archivos
+ * de importacion en CSV y NDJSON.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+public class MovementRowParserTest {
+
+	/**
+	 * <h2>test de una linea CSV</h2>
+	 * las columnas se toman por el nombre de la cabecera, en cualquier orden.
+	 */
+	@Test
+	void testCsvLineShouldReturnMovement() {
+
+		MovementRowParser parser = MovementRowParser.csv("valor,cuentaId,tipo,periodo,fechaMovimiento");
+
+		Movimiento movimiento = parser.parse(2, "1500, 7 ,credito,2022-09,2022-09-15");
+
+		Assertions.assertEquals(7L, movimiento.getCuenta().getCuentaId());
+		Assertions.assertEquals("credito", movimiento.getTipo());
+		Assertions.assertEquals(1500L, movimiento.getValor());
+		Assertions.assertEquals("activo", movimiento.getEstado());
+		Assertions.assertEquals("2022-09", movimiento.getPeriodo());
+		Assertions.assertEquals(LocalDate.of(2022, 9, 15), movimiento.getFechaMovimiento());
+	}
+
+	/**
+	 * <h2>test de una linea NDJSON</h2>
+	 * acepta valores numericos o de texto en el objeto JSON.
+	 */
+	@Test
+	void testNdjsonLineShouldReturnMovement() {
+
+		Movimiento movimiento = MovementRowParser.ndjson().parse(1, "{\"cuentaId\":3,\"tipo\":\"retiro\",\"valor\":\"200\",\"estado\":\"inactivo\"}");
+
+		Assertions.assertEquals(3L, movimiento.getCuenta().getCuentaId());
+		Assertions.assertEquals("retiro", movimiento.getTipo());
+		Assertions.assertEquals(200L, movimiento.getValor());
+		Assertions.assertEquals("inactivo", movimiento.getEstado());
+	}
+
+	/**
+	 * <h2>test de lineas invalidas</h2>
+	 * el mensaje de error indica el numero de linea.
+	 */
+	@Test
+	void testInvalidLinesShouldReturnExceptionWithLineNumber() {
+
+		MovementRowParser parser = MovementRowParser.csv("cuentaId,tipo,valor");
+
+		InvalidImportException valor = Assertions.assertThrows(InvalidImportException.class, () -> parser.parse(41, "1,credito,abc"));
+		Assertions.assertTrue(valor.getMessage().startsWith("linea 41"));
+		Assertions.assertThrows(InvalidImportException.class, () -> parser.parse(42, "1,credito,-5"));
+		Assertions.assertThrows(InvalidImportException.class, () -> parser.parse(43, "1,credito"));
+		Assertions.assertThrows(InvalidImportException.class, () -> MovementRowParser.ndjson().parse(44, "{\"cuentaId\":1,"));
+		Assertions.assertThrows(InvalidImportException.class, () -> MovementRowParser.csv("cuentaId,valor"));
+	}
+
+	/**
+	 * <h2>test del formato del archivo</h2>
+	 * si no se envia el formato se toma de la extension.
+	 */
+	@Test
+	void testFormatShouldFallBackToExtension() {
+
+		Assertions.assertEquals("csv", MovementRowParser.formato(null, "cierre/2022-09-30.CSV"));
+		Assertions.assertEquals("ndjson", MovementRowParser.formato("", "cierre.jsonl"));
+		Assertions.assertEquals("ndjson", MovementRowParser.formato("NDJSON", "cierre.txt"));
+		Assertions.assertThrows(InvalidImportException.class, () -> MovementRowParser.formato(null, "cierre.txt"));
+	}
+}
@@ -5,8 +5,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,8 +20,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.sophos.retoSpringBoot.controller.MovimientoController;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.Transferencia;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.entity.Movimiento;
 import com.sophos.retoSpringBoot.service.MovimientoService;
@@ -44,8 +51,8 @@ public class MovimientoControllerTest {
 	@Mock
 	private  MovimientoService movimientoService;	
 	
-	ResponseEntity<Movimiento> responseEntityMovement;
-	ResponseEntity<List<Movimiento>> responseEntityListMovement;
+	ResponseEntity<MovimientoRespuesta> responseEntityMovement;
+	ResponseEntity<List<MovimientoRespuesta>> responseEntityListMovement;
 	
 	
 	/**
@@ -67,7 +74,7 @@ public class MovimientoControllerTest {
 		responseEntityMovement = movimientoController.readMovement(movimiento.getMovimientoId());
 		
 		assertEquals(responseEntityMovement.getStatusCodeValue(), 200);
-		assertEquals(responseEntityMovement.getBody().getEstado(), "activo");
+		assertEquals(responseEntityMovement.getBody().estado(), "activo");
 		
 	}
 	
@@ -107,17 +114,39 @@ public class MovimientoControllerTest {
 		
 		Movimiento movimiento = new Movimiento();
 		
-		List<Movimiento> ListaMovimientos = new ArrayList<>();
+		List<MovimientoRespuesta> ListaMovimientos = new ArrayList<>();
 		
-		ListaMovimientos.add(movimiento);
+		ListaMovimientos.add(MovimientoRespuesta.de(movimiento));
 				
-		when(movimientoService.readMovementsByAccount(cuenta.getCuentaId())).thenReturn(ListaMovimientos);
+		when(movimientoService.readMovementsPage(cuenta.getCuentaId(), null, null, null, null)).thenReturn(new Pagina<>(ListaMovimientos, null));
 		
-		responseEntityListMovement = movimientoController.readMovementsByAccount(cuenta.getCuentaId());
+		responseEntityListMovement = movimientoController.readMovementsByAccount(cuenta.getCuentaId(), null);
 		
 		assertEquals(responseEntityListMovement.getStatusCodeValue(), 200);
 		assertEquals(responseEntityListMovement.getBody(), ListaMovimientos);
 		assertEquals(responseEntityListMovement.getBody().size(), 1);
+		assertFalse(responseEntityListMovement.getHeaders().containsKey("X-Siguiente-Cursor"));
+		
+	} 
+	
+	/**
+	 * <h2>test readMovementsByAccount con mas movimientos</h2>
+	 * este test verifica que si la cuenta tiene mas movimientos que el tamano pedido, la lista
+	 * traiga solo la primera pagina y el cursor para seguir en el encabezado X-Siguiente-Cursor.
+	 * @throws Exception
+	 */
+	@Test
+	void testReadMovementsByAccountWithMoreMovementsShouldReturnCursorHeader() throws Exception {
+		
+		List<MovimientoRespuesta> ListaMovimientos = List.of(MovimientoRespuesta.de(new Movimiento()));
+				
+		when(movimientoService.readMovementsPage(1L, null, null, 1, null)).thenReturn(new Pagina<>(ListaMovimientos, "cursor"));
+		
+		responseEntityListMovement = movimientoController.readMovementsByAccount(1L, 1);
+		
+		assertEquals(responseEntityListMovement.getStatusCodeValue(), 200);
+		assertEquals(responseEntityListMovement.getBody().size(), 1);
+		assertEquals(responseEntityListMovement.getHeaders().getFirst("X-Siguiente-Cursor"), "cursor");
 		
 	} 
 	
@@ -133,15 +162,41 @@ public class MovimientoControllerTest {
 		Cuenta cuenta = new Cuenta();
 		cuenta.setCuentaId(1L);	
 				
-		when(movimientoService.readMovementsByAccount(cuenta.getCuentaId())).thenReturn(null);
+		when(movimientoService.readMovementsPage(cuenta.getCuentaId(), null, null, null, null)).thenReturn(null);
 		
-		responseEntityListMovement = movimientoController.readMovementsByAccount(cuenta.getCuentaId());
+		responseEntityListMovement = movimientoController.readMovementsByAccount(cuenta.getCuentaId(), null);
 		
 		assertEquals(responseEntityListMovement.getStatusCodeValue(), 404);
 		assertNull(responseEntityListMovement.getBody());
 		
 	} 
 	
+	/**
+	 * <h2>test del metodo readMovementsPage</h2>
+	 * este test verifica que al momento de consultar una pagina del historial de una cuenta,
+	 * retorne el estado OK con la pagina.
+	 * @throws Exception
+	 */
+	@Test
+	void testReadMovementsPageShouldReturnStatusOk() throws Exception {
+		
+		Movimiento movimiento = new Movimiento();
+		
+		List<MovimientoRespuesta> ListaMovimientos = new ArrayList<>();
+		
+		ListaMovimientos.add(MovimientoRespuesta.de(movimiento));
+		
+		Pagina<MovimientoRespuesta> pagina = new Pagina<>(ListaMovimientos, "cursor");
+				
+		when(movimientoService.readMovementsPage(1L, null, null, 10, null)).thenReturn(pagina);
+		
+		ResponseEntity<Pagina<MovimientoRespuesta>> responseEntityPageMovement = movimientoController.readMovementsPage(1L, null, null, 10, null);
+		
+		assertEquals(responseEntityPageMovement.getStatusCodeValue(), 200);
+		assertEquals(responseEntityPageMovement.getBody(), pagina);
+		
+	} 
+	
 	/**
 	 * <h2>test del metodo createMovement</h2>
 	 * este test verifica que al momento de crear un movimiento exitosamente,
@@ -155,15 +210,97 @@ public class MovimientoControllerTest {
 		movimiento.setMovimientoId(1L);
 		movimiento.setEstado("activo");
 		
-		when(movimientoService.createMovement(any(Movimiento.class))).thenReturn(movimiento);
+		when(movimientoService.createMovement(any(Movimiento.class), any())).thenReturn(movimiento);
 		
-		responseEntityMovement = movimientoController.createMovement(movimiento);
+		responseEntityMovement = movimientoController.createMovement(movimiento, null);
 		
 		assertEquals(responseEntityMovement.getStatusCodeValue(), 201);
-		assertEquals(responseEntityMovement.getBody().getEstado(), "activo");
+		assertEquals(responseEntityMovement.getBody().estado(), "activo");
 			
 	}
 	
+	/**
+	 * <h2>test del metodo createMovement con Idempotency-Key</h2>
+	 * este test verifica que la clave del encabezado se pase al servicio.
+	 * @throws Exception
+	 */
+	@Test
+	void testCreateMovementWithIdempotencyKeyShouldPassKey() throws Exception {
+		
+		Movimiento movimiento = new Movimiento();
+		movimiento.setMovimientoId(1L);
+		
+		when(movimientoService.createMovement(movimiento, "pago-123")).thenReturn(movimiento);
+		
+		responseEntityMovement = movimientoController.createMovement(movimiento, "pago-123");
+		
+		assertEquals(responseEntityMovement.getStatusCodeValue(), 201);
+		assertEquals(responseEntityMovement.getBody().movimientoId(), Long.valueOf(1L));
+	}
+	
+	/**
+	 * <h2>test del metodo transfer</h2>
+	 * este test verifica que al momento de transferir entre dos cuentas exitosamente,
+	 * retorne el estado 201 Created con el debito y el credito.
+	 * @throws Exception
+	 */
+	@Test
+	void testTransferShouldReturnStatusCreated() throws Exception {
+		
+		Transferencia transferencia = new Transferencia(1L, 2L, 500L);
+		List<Movimiento> movimientos = new ArrayList<>();
+		movimientos.add(new Movimiento());
+		movimientos.add(new Movimiento());
+		
+		when(movimientoService.transfer(transferencia)).thenReturn(movimientos);
+		
+		ResponseEntity<List<MovimientoRespuesta>> responseEntityTransfer = movimientoController.transfer(transferencia);
+		
+		assertEquals(responseEntityTransfer.getStatusCodeValue(), 201);
+		assertEquals(responseEntityTransfer.getBody().size(), 2);
+	}
+	
+	/**
+	 * <h2>test del metodo createMovements</h2>
+	 * este test verifica que al momento de crear un lote de movimientos exitosamente,
+	 * retorne el estado 201 Created con los movimientos creados.
+	 * @throws Exception
+	 */
+	@Test
+	void testCreateMovementsShouldReturnStatusCreated() throws Exception {
+		
+		List<Movimiento> movimientos = new ArrayList<>();
+		movimientos.add(new Movimiento());
+		movimientos.add(new Movimiento());
+		
+		when(movimientoService.createMovements(movimientos)).thenReturn(movimientos);
+		
+		ResponseEntity<List<MovimientoRespuesta>> responseEntityBatch = movimientoController.createMovements(movimientos);
+		
+		assertEquals(responseEntityBatch.getStatusCodeValue(), 201);
+		assertEquals(responseEntityBatch.getBody().size(), 2);
+	}
+	
+	/**
+	 * <h2>test del metodo exportMovements</h2>
+	 * este test verifica que la exportacion valide la cuenta antes de responder y que el
+	 * cuerpo escriba el historial al ser enviado.
+	 * @throws Exception
+	 */
+	@Test
+	void testExportMovementsShouldReturnStatusOkAndStreamBody() throws Exception {
+		
+		ResponseEntity<StreamingResponseBody> responseEntityExport = movimientoController.exportMovements(1L, false);
+		
+		verify(movimientoService).validateAccountExists(1L);
+		verify(movimientoService, never()).exportMovements(any(), any());
+		assertEquals(responseEntityExport.getStatusCodeValue(), 200);
+		assertEquals(responseEntityExport.getHeaders().getContentType().toString(), "application/x-ndjson");
+		
+		responseEntityExport.getBody().writeTo(new ByteArrayOutputStream());
+		verify(movimientoService).exportMovements(any(), any());
+	}
+	
 	/**
 	 * <h2>test del metodo createMovement Null</h2>
 	 * este test verifica que al momento de intentar crear un movimiento sin exito,
@@ -176,9 +313,9 @@ public class MovimientoControllerTest {
 		
 		Movimiento movimiento = new Movimiento();	
 		
-		when(movimientoService.createMovement(any(Movimiento.class))).thenReturn(null);
+		when(movimientoService.createMovement(any(Movimiento.class), any())).thenReturn(null);
 		
-		responseEntityMovement = movimientoController.createMovement(movimiento);
+		responseEntityMovement = movimientoController.createMovement(movimiento, null);
 		
 		assertEquals(responseEntityMovement.getStatusCodeValue(), 400);
 		assertNull(responseEntityMovement.getBody());
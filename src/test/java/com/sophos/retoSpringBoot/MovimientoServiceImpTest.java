@@ -3,32 +3,60 @@ package com.sophos.retoSpringBoot;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.Mockito.lenient;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.sophos.retoSpringBoot.dto.MovimientoIdempotente;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.dto.Transferencia;
+import com.sophos.retoSpringBoot.entity.ClaveIdempotencia;
 import com.sophos.retoSpringBoot.entity.Cuenta;
 import com.sophos.retoSpringBoot.entity.Movimiento;
 import com.sophos.retoSpringBoot.exceptions.AccountNotFoundException;
+import com.sophos.retoSpringBoot.exceptions.CodigoError;
+import com.sophos.retoSpringBoot.exceptions.InvalidIdempotencyKeyException;
+import com.sophos.retoSpringBoot.exceptions.InvalidTransferException;
 import com.sophos.retoSpringBoot.exceptions.MovementActiveStateException;
 import com.sophos.retoSpringBoot.exceptions.MovementNotFoundException;
 import com.sophos.retoSpringBoot.repository.AccountRepository;
 import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.IdempotencyKeyRepository;
 import com.sophos.retoSpringBoot.repository.MovementRepository;
 import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import com.sophos.retoSpringBoot.util.AccountLocks;
+import com.sophos.retoSpringBoot.util.CursorCodec;
+import com.sophos.retoSpringBoot.util.IdFilter;
+import com.sophos.retoSpringBoot.util.IdempotencyCache;
 
 /**
  * <h1>Test de la clase MovimientoServiceImp</h1>
@@ -54,6 +82,9 @@ public class MovimientoServiceImpTest {
 	@Mock
 	MovementRepository movementRepository;
 	
+	@Mock
+	IdempotencyKeyRepository idempotencyKeyRepository;
+	
 	@Autowired
 	@InjectMocks
 	MovimientoServiceImp movimientoServiceImp;
@@ -67,6 +98,17 @@ public class MovimientoServiceImpTest {
         
     }
 	
+	/**
+	 * Asigna los bloqueos por cuenta y ejecuta las transacciones sin base de datos.
+	 */
+	@BeforeEach
+	public void setUpLocks() {
+		ReflectionTestUtils.setField(movimientoServiceImp, "accountLocks", new AccountLocks(16));
+		ReflectionTestUtils.setField(movimientoServiceImp, "transactionOperations", TransactionOperations.withoutTransaction());
+		ReflectionTestUtils.setField(movimientoServiceImp, "idempotencyCache", new IdempotencyCache<MovimientoIdempotente>(100, Duration.ofHours(1), Clock.systemUTC()));
+		ReflectionTestUtils.setField(movimientoServiceImp, "movementIdFilter", new IdFilter("movimientos", 100, 0.01));
+	}
+	
 	/**
 	 * <h2>test del metodo createMovement</h2>
 	 * con este test se valida que al momento de crear un movimiento asociado a una cuenta existente,
@@ -83,7 +125,12 @@ public class MovimientoServiceImpTest {
 		mockMovimiento.setFechaCreacion(LocalDate.now());
 		mockMovimiento.setUsuarioCreacion("wilsonp");
 		
-		Mockito.when(accountRepository.findById(mockMovimiento.getCuenta().getCuentaId())).thenReturn(Optional.of(mockCuenta));
+		mockMovimiento.setTipo("retiro");
+		mockMovimiento.setValor(500L);
+		mockMovimiento.setEstado("activo");
+		
+		Mockito.when(accountRepository.adjustBalance(mockCuenta.getCuentaId(), -500L)).thenReturn(1);
+		Mockito.when(accountRepository.getReferenceById(mockCuenta.getCuentaId())).thenReturn(mockCuenta);
 		Mockito.when(movementRepository.save(Mockito.any(Movimiento.class))).thenReturn(mockMovimiento);
 		
 		
@@ -91,6 +138,7 @@ public class MovimientoServiceImpTest {
 			
 		
 		Assertions.assertEquals(mockMovimiento, movimiento);
+		Mockito.verify(accountRepository, Mockito.times(1)).adjustBalance(mockCuenta.getCuentaId(), -500L);
 	}
 	
 	/**
@@ -114,6 +162,249 @@ public class MovimientoServiceImpTest {
 				
 	}
 	
+	/**
+	 * <h2>test createMovement con clave repetida</h2>
+	 * este test valida que un reintento con la misma Idempotency-Key devuelva el movimiento
+	 * original desde memoria, sin volver a la base de datos.
+	 */
+	@Test
+	void testCreateMovementReplayShouldReturnOriginalWithoutWriting() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		Movimiento mockMovimiento = new Movimiento();
+		mockMovimiento.setCuenta(mockCuenta);
+		
+		Movimiento guardado = new Movimiento();
+		guardado.setMovimientoId(7L);
+		
+		Mockito.when(accountRepository.adjustBalance(1L, 0L)).thenReturn(1);
+		Mockito.when(accountRepository.getReferenceById(1L)).thenReturn(mockCuenta);
+		Mockito.when(movementRepository.save(mockMovimiento)).thenReturn(guardado);
+		
+		Movimiento primero = movimientoServiceImp.createMovement(mockMovimiento, "pago-1");
+		Movimiento solicitudRepetida = new Movimiento();
+		solicitudRepetida.setCuenta(mockCuenta);
+		Movimiento reintento = movimientoServiceImp.createMovement(solicitudRepetida, "pago-1");
+		
+		Assertions.assertSame(primero, reintento);
+		Mockito.verify(movementRepository, Mockito.times(1)).save(mockMovimiento);
+		Mockito.verify(idempotencyKeyRepository, Mockito.times(1)).saveAndFlush(Mockito.any(ClaveIdempotencia.class));
+		Mockito.verify(accountRepository, Mockito.times(1)).adjustBalance(1L, 0L);
+	}
+	
+	/**
+	 * <h2>test createMovement con clave repetida y otros datos</h2>
+	 * este test valida que un reintento con la misma Idempotency-Key pero con otra cuenta
+	 * u otro valor se rechace, en lugar de devolver el movimiento de la primera solicitud.
+	 */
+	@Test
+	void testCreateMovementReplayWithOtherDataShouldThrowInvalidIdempotencyKey() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		Movimiento mockMovimiento = new Movimiento();
+		mockMovimiento.setCuenta(mockCuenta);
+		mockMovimiento.setValor(100L);
+		
+		Mockito.when(accountRepository.adjustBalance(Mockito.eq(1L), Mockito.anyLong())).thenReturn(1);
+		Mockito.when(accountRepository.getReferenceById(1L)).thenReturn(mockCuenta);
+		Mockito.when(movementRepository.save(mockMovimiento)).thenReturn(mockMovimiento);
+		
+		movimientoServiceImp.createMovement(mockMovimiento, "pago-3");
+		
+		Cuenta otraCuenta = new Cuenta();
+		otraCuenta.setCuentaId(2L);
+		Movimiento otraCuentaMovimiento = new Movimiento();
+		otraCuentaMovimiento.setCuenta(otraCuenta);
+		otraCuentaMovimiento.setValor(100L);
+		Movimiento otroValor = new Movimiento();
+		otroValor.setCuenta(mockCuenta);
+		otroValor.setValor(900L);
+		
+		InvalidIdempotencyKeyException cuentaDistinta = assertThrows(InvalidIdempotencyKeyException.class,
+				()->movimientoServiceImp.createMovement(otraCuentaMovimiento, "pago-3"));
+		assertThrows(InvalidIdempotencyKeyException.class, ()->movimientoServiceImp.createMovement(otroValor, "pago-3"));
+		Assertions.assertEquals(CodigoError.CLAVE_IDEMPOTENCIA_REUTILIZADA, cuentaDistinta.getCodigo());
+		Mockito.verify(movementRepository, Mockito.times(1)).save(Mockito.any(Movimiento.class));
+	}
+	
+	/**
+	 * <h2>test createMovement con clave ya registrada en la base de datos</h2>
+	 * este test valida que si la clave ya existe en la tabla (por ejemplo, la registro otro nodo),
+	 * se devuelva el movimiento asociado a esa clave.
+	 */
+	@Test
+	void testCreateMovementDuplicateKeyShouldReturnStoredMovement() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		Movimiento mockMovimiento = new Movimiento();
+		mockMovimiento.setCuenta(mockCuenta);
+		
+		Movimiento original = new Movimiento();
+		original.setMovimientoId(3L);
+		
+		Mockito.when(accountRepository.adjustBalance(1L, 0L)).thenReturn(1);
+		Mockito.when(accountRepository.getReferenceById(1L)).thenReturn(mockCuenta);
+		Mockito.when(movementRepository.save(mockMovimiento)).thenReturn(mockMovimiento);
+		Mockito.when(idempotencyKeyRepository.saveAndFlush(Mockito.any(ClaveIdempotencia.class))).thenThrow(new DataIntegrityViolationException("clave duplicada"));
+		Mockito.when(idempotencyKeyRepository.findById("pago-2")).thenReturn(Optional.of(new ClaveIdempotencia("pago-2", 3L, 1L, ClaveIdempotencia.huella(mockMovimiento))));
+		Mockito.when(movementRepository.findById(3L)).thenReturn(Optional.of(original));
+		
+		Movimiento movimiento = movimientoServiceImp.createMovement(mockMovimiento, "pago-2");
+		
+		Assertions.assertSame(original, movimiento);
+	}
+	
+	/**
+	 * <h2>test del metodo transfer</h2>
+	 * este test valida que una transferencia de la cuenta 5 a la cuenta 2 actualice primero
+	 * la cuenta de menor id y registre el debito y el credito juntos.
+	 */
+	@Test
+	void testTransferShouldLockAccountsInAscendingOrder() {
+		
+		Mockito.when(accountRepository.adjustBalance(Mockito.anyLong(), Mockito.anyLong())).thenReturn(1);
+		Mockito.when(accountRepository.getReferenceById(Mockito.anyLong())).thenAnswer(invocacion -> {
+			Cuenta cuenta = new Cuenta();
+			cuenta.setCuentaId(invocacion.getArgument(0));
+			return cuenta;
+		});
+		Mockito.when(movementRepository.saveAll(Mockito.anyList())).thenAnswer(invocacion -> invocacion.getArgument(0));
+		
+		List<Movimiento> movimientos = movimientoServiceImp.transfer(new Transferencia(5L, 2L, 800L));
+		
+		InOrder orden = Mockito.inOrder(accountRepository);
+		orden.verify(accountRepository).adjustBalance(2L, 800L);
+		orden.verify(accountRepository).adjustBalance(5L, -800L);
+		Assertions.assertEquals(2, movimientos.size());
+		Assertions.assertEquals("debito", movimientos.get(0).getTipo());
+		Assertions.assertEquals(5L, movimientos.get(0).getCuenta().getCuentaId());
+		Assertions.assertEquals("credito", movimientos.get(1).getTipo());
+		Assertions.assertEquals(2L, movimientos.get(1).getCuenta().getCuentaId());
+	}
+	
+	/**
+	 * <h2>test del metodo createMovements</h2>
+	 * este test valida que un lote valide todas sus cuentas con una sola consulta, ajuste el
+	 * saldo de cada cuenta una sola vez con el efecto total, bloquee en modo compartido las
+	 * cuentas de efecto cero y persista todos los movimientos.
+	 */
+	@Test
+	void testCreateMovementsShouldValidateAccountsOnceAndAdjustEachBalance() {
+		
+		EntityManager entityManager = Mockito.mock(EntityManager.class);
+		ReflectionTestUtils.setField(movimientoServiceImp, "entityManager", entityManager);
+		Mockito.when(accountRepository.findExistingIds(Set.of(2L, 4L, 7L))).thenReturn(List.of(2L, 4L, 7L));
+		Mockito.when(accountRepository.adjustBalance(Mockito.anyLong(), Mockito.anyLong())).thenReturn(1);
+		Mockito.when(accountRepository.findByIdForShare(4L)).thenReturn(Optional.of(new Cuenta()));
+		Mockito.when(accountRepository.getReferenceById(Mockito.anyLong())).thenAnswer(invocacion -> {
+			Cuenta cuenta = new Cuenta();
+			cuenta.setCuentaId(invocacion.getArgument(0));
+			return cuenta;
+		});
+		
+		List<Movimiento> lote = List.of(
+				nuevoMovimiento(7L, "credito", 1000L),
+				nuevoMovimiento(2L, "credito", 500L),
+				nuevoMovimiento(4L, "credito", 200L),
+				nuevoMovimiento(7L, "retiro", 300L),
+				nuevoMovimiento(4L, "retiro", 200L));
+		
+		List<Movimiento> creados = movimientoServiceImp.createMovements(lote);
+		
+		Assertions.assertEquals(5, creados.size());
+		InOrder orden = Mockito.inOrder(accountRepository);
+		orden.verify(accountRepository).adjustBalance(2L, 500L);
+		orden.verify(accountRepository).findByIdForShare(4L);
+		orden.verify(accountRepository).adjustBalance(7L, 700L);
+		Mockito.verify(accountRepository, Mockito.never()).adjustBalance(Mockito.eq(4L), Mockito.anyLong());
+		Mockito.verify(accountRepository, Mockito.times(1)).findExistingIds(Mockito.anyCollection());
+		Mockito.verify(entityManager, Mockito.times(5)).persist(Mockito.any(Movimiento.class));
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
+	/**
+	 * <h2>test createMovements con cuenta eliminada despues de validar</h2>
+	 * este test valida que si una cuenta desaparece entre la validacion y el ajuste de saldo
+	 * (el ajuste no actualiza ninguna fila), genere una excepcion de tipo AccountNotFoundException
+	 * sin registrar movimientos.
+	 */
+	@Test
+	void testCreateMovementsAccountDeletedAfterValidationShouldReturnException() {
+		
+		EntityManager entityManager = Mockito.mock(EntityManager.class);
+		ReflectionTestUtils.setField(movimientoServiceImp, "entityManager", entityManager);
+		Mockito.when(accountRepository.findExistingIds(Set.of(2L, 7L))).thenReturn(List.of(2L, 7L));
+		Mockito.when(accountRepository.adjustBalance(2L, 500L)).thenReturn(1);
+		Mockito.when(accountRepository.adjustBalance(7L, 100L)).thenReturn(0);
+		
+		List<Movimiento> lote = List.of(nuevoMovimiento(2L, "credito", 500L), nuevoMovimiento(7L, "credito", 100L));
+		
+		assertThrows(AccountNotFoundException.class, ()->{movimientoServiceImp.createMovements(lote);});
+		Mockito.verifyNoInteractions(entityManager);
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
+	/**
+	 * <h2>test createMovements con cuenta inexistente</h2>
+	 * este test valida que si alguna cuenta del lote no existe, genere una excepcion de tipo
+	 * AccountNotFoundException sin ajustar saldos ni registrar movimientos.
+	 */
+	@Test
+	void testCreateMovementsAccountNotFoundShouldReturnException() {
+		
+		Mockito.when(accountRepository.findExistingIds(Set.of(2L, 9L))).thenReturn(List.of(2L));
+		
+		List<Movimiento> lote = List.of(nuevoMovimiento(2L, "credito", 500L), nuevoMovimiento(9L, "credito", 100L));
+		
+		assertThrows(AccountNotFoundException.class, ()->{movimientoServiceImp.createMovements(lote);});
+		Mockito.verify(accountRepository, Mockito.never()).adjustBalance(Mockito.anyLong(), Mockito.anyLong());
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
+	/**
+	 * <h2>test validateAccountExists con cuenta inexistente</h2>
+	 * este test valida que antes de exportar se genere una excepcion de tipo
+	 * AccountNotFoundException si la cuenta no existe.
+	 */
+	@Test
+	void testValidateAccountExistsShouldReturnException() {
+		
+		Mockito.when(accountRepository.existsById(9L)).thenReturn(false);
+		
+		assertThrows(AccountNotFoundException.class, ()->{movimientoServiceImp.validateAccountExists(9L);});
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
+	/**
+	 * <h2>test transfer a la misma cuenta</h2>
+	 * este test valida que transferir a la misma cuenta genere una excepcion de tipo
+	 * InvalidTransferException sin tocar la base de datos.
+	 */
+	@Test
+	void testTransferToSameAccountShouldReturnException() {
+		
+		assertThrows(InvalidTransferException.class, ()->{movimientoServiceImp.transfer(new Transferencia(1L, 1L, 100L));});
+		Mockito.verifyNoInteractions(accountRepository, movementRepository);
+	}
+	
+	/**
+	 * <h2>test transfer con cuenta inexistente</h2>
+	 * este test valida que si una de las cuentas no existe, genere una excepcion de tipo
+	 * AccountNotFoundException y no se registre ningun movimiento.
+	 */
+	@Test
+	void testTransferAccountNotFoundShouldReturnException() {
+		
+		Mockito.when(accountRepository.adjustBalance(1L, -100L)).thenReturn(1);
+		Mockito.when(accountRepository.adjustBalance(9L, 100L)).thenReturn(0);
+		
+		assertThrows(AccountNotFoundException.class, ()->{movimientoServiceImp.transfer(new Transferencia(1L, 9L, 100L));});
+		Mockito.verifyNoInteractions(movementRepository);
+	}
+	
 	/**
 	 * <h2>test del metodo readMovement</h2>
 	 * el test verifica que cuando se quiera consultar un movimiento por un id existente, 
@@ -125,12 +416,13 @@ public class MovimientoServiceImpTest {
 		mockMovimiento.setMovimientoId(1L);			
 		
 		
-		Mockito.when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(true);
-		Mockito.when(movementRepository.findByMovimientoId(mockMovimiento.getMovimientoId())).thenReturn(mockMovimiento);		
+		Mockito.when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.of(mockMovimiento));		
 		
 		Movimiento movimiento = movimientoServiceImp.readMovement(mockMovimiento.getMovimientoId());
 			
 		Assertions.assertEquals(mockMovimiento, movimiento);		
+		Mockito.verify(movementRepository, Mockito.times(1)).findById(mockMovimiento.getMovimientoId());
+		Mockito.verifyNoMoreInteractions(movementRepository);
 		
 	}
 	
@@ -147,49 +439,67 @@ public class MovimientoServiceImpTest {
 		mockMovimiento.setMovimientoId(1L);			
 		
 				
-		lenient().when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(false);		
+		lenient().when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.empty());		
 			
 		assertThrows(MovementNotFoundException.class, ()->{movimientoServiceImp.readMovement(mockMovimiento.getMovimientoId());});
 		
 	}	
 	
 	/**
-	 * <h2>test del metodo readMovementsByAccount</h2>
-	 * este test verifica que al momento de consultar los movimientos asociados a una cuenta existente,
-	 * retorne una lista de movimientos.
+	 * <h2>test del metodo readMovementsPage</h2>
+	 * este test verifica que cuando el historial tiene mas movimientos que el tamano de pagina,
+	 * retorne la pagina y un cursor con la fecha y el id del ultimo movimiento.
 	 */
 	@Test
-	void testReadMovementsByAccountShouldReturnMovementsList() {
+	void testReadMovementsPageShouldReturnPageAndCursor() {
 		
-		Cuenta mockCuenta = new Cuenta();
-		mockCuenta.setCuentaId(1L);
-		Movimiento mockMovimiento = new Movimiento();
+		List<MovimientoRespuesta> mockListaMovimientos = new ArrayList<>();
+		for(long id = 3; id >= 1; id--) {
+			Movimiento mockMovimiento = new Movimiento();
+			mockMovimiento.setMovimientoId(id);
+			mockMovimiento.setFechaMovimiento(LocalDate.of(2022, 10, (int) id));
+			mockListaMovimientos.add(MovimientoRespuesta.de(mockMovimiento));
+		}
+		
+		Mockito.when(movementRepository.findPageByCuenta(Mockito.eq(1L), Mockito.any(LocalDate.class), Mockito.any(LocalDate.class), Mockito.eq(Long.MAX_VALUE), Mockito.any(Pageable.class))).thenReturn(mockListaMovimientos);
 		
-		List<Movimiento> mockListaMovimientos = new ArrayList<>();
+		Pagina<MovimientoRespuesta> pagina = movimientoServiceImp.readMovementsPage(1L, null, null, 2, null);
+		
+		Assertions.assertEquals(2, pagina.contenido().size());
+		Assertions.assertEquals(CursorCodec.encode(LocalDate.of(2022, 10, 2), 2L), pagina.siguienteCursor());
+	}
+	
+	/**
+	 * <h2>test readMovementsPage con cursor</h2>
+	 * este test verifica que la siguiente pagina se consulte desde la posicion guardada en el cursor,
+	 * sin volver a validar la cuenta.
+	 */
+	@Test
+	void testReadMovementsPageWithCursorShouldContinueAfterCursor() {
 		
-		mockListaMovimientos.add(mockMovimiento);		
+		LocalDate desde = LocalDate.of(2022, 1, 1);
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(true);
-		Mockito.when(movementRepository.findByCuenta(accountRepository.findByCuentaId(mockCuenta.getCuentaId()))).thenReturn(mockListaMovimientos);
+		Mockito.when(movementRepository.findPageByCuenta(Mockito.eq(1L), Mockito.eq(desde), Mockito.eq(LocalDate.of(2022, 10, 2)), Mockito.eq(2L), Mockito.any(Pageable.class))).thenReturn(new ArrayList<>());
 		
-		List<Movimiento> movimientos = movimientoServiceImp.readMovementsByAccount(mockCuenta.getCuentaId());
+		Pagina<MovimientoRespuesta> pagina = movimientoServiceImp.readMovementsPage(1L, desde, null, 2, CursorCodec.encode(LocalDate.of(2022, 10, 2), 2L));
 		
-		Assertions.assertEquals(mockListaMovimientos, movimientos);
+		Assertions.assertTrue(pagina.contenido().isEmpty());
+		Assertions.assertNull(pagina.siguienteCursor());
+		Mockito.verify(accountRepository, Mockito.never()).existsById(1L);
 	}
 	
 	/**
-	 * <h2>test del metodo readMovementsByAccount</h2>
-	 * este test verifica que al momento de consultar los movimientos asociados a una cuenta que no existe,
+	 * <h2>test readMovementsPage cuenta no existe</h2>
+	 * este test verifica que si la primera pagina esta vacia porque la cuenta no existe,
 	 * genere una excepcion de tipo AccountNotFoundException.
 	 */
 	@Test
-	void ReadMovementsByAccountNotFoundShouldReturnException() {
-		Cuenta mockCuenta = new Cuenta();
-		mockCuenta.setCuentaId(1L);		
+	void testReadMovementsPageAccountNotFoundShouldReturnException() {
 		
-		Mockito.when(accountRepository.existsById(mockCuenta.getCuentaId())).thenReturn(false);
+		Mockito.when(movementRepository.findPageByCuenta(Mockito.eq(99L), Mockito.any(LocalDate.class), Mockito.any(LocalDate.class), Mockito.anyLong(), Mockito.any(Pageable.class))).thenReturn(new ArrayList<>());
+		Mockito.when(accountRepository.existsById(99L)).thenReturn(false);
 		
-		assertThrows(AccountNotFoundException.class, ()->{movimientoServiceImp.readMovementsByAccount(mockCuenta.getCuentaId());});
+		assertThrows(AccountNotFoundException.class, ()->{movimientoServiceImp.readMovementsPage(99L, null, null, 10, null);});
 	}
 	
 	/**
@@ -200,11 +510,14 @@ public class MovimientoServiceImpTest {
 	@Test
 	void testUpdateMovementShouldReturnMovement() {
 		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		
 		Movimiento mockMovimiento = new Movimiento();
 		mockMovimiento.setMovimientoId(1L);			
+		mockMovimiento.setCuenta(mockCuenta);
 		
-		Mockito.when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(true);
-		Mockito.when(movementRepository.findByMovimientoId(mockMovimiento.getMovimientoId())).thenReturn(mockMovimiento);
+		Mockito.when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.of(mockMovimiento));
 		
 		mockMovimiento.setEstado("activo");
 		
@@ -213,9 +526,108 @@ public class MovimientoServiceImpTest {
 		Movimiento movimiento = movimientoServiceImp.updateMovement(mockMovimiento, mockMovimiento.getMovimientoId());
 				
 		Assertions.assertEquals(mockMovimiento, movimiento);
+		Mockito.verify(movementRepository, Mockito.times(2)).findById(mockMovimiento.getMovimientoId());
+		Mockito.verify(movementRepository, Mockito.times(1)).save(mockMovimiento);
+		Mockito.verifyNoMoreInteractions(movementRepository);
 		
 	}
 	
+	/**
+	 * <h2>test updateMovement con cambio de valor</h2>
+	 * este test valida que al actualizar el valor de un movimiento activo,
+	 * al saldo de la cuenta se le sume solo la diferencia.
+	 */
+	@Test
+	void testUpdateMovementValueShouldAdjustBalanceByDifference() {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		
+		Movimiento guardado = new Movimiento();
+		guardado.setMovimientoId(1L);
+		guardado.setCuenta(mockCuenta);
+		guardado.setTipo("credito");
+		guardado.setValor(1000L);
+		guardado.setEstado("activo");
+		
+		Movimiento cambios = new Movimiento();
+		cambios.setTipo("credito");
+		cambios.setValor(1500L);
+		cambios.setEstado("activo");
+		
+		Mockito.when(movementRepository.findById(guardado.getMovimientoId())).thenReturn(Optional.of(guardado));
+		Mockito.when(movementRepository.save(guardado)).thenReturn(guardado);
+		
+		movimientoServiceImp.updateMovement(cambios, guardado.getMovimientoId());
+		
+		Mockito.verify(accountRepository, Mockito.times(1)).adjustBalance(mockCuenta.getCuentaId(), 500L);
+		Mockito.verifyNoMoreInteractions(accountRepository);
+	}
+	
+	/**
+	 * <h2>test updateMovement con la cuenta bloqueada</h2>
+	 * este test valida que mientras otro hilo tiene el bloqueo de la cuenta, la actualizacion
+	 * espere y no ajuste el saldo hasta que el bloqueo se libere.
+	 */
+	@Test
+	void testUpdateMovementShouldWaitForAccountLock() throws Exception {
+		
+		Cuenta mockCuenta = new Cuenta();
+		mockCuenta.setCuentaId(1L);
+		
+		Movimiento guardado = new Movimiento();
+		guardado.setMovimientoId(1L);
+		guardado.setCuenta(mockCuenta);
+		guardado.setTipo("credito");
+		guardado.setValor(1000L);
+		guardado.setEstado("activo");
+		
+		Movimiento cambios = new Movimiento();
+		cambios.setTipo("credito");
+		cambios.setValor(1500L);
+		cambios.setEstado("activo");
+		
+		Mockito.when(movementRepository.findById(guardado.getMovimientoId())).thenReturn(Optional.of(guardado));
+		Mockito.when(movementRepository.save(guardado)).thenReturn(guardado);
+		
+		AccountLocks accountLocks = (AccountLocks) ReflectionTestUtils.getField(movimientoServiceImp, "accountLocks");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Movimiento> actualizacion = accountLocks.withLock(mockCuenta.getCuentaId(), () -> {
+				Future<Movimiento> tarea = executor.submit(() -> movimientoServiceImp.updateMovement(cambios, guardado.getMovimientoId()));
+				Mockito.verify(accountRepository, Mockito.after(100).never()).adjustBalance(Mockito.anyLong(), Mockito.anyLong());
+				return tarea;
+			});
+			actualizacion.get(5, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		Mockito.verify(accountRepository, Mockito.times(1)).adjustBalance(mockCuenta.getCuentaId(), 500L);
+	}
+	
+	/**
+	 * <h2>test del metodo balanceDelta</h2>
+	 * este test verifica que los debitos y retiros resten, los demas tipos sumen
+	 * y los movimientos inactivos no afecten el saldo.
+	 */
+	@Test
+	void testBalanceDeltaShouldDependOnTypeAndStatus() {
+		
+		Movimiento movimiento = new Movimiento();
+		movimiento.setValor(300L);
+		movimiento.setEstado("activo");
+		
+		movimiento.setTipo("credito");
+		Assertions.assertEquals(300L, MovimientoServiceImp.balanceDelta(movimiento));
+		movimiento.setTipo("Debito");
+		Assertions.assertEquals(-300L, MovimientoServiceImp.balanceDelta(movimiento));
+		movimiento.setTipo("retiro");
+		Assertions.assertEquals(-300L, MovimientoServiceImp.balanceDelta(movimiento));
+		movimiento.setEstado("inactivo");
+		Assertions.assertEquals(0L, MovimientoServiceImp.balanceDelta(movimiento));
+	}
+	
 	/**
 	 * <h2>test updateMovement Not Found</h2>
 	 * este test valida que cuando se quiera actualizar un movimiento que no existe,
@@ -227,7 +639,7 @@ public class MovimientoServiceImpTest {
 		Movimiento mockMovimiento = new Movimiento();
 		mockMovimiento.setMovimientoId(1L);		
 		
-		Mockito.when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(false);
+		Mockito.when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.empty());
 		
 		assertThrows(MovementNotFoundException.class, ()->{movimientoServiceImp.updateMovement(mockMovimiento, mockMovimiento.getMovimientoId());});
 	}
@@ -243,9 +655,8 @@ public class MovimientoServiceImpTest {
 		Movimiento mockMovimiento = new Movimiento();
 		mockMovimiento.setMovimientoId(1L);		
 		mockMovimiento.setEstado("activo");
-		Mockito.when(movementRepository.findByMovimientoId(mockMovimiento.getMovimientoId())).thenReturn(mockMovimiento);
 		
-		boolean resultado = movimientoServiceImp.validateMovementStatus(mockMovimiento.getMovimientoId());
+		boolean resultado = movimientoServiceImp.validateMovementStatus(mockMovimiento);
 		
 		Assertions.assertTrue(resultado);	
 	}	
@@ -261,9 +672,8 @@ public class MovimientoServiceImpTest {
 		Movimiento mockMovimiento = new Movimiento();
 		mockMovimiento.setMovimientoId(1L);		
 		mockMovimiento.setEstado("inactivo");
-		Mockito.when(movementRepository.findByMovimientoId(mockMovimiento.getMovimientoId())).thenReturn(mockMovimiento);
 		
-		boolean resultado = movimientoServiceImp.validateMovementStatus(mockMovimiento.getMovimientoId());
+		boolean resultado = movimientoServiceImp.validateMovementStatus(mockMovimiento);
 		
 		Assertions.assertFalse(resultado);	
 	}
@@ -279,13 +689,17 @@ public class MovimientoServiceImpTest {
 		Movimiento mockMovimiento = new Movimiento();
 		
 		mockMovimiento.setMovimientoId(1L);		
+		mockMovimiento.setCuenta(new Cuenta());
+		mockMovimiento.getCuenta().setCuentaId(1L);
 		mockMovimiento.setEstado("inactivo");
 		
-		Mockito.when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(true);
-		Mockito.when(movementRepository.findByMovimientoId(mockMovimiento.getMovimientoId())).thenReturn(mockMovimiento);		
+		Mockito.when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.of(mockMovimiento));		
 		boolean resultado = movimientoServiceImp.deleteMovement(mockMovimiento.getMovimientoId());
 		
 		Assertions.assertTrue(resultado);
+		Mockito.verify(movementRepository, Mockito.times(2)).findById(mockMovimiento.getMovimientoId());
+		Mockito.verify(movementRepository, Mockito.times(1)).delete(mockMovimiento);
+		Mockito.verifyNoMoreInteractions(movementRepository);
 	
 	}	
 	
@@ -300,7 +714,7 @@ public class MovimientoServiceImpTest {
 		Movimiento mockMovimiento = new Movimiento();
 		
 		mockMovimiento.setMovimientoId(1L);	
-		Mockito.when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(false);		
+		Mockito.when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.empty());		
 		
 		assertThrows(MovementNotFoundException.class, ()->{movimientoServiceImp.deleteMovement(mockMovimiento.getMovimientoId());});
 	}
@@ -317,13 +731,24 @@ public class MovimientoServiceImpTest {
 		Movimiento mockMovimiento = new Movimiento();
 		
 		mockMovimiento.setMovimientoId(1L);		
+		mockMovimiento.setCuenta(new Cuenta());
+		mockMovimiento.getCuenta().setCuentaId(1L);
 		mockMovimiento.setEstado("activo");
 		
-		Mockito.when(movementRepository.existsById(mockMovimiento.getMovimientoId())).thenReturn(true);
-		Mockito.when(movementRepository.findByMovimientoId(mockMovimiento.getMovimientoId())).thenReturn(mockMovimiento);		
+		Mockito.when(movementRepository.findById(mockMovimiento.getMovimientoId())).thenReturn(Optional.of(mockMovimiento));		
 		
 		assertThrows(MovementActiveStateException.class, ()->{movimientoServiceImp.deleteMovement(mockMovimiento.getMovimientoId());});
 	} 
 	
 
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
 }
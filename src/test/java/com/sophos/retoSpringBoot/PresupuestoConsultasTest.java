@@ -0,0 +1,408 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.dto.EstadoImportacion;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Importacion;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.IdempotencyKeyRepository;
+import com.sophos.retoSpringBoot.repository.ImportRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.ImportacionServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <h1>Test del presupuesto de consultas por endpoint</h1>
+ * En esta clase cada endpoint se llama de punta a punta, con MockMvc y contra la base de
+ * datos, y se cuentan las sentencias SQL y las filas leidas mientras se atiende la peticion,
+ * incluida la serializacion de la respuesta. Cada endpoint declara su presupuesto y el test
+ * falla si lo supera, mostrando las sentencias ejecutadas.
+ *
+ * Las lecturas se miden en frio, con la cache de segundo nivel vacia y sin haber leido antes
+ * los mismos ids, que es el caso en que aparece un N+1. Los datos tienen varias cuentas con
+ * varios movimientos, para que un N+1 se note en el conteo. La exportacion y las importaciones
+ * terminan en otros hilos, por lo que se miden en todos los hilos hasta que terminan.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PresupuestoConsultasTest {
+
+	private static final int CUENTAS = 3;
+
+	private static final int MOVIMIENTOS = 4;
+
+	private static final int FILAS_IMPORTADAS = 250;
+
+	private static final int LOTE_IMPORTACION = 100;
+
+	private static final int LOTE_JDBC = 50;
+
+	/**
+	 * sentencias de un lote importado: validar las cuentas, ajustar el saldo de cada una,
+	 * insertar los movimientos en lotes JDBC y confirmar el lote.
+	 */
+	private static final int SENTENCIAS_POR_LOTE = 1 + CUENTAS + LOTE_IMPORTACION / LOTE_JDBC + 1;
+
+	/**
+	 * sentencias para registrar el fin de una importacion: leerla, y al guardarla leerla de nuevo y actualizarla.
+	 */
+	private static final int SENTENCIAS_FIN_IMPORTACION = 3;
+
+	@TestConfiguration
+	static class Configuracion {
+
+		@Bean
+		static ContadorSql contadorSql() {
+			return new ContadorSql();
+		}
+	}
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Autowired
+	ImportRepository importRepository;
+
+	@Autowired
+	ImportacionServiceImp importacionServiceImp;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Value("${importacion.directorio}")
+	String directorio;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	private Long clienteId;
+
+	private final List<Long> cuentaIds = new ArrayList<>();
+
+	private final List<Long> movimientoIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		clienteId = crearCliente();
+		for(int i = 0; i < CUENTAS; i++) {
+			Long cuentaId = crearCuenta(clienteId);
+			cuentaIds.add(cuentaId);
+			for(int j = 0; j < MOVIMIENTOS; j++) {
+				movimientoIds.add(movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "credito", 100L)).getMovimientoId());
+			}
+		}
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		idempotencyKeyRepository.deleteAll();
+		importRepository.deleteAll();
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>presupuesto de las lecturas de clientes</h2>
+	 * el detalle de un cliente lee el cliente y sus cuentas sin movimientos; si se piden, los
+	 * movimientos de todas las cuentas se leen en una sola sentencia, y la segunda vez todo se
+	 * sirve de la cache de segundo nivel; la pagina y el resumen son una sentencia cada uno;
+	 * un id inexistente no llega a la base de datos.
+	 */
+	@Test
+	void testClientReadsShouldStayWithinBudget() throws Exception {
+
+		presupuesto("GET /api/cliente/{id}", 2, 1 + CUENTAS, get("/api/cliente/" + clienteId), 200);
+		presupuesto("GET /api/cliente/{id} repetido", 0, 0, get("/api/cliente/" + clienteId), 200);
+		presupuesto("GET /api/cliente/{id}?movimientos=true", 1, CUENTAS * MOVIMIENTOS, get("/api/cliente/" + clienteId + "?movimientos=true"), 200);
+		presupuesto("GET /api/cliente/{id}?movimientos=true repetido", 0, 0, get("/api/cliente/" + clienteId + "?movimientos=true"), 200);
+		presupuesto("GET /api/cliente", 1, 1, get("/api/cliente?tamano=10"), 200);
+		presupuesto("GET /api/cliente/{id}/resumen", 1, CUENTAS, get("/api/cliente/" + clienteId + "/resumen"), 200);
+		presupuesto("GET /api/cliente/{id} inexistente", 0, 0, get("/api/cliente/" + (clienteId + 1_000_000)), 404);
+	}
+
+	/**
+	 * <h2>presupuesto de las lecturas de cuentas</h2>
+	 * cada lectura de cuentas tiene un numero fijo de sentencias, sin importar cuantos movimientos
+	 * tenga; la cuenta solo lee sus movimientos si se piden.
+	 */
+	@Test
+	void testAccountReadsShouldStayWithinBudget() throws Exception {
+
+		Long cuentaId = cuentaIds.get(0);
+		presupuesto("GET /api/cuenta/{id}", 1, 1, get("/api/cuenta/" + cuentaId), 200);
+		presupuesto("GET /api/cuenta/{id}?movimientos=true", 1, MOVIMIENTOS, get("/api/cuenta/" + cuentaId + "?movimientos=true"), 200);
+		presupuesto("GET /api/cuenta/cliente/{id}", 1, CUENTAS, get("/api/cuenta/cliente/" + clienteId), 200);
+		presupuesto("GET /api/cuenta/{id}/saldo", 1, 1, get("/api/cuenta/" + cuentaIds.get(1) + "/saldo"), 200);
+		presupuesto("GET /api/cuenta/{id}/extracto", 3, 3, get("/api/cuenta/" + cuentaIds.get(2) + "/extracto?periodo=" + YearMonth.now()), 200);
+	}
+
+	/**
+	 * <h2>presupuesto de las lecturas de movimientos</h2>
+	 * las listas y paginas de movimientos son una sola sentencia de proyeccion, y la lista lee
+	 * como maximo una pagina.
+	 */
+	@Test
+	void testMovementReadsShouldStayWithinBudget() throws Exception {
+
+		Long cuentaId = cuentaIds.get(0);
+		presupuesto("GET /api/movimiento/{id}", 1, 1, get("/api/movimiento/" + movimientoIds.get(0)), 200);
+		presupuesto("GET /api/movimiento/cuenta/{id}", 1, MOVIMIENTOS, get("/api/movimiento/cuenta/" + cuentaId), 200);
+		presupuesto("GET /api/movimiento/cuenta/{id}?tamano=2", 1, 3, get("/api/movimiento/cuenta/" + cuentaId + "?tamano=2"), 200);
+		presupuesto("GET /api/movimiento/cuenta/{id}/pagina", 1, MOVIMIENTOS, get("/api/movimiento/cuenta/" + cuentaId + "/pagina?tamano=10"), 200);
+	}
+
+	/**
+	 * <h2>presupuesto de las escrituras</h2>
+	 * crear y actualizar clientes, cuentas y movimientos no recorre las colecciones de la entidad.
+	 */
+	@Test
+	void testWritesShouldStayWithinBudget() throws Exception {
+
+		Long cuentaId = cuentaIds.get(0);
+		presupuesto("POST /api/cliente", 1, 0, post("/api/cliente").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"primerNombre\":\"Andres\",\"correo\":\"cliente@banco.com\",\"fechaNacimiento\":\"1990-01-01\"}"), 201);
+		presupuesto("PUT /api/cliente/{id}", 2, 1, put("/api/cliente/" + clienteId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"primerNombre\":\"David\",\"correo\":\"cliente@banco.com\",\"fechaNacimiento\":\"1990-01-01\"}"), 200);
+		presupuesto("POST /api/cuenta", 2, 1, post("/api/cuenta").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"producto\":\"ahorros\",\"estadoCuenta\":\"activa\",\"cliente\":{\"clienteId\":" + clienteId + "}}"), 201);
+		presupuesto("PUT /api/cuenta/{id}", 2, 1, put("/api/cuenta/" + cuentaId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"producto\":\"corriente\",\"estadoCuenta\":\"activa\"}"), 200);
+		presupuesto("POST /api/movimiento", 2, 0, post("/api/movimiento").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tipo\":\"credito\",\"valor\":100,\"estado\":\"activo\",\"cuenta\":{\"cuentaId\":" + cuentaId + "}}"), 201);
+		presupuesto("PUT /api/movimiento/{id}", 3, 1, put("/api/movimiento/" + movimientoIds.get(0)).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tipo\":\"credito\",\"valor\":150,\"estado\":\"activo\",\"cuenta\":{\"cuentaId\":" + cuentaId + "}}"), 200);
+	}
+
+	/**
+	 * <h2>presupuesto de las escrituras por lote</h2>
+	 * un lote y una transferencia validan las cuentas, insertan los movimientos y ajustan los
+	 * saldos con un numero fijo de sentencias por cuenta, sin leer sus movimientos.
+	 */
+	@Test
+	void testBulkWritesShouldStayWithinBudget() throws Exception {
+
+		StringBuilder lote = new StringBuilder("[");
+		for(Long cuentaId : cuentaIds) {
+			lote.append(lote.length() > 1 ? "," : "").append("{\"tipo\":\"credito\",\"valor\":100,\"estado\":\"activo\",\"cuenta\":{\"cuentaId\":")
+					.append(cuentaId).append("}}");
+		}
+		presupuesto("POST /api/movimiento/batch", 1 + CUENTAS + 1, CUENTAS, post("/api/movimiento/batch").contentType(MediaType.APPLICATION_JSON)
+				.content(lote.append("]").toString()), 201);
+		presupuesto("POST /api/movimiento/transferencia", 3, 0, post("/api/movimiento/transferencia").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"cuentaOrigenId\":" + cuentaIds.get(0) + ",\"cuentaDestinoId\":" + cuentaIds.get(1) + ",\"valor\":50}"), 201);
+	}
+
+	/**
+	 * <h2>presupuesto de las eliminaciones</h2>
+	 * cada eliminacion lee la fila, valida que no tenga dependientes y la elimina; la cuenta y el
+	 * cliente leen ademas su coleccion, ya vacia, por la eliminacion en cascada del mapeo.
+	 */
+	@Test
+	void testDeletesShouldStayWithinBudget() throws Exception {
+
+		Long clienteSinCuentas = crearCliente();
+		Long cuentaSinMovimientos = crearCuenta(clienteSinCuentas);
+		Movimiento inactivo = nuevoMovimiento(cuentaIds.get(0), "credito", 100L);
+		inactivo.setEstado("inactivo");
+		Long movimientoInactivo = movimientoServiceImp.createMovement(inactivo).getMovimientoId();
+		entityManagerFactory.getCache().evictAll();
+
+		presupuesto("DELETE /api/movimiento/{id}", 2, 1, delete("/api/movimiento/" + movimientoInactivo), 200);
+		presupuesto("DELETE /api/cuenta/{id}", 4, 1, delete("/api/cuenta/" + cuentaSinMovimientos), 200);
+		presupuesto("DELETE /api/cliente/{id}", 4, 1, delete("/api/cliente/" + clienteSinCuentas), 200);
+	}
+
+	/**
+	 * <h2>presupuesto de la exportacion</h2>
+	 * la exportacion valida la cuenta y escribe el historial con una sola consulta en flujo.
+	 */
+	@Test
+	void testExportShouldStayWithinBudget() throws Exception {
+
+		Long cuentaId = cuentaIds.get(0);
+		ContadorSql.Medicion medicion = ContadorSql.medirEnTodosLosHilos(() -> {
+			MvcResult exportacion = mockMvc.perform(get("/api/movimiento/cuenta/" + cuentaId + "/exportar"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			return mockMvc.perform(asyncDispatch(exportacion)).andExpect(status().isOk());
+		});
+		medicion.verificar("GET /api/movimiento/cuenta/{id}/exportar", 2, 1 + MOVIMIENTOS);
+	}
+
+	/**
+	 * <h2>presupuesto de las importaciones</h2>
+	 * cada lote confirmado cuesta un numero fijo de sentencias, sin importar cuantas filas tenga;
+	 * se mide la importacion completa, incluido el trabajo en segundo plano, hasta que termina.
+	 * La primera ejecucion falla en el segundo lote y se reanuda desde ahi.
+	 */
+	@Test
+	void testImportsShouldStayWithinBudget() throws Exception {
+
+		Path archivo = Files.createDirectories(Paths.get(directorio)).resolve("presupuesto.ndjson");
+		escribirImportacion(archivo, LOTE_IMPORTACION + 1);
+
+		AtomicReference<Long> importacionId = new AtomicReference<>();
+		ContadorSql.Medicion inicio = ContadorSql.medirEnTodosLosHilos(() -> {
+			MvcResult respuesta = mockMvc.perform(post("/api/importacion").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"ruta\":\"presupuesto.ndjson\"}")).andExpect(status().isAccepted()).andReturn();
+			importacionId.set(objectMapper.readValue(respuesta.getResponse().getContentAsString(), EstadoImportacion.class).importacionId());
+			return esperarImportacion(importacionId.get(), Importacion.FALLIDA);
+		});
+		inicio.verificar("POST /api/importacion", 1 + SENTENCIAS_POR_LOTE + SENTENCIAS_FIN_IMPORTACION, CUENTAS + 2);
+
+		presupuesto("GET /api/importacion/{id}", 1, 1, get("/api/importacion/" + importacionId.get()), 200);
+
+		escribirImportacion(archivo, -1);
+		ContadorSql.Medicion reanudacion = ContadorSql.medirEnTodosLosHilos(() -> {
+			mockMvc.perform(post("/api/importacion/" + importacionId.get() + "/reanudar")).andExpect(status().isAccepted());
+			return esperarImportacion(importacionId.get(), Importacion.COMPLETADA);
+		});
+		reanudacion.verificar("POST /api/importacion/{id}/reanudar", 3 + 2 * SENTENCIAS_POR_LOTE + SENTENCIAS_FIN_IMPORTACION, 2 + 2 * CUENTAS + 2);
+	}
+
+	/**
+	 * <h2>test del contador con un N+1</h2>
+	 * leer la cuenta de cada movimiento cargado sin ella ejecuta una sentencia por cuenta, y el
+	 * presupuesto de una sola sentencia lo detecta.
+	 */
+	@Test
+	void testBudgetShouldDetectNPlusOne() throws Exception {
+
+		ContadorSql.Medicion medicion = ContadorSql.medir(() -> transactionTemplate.execute(estado ->
+				movementRepository.findAllById(movimientoIds).stream().mapToLong(movimiento -> movimiento.getCuenta().getSaldo()).sum()));
+
+		Assertions.assertEquals(1 + CUENTAS, medicion.sentencias());
+		Assertions.assertEquals(CUENTAS * MOVIMIENTOS + CUENTAS, medicion.filas());
+		Assertions.assertThrows(AssertionError.class, () -> medicion.verificar("movimientos con su cuenta", 1, CUENTAS * MOVIMIENTOS));
+	}
+
+	/**
+	 * Ejecuta la peticion midiendo sus sentencias y filas, valida el estado HTTP y el presupuesto.
+	 */
+	private void presupuesto(String operacion, int maxSentencias, long maxFilas, MockHttpServletRequestBuilder peticion, int estado) throws Exception {
+		ContadorSql.Medicion medicion = ContadorSql.medir(() -> mockMvc.perform(peticion).andExpect(status().is(estado)));
+		medicion.verificar(operacion, maxSentencias, maxFilas);
+	}
+
+	/**
+	 * Espera a que la importacion termine con el estado esperado. Cada consulta del estado se
+	 * mide aparte en el hilo actual, para que no se sume a la medicion de la importacion.
+	 */
+	private EstadoImportacion esperarImportacion(Long importacionId, String estadoEsperado) throws Exception {
+		AtomicReference<EstadoImportacion> estado = new AtomicReference<>();
+		long limite = System.currentTimeMillis() + 30_000;
+		do {
+			Thread.sleep(20);
+			ContadorSql.medir(() -> estado.getAndSet(importacionServiceImp.readImportStatus(importacionId)));
+		} while(Importacion.EN_CURSO.equals(estado.get().estado()) && System.currentTimeMillis() < limite);
+		Assertions.assertEquals(estadoEsperado, estado.get().estado(), estado.get().error());
+		return estado.get();
+	}
+
+	/**
+	 * Escribe un archivo NDJSON con FILAS_IMPORTADAS movimientos repartidos entre las cuentas;
+	 * la linea invalida, si es positiva, tiene un valor que no es numerico.
+	 */
+	private void escribirImportacion(Path archivo, int lineaInvalida) throws Exception {
+		try (BufferedWriter escritura = Files.newBufferedWriter(archivo)) {
+			for(int linea = 1; linea <= FILAS_IMPORTADAS; linea++) {
+				escritura.write("{\"cuentaId\":" + cuentaIds.get(linea % CUENTAS) + ",\"tipo\":\"credito\",\"valor\":"
+						+ (linea == lineaInvalida ? "\"diez\"" : "10") + "}\n");
+			}
+		}
+	}
+
+	private Long crearCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return clientRepository.save(cliente).getClienteId();
+	}
+
+	private Long crearCuenta(Long clienteId) {
+		Cliente cliente = new Cliente();
+		cliente.setClienteId(clienteId);
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
@@ -0,0 +1,137 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.exceptions.DomainException;
+import com.sophos.retoSpringBoot.exceptions.ExceptionConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <h1>Benchmark de las respuestas de error</h1>
+ * Mide con JMH el costo de responder un cliente no encontrado: lanzar la excepcion a cierta
+ * profundidad de pila (una peticion de Spring MVC pasa por mas de 100 marcos), atraparla y
+ * serializar el cuerpo. "anterior" reproduce lo que se hacia antes (excepcion con traza, un
+ * HashMap por error y Jackson); "actual" usa las excepciones sin traza y el cuerpo armado
+ * por ExceptionConfig. Reporta nanosegundos y bytes asignados por operacion, y deja los
+ * resultados en target/jmh/respuesta-error.json. Se ejecuta con mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespuestaErrorBenchmarkTest {
+
+	@Param({"20", "120"})
+	public int profundidad;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ExceptionConfig exceptionConfig = new ExceptionConfig();
+
+	private long clienteId = 1;
+
+	/**
+	 * la excepcion como era antes: una RuntimeException que captura la traza.
+	 */
+	static class ClienteNoEncontradoConTraza extends RuntimeException {
+		ClienteNoEncontradoConTraza(String mensaje) {
+			super(mensaje);
+		}
+	}
+
+	@Benchmark
+	public byte[] anterior() throws Exception {
+		long id = clienteId++;
+		try {
+			return enProfundidad(profundidad, () -> {
+				throw new ClienteNoEncontradoConTraza("el cliente con el id: " + id + " no existe");
+			});
+		} catch (ClienteNoEncontradoConTraza exception) {
+			Map<String, String> errorMap = new HashMap<>();
+			errorMap.put("errorMessage", exception.getMessage());
+			return objectMapper.writeValueAsBytes(errorMap);
+		}
+	}
+
+	@Benchmark
+	public byte[] actual() {
+		long id = clienteId++;
+		try {
+			return enProfundidad(profundidad, () -> {
+				throw new ClientNotFound("el cliente con el id: " + id + " no existe");
+			});
+		} catch (DomainException exception) {
+			return exceptionConfig.cuerpo(exception.getCodigo(), exception.getMessage());
+		}
+	}
+
+	private static byte[] enProfundidad(int marcos, Supplier<byte[]> accion) {
+		return marcos == 0 ? accion.get() : enProfundidad(marcos - 1, accion);
+	}
+
+	/**
+	 * <h2>benchmark de la respuesta a un cliente no encontrado</h2>
+	 * ejecuta JMH y verifica que la respuesta actual sea mas rapida que la anterior.
+	 */
+	@Test
+	void benchmarkNotFoundResponse() throws Exception {
+
+		new File("target/jmh").mkdirs();
+		Options opciones = new OptionsBuilder()
+				.include(RespuestaErrorBenchmarkTest.class.getName() + ".*")
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh/respuesta-error.json")
+				.build();
+		Collection<RunResult> resultados = new Runner(opciones).run();
+
+		for(String profundidadPila : new String[] {"20", "120"}) {
+			double anterior = promedio(resultados, "anterior", profundidadPila);
+			double actual = promedio(resultados, "actual", profundidadPila);
+			System.out.printf("Respuesta 404 con %s marcos: anterior %.0f ns/op, actual %.0f ns/op (%.1fx)%n",
+					profundidadPila, anterior, actual, anterior / actual);
+			Assertions.assertTrue(actual < anterior, "profundidad " + profundidadPila);
+		}
+	}
+
+	private static double promedio(Collection<RunResult> resultados, String metodo, String profundidadPila) {
+		return resultados.stream()
+				.filter(resultado -> resultado.getParams().getBenchmark().endsWith("." + metodo)
+						&& profundidadPila.equals(resultado.getParams().getParam("profundidad")))
+				.findFirst()
+				.orElseThrow()
+				.getPrimaryResult().getScore();
+	}
+}
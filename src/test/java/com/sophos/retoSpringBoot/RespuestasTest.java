@@ -0,0 +1,218 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophos.retoSpringBoot.controller.ClienteController;
+import com.sophos.retoSpringBoot.controller.MovimientoController;
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * <h1>Test de las respuestas del API</h1>
+ * En esta clase se verifica, contra la base de datos y con open-session-in-view
+ * deshabilitado, que las respuestas se armen con un numero fijo de consultas y que
+ * se serialicen sin volver a la base de datos: el detalle de un cliente trae sus
+ * cuentas y movimientos, y las listas no traen las colecciones.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class RespuestasTest {
+
+	private static final int CUENTAS = 3;
+
+	private static final int MOVIMIENTOS = 4;
+
+	@Autowired
+	ClienteController clienteController;
+
+	@Autowired
+	MovimientoController movimientoController;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test del detalle de un cliente sin movimientos</h2>
+	 * por defecto las cuentas del cliente se devuelven sin movimientos, y solo se leen el
+	 * cliente y sus cuentas.
+	 */
+	@Test
+	void testReadClientShouldNotIncludeMovementsByDefault() throws Exception {
+
+		Long clienteId = crearCliente("Wilson");
+		Long cuentaId = crearCuenta(clienteId);
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, 100L));
+		entityManagerFactory.getCache().evictAll();
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		try {
+			estadisticas.clear();
+			ResponseEntity<ClienteRespuesta> respuesta = clienteController.readClient(clienteId, false);
+			JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(respuesta.getBody()));
+
+			Assertions.assertEquals(2, estadisticas.getPrepareStatementCount(),
+					"sentencias al leer: " + estadisticas.getPrepareStatementCount());
+			Assertions.assertEquals(1, json.get("cuentas").size());
+			Assertions.assertEquals(100L, json.get("cuentas").get(0).get("saldo").asLong());
+			Assertions.assertFalse(json.get("cuentas").get(0).has("movimientos"));
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+	}
+
+	/**
+	 * <h2>test del detalle de un cliente</h2>
+	 * con las caches vacias, el cliente, sus cuentas y los movimientos de todas las cuentas
+	 * se leen en tres consultas, y la serializacion no ejecuta ninguna.
+	 */
+	@Test
+	void testReadClientShouldLoadGraphBeforeSerializing() throws Exception {
+
+		Long clienteId = crearCliente("Wilson");
+		for(int i = 0; i < CUENTAS; i++) {
+			Long cuentaId = crearCuenta(clienteId);
+			for(int j = 0; j < MOVIMIENTOS; j++) {
+				movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, 100L));
+			}
+		}
+		entityManagerFactory.getCache().evictAll();
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		try {
+			estadisticas.clear();
+			ResponseEntity<ClienteRespuesta> respuesta = clienteController.readClient(clienteId, true);
+			Assertions.assertEquals(3, estadisticas.getPrepareStatementCount(),
+					"sentencias al leer: " + estadisticas.getPrepareStatementCount());
+
+			estadisticas.clear();
+			JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(respuesta.getBody()));
+			Assertions.assertEquals(0, estadisticas.getPrepareStatementCount(),
+					"sentencias al serializar: " + estadisticas.getPrepareStatementCount());
+
+			Assertions.assertEquals("Wilson", json.get("primerNombre").asText());
+			Assertions.assertEquals(CUENTAS, json.get("cuentas").size());
+			for(JsonNode cuenta : json.get("cuentas")) {
+				Assertions.assertEquals(MOVIMIENTOS * 100L, cuenta.get("saldo").asLong());
+				Assertions.assertEquals(MOVIMIENTOS, cuenta.get("movimientos").size());
+				Assertions.assertFalse(cuenta.get("movimientos").get(0).has("cuenta"));
+			}
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+	}
+
+	/**
+	 * <h2>test de las listas</h2>
+	 * la pagina de clientes y los movimientos de una cuenta se leen en una consulta cada
+	 * una, y sus elementos no incluyen las colecciones.
+	 */
+	@Test
+	void testListsShouldNotIncludeCollections() throws Exception {
+
+		Long cuentaId = null;
+		for(int i = 0; i < CUENTAS; i++) {
+			cuentaId = crearCuenta(crearCliente("Cliente " + i));
+			movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, 100L));
+		}
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		try {
+			estadisticas.clear();
+			ResponseEntity<Pagina<ClienteRespuesta>> pagina = clienteController.readClientsPage(10, null, "asc", null, null);
+			ResponseEntity<List<MovimientoRespuesta>> movimientos = movimientoController.readMovementsByAccount(cuentaId, null);
+			JsonNode jsonPagina = objectMapper.readTree(objectMapper.writeValueAsString(pagina.getBody()));
+			JsonNode jsonMovimientos = objectMapper.readTree(objectMapper.writeValueAsString(movimientos.getBody()));
+
+			Assertions.assertEquals(2, estadisticas.getPrepareStatementCount(),
+					"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+			Assertions.assertEquals(0, estadisticas.getEntityLoadCount());
+			Assertions.assertEquals(CUENTAS, jsonPagina.get("contenido").size());
+			Assertions.assertFalse(jsonPagina.get("contenido").get(0).has("cuentas"));
+			Assertions.assertEquals(1, jsonMovimientos.size());
+			Assertions.assertEquals(100L, jsonMovimientos.get(0).get("valor").asLong());
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+	}
+
+	private Long crearCliente(String nombre) {
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre(nombre);
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return clientRepository.save(cliente).getClienteId();
+	}
+
+	private Long crearCuenta(Long clienteId) {
+		Cliente cliente = new Cliente();
+		cliente.setClienteId(clienteId);
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, Long valor) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo("credito");
+		movimiento.setValor(valor);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
@@ -0,0 +1,167 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.ResumenCliente;
+import com.sophos.retoSpringBoot.dto.ResumenCuenta;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.exceptions.ClientNotFound;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.ClienteServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Test del resumen de un cliente</h1>
+ * En esta clase se verifica, contra la base de datos, que el resumen de un cliente se lea
+ * con una sola sentencia sin importar cuantas cuentas tenga, y que los totales de cada
+ * cuenta coincidan con sus movimientos.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class ResumenClienteTest {
+
+	private static final int CUENTAS = 5;
+
+	@Autowired
+	ClienteServiceImp clienteServiceImp;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test del resumen en una sentencia</h2>
+	 * el cliente con varias cuentas, una de ellas sin movimientos, se resume con una sola
+	 * sentencia; los movimientos inactivos cuentan en la cantidad pero no en los totales.
+	 */
+	@Test
+	void testSummaryShouldBeReadInOneStatement() {
+
+		Long clienteId = crearCliente();
+		List<Long> cuentaIds = new ArrayList<>();
+		for(int i = 0; i < CUENTAS; i++) {
+			cuentaIds.add(crearCuenta(clienteId));
+		}
+		List<Movimiento> movimientos = new ArrayList<>();
+		for(int i = 0; i < CUENTAS - 1; i++) {
+			movimientos.add(nuevoMovimiento(cuentaIds.get(i), "credito", 1_000L, "activo"));
+			movimientos.add(nuevoMovimiento(cuentaIds.get(i), "retiro", 300L, "activo"));
+			movimientos.add(nuevoMovimiento(cuentaIds.get(i), "debito", 9_999L, "inactivo"));
+		}
+		movimientoServiceImp.createMovements(movimientos);
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.setStatisticsEnabled(true);
+		ResumenCliente resumen;
+		try {
+			estadisticas.clear();
+			resumen = clienteServiceImp.readClientSummary(clienteId);
+
+			Assertions.assertEquals(1, estadisticas.getPrepareStatementCount(),
+					"sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+		} finally {
+			estadisticas.setStatisticsEnabled(false);
+		}
+
+		Assertions.assertEquals(clienteId, resumen.cliente().clienteId());
+		Assertions.assertEquals(CUENTAS, resumen.cuentas().size());
+		for(int i = 0; i < CUENTAS - 1; i++) {
+			ResumenCuenta cuenta = resumen.cuentas().get(i);
+			Assertions.assertEquals(cuentaIds.get(i), cuenta.cuentaId());
+			Assertions.assertEquals(3, cuenta.cantidadMovimientos());
+			Assertions.assertNotNull(cuenta.ultimoMovimiento());
+			Assertions.assertEquals(1_000L, cuenta.totalCreditos());
+			Assertions.assertEquals(300L, cuenta.totalDebitos());
+			Assertions.assertEquals(700L, cuenta.neto());
+			Assertions.assertEquals(cuentaServiceImp.readAccountBalance(cuenta.cuentaId()), cuenta.saldo());
+		}
+		ResumenCuenta sinMovimientos = resumen.cuentas().get(CUENTAS - 1);
+		Assertions.assertEquals(0, sinMovimientos.cantidadMovimientos());
+		Assertions.assertNull(sinMovimientos.ultimoMovimiento());
+		Assertions.assertEquals(0L, sinMovimientos.neto());
+	}
+
+	/**
+	 * <h2>test del resumen de un cliente sin cuentas</h2>
+	 * un cliente sin cuentas tiene un resumen con la lista vacia, y uno que no existe genera ClientNotFound.
+	 */
+	@Test
+	void testSummaryWithoutAccountsAndNotFound() {
+
+		Long clienteId = crearCliente();
+
+		ResumenCliente resumen = clienteServiceImp.readClientSummary(clienteId);
+
+		Assertions.assertEquals("Wilson", resumen.cliente().primerNombre());
+		Assertions.assertTrue(resumen.cuentas().isEmpty());
+		Assertions.assertThrows(ClientNotFound.class, () -> clienteServiceImp.readClientSummary(clienteId + 1_000));
+	}
+
+	private Long crearCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return clientRepository.save(cliente).getClienteId();
+	}
+
+	private Long crearCuenta(Long clienteId) {
+		Cliente cliente = new Cliente();
+		cliente.setClienteId(clienteId);
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setEstadoCuenta("activa");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor, String estado) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado(estado);
+		return movimiento;
+	}
+}
@@ -0,0 +1,116 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>Test del saldo de la cuenta</h1>
+ * En esta clase se verifica, contra la base de datos, que el saldo guardado en la cuenta
+ * se mantenga al registrar, actualizar y eliminar movimientos, y que coincida con el
+ * saldo recalculado a partir de los movimientos.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest
+public class SaldoCuentaTest {
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test del saldo con movimientos</h2>
+	 * este test registra, actualiza y elimina movimientos y verifica el saldo despues de cada paso.
+	 */
+	@Test
+	void testBalanceShouldFollowMovements() {
+
+		Long cuentaId = crearCuenta();
+
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "credito", 1000L, "activo"));
+		Movimiento retiro = movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "retiro", 300L, "activo"));
+		Assertions.assertEquals(700L, cuentaServiceImp.readAccountBalance(cuentaId));
+
+		movimientoServiceImp.updateMovement(nuevoMovimiento(cuentaId, "retiro", 400L, "activo"), retiro.getMovimientoId());
+		Assertions.assertEquals(600L, cuentaServiceImp.readAccountBalance(cuentaId));
+
+		movimientoServiceImp.updateMovement(nuevoMovimiento(cuentaId, "retiro", 400L, "inactivo"), retiro.getMovimientoId());
+		Assertions.assertEquals(1000L, cuentaServiceImp.readAccountBalance(cuentaId));
+
+		movimientoServiceImp.deleteMovement(retiro.getMovimientoId());
+		Assertions.assertEquals(1000L, cuentaServiceImp.readAccountBalance(cuentaId));
+		Assertions.assertEquals(1000L, cuentaServiceImp.recalculateBalance(cuentaId));
+	}
+
+	/**
+	 * <h2>test de la reparacion del saldo</h2>
+	 * este test verifica que un saldo desfasado se corrija al recalcularlo.
+	 */
+	@Test
+	void testRecalculateBalanceShouldRepairStoredBalance() {
+
+		Long cuentaId = crearCuenta();
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "debito", 250L, "activo"));
+		movimientoServiceImp.createMovement(nuevoMovimiento(cuentaId, "credito", 900L, "activo"));
+		accountRepository.findById(cuentaId).ifPresent(cuenta -> Assertions.assertEquals(650L, cuenta.getSaldo()));
+
+		cuentaServiceImp.recalculateBalance(cuentaId);
+		Assertions.assertEquals(650L, cuentaServiceImp.readAccountBalance(cuentaId));
+	}
+
+	private Long crearCuenta() {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		Cuenta cuenta = new Cuenta();
+		cuenta.setProducto("ahorros");
+		cuenta.setCliente(cliente);
+		return cuentaServiceImp.createAccount(cuenta).getCuentaId();
+	}
+
+	private static Movimiento nuevoMovimiento(Long cuentaId, String tipo, Long valor, String estado) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo(tipo);
+		movimiento.setValor(valor);
+		movimiento.setEstado(estado);
+		return movimiento;
+	}
+}
@@ -0,0 +1,182 @@
+package com.sophos.retoSpringBoot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.sophos.retoSpringBoot.dto.ClienteRespuesta;
+import com.sophos.retoSpringBoot.dto.CuentaRespuesta;
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.util.IsoDateSerializer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark de la serializacion de las respuestas</h1>
+ * Mide con JMH cuanto cuesta escribir en JSON las respuestas mas grandes del API: el detalle
+ * de un cliente con 3 cuentas de 40 movimientos, una pagina de 100 clientes y los 500
+ * movimientos de una cuenta. "base" usa un ObjectMapper como el que arma Spring Boot sin
+ * JacksonConfig; "optimizado" le agrega los modulos de JacksonConfig. Reporta nanosegundos
+ * y bytes asignados por operacion y deja los resultados en target/jmh/serializacion.json.
+ * Se ejecuta con mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmarkTest {
+
+	private static final String[] CARGAS = {"detalle", "pagina", "movimientos"};
+
+	@Param({"detalle", "pagina", "movimientos"})
+	public String carga;
+
+	private ObjectMapper base;
+
+	private ObjectMapper optimizado;
+
+	private Object respuesta;
+
+	@Setup
+	public void iniciar() {
+		base = mapper().build();
+		optimizado = mapper()
+				.modulesToInstall(new BlackbirdModule(), new SimpleModule("isoDate").addSerializer(LocalDate.class, new IsoDateSerializer()))
+				.build();
+		respuesta = respuesta(carga);
+	}
+
+	@Benchmark
+	public byte[] base() throws Exception {
+		return base.writeValueAsBytes(respuesta);
+	}
+
+	@Benchmark
+	public byte[] optimizado() throws Exception {
+		return optimizado.writeValueAsBytes(respuesta);
+	}
+
+	/**
+	 * <h2>benchmark de la serializacion</h2>
+	 * ejecuta JMH y verifica que el ObjectMapper optimizado sea mas rapido en cada respuesta.
+	 */
+	@Test
+	void benchmarkSerialization() throws Exception {
+
+		new File("target/jmh").mkdirs();
+		Options opciones = new OptionsBuilder()
+				.include(SerializacionBenchmarkTest.class.getName() + ".*")
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh/serializacion.json")
+				.build();
+		Collection<RunResult> resultados = new Runner(opciones).run();
+
+		for(String cargaRespuesta : CARGAS) {
+			double base = promedio(resultados, "base", cargaRespuesta);
+			double optimizado = promedio(resultados, "optimizado", cargaRespuesta);
+			System.out.printf("Serializacion de %s: base %.1f us/op, optimizado %.1f us/op (%.2fx)%n",
+					cargaRespuesta, base, optimizado, base / optimizado);
+			Assertions.assertTrue(optimizado < base, cargaRespuesta);
+		}
+	}
+
+	/**
+	 * ObjectMapper con la configuracion que Spring Boot aplica por defecto.
+	 */
+	static Jackson2ObjectMapperBuilder mapper() {
+		return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	}
+
+	/**
+	 * Respuesta de prueba: "detalle", "pagina" o "movimientos".
+	 */
+	static Object respuesta(String carga) {
+		return switch (carga) {
+			case "detalle" -> cliente(1L, cuentas(3, 40));
+			case "pagina" -> pagina(100);
+			case "movimientos" -> movimientos(1L, 500);
+			default -> throw new IllegalArgumentException(carga);
+		};
+	}
+
+	private static Pagina<ClienteRespuesta> pagina(int cantidad) {
+		List<ClienteRespuesta> clientes = new ArrayList<>(cantidad);
+		for(long i = 1; i <= cantidad; i++) {
+			clientes.add(cliente(i, null));
+		}
+		return new Pagina<>(clientes, "MTAwOmFzYw");
+	}
+
+	private static ClienteRespuesta cliente(Long clienteId, List<CuentaRespuesta> cuentas) {
+		return new ClienteRespuesta(clienteId, "CC", 1_000_000L + clienteId, "activo", "natural",
+				"Calle 100 # 15-20 Apto 301", "3101234567", "cliente" + clienteId + "@banco.com", "Wilson",
+				"David", "Pachon", "Rodriguez", LocalDate.of(1990, 1, 1 + (int) (clienteId % 28)),
+				LocalDate.of(2022, 3, 15), "wilsonp", LocalDate.of(2022, 9, 1), "wilsonp", cuentas);
+	}
+
+	private static List<CuentaRespuesta> cuentas(int cantidad, int movimientos) {
+		List<CuentaRespuesta> cuentas = new ArrayList<>(cantidad);
+		for(long i = 1; i <= cantidad; i++) {
+			cuentas.add(new CuentaRespuesta(i, "ahorros", "activa", "5000000", LocalDate.of(2022, 3, 15),
+					LocalDate.of(2022, 3, 15), "wilsonp", LocalDate.of(2022, 9, 1), "wilsonp", 1_250_000L,
+					movimientos(i * 1_000, movimientos)));
+		}
+		return cuentas;
+	}
+
+	private static List<MovimientoRespuesta> movimientos(long primerId, int cantidad) {
+		List<MovimientoRespuesta> movimientos = new ArrayList<>(cantidad);
+		LocalDate fecha = LocalDate.of(2022, 1, 1);
+		for(int i = 0; i < cantidad; i++) {
+			LocalDate fechaMovimiento = fecha.plusDays(i % 365);
+			movimientos.add(new MovimientoRespuesta(primerId + i, i % 3 == 0 ? "debito" : "credito", 10_000L + i,
+					fechaMovimiento.toString().substring(0, 7), "activo", fechaMovimiento, fechaMovimiento, "wilsonp",
+					null, null));
+		}
+		return movimientos;
+	}
+
+	private static double promedio(Collection<RunResult> resultados, String metodo, String cargaRespuesta) {
+		return resultados.stream()
+				.filter(resultado -> resultado.getParams().getBenchmark().endsWith("." + metodo)
+						&& cargaRespuesta.equals(resultado.getParams().getParam("carga")))
+				.findFirst()
+				.orElseThrow()
+				.getPrimaryResult().getScore();
+	}
+}
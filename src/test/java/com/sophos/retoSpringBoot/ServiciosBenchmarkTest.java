@@ -0,0 +1,207 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.MovimientoRespuesta;
+import com.sophos.retoSpringBoot.dto.Pagina;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.service.implementations.ClienteServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark de los servicios contra la base de datos</h1>
+ * Mide con JMH createMovement, readMovementsPage y createClient sobre la capa JPA
+ * completa, contra la base de datos en memoria de las pruebas con 1.000 clientes, 2.000
+ * cuentas y 50.000 movimientos. Cada metodo se mide con 1, 4 y 16 hilos, en operaciones
+ * por milisegundo y en percentiles de latencia, y los resultados quedan en
+ * target/jmh/servicios-{hilos}-hilos.json para compararlos entre versiones. Cada medicion
+ * corre en su propia JVM con la base de datos recien sembrada. Se ejecuta con
+ * mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiciosBenchmarkTest {
+
+	private static final int[] HILOS = {1, 4, 16};
+
+	private static final int CLIENTES = 1_000;
+
+	private static final int CUENTAS_POR_CLIENTE = 2;
+
+	private static final int MOVIMIENTOS_POR_CUENTA = 25;
+
+	private ConfigurableApplicationContext contexto;
+
+	private ClienteServiceImp clienteServiceImp;
+
+	private MovimientoServiceImp movimientoServiceImp;
+
+	private long[] cuentaIds;
+
+	/**
+	 * levanta la aplicacion sin servidor web y siembra la base de datos.
+	 */
+	@Setup(Level.Trial)
+	public void iniciar() {
+		contexto = new SpringApplicationBuilder(RetoSpringBootApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.jpa.properties.hibernate.generate_statistics=false", "logging.level.root=WARN")
+				.run();
+		clienteServiceImp = contexto.getBean(ClienteServiceImp.class);
+		movimientoServiceImp = contexto.getBean(MovimientoServiceImp.class);
+		sembrar(contexto.getBean(ClientRepository.class), contexto.getBean(AccountRepository.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public Movimiento createMovement() {
+		return movimientoServiceImp.createMovement(nuevoMovimiento(cuentaAleatoria()));
+	}
+
+	@Benchmark
+	public Pagina<MovimientoRespuesta> readMovementsPage() {
+		return movimientoServiceImp.readMovementsPage(cuentaAleatoria(), null, null, null, null);
+	}
+
+	@Benchmark
+	public Cliente createClient() {
+		return clienteServiceImp.createClient(nuevoCliente());
+	}
+
+	/**
+	 * <h2>benchmark de los servicios con 1, 4 y 16 hilos</h2>
+	 * ejecuta JMH una vez por cantidad de hilos, guarda los resultados en JSON e imprime
+	 * el throughput y los percentiles 50, 99 y 99.9 de cada metodo.
+	 */
+	@Test
+	void benchmarkServices() throws Exception {
+
+		new File("target/jmh").mkdirs();
+		for(int hilos : HILOS) {
+			Options opciones = new OptionsBuilder()
+					.include(ServiciosBenchmarkTest.class.getName() + ".*")
+					.threads(hilos)
+					.resultFormat(ResultFormatType.JSON)
+					.result("target/jmh/servicios-" + hilos + "-hilos.json")
+					.build();
+			Collection<RunResult> resultados = new Runner(opciones).run();
+
+			for(String metodo : new String[] {"createMovement", "readMovementsPage", "createClient"}) {
+				double throughput = resultado(resultados, metodo, Mode.Throughput).getScore();
+				Statistics latencia = resultado(resultados, metodo, Mode.SampleTime).getStatistics();
+				System.out.printf("%s con %d hilos: %.2f ops/ms, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms%n",
+						metodo, hilos, throughput, latencia.getPercentile(50), latencia.getPercentile(99), latencia.getPercentile(99.9));
+				Assertions.assertTrue(throughput > 0, metodo + " con " + hilos + " hilos");
+			}
+		}
+	}
+
+	private static Result<?> resultado(Collection<RunResult> resultados, String metodo, Mode modo) {
+		return resultados.stream()
+				.filter(resultado -> resultado.getParams().getBenchmark().endsWith("." + metodo)
+						&& resultado.getParams().getMode() == modo)
+				.findFirst()
+				.orElseThrow()
+				.getPrimaryResult();
+	}
+
+	private void sembrar(ClientRepository clientRepository, AccountRepository accountRepository) {
+		List<Cliente> clientes = new ArrayList<>(CLIENTES);
+		for(int i = 0; i < CLIENTES; i++) {
+			clientes.add(nuevoCliente());
+		}
+		clientes = clientRepository.saveAll(clientes);
+
+		List<Cuenta> cuentas = new ArrayList<>(CLIENTES * CUENTAS_POR_CLIENTE);
+		for(Cliente cliente : clientes) {
+			for(int i = 0; i < CUENTAS_POR_CLIENTE; i++) {
+				Cuenta cuenta = new Cuenta();
+				cuenta.setProducto("ahorros");
+				cuenta.setEstadoCuenta("activa");
+				cuenta.setSaldo(0L);
+				cuenta.setCliente(cliente);
+				cuentas.add(cuenta);
+			}
+		}
+		cuentaIds = accountRepository.saveAll(cuentas).stream().mapToLong(Cuenta::getCuentaId).toArray();
+
+		List<Movimiento> movimientos = new ArrayList<>(cuentaIds.length * MOVIMIENTOS_POR_CUENTA);
+		for(long cuentaId : cuentaIds) {
+			for(int i = 0; i < MOVIMIENTOS_POR_CUENTA; i++) {
+				movimientos.add(nuevoMovimiento(cuentaId));
+			}
+		}
+		movimientoServiceImp.createMovements(movimientos);
+	}
+
+	private long cuentaAleatoria() {
+		return cuentaIds[ThreadLocalRandom.current().nextInt(cuentaIds.length)];
+	}
+
+	private static Cliente nuevoCliente() {
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		return cliente;
+	}
+
+	private static Movimiento nuevoMovimiento(long cuentaId) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo("credito");
+		movimiento.setValor(10L);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
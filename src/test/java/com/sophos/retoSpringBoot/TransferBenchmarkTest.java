@@ -0,0 +1,148 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.dto.Transferencia;
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.entity.Cuenta;
+import com.sophos.retoSpringBoot.entity.Movimiento;
+import com.sophos.retoSpringBoot.repository.AccountRepository;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.repository.MovementRepository;
+import com.sophos.retoSpringBoot.service.implementations.CuentaServiceImp;
+import com.sophos.retoSpringBoot.service.implementations.MovimientoServiceImp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark de transferencias</h1>
+ * Mide las transferencias por segundo entre pares aleatorios de N cuentas, con varios hilos
+ * transfiriendo a la vez y en ambos sentidos. Al final verifica que no hubo errores (ningun
+ * bloqueo mutuo) y que la suma de los saldos no cambio. Se ejecuta con mvn test -Pbenchmark.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class TransferBenchmarkTest {
+
+	private static final int HILOS = 32;
+
+	private static final int TRANSFERENCIAS_POR_HILO = 200;
+
+	private static final long SALDO_INICIAL = 1_000_000L;
+
+	@Autowired
+	CuentaServiceImp cuentaServiceImp;
+
+	@Autowired
+	MovimientoServiceImp movimientoServiceImp;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	MovementRepository movementRepository;
+
+	@AfterEach
+	void cleanUp() {
+		movementRepository.deleteAll();
+		accountRepository.deleteAll();
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>benchmark de transferencias aleatorias</h2>
+	 * @param cantidadCuentas cantidad de cuentas entre las que se reparten las transferencias.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = {2, 16, 128})
+	void benchmarkRandomTransfers(int cantidadCuentas) throws Exception {
+
+		List<Long> cuentas = crearCuentas(cantidadCuentas);
+
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		long inicio;
+		try {
+			CountDownLatch arranque = new CountDownLatch(1);
+			List<Future<?>> tareas = new ArrayList<>();
+			for(int hilo = 0; hilo < HILOS; hilo++) {
+				tareas.add(executor.submit(() -> {
+					arranque.await();
+					ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+					for(int i = 0; i < TRANSFERENCIAS_POR_HILO; i++) {
+						int origen = aleatorio.nextInt(cantidadCuentas);
+						int destino = (origen + 1 + aleatorio.nextInt(cantidadCuentas - 1)) % cantidadCuentas;
+						movimientoServiceImp.transfer(new Transferencia(cuentas.get(origen), cuentas.get(destino), 1L + aleatorio.nextInt(100)));
+					}
+					return null;
+				}));
+			}
+			inicio = System.nanoTime();
+			arranque.countDown();
+			for(Future<?> tarea : tareas) {
+				tarea.get(5, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+
+		System.out.printf("Transferencias: %d cuentas, %d hilos, %.0f transferencias/s%n",
+				cantidadCuentas, HILOS, HILOS * TRANSFERENCIAS_POR_HILO / segundos);
+
+		long total = 0;
+		for(Long cuentaId : cuentas) {
+			total += cuentaServiceImp.readAccountBalance(cuentaId);
+		}
+		Assertions.assertEquals(SALDO_INICIAL * cantidadCuentas, total);
+		Assertions.assertEquals(cantidadCuentas + 2L * HILOS * TRANSFERENCIAS_POR_HILO, movementRepository.count());
+	}
+
+	private List<Long> crearCuentas(int cantidad) {
+		Cliente cliente = new Cliente();
+		cliente.setCorreo("benchmark@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		cliente = clientRepository.save(cliente);
+
+		List<Long> cuentas = new ArrayList<>();
+		for(int i = 0; i < cantidad; i++) {
+			Cuenta cuenta = new Cuenta();
+			cuenta.setProducto("ahorros");
+			cuenta.setCliente(cliente);
+			Long cuentaId = cuentaServiceImp.createAccount(cuenta).getCuentaId();
+			movimientoServiceImp.createMovement(consignacion(cuentaId));
+			cuentas.add(cuentaId);
+		}
+		return cuentas;
+	}
+
+	private static Movimiento consignacion(Long cuentaId) {
+		Cuenta cuenta = new Cuenta();
+		cuenta.setCuentaId(cuentaId);
+		Movimiento movimiento = new Movimiento();
+		movimiento.setCuenta(cuenta);
+		movimiento.setTipo("credito");
+		movimiento.setValor(SALDO_INICIAL);
+		movimiento.setEstado("activo");
+		return movimiento;
+	}
+}
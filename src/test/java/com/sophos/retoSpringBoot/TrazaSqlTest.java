@@ -0,0 +1,145 @@
+package com.sophos.retoSpringBoot;
+
+import com.sophos.retoSpringBoot.entity.Cliente;
+import com.sophos.retoSpringBoot.repository.ClientRepository;
+import com.sophos.retoSpringBoot.util.SqlTrace;
+import com.sophos.retoSpringBoot.util.SqlTraceFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <h1>Test de la traza de SQL por peticion</h1>
+ * En esta clase se verifica, con el umbral de sentencias lentas en cero para que todas se
+ * escriban en el log, que cada peticion lleve en sus encabezados y metricas las sentencias,
+ * filas y tiempo de SQL, y que el log de sentencias lentas traiga los parametros y el metodo
+ * de servicio que las ejecuto.
+ *
+ *@author Wilson David Pachon.
+ *@version 1.0.0 2022
+ *@since 1.0.0
+ */
+@SpringBootTest(properties = {"sql.lenta.umbral=PT0S", "sql.traza.muestreo=1.0"})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+public class TrazaSqlTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ClientRepository clientRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	MeterRegistry registry;
+
+	@AfterEach
+	void cleanUp() {
+		clientRepository.deleteAll();
+	}
+
+	/**
+	 * <h2>test de los encabezados, metricas y log de una lectura</h2>
+	 * leer un cliente sin cuentas, sin caches, ejecuta dos sentencias (el cliente y sus cuentas) y
+	 * lee una fila.
+	 */
+	@Test
+	void testReadClientShouldReportSqlPerRequest(CapturedOutput salida) throws Exception {
+
+		Cliente cliente = new Cliente();
+		cliente.setPrimerNombre("Wilson");
+		cliente.setCorreo("cliente@banco.com");
+		cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		Long clienteId = clientRepository.save(cliente).getClienteId();
+		entityManagerFactory.getCache().evictAll();
+
+		mockMvc.perform(get("/api/cliente/" + clienteId))
+				.andExpect(status().isOk())
+				.andExpect(header().string(SqlTraceFilter.SENTENCIAS, "2"))
+				.andExpect(header().string(SqlTraceFilter.FILAS, "1"))
+				.andExpect(header().exists(SqlTraceFilter.TIEMPO));
+
+		DistributionSummary sentencias = registry.find("http.server.sql.statements").tag("uri", "/api/cliente/{clienteId}").summary();
+		Assertions.assertNotNull(sentencias);
+		Assertions.assertEquals(2.0, sentencias.totalAmount());
+		Assertions.assertEquals(1.0, registry.find("http.server.sql.rows").tag("uri", "/api/cliente/{clienteId}").summary().totalAmount());
+		Assertions.assertTrue(registry.find("db.slow.statements").counter().count() >= 2);
+
+		String log = salida.getOut();
+		Assertions.assertTrue(log.contains("\"servicio\":\"ClienteServiceImp.readClient\",\"metodo\":\"GET\",\"uri\":\"/api/cliente/" + clienteId + "\""), log);
+		Assertions.assertTrue(log.contains("\"parametros\":[[\"" + clienteId + "\"]]"), log);
+	}
+
+	/**
+	 * <h2>test de una respuesta de error</h2>
+	 * un cliente inexistente se rechaza en memoria, sin SQL, y la respuesta lo indica.
+	 */
+	@Test
+	void testNotFoundShouldReportNoSql() throws Exception {
+
+		mockMvc.perform(get("/api/cliente/987654321"))
+				.andExpect(status().isNotFound())
+				.andExpect(header().string(SqlTraceFilter.SENTENCIAS, "0"))
+				.andExpect(header().string(SqlTraceFilter.FILAS, "0"));
+	}
+
+	/**
+	 * <h2>test de las filas de una peticion no muestreada</h2>
+	 * solo los resultados de una peticion muestreada se envuelven para contar sus filas; en una
+	 * peticion no muestreada se cuentan las sentencias pero no las filas.
+	 */
+	@Test
+	void testOnlySampledRequestsShouldWrapResultSets() throws Exception {
+
+		Assertions.assertFalse(Proxy.isProxyClass(leerDosFilas(false).getClass()));
+		Assertions.assertEquals(1, SqlTrace.actual().getSentencias());
+		Assertions.assertEquals(0, SqlTrace.actual().getFilas());
+		SqlTrace.terminar();
+
+		Assertions.assertTrue(Proxy.isProxyClass(leerDosFilas(true).getClass()));
+		Assertions.assertEquals(1, SqlTrace.actual().getSentencias());
+		Assertions.assertEquals(2, SqlTrace.actual().getFilas());
+		SqlTrace.terminar();
+	}
+
+	/**
+	 * Abre una traza en el hilo actual y lee dos filas; devuelve el ResultSet tal como lo entrega el DataSource.
+	 */
+	private ResultSet leerDosFilas(boolean muestreada) throws Exception {
+		SqlTrace.iniciar("GET", "/prueba", muestreada);
+		try (Connection conexion = dataSource.getConnection(); Statement sentencia = conexion.createStatement();
+				ResultSet filas = sentencia.executeQuery("select x from system_range(1, 2)")) {
+			while(filas.next()) {
+				// solo se recorren
+			}
+			return filas;
+		}
+	}
+}